@@ -0,0 +1,79 @@
+package com.indiegeeker.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.indiegeeker.core.base.BaseJSONResult;
+import com.indiegeeker.core.enums.ResponseStatusEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BaseJSONResult 序列化基准测试
+ * 每个接口响应都会经过一次序列化，ObjectMapper 配置与 Spring Boot 默认一致（JavaTimeModule，时间不写为时间戳）；
+ * 分别测试错误响应（无 data，对应网关拒绝请求）和带少量业务字段的成功响应，ObjectWriter 预先创建并复用
+ * <p>
+ * 运行：在 IDE 中直接运行 main 方法，或 java -jar chatter-benchmarks/target/benchmarks.jar BaseJSONResultBenchmark
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaseJSONResultBenchmark {
+
+    private ObjectWriter writer;
+
+    private BaseJSONResult<Object> errorResult;
+
+    private BaseJSONResult<Object> okResult;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        writer = objectMapper.writer();
+
+        errorResult = BaseJSONResult.error(ResponseStatusEnum.UNAUTHORIZED);
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("userId", "1001");
+        data.put("nickname", "bench");
+        data.put("avatar", "https://cdn.example.com/avatar/1001.png");
+        data.put("unread", 12);
+        okResult = BaseJSONResult.ok(data);
+    }
+
+    @Benchmark
+    public byte[] serializeError() throws Exception {
+        return writer.writeValueAsBytes(errorResult);
+    }
+
+    @Benchmark
+    public byte[] serializeOk() throws Exception {
+        return writer.writeValueAsBytes(okResult);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(BaseJSONResultBenchmark.class.getSimpleName());
+    }
+}
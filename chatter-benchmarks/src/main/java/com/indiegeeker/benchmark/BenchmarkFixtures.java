@@ -0,0 +1,34 @@
+package com.indiegeeker.benchmark;
+
+import com.indiegeeker.context.domain.UserContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 各套件共用的测试数据，字段取值与线上典型的已登录用户相当
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static UserContext userContext() {
+        return UserContext.builder()
+                .userId("1001")
+                .username("user1001")
+                .nickname("bench")
+                .roles(List.of("USER"))
+                .permissions(Set.of("READ", "WRITE"))
+                .tenantId("t1")
+                .clientType("mobile")
+                .requestIp("10.0.0.1")
+                .tokenId("3f2c1d7e-5b8a-4c8e-9d1f-0a6b7c8d9e0f")
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build();
+    }
+}
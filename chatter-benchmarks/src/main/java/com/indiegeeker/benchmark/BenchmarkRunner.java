@@ -0,0 +1,77 @@
+package com.indiegeeker.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * 基准测试统一入口
+ * 所有套件都附加 GCProfiler 记录分配速率（gc.alloc.rate、gc.alloc.rate.norm），结果以 JSON 格式写入文件，
+ * 可直接上传到 jmh.morethan.io 等可视化工具，或在 CI 中与上一次的结果对比：
+ * 1. 参数与 JMH 命令行一致（套件正则、-wi、-i、-f 等），未指定套件时运行全部套件
+ * 2. 结果文件默认为 target/jmh-result.json，可通过 -Djmh.result=路径 指定；命令行的 -rf、-rff 优先
+ * <p>
+ * 运行：mvn -pl chatter-benchmarks -am package -DskipTests 后执行
+ * java -jar chatter-benchmarks/target/benchmarks.jar [JwtUtilsBenchmark ...] [JMH 参数]
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public class BenchmarkRunner {
+
+    private static final String RESULT_PROPERTY = "jmh.result";
+
+    private static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    private static final String ALL_BENCHMARKS = BenchmarkRunner.class.getPackageName() + "\\..*Benchmark";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(ALL_BENCHMARKS);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            builder.result(resultFile());
+        }
+        new Runner(builder.build()).run();
+    }
+
+    /**
+     * 运行单个套件，供各套件的 main 方法调用
+     *
+     * @param include JMH include 正则
+     */
+    public static void run(String include) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile())
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * JSON 结果文件路径，目录不存在时创建
+     */
+    private static String resultFile() {
+        String result = System.getProperty(RESULT_PROPERTY, DEFAULT_RESULT);
+        File parent = new File(result).getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        return result;
+    }
+}
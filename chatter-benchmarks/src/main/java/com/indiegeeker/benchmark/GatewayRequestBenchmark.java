@@ -0,0 +1,105 @@
+package com.indiegeeker.benchmark;
+
+import com.indiegeeker.config.SecurityExcludeConfig;
+import com.indiegeeker.web.utils.GateWayIPUtils;
+import com.indiegeeker.web.utils.PathMatcherUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关请求预处理基准测试
+ * 1. 排除路径判断：PathMatcherUtils.isExcluded 逐个 AntPathMatcher 匹配，对比 SecurityExcludeConfig 编译后的前缀树，
+ * 排除列表为默认排除路径；path 参数分别为命中靠后的模式、未命中（需要鉴权的常规请求）、通配符命中
+ * 2. 客户端 IP 解析：GateWayIPUtils.getIP，分别为单个 X-Forwarded-For 和经过多级代理的 X-Forwarded-For
+ * <p>
+ * 运行：在 IDE 中直接运行 main 方法，或 java -jar chatter-benchmarks/target/benchmarks.jar GatewayRequestBenchmark
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayRequestBenchmark {
+
+    private ServerHttpRequest directRequest;
+
+    private ServerHttpRequest proxiedRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InetSocketAddress remoteAddress = new InetSocketAddress("10.0.0.254", 40000);
+        directRequest = MockServerHttpRequest.get("/user/profile/1001")
+                .header("X-Forwarded-For", "203.0.113.7")
+                .remoteAddress(remoteAddress)
+                .build();
+        proxiedRequest = MockServerHttpRequest.get("/user/profile/1001")
+                .header("X-Forwarded-For", "203.0.113.7, 198.51.100.23, 10.0.0.12")
+                .remoteAddress(remoteAddress)
+                .build();
+    }
+
+    /**
+     * 排除路径判断只与请求路径有关，path 参数不作用于 IP 解析
+     */
+    @State(Scope.Benchmark)
+    public static class ExcludeState {
+
+        @Param({"/auth/logout", "/user/profile/1001", "/swagger-ui/index.html"})
+        public String path;
+
+        private SecurityExcludeConfig excludeConfig;
+
+        private List<String> excludePatterns;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            excludeConfig = new SecurityExcludeConfig();
+            excludePatterns = excludeConfig.getAllExcludePaths();
+        }
+    }
+
+    @Benchmark
+    public boolean isExcluded(ExcludeState state) {
+        return PathMatcherUtils.isExcluded(state.path, state.excludePatterns);
+    }
+
+    @Benchmark
+    public boolean isExcludedCompiled(ExcludeState state) {
+        return state.excludeConfig.isExcluded(state.path);
+    }
+
+    @Benchmark
+    public String getIP() {
+        return GateWayIPUtils.getIP(directRequest);
+    }
+
+    @Benchmark
+    public String getIPBehindProxies() {
+        return GateWayIPUtils.getIP(proxiedRequest);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(GatewayRequestBenchmark.class.getSimpleName());
+    }
+}
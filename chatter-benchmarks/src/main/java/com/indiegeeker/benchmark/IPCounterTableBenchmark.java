@@ -0,0 +1,95 @@
+package com.indiegeeker.benchmark;
+
+import com.indiegeeker.core.utils.IPAddressUtils;
+import com.indiegeeker.limiter.IPCounterTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IP 计数基准测试：IPCounterTable 对比 ConcurrentHashMap&lt;String, AtomicLong&gt;
+ * 基线按原来的方式拼接 "gateway-ip:" + ip 作为键；两者都从同一批请求ip字符串出发，
+ * IPCounterTable 一侧包含 ip 解析的开销。结合 GCProfiler 关注 gc.alloc.rate.norm（每次操作分配的字节数）
+ * <p>
+ * 运行：在 IDE 中直接运行 main 方法，或 java -jar chatter-benchmarks/target/benchmarks.jar IPCounterTableBenchmark
+ *
+ * Author: wen
+ * Date: 2025/7/12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class IPCounterTableBenchmark {
+
+    /**
+     * 不同 ip 的数量
+     */
+    @Param({"10000", "1000000"})
+    public int distinctIps;
+
+    private String[] ips;
+
+    private ConcurrentHashMap<String, AtomicLong> baseline;
+
+    private IPCounterTable table;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ips = new String[distinctIps];
+        for (int i = 0; i < distinctIps; i++) {
+            // 约1/8为 IPv6
+            ips[i] = (i & 7) == 0
+                    ? IPAddressUtils.format(0x2001_0DB8_0000_0000L | random.nextInt(), random.nextLong())
+                    : random.nextInt(1, 224) + "." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256);
+        }
+        baseline = new ConcurrentHashMap<>();
+        table = new IPCounterTable(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final long[] address = new long[2];
+        int cursor = ThreadLocalRandom.current().nextInt(1 << 20);
+    }
+
+    @Benchmark
+    public long concurrentHashMap(ThreadState state) {
+        String ip = ips[Math.floorMod(state.cursor++ * 0x9E3779B9, ips.length)];
+        return baseline.computeIfAbsent("gateway-ip:" + ip, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    @Benchmark
+    public long ipCounterTable(ThreadState state) {
+        String ip = ips[Math.floorMod(state.cursor++ * 0x9E3779B9, ips.length)];
+        if (!IPAddressUtils.parse(ip, state.address)) {
+            return -1;
+        }
+        return table.acquire(state.address[0], state.address[1], Integer.MAX_VALUE, 3600, Long.MAX_VALUE,
+                System.currentTimeMillis());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(IPCounterTableBenchmark.class.getSimpleName());
+    }
+}
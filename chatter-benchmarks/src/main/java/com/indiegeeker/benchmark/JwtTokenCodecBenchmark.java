@@ -0,0 +1,89 @@
+package com.indiegeeker.benchmark;
+
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.security.jwt.JwtKeyRing;
+import com.indiegeeker.security.jwt.JwtProperties;
+import com.indiegeeker.security.jwt.JwtTokenCodec;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 编解码基准测试
+ * 解析：每次构建解析器（原 JWTUtils 的方式）对比 JwtTokenCodec 复用的解析器（validateWithCodec 只验签解析 claims，
+ * 与基线对等；parseWithCodec 额外包含转换为 UserContext 的开销）；
+ * 签发：JwtTokenCodec 按密钥环签发。结合 GCProfiler 关注 gc.alloc.rate.norm
+ * <p>
+ * 运行：在 IDE 中直接运行 main 方法，或 java -jar chatter-benchmarks/target/benchmarks.jar JwtTokenCodecBenchmark
+ *
+ * Author: wen
+ * Date: 2025/7/14
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenCodecBenchmark {
+
+    private static final String SECRET = "benchmark-secret-0123456789-0123456789";
+
+    private SecretKey key;
+
+    private JwtTokenCodec codec;
+
+    private UserContext userContext;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        JwtProperties properties = new JwtProperties();
+        properties.setActiveKid("k1");
+        properties.getKeys().put("k1", SECRET);
+        codec = new JwtTokenCodec(JwtKeyRing.from(properties));
+        userContext = BenchmarkFixtures.userContext();
+        token = codec.generateToken(userContext, 60);
+    }
+
+    @Benchmark
+    public Object parseWithNewParser() {
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public boolean validateWithCodec() {
+        return codec.validateToken(token);
+    }
+
+    @Benchmark
+    public Object parseWithCodec() {
+        return codec.parseToken(token);
+    }
+
+    @Benchmark
+    public String generateWithCodec() {
+        return codec.generateToken(userContext, 60);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(JwtTokenCodecBenchmark.class.getSimpleName());
+    }
+}
@@ -0,0 +1,61 @@
+package com.indiegeeker.benchmark;
+
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.security.utils.JWTUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWTUtils 签发、解析基准测试
+ * 网关每个请求都会解析一次 token，登录、刷新时签发；衡量的是 JWTUtils 静态入口（默认 JwtTokenCodec）的端到端开销，
+ * 与对比解析器复用的 JwtTokenCodecBenchmark 互补
+ * <p>
+ * 运行：在 IDE 中直接运行 main 方法，或 java -jar chatter-benchmarks/target/benchmarks.jar JwtUtilsBenchmark
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    private UserContext userContext;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userContext = BenchmarkFixtures.userContext();
+        token = JWTUtils.generateToken(userContext, 60);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return JWTUtils.generateToken(userContext, 60);
+    }
+
+    @Benchmark
+    public UserContext parseToken() {
+        return JWTUtils.parseToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(JwtUtilsBenchmark.class.getSimpleName());
+    }
+}
@@ -0,0 +1,90 @@
+package com.indiegeeker.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.indiegeeker.core.base.BaseJSONResult;
+import com.indiegeeker.core.enums.ResponseStatusEnum;
+import com.indiegeeker.web.RejectionRenderer;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 拒绝响应渲染基准测试（每秒可生成的拒绝响应数）
+ * before：原 IPLimitFilter.renderErrorMsg（Jackson 序列化 BaseJSONResult）、
+ *         原 SecurityFilter.handleUnauthorized（文本块 formatted + getBytes）
+ * after： RejectionRenderer 预编码的共享只读响应体
+ * 两侧都使用网关运行时的 NettyDataBufferFactory 包装响应体，并在结束时释放
+ * <p>
+ * 运行：在 IDE 中直接运行 main 方法，或 java -jar chatter-benchmarks/target/benchmarks.jar RejectionRendererBenchmark
+ *
+ * Author: wen
+ * Date: 2025/7/13
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RejectionRendererBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+
+    private final RejectionRenderer renderer = new RejectionRenderer();
+
+    @Benchmark
+    public int beforeJackson() throws JsonProcessingException {
+        BaseJSONResult<Object> jsonResult = BaseJSONResult.error(ResponseStatusEnum.BLACK_IP);
+        String json = OBJECT_MAPPER.writeValueAsString(jsonResult);
+        return release(bufferFactory.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public int beforeTextBlock() {
+        String errorResponse = """
+                {
+                    "code": 401,
+                    "msg": "未授权访问，请先登录",
+                    "data": null,
+                    "timestamp": "%s"
+                }
+                """.formatted(LocalDateTime.now());
+        return release(bufferFactory.wrap(errorResponse.getBytes()));
+    }
+
+    @Benchmark
+    public int afterPreEncoded() {
+        return release(renderer.encode(bufferFactory, ResponseStatusEnum.BLACK_IP));
+    }
+
+    private static int release(DataBuffer buffer) {
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(RejectionRendererBenchmark.class.getSimpleName());
+    }
+}
@@ -0,0 +1,104 @@
+package com.indiegeeker.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.context.infrastructure.codec.UserInfoCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * X-User-Info 编解码基准测试：原 JSON + Base64 方式对比 UserInfoCodec 二进制格式
+ * 编码一侧对应网关 JWTUtils.generateUserInfoHeader，解码一侧对应下游 HeaderUserInfoParser；
+ * 两种格式的 header 长度对比见 UserInfoCodecTest。结合 GCProfiler 关注 gc.alloc.rate.norm
+ * <p>
+ * 运行：在 IDE 中直接运行 main 方法，或 java -jar chatter-benchmarks/target/benchmarks.jar UserInfoCodecBenchmark
+ *
+ * Author: wen
+ * Date: 2025/7/15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserInfoCodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private UserContext userContext;
+
+    private String jsonHeader;
+
+    private String binaryHeader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        userContext = UserContext.builder()
+                .userId("1893456723456789")
+                .username("user1893456723456789")
+                .nickname("chatter")
+                .roles(List.of("USER", "VIP"))
+                .permissions(Set.of("read", "write", "delete"))
+                .tenantId("t1")
+                .clientType("mobile")
+                .requestIp("192.168.31.120")
+                .build();
+        jsonHeader = encodeJson();
+        binaryHeader = encodeBinary();
+    }
+
+    @Benchmark
+    public String encodeJson() throws Exception {
+        Map<String, Object> userInfo = new HashMap<>();
+        userInfo.put("userId", userContext.getUserId());
+        userInfo.put("username", userContext.getUsername());
+        userInfo.put("nickname", userContext.getNickname());
+        userInfo.put("roles", userContext.getRoles());
+        userInfo.put("permissions", userContext.getPermissions());
+        userInfo.put("tenantId", userContext.getTenantId());
+        userInfo.put("clientType", userContext.getClientType());
+        userInfo.put("requestIp", userContext.getRequestIp());
+        String json = objectMapper.writeValueAsString(userInfo);
+        return Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String encodeBinary() {
+        return UserInfoCodec.encode(userContext);
+    }
+
+    @Benchmark
+    public UserContext decodeJson() throws Exception {
+        String json = new String(Base64.getDecoder().decode(jsonHeader), StandardCharsets.UTF_8);
+        return objectMapper.readValue(json, UserContext.class);
+    }
+
+    @Benchmark
+    public UserContext decodeBinary() {
+        return UserInfoCodec.decode(Base64.getDecoder().decode(binaryHeader));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(UserInfoCodecBenchmark.class.getSimpleName());
+    }
+}
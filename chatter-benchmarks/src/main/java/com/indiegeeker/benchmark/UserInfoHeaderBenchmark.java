@@ -0,0 +1,99 @@
+package com.indiegeeker.benchmark;
+
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.context.infrastructure.codec.UserInfoSigner;
+import com.indiegeeker.context.infrastructure.codec.VerifiedUserInfoCache;
+import com.indiegeeker.context.infrastructure.web.parser.HeaderUserInfoParser;
+import com.indiegeeker.security.utils.JWTUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * X-User-Info 用户信息 header 基准测试
+ * 网关侧 JWTUtils.generateUserInfoHeader，下游侧 JWTUtils.parseUserInfoHeader 与 HeaderUserInfoParser.parseUserContext；
+ * 解析器分别测试不验签和验签（命中验签缓存，对应稳定运行时的常态）两种配置
+ * <p>
+ * 运行：在 IDE 中直接运行 main 方法，或 java -jar chatter-benchmarks/target/benchmarks.jar UserInfoHeaderBenchmark
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserInfoHeaderBenchmark {
+
+    private static final String USER_INFO_HEADER = "X-User-Info";
+
+    private static final String SECRET = "benchmark-user-info-sign-secret-0123456789";
+
+    private UserContext userContext;
+
+    private String header;
+
+    private HeaderUserInfoParser unsignedParser;
+
+    private HeaderUserInfoParser signedParser;
+
+    private MockHttpServletRequest unsignedRequest;
+
+    private MockHttpServletRequest signedRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userContext = BenchmarkFixtures.userContext();
+        header = JWTUtils.generateUserInfoHeader(userContext);
+
+        UserInfoSigner signer = UserInfoSigner.of(SECRET);
+        VerifiedUserInfoCache cache = new VerifiedUserInfoCache(signer, 10_000, Duration.ofMinutes(5));
+        unsignedParser = new HeaderUserInfoParser();
+        signedParser = new HeaderUserInfoParser(null, null, cache, true);
+
+        unsignedRequest = new MockHttpServletRequest();
+        unsignedRequest.addHeader(USER_INFO_HEADER, header);
+        signedRequest = new MockHttpServletRequest();
+        signedRequest.addHeader(USER_INFO_HEADER, header);
+        signedRequest.addHeader(UserInfoSigner.DEFAULT_SIGNATURE_HEADER, signer.sign(header));
+    }
+
+    @Benchmark
+    public String generateUserInfoHeader() {
+        return JWTUtils.generateUserInfoHeader(userContext);
+    }
+
+    @Benchmark
+    public UserContext parseUserInfoHeader() {
+        return JWTUtils.parseUserInfoHeader(header);
+    }
+
+    @Benchmark
+    public UserContext parseUserContext() {
+        return unsignedParser.parseUserContext(unsignedRequest);
+    }
+
+    @Benchmark
+    public UserContext parseSignedUserContext() {
+        return signedParser.parseUserContext(signedRequest);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(UserInfoHeaderBenchmark.class.getSimpleName());
+    }
+}
@@ -0,0 +1,138 @@
+package com.indiegeeker.benchmark.load;
+
+import com.indiegeeker.Application;
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.security.utils.JWTUtils;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 网关端到端压测
+ * 在本进程内启动完整的网关（TestFilter、IPLimitFilter、SecurityFilter、路由转发），不依赖 nacos 和 redis：
+ * 1. redis：以 InMemoryReactiveRedisUtils 替换 ReactiveRedisUtils，限流脚本、发布订阅在内存中执行
+ * 2. 注册中心：关闭 nacos，服务发现改为静态列表（spring.cloud.discovery.client.simple），指向本地的桩服务
+ * 3. 下游：auth-service、file-service 由 StubBackend 代替
+ * 网关配置为 dev + loadtest 两个 profile，loadtest 放宽限流阈值、关闭请求日志，其余与 dev 一致；
+ * 任意网关配置都可以通过 -D 覆盖，例如 -DblackIp.mode=hybrid 压测混合限流模式。
+ * 先预热再正式压测，输出各流量类型的吞吐量、延迟百分位与状态码分布，整体延迟分布按 HdrHistogram 格式写入文件。
+ * 压测参数见 LoadTestOptions
+ * <p>
+ * 运行：mvn -pl chatter-benchmarks -am package -DskipTests 后执行
+ * java -Dloadtest.duration=60s -Dloadtest.concurrency=128 -cp chatter-benchmarks/target/benchmarks.jar com.indiegeeker.benchmark.load.GatewayLoadHarness
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public class GatewayLoadHarness {
+
+    private static final String REDIS_UTILS_BEAN = "reactiveRedisUtils";
+
+    public static void main(String[] args) throws FileNotFoundException {
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+        System.out.println("压测参数: " + options);
+
+        try (StubBackend authService = StubBackend.start("auth-service", options.getBackendLatency());
+             StubBackend fileService = StubBackend.start("file-service", options.getBackendLatency());
+             ConfigurableApplicationContext gateway = startGateway(options, authService, fileService);
+             LoadDriver driver = new LoadDriver("http://127.0.0.1:" + port(gateway), options,
+                     validTokens(options.getUsers()), invalidTokens(options.getUsers()))) {
+
+            System.out.println("预热 " + options.getWarmup() + " ...");
+            driver.run(options.getWarmup());
+
+            System.out.println("压测 " + options.getDuration() + " ...");
+            LoadStats stats = driver.run(options.getDuration());
+
+            stats.print(System.out);
+            System.out.println("桩服务收到的请求（含预热）: " + authService.getServiceId() + "=" + authService.getRequests()
+                    + ", " + fileService.getServiceId() + "=" + fileService.getRequests());
+            writeHistogram(stats.total(), options.getHistogram());
+        }
+    }
+
+    /**
+     * 启动网关，返回前服务已开始监听
+     */
+    private static ConfigurableApplicationContext startGateway(LoadTestOptions options, StubBackend... backends) {
+        // nacos 的开关需要在 bootstrap 上下文中生效，通过系统属性传入；已通过 -D 指定的不覆盖
+        setDefault("spring.profiles.active", "dev,loadtest");
+        setDefault("spring.cloud.nacos.discovery.enabled", "false");
+        setDefault("spring.cloud.nacos.config.enabled", "false");
+        setDefault("server.port", "0");
+        for (StubBackend backend : backends) {
+            setDefault("spring.cloud.discovery.client.simple.instances." + backend.getServiceId() + "[0].uri",
+                    backend.getUri());
+        }
+
+        return new SpringApplicationBuilder(Application.class)
+                .initializers(context -> context.addBeanFactoryPostProcessor(beanFactory -> {
+                    // 组件扫描、自动配置完成后再替换，ReactiveRedisUtils 的注入点不变
+                    BeanDefinitionRegistry registry = (BeanDefinitionRegistry) beanFactory;
+                    registry.removeBeanDefinition(REDIS_UTILS_BEAN);
+                    registry.registerBeanDefinition(REDIS_UTILS_BEAN, BeanDefinitionBuilder
+                            .genericBeanDefinition(InMemoryReactiveRedisUtils.class,
+                                    () -> new InMemoryReactiveRedisUtils(options.getRedisLatency()))
+                            .getBeanDefinition());
+                }))
+                .run();
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static List<String> validTokens(int users) {
+        List<String> tokens = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            UserContext user = UserContext.builder()
+                    .userId(String.valueOf(100000 + i))
+                    .username("loadtest" + i)
+                    .roles(List.of("USER"))
+                    .clientType("web")
+                    .build();
+            tokens.add(JWTUtils.generateToken(user, 24 * 60));
+        }
+        return tokens;
+    }
+
+    /**
+     * 结构完整、签名被篡改的 token，每个都需要完整验签才能判定无效
+     */
+    private static List<String> invalidTokens(int users) {
+        List<String> tokens = validTokens(Math.min(users, 100));
+        tokens.replaceAll(token -> {
+            int signature = token.lastIndexOf('.') + 1;
+            char flipped = token.charAt(signature) == 'A' ? 'B' : 'A';
+            return token.substring(0, signature) + flipped + token.substring(signature + 1);
+        });
+        return tokens;
+    }
+
+    private static void writeHistogram(Histogram histogram, String path) throws FileNotFoundException {
+        File file = new File(path).getAbsoluteFile();
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        try (PrintStream out = new PrintStream(file)) {
+            // 记录单位为微秒，输出为毫秒
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+        System.out.println("延迟分布已写入: " + file);
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.indiegeeker.benchmark.load;
+
+import com.indiegeeker.data.metrics.RedisMetrics;
+import com.indiegeeker.data.metrics.RedisOperation;
+import com.indiegeeker.data.utils.ReactiveRedisUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.util.PatternMatchUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * 压测用的进程内 redis 替身
+ * 以同名 bean 替换网关的 ReactiveRedisUtils，数据保存在内存中，不需要启动 redis：
+ * 1. 键值、过期时间语义与 redis 一致，过期的键在访问时删除
+ * 2. Lua 脚本按 SHA1 映射为等价的 Java 实现，目前支持网关的 scripts/ip_limit.lua，执行未登记的脚本返回错误
+ * 3. 发布订阅基于进程内的多播 Sink，订阅者数量即 publish 的返回值
+ * 4. 与 redis 单线程执行命令一致，所有读写在同一把锁内完成，脚本天然是原子的
+ * 可通过 latency 模拟 redis 的网络往返，结果在延迟后发出，不占用调用线程；仍通过 RedisMetrics 记录耗时
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public class InMemoryReactiveRedisUtils extends ReactiveRedisUtils {
+
+    /**
+     * 网关 IP 限流脚本，与 IPRateLimiter 加载的是同一个文件
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> IP_LIMIT_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/ip_limit.lua"), List.class);
+
+    @Autowired
+    private RedisMetrics metrics;
+
+    private final Map<String, Entry> store = new ConcurrentHashMap<>();
+
+    private final Map<String, BiFunction<List<String>, List<String>, List<Object>>> scripts = new ConcurrentHashMap<>();
+
+    private final Map<String, Sinks.Many<String>> channels = new ConcurrentHashMap<>();
+
+    private final Duration latency;
+
+    public InMemoryReactiveRedisUtils() {
+        this(Duration.ZERO);
+    }
+
+    public InMemoryReactiveRedisUtils(Duration latency) {
+        this.latency = latency;
+        scripts.put(IP_LIMIT_SCRIPT.getSha1(), this::ipLimit);
+    }
+
+    // Key（键）
+
+    @Override
+    public Mono<Boolean> keyIsExist(String key) {
+        return time(RedisOperation.KEY_IS_EXIST, Mono.fromSupplier(() -> {
+            synchronized (store) {
+                return live(key) != null;
+            }
+        }));
+    }
+
+    @Override
+    public Mono<Long> getExpire(String key) {
+        return time(RedisOperation.GET_EXPIRE, Mono.fromSupplier(() -> {
+            synchronized (store) {
+                return ttl(key);
+            }
+        }));
+    }
+
+    @Override
+    public Mono<Boolean> setExpire(String key, long timeout) {
+        return time(RedisOperation.SET_EXPIRE, Mono.fromSupplier(() -> {
+            synchronized (store) {
+                Entry entry = live(key);
+                if (entry == null) {
+                    return false;
+                }
+                entry.expireAt = expireAt(timeout);
+                return true;
+            }
+        }));
+    }
+
+    @Override
+    public Flux<String> optKeys(String pattern) {
+        return time(RedisOperation.OPT_KEYS, Flux.defer(() -> {
+            List<String> keys = new ArrayList<>();
+            synchronized (store) {
+                for (String key : List.copyOf(store.keySet())) {
+                    if (PatternMatchUtils.simpleMatch(pattern, key) && live(key) != null) {
+                        keys.add(key);
+                    }
+                }
+            }
+            return Flux.fromIterable(keys);
+        }));
+    }
+
+    @Override
+    public Mono<Long> delKey(String key) {
+        return time(RedisOperation.DEL_KEY, Mono.fromSupplier(() -> {
+            synchronized (store) {
+                long deleted = 0;
+                for (String existing : List.copyOf(store.keySet())) {
+                    if (existing.startsWith(key) && store.remove(existing) != null) {
+                        deleted++;
+                    }
+                }
+                return deleted;
+            }
+        }));
+    }
+
+    // String（字符串）
+
+    @Override
+    public Mono<Boolean> set(String key, String value) {
+        return time(RedisOperation.SET, Mono.fromSupplier(() -> {
+            synchronized (store) {
+                store.put(key, new Entry(value, Long.MAX_VALUE));
+                return true;
+            }
+        }));
+    }
+
+    @Override
+    public Mono<Boolean> set(String key, String value, Duration timeout) {
+        return time(RedisOperation.SET, Mono.fromSupplier(() -> {
+            synchronized (store) {
+                store.put(key, new Entry(value, expireAt(timeout.getSeconds())));
+                return true;
+            }
+        }));
+    }
+
+    @Override
+    public Mono<Boolean> setIfAbsent(String key, String value, Duration timeout) {
+        return time(RedisOperation.SET_IF_ABSENT, Mono.fromSupplier(() -> {
+            synchronized (store) {
+                if (live(key) != null) {
+                    return false;
+                }
+                store.put(key, new Entry(value, expireAt(timeout.getSeconds())));
+                return true;
+            }
+        }));
+    }
+
+    @Override
+    public Mono<String> get(String key) {
+        return time(RedisOperation.GET, Mono.fromSupplier(() -> {
+            synchronized (store) {
+                Entry entry = live(key);
+                return entry != null ? entry.value : null;
+            }
+        }));
+    }
+
+    @Override
+    public Mono<List<String>> multiGet(List<String> keys) {
+        return time(RedisOperation.MULTI_GET, Mono.fromSupplier(() -> {
+            List<String> values = new ArrayList<>(keys.size());
+            synchronized (store) {
+                for (String key : keys) {
+                    Entry entry = live(key);
+                    values.add(entry != null ? entry.value : null);
+                }
+            }
+            return values;
+        }));
+    }
+
+    @Override
+    public Mono<Long> increment(String key, long delta) {
+        return time(RedisOperation.INCREMENT, Mono.fromSupplier(() -> {
+            synchronized (store) {
+                return incrBy(key, delta);
+            }
+        }));
+    }
+
+    @Override
+    public Mono<Long> decrement(String key, long delta) {
+        return time(RedisOperation.DECREMENT, Mono.fromSupplier(() -> {
+            synchronized (store) {
+                return incrBy(key, -delta);
+            }
+        }));
+    }
+
+    // Script（Lua脚本）
+
+    @Override
+    public Mono<String> scriptLoad(RedisScript<?> script) {
+        return time(RedisOperation.SCRIPT_LOAD, Mono.fromSupplier(script::getSha1));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> execute(RedisScript<T> script, List<String> keys, List<String> args) {
+        BiFunction<List<String>, List<String>, List<Object>> handler = scripts.get(script.getSha1());
+        if (handler == null) {
+            return Flux.error(new UnsupportedOperationException("压测 redis 替身不支持该脚本: " + script.getSha1()));
+        }
+        return time(RedisOperation.EXECUTE, Flux.defer(() -> {
+            List<Object> result;
+            synchronized (store) {
+                result = handler.apply(keys, args);
+            }
+            // 与 Spring Data Redis 一致：返回类型为 List 时整个结果作为一个元素，否则逐个发出
+            return List.class.equals(script.getResultType()) ? Flux.just((T) result) : Flux.fromIterable((List<T>) result);
+        }));
+    }
+
+    // Pub/Sub（发布订阅）
+
+    @Override
+    public Mono<Long> publish(String channel, String message) {
+        return time(RedisOperation.PUBLISH, Mono.fromSupplier(() -> {
+            Sinks.Many<String> sink = channel(channel);
+            long subscribers = sink.currentSubscriberCount();
+            sink.emitNext(message, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+            return subscribers;
+        }));
+    }
+
+    @Override
+    public Flux<String> listenToChannel(String channel) {
+        return channel(channel).asFlux();
+    }
+
+    /**
+     * scripts/ip_limit.lua 的 Java 实现，参数、返回值与脚本一致
+     */
+    private List<Object> ipLimit(List<String> keys, List<String> args) {
+        long limitTtl = ttl(keys.get(1));
+        if (limitTtl > 0) {
+            return List.of(1L, 0L, limitTtl);
+        }
+
+        long permits = args.size() > 3 ? Long.parseLong(args.get(3)) : 1;
+        long count = incrBy(keys.get(0), permits);
+        if (count == permits) {
+            store.get(keys.get(0)).expireAt = expireAt(Long.parseLong(args.get(1)));
+        }
+
+        if (count > Long.parseLong(args.get(0))) {
+            long limitTimes = Long.parseLong(args.get(2));
+            store.put(keys.get(1), new Entry(keys.get(1), expireAt(limitTimes)));
+            return List.of(1L, count, limitTimes);
+        }
+        return List.of(0L, count, ttl(keys.get(0)));
+    }
+
+    private long incrBy(String key, long delta) {
+        Entry entry = live(key);
+        if (entry == null) {
+            store.put(key, new Entry(String.valueOf(delta), Long.MAX_VALUE));
+            return delta;
+        }
+        long value = Long.parseLong(entry.value) + delta;
+        entry.value = String.valueOf(value);
+        return value;
+    }
+
+    /**
+     * 剩余时间（秒），与 redis TTL 一致：不存在返回 -2，永不过期返回 -1
+     */
+    private long ttl(String key) {
+        Entry entry = live(key);
+        if (entry == null) {
+            return -2;
+        }
+        if (entry.expireAt == Long.MAX_VALUE) {
+            return -1;
+        }
+        return Math.max(1, (entry.expireAt - System.currentTimeMillis() + 999) / 1000);
+    }
+
+    /**
+     * 未过期的条目，已过期时删除并返回 null
+     */
+    private Entry live(String key) {
+        Entry entry = store.get(key);
+        if (entry != null && entry.expireAt <= System.currentTimeMillis()) {
+            store.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private static long expireAt(long seconds) {
+        return System.currentTimeMillis() + seconds * 1000;
+    }
+
+    private Sinks.Many<String> channel(String channel) {
+        return channels.computeIfAbsent(channel, name -> Sinks.many().multicast().directBestEffort());
+    }
+
+    private <T> Mono<T> time(RedisOperation operation, Mono<T> mono) {
+        return metrics.time(operation, latency.isZero() ? mono : mono.delayElement(latency));
+    }
+
+    private <T> Flux<T> time(RedisOperation operation, Flux<T> flux) {
+        return metrics.time(operation, latency.isZero() ? flux : flux.delaySequence(latency));
+    }
+
+    private static final class Entry {
+
+        private String value;
+
+        private long expireAt;
+
+        private Entry(String value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
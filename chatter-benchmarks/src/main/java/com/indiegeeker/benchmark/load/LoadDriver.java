@@ -0,0 +1,158 @@
+package com.indiegeeker.benchmark.load;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 压测流量发生器
+ * 闭环模型：concurrency 个并发连接各自循环发送请求，收到完整响应后立即发下一个，直到截止时间；
+ * 每个请求按 loadtest.mix 的权重随机选择流量类型：
+ * 1. valid：随机用户的有效 token + 随机客户端 ip，访问 /file/**
+ * 2. invalid：签名被篡改的 token，访问 /file/**
+ * 3. excluded：免鉴权的 /auth/login
+ * 4. abusive：有效 token + 少数固定 ip，访问 /file/**
+ * 客户端 ip 通过 X-Forwarded-For 传递。闭环模型下延迟升高会降低发送速率，p99 以上的尾部延迟会被低估（coordinated omission）
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public class LoadDriver implements AutoCloseable {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final LoadTestOptions options;
+
+    private final List<String> validTokens;
+
+    private final List<String> invalidTokens;
+
+    private final TrafficType[] weighted;
+
+    private final ConnectionProvider connectionProvider;
+
+    private final HttpClient client;
+
+    public LoadDriver(String baseUrl, LoadTestOptions options, List<String> validTokens, List<String> invalidTokens) {
+        this.options = options;
+        this.validTokens = validTokens;
+        this.invalidTokens = invalidTokens;
+        this.weighted = weighted(options.getMix());
+        this.connectionProvider = ConnectionProvider.builder("loadtest")
+                .maxConnections(options.getConcurrency())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = HttpClient.create(connectionProvider)
+                .baseUrl(baseUrl)
+                .responseTimeout(RESPONSE_TIMEOUT);
+    }
+
+    /**
+     * 持续发送请求直到 duration 结束
+     *
+     * @return 本轮统计
+     */
+    public LoadStats run(Duration duration) {
+        LoadStats stats = new LoadStats();
+        long deadline = System.nanoTime() + duration.toNanos();
+        Flux.range(0, options.getConcurrency())
+                .flatMap(worker -> Mono.defer(() -> send(stats))
+                        .repeat(() -> System.nanoTime() < deadline), options.getConcurrency())
+                .then()
+                .block();
+        stats.finish();
+        return stats;
+    }
+
+    private Mono<Void> send(LoadStats stats) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TrafficType type = weighted[random.nextInt(weighted.length)];
+        String path;
+        String token;
+        String ip;
+        switch (type) {
+            case VALID -> {
+                path = "/file/info/" + random.nextInt(10000);
+                token = validTokens.get(random.nextInt(validTokens.size()));
+                ip = clientIp(random.nextInt(options.getClientIps()));
+            }
+            case INVALID -> {
+                path = "/file/info/" + random.nextInt(10000);
+                token = invalidTokens.get(random.nextInt(invalidTokens.size()));
+                ip = clientIp(random.nextInt(options.getClientIps()));
+            }
+            case EXCLUDED -> {
+                path = "/auth/login";
+                token = null;
+                ip = clientIp(random.nextInt(options.getClientIps()));
+            }
+            default -> {
+                path = "/file/info/" + random.nextInt(10000);
+                token = validTokens.get(random.nextInt(validTokens.size()));
+                ip = "203.0.113." + (1 + random.nextInt(options.getAbusiveIps()));
+            }
+        }
+
+        long start = System.nanoTime();
+        return client
+                .headers(headers -> {
+                    headers.set(FORWARDED_FOR, ip);
+                    if (token != null) {
+                        headers.set(HttpHeaderNames.AUTHORIZATION, "Bearer " + token);
+                    }
+                })
+                .get()
+                .uri(path)
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                .onErrorReturn(LoadStats.NO_RESPONSE)
+                .doOnNext(status -> stats.record(type, status, System.nanoTime() - start))
+                .then();
+    }
+
+    /**
+     * 正常流量的客户端 ip，10.0.0.0/8 内按序号分配
+     */
+    private static String clientIp(int index) {
+        return "10." + ((index >>> 16) & 0xFF) + "." + ((index >>> 8) & 0xFF) + "." + (index & 0xFF);
+    }
+
+    /**
+     * 按权重展开为数组，随机下标即按占比选择；权重先约分以控制数组长度
+     */
+    private static TrafficType[] weighted(Map<TrafficType, Integer> mix) {
+        int gcd = 0;
+        for (int weight : mix.values()) {
+            gcd = gcd(gcd, weight);
+        }
+        int total = 0;
+        for (int weight : mix.values()) {
+            total += weight / gcd;
+        }
+        TrafficType[] weighted = new TrafficType[total];
+        int index = 0;
+        for (Map.Entry<TrafficType, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue() / gcd; i++) {
+                weighted[index++] = entry.getKey();
+            }
+        }
+        return weighted;
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    @Override
+    public void close() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,119 @@
+package com.indiegeeker.benchmark.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压测统计：按流量类型记录延迟分布（微秒，3位有效数字）与响应状态码
+ * 状态码为 -1 表示连接失败、超时等没有收到响应的请求
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public class LoadStats {
+
+    /**
+     * 没有收到响应
+     */
+    public static final int NO_RESPONSE = -1;
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<TrafficType, Histogram> histograms = new EnumMap<>(TrafficType.class);
+
+    private final Map<TrafficType, Map<Integer, LongAdder>> statuses = new EnumMap<>(TrafficType.class);
+
+    private final long startNanos = System.nanoTime();
+
+    private volatile long endNanos;
+
+    public LoadStats() {
+        for (TrafficType type : TrafficType.values()) {
+            histograms.put(type, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+            statuses.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * 记录一个请求
+     *
+     * @param type         流量类型
+     * @param status       HTTP 状态码，没有收到响应时为 NO_RESPONSE
+     * @param elapsedNanos 从发出请求到读完响应体的耗时
+     */
+    public void record(TrafficType type, int status, long elapsedNanos) {
+        histograms.get(type).recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        statuses.get(type).computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * 结束统计，吞吐量按开始到结束的时间计算
+     */
+    public void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * 所有流量类型合并后的延迟分布
+     */
+    public Histogram total() {
+        Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        histograms.values().forEach(total::add);
+        return total;
+    }
+
+    /**
+     * 输出吞吐量与延迟百分位（毫秒）
+     */
+    public void print(PrintStream out) {
+        double seconds = ((endNanos != 0 ? endNanos : System.nanoTime()) - startNanos) / 1e9;
+        out.printf("%-10s %10s %10s %9s %9s %9s %9s %9s  %s%n",
+                "type", "requests", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "status");
+        for (TrafficType type : TrafficType.values()) {
+            Histogram histogram = histograms.get(type);
+            if (histogram.getTotalCount() > 0) {
+                printRow(out, type.getKey(), histogram, seconds, statusSummary(statuses.get(type)));
+            }
+        }
+        Map<Integer, LongAdder> all = new TreeMap<>();
+        statuses.values().forEach(map -> map.forEach((status, count) ->
+                all.computeIfAbsent(status, key -> new LongAdder()).add(count.sum())));
+        printRow(out, "total", total(), seconds, statusSummary(all));
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, double seconds, String status) {
+        out.printf("%-10s %10d %10.0f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                name,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()),
+                status);
+    }
+
+    private static String statusSummary(Map<Integer, LongAdder> statuses) {
+        StringBuilder summary = new StringBuilder();
+        new TreeMap<>(statuses).forEach((status, count) -> {
+            if (!summary.isEmpty()) {
+                summary.append(' ');
+            }
+            summary.append(status == NO_RESPONSE ? "error" : String.valueOf(status)).append('=').append(count.sum());
+        });
+        return summary.toString();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
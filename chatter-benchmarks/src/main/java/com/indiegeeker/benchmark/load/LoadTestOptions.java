@@ -0,0 +1,101 @@
+package com.indiegeeker.benchmark.load;
+
+import lombok.Getter;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 网关压测参数，从 loadtest. 前缀的系统属性读取
+ * <pre>
+ * loadtest.duration       正式压测时长，默认 30s
+ * loadtest.warmup         预热时长，结果不计入统计，默认 10s
+ * loadtest.concurrency    并发连接数（闭环，每个连接收到响应后立即发下一个请求），默认 64
+ * loadtest.mix            流量占比，默认 valid=70,invalid=10,excluded=15,abusive=5
+ * loadtest.users          有效 token 对应的用户数，默认 1000
+ * loadtest.client-ips     正常流量的客户端 ip 数，默认 10000
+ * loadtest.abusive-ips    恶意流量的 ip 数，默认 4
+ * loadtest.backend-latency 桩服务处理延迟，默认 0ms
+ * loadtest.redis-latency  redis 替身的模拟往返延迟，默认 0ms
+ * loadtest.histogram      整体延迟分布（HdrHistogram 百分位格式）的输出文件，默认 target/loadtest-latency.hgrm
+ * </pre>
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@Getter
+public class LoadTestOptions {
+
+    private static final String PREFIX = "loadtest.";
+
+    private static final String DEFAULT_MIX = "valid=70,invalid=10,excluded=15,abusive=5";
+
+    private final Duration duration = duration("duration", "30s");
+
+    private final Duration warmup = duration("warmup", "10s");
+
+    private final int concurrency = integer("concurrency", 64);
+
+    private final Map<TrafficType, Integer> mix = mix(System.getProperty(PREFIX + "mix", DEFAULT_MIX));
+
+    private final int users = integer("users", 1000);
+
+    private final int clientIps = integer("client-ips", 10000);
+
+    private final int abusiveIps = integer("abusive-ips", 4);
+
+    private final Duration backendLatency = duration("backend-latency", "0ms");
+
+    private final Duration redisLatency = duration("redis-latency", "0ms");
+
+    private final String histogram = System.getProperty(PREFIX + "histogram", "target/loadtest-latency.hgrm");
+
+    private LoadTestOptions() {
+        if (concurrency <= 0 || users <= 0 || clientIps <= 0 || abusiveIps <= 0) {
+            throw new IllegalArgumentException("loadtest.concurrency、users、client-ips、abusive-ips 必须大于0");
+        }
+    }
+
+    public static LoadTestOptions fromSystemProperties() {
+        return new LoadTestOptions();
+    }
+
+    /**
+     * 解析流量占比，未列出的类型占比为0
+     */
+    static Map<TrafficType, Integer> mix(String value) {
+        Map<TrafficType, Integer> mix = new EnumMap<>(TrafficType.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("loadtest.mix 格式应为 类型=权重,类型=权重: " + value);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("loadtest.mix 权重不能为负数: " + part);
+            }
+            mix.put(TrafficType.fromKey(pair[0].trim()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("loadtest.mix 权重之和必须大于0: " + value);
+        }
+        return mix;
+    }
+
+    private static Duration duration(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(PREFIX + name, defaultValue));
+    }
+
+    private static int integer(String name, int defaultValue) {
+        return Integer.getInteger(PREFIX + name, defaultValue);
+    }
+
+    @Override
+    public String toString() {
+        return "duration=" + duration + ", warmup=" + warmup + ", concurrency=" + concurrency + ", mix=" + mix
+                + ", users=" + users + ", clientIps=" + clientIps + ", abusiveIps=" + abusiveIps
+                + ", backendLatency=" + backendLatency + ", redisLatency=" + redisLatency;
+    }
+}
@@ -0,0 +1,80 @@
+package com.indiegeeker.benchmark.load;
+
+import io.netty.buffer.Unpooled;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压测用的桩服务
+ * 代替 auth-service、file-service 等下游服务，监听本地随机端口，对任意请求返回固定的成功响应，
+ * 可配置处理延迟以模拟真实服务的耗时；只统计收到的请求数，用于核对网关转发的数量
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public class StubBackend implements AutoCloseable {
+
+    private final String serviceId;
+
+    private final DisposableServer server;
+
+    private final LongAdder requests = new LongAdder();
+
+    private StubBackend(String serviceId, Duration latency) {
+        this.serviceId = serviceId;
+        byte[] body = ("{\"code\":200,\"msg\":\"操作成功\",\"data\":{\"service\":\"" + serviceId + "\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> {
+                    requests.increment();
+                    Mono<Void> send = response
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(body.length))
+                            .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(body)))
+                            .then();
+                    // 丢弃请求体后再响应，保证连接可以复用
+                    Mono<Void> drained = request.receive().then();
+                    return latency.isZero() ? drained.then(send) : drained.delaySubscription(latency).then(send);
+                })
+                .bindNow();
+    }
+
+    /**
+     * 启动桩服务
+     *
+     * @param serviceId 代替的服务名，即网关路由中 lb:// 后的名称
+     * @param latency   每个请求的处理延迟
+     */
+    public static StubBackend start(String serviceId, Duration latency) {
+        return new StubBackend(serviceId, latency);
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public String getUri() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    /**
+     * 收到的请求数
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
@@ -0,0 +1,49 @@
+package com.indiegeeker.benchmark.load;
+
+/**
+ * 压测流量类型，占比通过 loadtest.mix 配置
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public enum TrafficType {
+
+    /**
+     * 携带有效 token 的正常请求，经过限流、鉴权后转发到 file-service
+     */
+    VALID("valid"),
+
+    /**
+     * 签名无效的 token，在鉴权阶段被拒绝
+     */
+    INVALID("invalid"),
+
+    /**
+     * 免鉴权路径（登录等），限流后直接转发到 auth-service
+     */
+    EXCLUDED("excluded"),
+
+    /**
+     * 来自少数 ip 的高频请求，触发限流拉黑后在网关本地拒绝
+     */
+    ABUSIVE("abusive");
+
+    private final String key;
+
+    TrafficType(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static TrafficType fromKey(String key) {
+        for (TrafficType type : values()) {
+            if (type.key.equalsIgnoreCase(key)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("未知的流量类型: " + key);
+    }
+}
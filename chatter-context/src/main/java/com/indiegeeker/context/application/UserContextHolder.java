@@ -112,22 +112,8 @@ public class UserContextHolder {
             return null;
         }
         
-        // 创建副本，避免线程间数据污染
-        return UserContext.builder()
-                .userId(context.getUserId())
-                .username(context.getUsername())
-                .nickname(context.getNickname())
-                .mobile(context.getMobile())
-                .roles(context.getRoles())
-                .permissions(context.getPermissions())
-                .tenantId(context.getTenantId())
-                .clientType(context.getClientType())
-                .requestIp(context.getRequestIp())
-                .userAgent(context.getUserAgent())
-                .issuedAt(context.getIssuedAt())
-                .expiresAt(context.getExpiresAt())
-                .extra(context.getExtra())
-                .build();
+        // 创建副本，避免线程间数据污染；角色、权限不可变，直接共享
+        return context.toBuilder().build();
     }
 
     /**
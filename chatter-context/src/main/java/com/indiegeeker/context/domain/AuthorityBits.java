@@ -0,0 +1,188 @@
+package com.indiegeeker.context.domain;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.StringJoiner;
+
+/**
+ * 不可变的角色、权限位集
+ * 第 i 位表示 AuthorityRegistry 中 id 为 i 的名称，判断是否拥有某个角色、是否与一组角色有交集都是按字操作
+ *
+ * Author: wen
+ * Date: 2025/7/16
+ */
+public final class AuthorityBits {
+
+    private static final long[] NO_WORDS = new long[0];
+
+    private final AuthorityRegistry registry;
+
+    private final long[] words;
+
+    private AuthorityBits(AuthorityRegistry registry, long[] words) {
+        this.registry = registry;
+        this.words = words;
+    }
+
+    /**
+     * 由已登记的 id 构成的位集，words 的所有权转移给位集
+     */
+    static AuthorityBits wrap(AuthorityRegistry registry, long[] words) {
+        return new AuthorityBits(registry, words);
+    }
+
+    /**
+     * 把 id 对应的位置1，必要时扩容
+     */
+    static long[] set(long[] words, int id) {
+        int word = id >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, word + 1);
+        }
+        words[word] |= 1L << id;
+        return words;
+    }
+
+    /**
+     * 空位集
+     */
+    public static AuthorityBits empty(AuthorityRegistry registry) {
+        return new AuthorityBits(registry, NO_WORDS);
+    }
+
+    /**
+     * 由名称构建位集，未注册的名称会分配新 id
+     *
+     * @throws IllegalStateException 注册表已满
+     */
+    public static AuthorityBits of(AuthorityRegistry registry, Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return empty(registry);
+        }
+        long[] words = NO_WORDS;
+        for (String name : names) {
+            if (name == null) {
+                continue;
+            }
+            int id = registry.intern(name);
+            if (id == AuthorityRegistry.NOT_FOUND) {
+                throw new IllegalStateException(registry + " 已满，无法注册: " + name);
+            }
+            words = set(words, id);
+        }
+        return new AuthorityBits(registry, words);
+    }
+
+    public AuthorityRegistry getRegistry() {
+        return registry;
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    /**
+     * 是否包含 id
+     */
+    public boolean contains(int id) {
+        int word = id >>> 6;
+        return id >= 0 && word < words.length && (words[word] & (1L << id)) != 0;
+    }
+
+    /**
+     * 是否包含名称，未注册的名称一定不包含
+     */
+    public boolean contains(String name) {
+        return contains(registry.find(name));
+    }
+
+    /**
+     * 两个位集是否有交集
+     */
+    public boolean intersects(AuthorityBits other) {
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 位集中的元素个数
+     */
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * 下一个置1的 id
+     *
+     * @return 不小于 from 的第一个 id，不存在时返回 AuthorityRegistry.NOT_FOUND
+     */
+    public int nextId(int from) {
+        int word = from >>> 6;
+        if (word >= words.length) {
+            return AuthorityRegistry.NOT_FOUND;
+        }
+        long bits = words[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == words.length) {
+                return AuthorityRegistry.NOT_FOUND;
+            }
+            bits = words[word];
+        }
+    }
+
+    /**
+     * 是否包含任一名称
+     * AuthorityList、AuthoritySet 直接按位求交集，其他集合按名称查 id 后逐个测试，不分配新 id
+     */
+    public boolean containsAny(Collection<String> names) {
+        if (names == null || isEmpty()) {
+            return false;
+        }
+        if (names instanceof AuthorityList list && list.getBits().registry == registry) {
+            return intersects(list.getBits());
+        }
+        if (names instanceof AuthoritySet set && set.getBits().registry == registry) {
+            return intersects(set.getBits());
+        }
+        for (String name : names) {
+            if (contains(registry.find(name))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof AuthorityBits other && registry == other.registry && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int id = nextId(0); id >= 0; id = nextId(id + 1)) {
+            joiner.add(registry.name(id));
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.indiegeeker.context.domain;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 不可变的角色列表
+ * 按原顺序保存角色在 AuthorityRegistry 中的 id，另有一份位集用于 contains，判断是否拥有角色时只做位测试；
+ * 不可变，UserContext 复制时直接共享同一个实例
+ * <p>
+ * id 只在当前进程内有效，Java 序列化时替换为普通的 ArrayList
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+public final class AuthorityList extends AbstractList<String> implements RandomAccess, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final transient AuthorityRegistry registry;
+
+    private final transient int[] ids;
+
+    private final transient AuthorityBits bits;
+
+    private AuthorityList(AuthorityRegistry registry, int[] ids, AuthorityBits bits) {
+        this.registry = registry;
+        this.ids = ids;
+        this.bits = bits;
+    }
+
+    /**
+     * 转换为角色列表
+     *
+     * @param roles 角色名称
+     * @return roles 为 null 时返回 null，已是 AuthorityList 时原样返回；含有 null 或注册表已满时退化为不可变的普通列表
+     */
+    public static List<String> of(Collection<String> roles) {
+        if (roles == null || roles instanceof AuthorityList) {
+            return (List<String>) roles;
+        }
+        return of(roles.toArray(new String[0]));
+    }
+
+    /**
+     * 转换为角色列表，规则同 of(Collection)
+     */
+    public static List<String> of(String... roles) {
+        AuthorityRegistry registry = AuthorityRegistry.roles();
+        int[] ids = new int[roles.length];
+        long[] words = new long[0];
+        for (int i = 0; i < roles.length; i++) {
+            int id = registry.intern(roles[i]);
+            if (id == AuthorityRegistry.NOT_FOUND) {
+                return Collections.unmodifiableList(new ArrayList<>(Arrays.asList(roles)));
+            }
+            ids[i] = id;
+            words = AuthorityBits.set(words, id);
+        }
+        return new AuthorityList(registry, ids, AuthorityBits.wrap(registry, words));
+    }
+
+    /**
+     * 角色位集
+     */
+    public AuthorityBits getBits() {
+        return bits;
+    }
+
+    @Override
+    public String get(int index) {
+        return registry.name(ids[index]);
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof String name && bits.contains(name);
+    }
+
+    @Serial
+    private Object writeReplace() {
+        return new ArrayList<>(this);
+    }
+}
@@ -0,0 +1,116 @@
+package com.indiegeeker.context.domain;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 角色、权限名称注册表
+ * 把名称映射为从0开始的小整数id，角色、权限各自一套编号，用于在 AuthorityBits 中按位表示：
+ * 1. id 一经分配不会回收、不会改变，进程内所有位集共享同一套编号
+ * 2. 查找走 ConcurrentHashMap，分配新 id 时加锁，读多写少
+ * 3. 编号数量有上限，超出后不再分配，防止名称无限增长导致位集膨胀
+ *
+ * Author: wen
+ * Date: 2025/7/16
+ */
+public final class AuthorityRegistry {
+
+    /**
+     * 单个注册表最多分配的 id 数
+     */
+    public static final int MAX_SIZE = 4096;
+
+    public static final int NOT_FOUND = -1;
+
+    private static final AuthorityRegistry ROLES = new AuthorityRegistry("role");
+
+    private static final AuthorityRegistry PERMISSIONS = new AuthorityRegistry("permission");
+
+    private final String kind;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private volatile String[] names = new String[0];
+
+    private AuthorityRegistry(String kind) {
+        this.kind = kind;
+    }
+
+    /**
+     * 角色注册表
+     */
+    public static AuthorityRegistry roles() {
+        return ROLES;
+    }
+
+    /**
+     * 权限注册表
+     */
+    public static AuthorityRegistry permissions() {
+        return PERMISSIONS;
+    }
+
+    /**
+     * 查找名称对应的 id，不存在时分配新 id
+     *
+     * @return id，名称为 null 或注册表已满时返回 NOT_FOUND
+     */
+    public int intern(String name) {
+        if (name == null) {
+            return NOT_FOUND;
+        }
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            String[] current = names;
+            if (current.length >= MAX_SIZE) {
+                return NOT_FOUND;
+            }
+            String[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = name;
+            // 先发布名称，再发布 id，拿到 id 的线程一定能查到名称
+            names = grown;
+            ids.put(name, current.length);
+            return current.length;
+        }
+    }
+
+    /**
+     * 查找名称对应的 id，不分配新 id
+     *
+     * @return id，不存在时返回 NOT_FOUND
+     */
+    public int find(String name) {
+        if (name == null) {
+            return NOT_FOUND;
+        }
+        Integer id = ids.get(name);
+        return id != null ? id : NOT_FOUND;
+    }
+
+    /**
+     * id 对应的名称
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * 已分配的 id 数
+     */
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorityRegistry(" + kind + ", size=" + size() + ")";
+    }
+}
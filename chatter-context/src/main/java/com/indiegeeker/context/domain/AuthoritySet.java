@@ -0,0 +1,111 @@
+package com.indiegeeker.context.domain;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 不可变的权限集合
+ * 权限直接以 AuthorityRegistry 的 id 位集保存，contains 只做位测试，遍历顺序为 id 顺序；
+ * 不可变，UserContext 复制时直接共享同一个实例
+ * <p>
+ * id 只在当前进程内有效，Java 序列化时替换为普通的 HashSet
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+public final class AuthoritySet extends AbstractSet<String> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final transient AuthorityBits bits;
+
+    private final transient int size;
+
+    private AuthoritySet(AuthorityBits bits) {
+        this.bits = bits;
+        this.size = bits.size();
+    }
+
+    /**
+     * 转换为权限集合
+     *
+     * @param permissions 权限名称
+     * @return permissions 为 null 时返回 null，已是 AuthoritySet 时原样返回；含有 null 或注册表已满时退化为不可变的普通集合
+     */
+    public static Set<String> of(Collection<String> permissions) {
+        if (permissions == null || permissions instanceof AuthoritySet) {
+            return (Set<String>) permissions;
+        }
+        AuthorityRegistry registry = AuthorityRegistry.permissions();
+        long[] words = new long[0];
+        for (String permission : permissions) {
+            int id = registry.intern(permission);
+            if (id == AuthorityRegistry.NOT_FOUND) {
+                return Collections.unmodifiableSet(new HashSet<>(permissions));
+            }
+            words = AuthorityBits.set(words, id);
+        }
+        return new AuthoritySet(AuthorityBits.wrap(registry, words));
+    }
+
+    /**
+     * 转换为权限集合，规则同 of(Collection)
+     */
+    public static Set<String> of(String... permissions) {
+        return of(Arrays.asList(permissions));
+    }
+
+    /**
+     * 权限位集
+     */
+    public AuthorityBits getBits() {
+        return bits;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof String name && bits.contains(name);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+
+            private int next = bits.nextId(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public String next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                String name = bits.getRegistry().name(next);
+                next = bits.nextId(next + 1);
+                return name;
+            }
+        };
+    }
+
+    @Serial
+    private Object writeReplace() {
+        return new HashSet<>(this);
+    }
+}
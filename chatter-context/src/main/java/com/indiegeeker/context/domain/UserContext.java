@@ -14,12 +14,14 @@ import java.util.Set;
 /**
  * 用户上下文信息
  * 在微服务间传递的用户信息载体
+ * 角色、权限在 setter 和 builder 中转换为不可变的 AuthorityList、AuthoritySet，
+ * hasRole、hasPermission 等判断只做位测试，复制上下文时直接共享，不再复制集合
  * 
  * Author: wen
  * Date: 2025/6/30
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserContext implements Serializable {
@@ -77,6 +79,11 @@ public class UserContext implements Serializable {
      */
     private String userAgent;
 
+    /**
+     * Token ID（JWT 的 jti），用于吊销
+     */
+    private String tokenId;
+
     /**
      * Token签发时间
      */
@@ -92,6 +99,14 @@ public class UserContext implements Serializable {
      */
     private Object extra;
 
+    public void setRoles(List<String> roles) {
+        this.roles = AuthorityList.of(roles);
+    }
+
+    public void setPermissions(Set<String> permissions) {
+        this.permissions = AuthoritySet.of(permissions);
+    }
+
     /**
      * 检查是否有指定角色
      */
@@ -142,4 +157,17 @@ public class UserContext implements Serializable {
     public boolean isExpired() {
         return expiresAt != null && LocalDateTime.now().isAfter(expiresAt);
     }
-} 
\ No newline at end of file
+
+    public static class UserContextBuilder {
+
+        public UserContextBuilder roles(List<String> roles) {
+            this.roles = AuthorityList.of(roles);
+            return this;
+        }
+
+        public UserContextBuilder permissions(Set<String> permissions) {
+            this.permissions = AuthoritySet.of(permissions);
+            return this;
+        }
+    }
+}
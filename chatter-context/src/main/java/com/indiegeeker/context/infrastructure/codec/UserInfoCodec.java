@@ -0,0 +1,446 @@
+package com.indiegeeker.context.infrastructure.codec;
+
+import com.indiegeeker.context.domain.AuthorityList;
+import com.indiegeeker.context.domain.AuthoritySet;
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.core.utils.IPAddressUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 用户信息 Header 二进制编解码
+ * 网关向下游传递的 X-User-Info 由 JSON + Base64 改为紧凑的二进制格式 + Base64（无填充）：
+ * <pre>
+ * 版本号(1字节) | 字段位图(varint) | 按位图顺序排列的字段
+ *   字符串字段：长度(varint) + UTF-8 字节
+ *   角色、权限：个数(varint) + 每项一个 varint，偶数表示字典下标(v >> 1)，奇数表示字面量，长度为 v >> 1，后跟 UTF-8 字节
+ *   请求ip：类型(varint，4/16 为 IPv4/IPv6 地址字节数，0 表示后跟字符串)，地址形式解码后为规范格式
+ *   过期时间：epoch 秒(varint)，按本机时区与 LocalDateTime 互转，精度为秒
+ * </pre>
+ * tokenId、过期时间与用户信息一起签名，下游据此拒绝 token 过期后被重放的 header。
+ * 版本号同时决定角色、权限字典，字典只能通过新增版本修改，解码端保留所有历史版本的字典。
+ * 编码结果的第一个字节不可能是 '{'，解码端据此区分旧的 JSON 格式
+ *
+ * Author: wen
+ * Date: 2025/7/15
+ */
+public final class UserInfoCodec {
+
+    public static final byte VERSION_1 = 1;
+
+    /**
+     * 当前编码使用的版本
+     */
+    public static final byte CURRENT_VERSION = VERSION_1;
+
+    private static final int USER_ID = 1;
+    private static final int USERNAME = 1 << 1;
+    private static final int NICKNAME = 1 << 2;
+    private static final int ROLES = 1 << 3;
+    private static final int PERMISSIONS = 1 << 4;
+    private static final int TENANT_ID = 1 << 5;
+    private static final int CLIENT_TYPE = 1 << 6;
+    private static final int REQUEST_IP = 1 << 7;
+    private static final int TOKEN_ID = 1 << 8;
+    private static final int EXPIRES_AT = 1 << 9;
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static final long IPV4_MAPPED_PREFIX = 0x0000_FFFF_0000_0000L;
+
+    private static final int IP_TEXT = 0;
+    private static final int IP_V4 = 4;
+    private static final int IP_V6 = 16;
+
+    /**
+     * 各版本的角色、权限字典，下标为版本号
+     */
+    private static final String[][] DICTIONARIES = {
+            {},
+            {
+                    "USER", "ADMIN", "SUPER_ADMIN", "GUEST", "VIP",
+                    "read", "write", "execute", "delete", "update", "create",
+                    "READ", "WRITE", "EXECUTE", "DELETE", "UPDATE", "CREATE"
+            }
+    };
+
+    private static final Map<String, Integer> CURRENT_INDEX = new HashMap<>();
+
+    static {
+        String[] dictionary = DICTIONARIES[CURRENT_VERSION];
+        for (int i = 0; i < dictionary.length; i++) {
+            CURRENT_INDEX.put(dictionary[i], i);
+        }
+    }
+
+    private static final Base64.Encoder BASE64_ENCODER = Base64.getEncoder().withoutPadding();
+
+    private static final ThreadLocal<Writer> WRITER = ThreadLocal.withInitial(Writer::new);
+
+    private UserInfoCodec() {
+    }
+
+    /**
+     * 编码为 Header 值
+     */
+    public static String encode(UserContext userContext) {
+        Writer writer = WRITER.get();
+        writer.reset();
+        write(userContext, writer);
+        ByteBuffer encoded = BASE64_ENCODER.encode(ByteBuffer.wrap(writer.buf, 0, writer.size));
+        return new String(encoded.array(), 0, encoded.limit(), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 编码为二进制
+     */
+    public static byte[] encodeBytes(UserContext userContext) {
+        Writer writer = WRITER.get();
+        writer.reset();
+        write(userContext, writer);
+        byte[] bytes = new byte[writer.size];
+        System.arraycopy(writer.buf, 0, bytes, 0, writer.size);
+        return bytes;
+    }
+
+    /**
+     * 是否为二进制格式（否则应按旧的 JSON 格式解析）
+     */
+    public static boolean isBinary(byte[] bytes) {
+        return bytes.length > 0 && bytes[0] > 0 && bytes[0] < DICTIONARIES.length;
+    }
+
+    /**
+     * 解码二进制格式
+     *
+     * @throws IllegalArgumentException 格式不合法
+     */
+    public static UserContext decode(byte[] bytes) {
+        if (!isBinary(bytes)) {
+            throw new IllegalArgumentException("不支持的用户信息格式版本");
+        }
+        Reader reader = new Reader(bytes);
+        String[] dictionary = DICTIONARIES[reader.readByte()];
+        int fields = reader.readVarint();
+
+        UserContext.UserContextBuilder builder = UserContext.builder();
+        if ((fields & USER_ID) != 0) {
+            builder.userId(reader.readString());
+        }
+        if ((fields & USERNAME) != 0) {
+            builder.username(reader.readString());
+        }
+        if ((fields & NICKNAME) != 0) {
+            builder.nickname(reader.readString());
+        }
+        if ((fields & ROLES) != 0) {
+            builder.roles(AuthorityList.of(reader.readNames(dictionary)));
+        }
+        if ((fields & PERMISSIONS) != 0) {
+            builder.permissions(AuthoritySet.of(reader.readNames(dictionary)));
+        }
+        if ((fields & TENANT_ID) != 0) {
+            builder.tenantId(reader.readString());
+        }
+        if ((fields & CLIENT_TYPE) != 0) {
+            builder.clientType(reader.readString());
+        }
+        if ((fields & REQUEST_IP) != 0) {
+            builder.requestIp(reader.readIp());
+        }
+        if ((fields & TOKEN_ID) != 0) {
+            builder.tokenId(reader.readString());
+        }
+        if ((fields & EXPIRES_AT) != 0) {
+            builder.expiresAt(LocalDateTime.ofInstant(Instant.ofEpochSecond(reader.readVarlong()), ZONE));
+        }
+        return builder.build();
+    }
+
+    private static void write(UserContext userContext, Writer writer) {
+        int fields = (userContext.getUserId() != null ? USER_ID : 0)
+                | (userContext.getUsername() != null ? USERNAME : 0)
+                | (userContext.getNickname() != null ? NICKNAME : 0)
+                | (userContext.getRoles() != null ? ROLES : 0)
+                | (userContext.getPermissions() != null ? PERMISSIONS : 0)
+                | (userContext.getTenantId() != null ? TENANT_ID : 0)
+                | (userContext.getClientType() != null ? CLIENT_TYPE : 0)
+                | (userContext.getRequestIp() != null ? REQUEST_IP : 0)
+                | (userContext.getTokenId() != null ? TOKEN_ID : 0)
+                | (userContext.getExpiresAt() != null ? EXPIRES_AT : 0);
+        writer.writeByte(CURRENT_VERSION);
+        writer.writeVarint(fields);
+        if ((fields & USER_ID) != 0) {
+            writer.writeString(userContext.getUserId());
+        }
+        if ((fields & USERNAME) != 0) {
+            writer.writeString(userContext.getUsername());
+        }
+        if ((fields & NICKNAME) != 0) {
+            writer.writeString(userContext.getNickname());
+        }
+        if ((fields & ROLES) != 0) {
+            writer.writeNames(userContext.getRoles());
+        }
+        if ((fields & PERMISSIONS) != 0) {
+            writer.writeNames(userContext.getPermissions());
+        }
+        if ((fields & TENANT_ID) != 0) {
+            writer.writeString(userContext.getTenantId());
+        }
+        if ((fields & CLIENT_TYPE) != 0) {
+            writer.writeString(userContext.getClientType());
+        }
+        if ((fields & REQUEST_IP) != 0) {
+            writer.writeIp(userContext.getRequestIp());
+        }
+        if ((fields & TOKEN_ID) != 0) {
+            writer.writeString(userContext.getTokenId());
+        }
+        if ((fields & EXPIRES_AT) != 0) {
+            writer.writeVarlong(userContext.getExpiresAt().atZone(ZONE).toEpochSecond());
+        }
+    }
+
+    /**
+     * 线程内复用的写缓冲区
+     */
+    private static final class Writer {
+
+        private byte[] buf = new byte[256];
+        private int size;
+        private final long[] address = new long[2];
+
+        void reset() {
+            size = 0;
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[size++] = (byte) b;
+        }
+
+        void writeVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buf[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[size++] = (byte) value;
+        }
+
+        void writeVarlong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            writeUtf8(value, false);
+        }
+
+        void writeNames(Collection<String> names) {
+            int count = 0;
+            for (String name : names) {
+                if (name != null) {
+                    count++;
+                }
+            }
+            writeVarint(count);
+            for (String name : names) {
+                if (name == null) {
+                    continue;
+                }
+                Integer index = CURRENT_INDEX.get(name);
+                if (index != null) {
+                    writeVarint(index << 1);
+                } else {
+                    writeUtf8(name, true);
+                }
+            }
+        }
+
+        void writeIp(String ip) {
+            if (IPAddressUtils.parse(ip, address)) {
+                if (IPAddressUtils.isIPv4Mapped(address[0], address[1])) {
+                    writeVarint(IP_V4);
+                    writeLong(address[1], 4);
+                } else {
+                    writeVarint(IP_V6);
+                    writeLong(address[0], 8);
+                    writeLong(address[1], 8);
+                }
+                return;
+            }
+            writeVarint(IP_TEXT);
+            writeString(ip);
+        }
+
+        /**
+         * 写入长度前缀与 UTF-8 字节，字典外的角色、权限名长度前缀为 (length << 1) | 1
+         */
+        private void writeUtf8(String value, boolean literalName) {
+            int length = value.length();
+            boolean ascii = true;
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) >= 0x80) {
+                    ascii = false;
+                    break;
+                }
+            }
+            if (ascii) {
+                writeVarint(literalName ? (length << 1) | 1 : length);
+                ensure(length);
+                for (int i = 0; i < length; i++) {
+                    buf[size++] = (byte) value.charAt(i);
+                }
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(literalName ? (bytes.length << 1) | 1 : bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void writeLong(long value, int bytes) {
+            ensure(bytes);
+            for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+                buf[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buf.length) {
+                byte[] grown = new byte[Math.max(buf.length * 2, size + extra)];
+                System.arraycopy(buf, 0, grown, 0, size);
+                buf = grown;
+            }
+        }
+    }
+
+    /**
+     * 顺序读取，越界或格式错误时抛出 IllegalArgumentException
+     */
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int readByte() {
+            require(1);
+            return bytes[position++] & 0xFF;
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("varint 过长");
+        }
+
+        long readVarlong() {
+            long value = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("varint 过长");
+        }
+
+        /**
+         * 读取集合元素个数，每个元素至少占一个字节
+         */
+        int readCount() {
+            int count = readVarint();
+            if (count < 0 || count > bytes.length - position) {
+                throw new IllegalArgumentException("集合长度不合法: " + count);
+            }
+            return count;
+        }
+
+        String readString() {
+            return readUtf8(readVarint());
+        }
+
+        String[] readNames(String[] dictionary) {
+            String[] names = new String[readCount()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = readName(dictionary);
+            }
+            return names;
+        }
+
+        String readName(String[] dictionary) {
+            int value = readVarint();
+            if ((value & 1) != 0) {
+                return readUtf8(value >>> 1);
+            }
+            int index = value >>> 1;
+            if (index >= dictionary.length) {
+                throw new IllegalArgumentException("字典下标越界: " + index);
+            }
+            return dictionary[index];
+        }
+
+        String readIp() {
+            int type = readVarint();
+            if (type == IP_V4) {
+                return IPAddressUtils.format(0, IPV4_MAPPED_PREFIX | readLong(4));
+            }
+            if (type == IP_V6) {
+                long hi = readLong(8);
+                return IPAddressUtils.format(hi, readLong(8));
+            }
+            if (type == IP_TEXT) {
+                return readString();
+            }
+            throw new IllegalArgumentException("ip类型不合法: " + type);
+        }
+
+        private long readLong(int length) {
+            require(length);
+            long value = 0;
+            for (int i = 0; i < length; i++) {
+                value = (value << 8) | (bytes[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        private String readUtf8(int length) {
+            require(length);
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private void require(int length) {
+            if (length < 0 || length > bytes.length - position) {
+                throw new IllegalArgumentException("用户信息数据不完整");
+            }
+        }
+    }
+}
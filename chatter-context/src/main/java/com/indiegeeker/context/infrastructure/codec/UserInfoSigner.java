@@ -0,0 +1,124 @@
+package com.indiegeeker.context.infrastructure.codec;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 用户信息 Header 签名
+ * 网关对 X-User-Info 的 header 值（UserInfoCodec 编码后的 Base64 文本）计算 HMAC-SHA256，放在 X-User-Info-Signature 中，
+ * 下游用同一个密钥验签后才信任其中的用户信息，不需要再解析 JWT：
+ * 1. 签名直接作用于 header 文本，验签不需要先做 Base64 解码
+ * 2. 签名取 HMAC 的前128位，Base64 无填充编码后为22个字符
+ * 3. 相同的用户信息签名结果相同，下游可以按 header 值缓存验签结果
+ * 4. header 中带有 token 的过期时间，签名随之失效时间固定，下游验签后还需拒绝已过期的内容
+ * 未配置密钥时不签名，兼容尚未启用验签的下游
+ *
+ * Author: wen
+ * Date: 2025/7/16
+ */
+public final class UserInfoSigner {
+
+    public static final String DEFAULT_SIGNATURE_HEADER = "X-User-Info-Signature";
+
+    /**
+     * 密钥最短字节数，与 HMAC-SHA256 的输出长度一致
+     */
+    public static final int MIN_SECRET_BYTES = 32;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final int SIGNATURE_BYTES = 16;
+
+    private static final Base64.Encoder BASE64_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+
+    private static final UserInfoSigner DISABLED = new UserInfoSigner(null);
+
+    private final SecretKeySpec key;
+
+    /**
+     * Mac 不是线程安全的，每个线程持有一份已初始化的实例
+     */
+    private final ThreadLocal<Mac> mac;
+
+    private UserInfoSigner(SecretKeySpec key) {
+        this.key = key;
+        this.mac = key == null ? null : ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * @param secret 签名密钥，为空时返回不签名的实例
+     * @throws IllegalArgumentException 密钥不足32字节
+     */
+    public static UserInfoSigner of(String secret) {
+        if (secret == null || secret.isBlank()) {
+            return DISABLED;
+        }
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("用户信息签名密钥长度不能少于" + MIN_SECRET_BYTES + "字节");
+        }
+        return new UserInfoSigner(new SecretKeySpec(bytes, ALGORITHM));
+    }
+
+    public static UserInfoSigner disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return key != null;
+    }
+
+    /**
+     * 计算签名
+     *
+     * @param payload header 值
+     * @return 签名，未配置密钥或 payload 为空时返回 null
+     */
+    public String sign(String payload) {
+        if (key == null || payload == null) {
+            return null;
+        }
+        return BASE64_ENCODER.encodeToString(hmac(payload));
+    }
+
+    /**
+     * 验签，签名比较为常量时间
+     *
+     * @param payload   header 值
+     * @param signature 签名
+     * @return 签名有效返回 true；未配置密钥时始终返回 false
+     */
+    public boolean verify(String payload, String signature) {
+        if (key == null || payload == null || signature == null) {
+            return false;
+        }
+        byte[] expected;
+        try {
+            expected = BASE64_DECODER.decode(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(hmac(payload), expected);
+    }
+
+    private byte[] hmac(String payload) {
+        byte[] full = mac.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Arrays.copyOf(full, SIGNATURE_BYTES);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("当前JDK不支持" + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.indiegeeker.context.infrastructure.codec;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.indiegeeker.context.domain.UserContext;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.function.Function;
+
+/**
+ * 已验签用户信息缓存
+ * 同一个用户经网关转发的 X-User-Info 在一段时间内不变，验签、解码的结果按 header 值缓存：
+ * 1. header 值本身就是 UserInfoCodec 的紧凑编码，直接作为键；再计算一次 SHA-256 摘要的开销与 HMAC 验签相当，没有意义
+ * 2. 条目记录验签通过的签名，命中时只做一次常量时间的签名比较，不再计算 HMAC、不再解码
+ * 3. 只有验签通过的结果才会进入缓存，伪造的 header 无法挤占缓存
+ * 4. 签名的内容必须带有过期时间（即 JWT 的过期时间），过期后即使签名有效也不再信任，命中的缓存条目同样按过期时间判断
+ * 缓存中的 UserContext 不对外暴露，每次返回一份副本
+ *
+ * Author: wen
+ * Date: 2025/7/16
+ */
+public class VerifiedUserInfoCache {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final UserInfoSigner signer;
+
+    private final Cache<String, Entry> cache;
+
+    /**
+     * @param signer      验签使用的签名器
+     * @param maximumSize 最大条目数
+     * @param ttl         条目存活时间
+     */
+    public VerifiedUserInfoCache(UserInfoSigner signer, long maximumSize, Duration ttl) {
+        if (!signer.isEnabled()) {
+            throw new IllegalArgumentException("未配置用户信息签名密钥");
+        }
+        this.signer = signer;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 验签并解码用户信息
+     *
+     * @param payload   X-User-Info header 值
+     * @param signature X-User-Info-Signature header 值
+     * @param decoder   解码函数，失败返回 null
+     * @return 用户上下文副本，验签或解码失败、缺少过期时间或已过期返回 null
+     */
+    public UserContext get(String payload, String signature, Function<String, UserContext> decoder) {
+        if (payload == null || signature == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = cache.getIfPresent(payload);
+        if (entry != null && constantTimeEquals(entry.signature(), signature)) {
+            if (entry.expiresAtMillis() <= now) {
+                cache.invalidate(payload);
+                return null;
+            }
+            return entry.context().toBuilder().build();
+        }
+        if (!signer.verify(payload, signature)) {
+            return null;
+        }
+        UserContext context = decoder.apply(payload);
+        if (context == null || context.getExpiresAt() == null) {
+            return null;
+        }
+        long expiresAtMillis = context.getExpiresAt().atZone(ZONE).toInstant().toEpochMilli();
+        if (expiresAtMillis <= now) {
+            return null;
+        }
+        cache.put(payload, new Entry(signature, context, expiresAtMillis));
+        return context.toBuilder().build();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 命中率等统计信息
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 当前条目数（近似值）
+     */
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private static boolean constantTimeEquals(String a, String b) {
+        if (a.length() != b.length()) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < a.length(); i++) {
+            diff |= a.charAt(i) ^ b.charAt(i);
+        }
+        return diff == 0;
+    }
+
+    private record Entry(String signature, UserContext context, long expiresAtMillis) {
+    }
+}
@@ -1,8 +1,11 @@
 package com.indiegeeker.context.infrastructure.config;
 
+import com.indiegeeker.context.infrastructure.codec.UserInfoSigner;
+import com.indiegeeker.context.infrastructure.codec.VerifiedUserInfoCache;
 import com.indiegeeker.context.infrastructure.web.UserContextInterceptor;
 import com.indiegeeker.context.infrastructure.web.parser.HeaderUserInfoParser;
 import com.indiegeeker.context.infrastructure.web.parser.UserInfoParser;
+import com.indiegeeker.core.utils.ClientIpResolver;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -24,7 +27,8 @@ import java.util.List;
  * 根据@EnableUserContext注解自动配置用户上下文相关组件：
  * 1. 用户信息解析器
  * 2. 用户上下文拦截器
- * 3. Web MVC配置
+ * 3. 客户端 IP 解析器（受信代理）
+ * 4. Web MVC配置
  * 
  * Author: wen
  * Date: 2025/6/30
@@ -46,11 +50,39 @@ public class UserContextAutoConfiguration {
      */
     @Bean
     @ConditionalOnMissingBean(HeaderUserInfoParser.class)
-    public HeaderUserInfoParser headerUserInfoParser() {
+    public HeaderUserInfoParser headerUserInfoParser(@Autowired(required = false) VerifiedUserInfoCache verifiedUserInfoCache) {
         String headerName = properties.getParser().getUserInfoHeader();
+        UserContextProperties.Signature signature = properties.getSignature();
         
-        log.info("创建Header用户信息解析器，header名称: {}", headerName);
-        return new HeaderUserInfoParser(headerName);
+        log.info("创建Header用户信息解析器，header名称: {}，验签: {}", headerName, verifiedUserInfoCache != null);
+        return new HeaderUserInfoParser(headerName, signature.getHeader(), verifiedUserInfoCache, signature.isRequired());
+    }
+
+    /**
+     * 用户信息验签缓存，配置了签名密钥时启用
+     */
+    @Bean
+    @ConditionalOnMissingBean(VerifiedUserInfoCache.class)
+    @ConditionalOnProperty(name = "chatter.context.signature.secret")
+    public VerifiedUserInfoCache verifiedUserInfoCache() {
+        UserContextProperties.Signature signature = properties.getSignature();
+        
+        log.info("创建用户信息验签缓存，最大条目数: {}，缓存时间: {}", signature.getCacheMaximumSize(), signature.getCacheTtl());
+        return new VerifiedUserInfoCache(UserInfoSigner.of(signature.getSecret()),
+                signature.getCacheMaximumSize(), signature.getCacheTtl());
+    }
+
+    /**
+     * 客户端 IP 解析器，同时替换 IPUtils 等静态工具类使用的共享实例
+     */
+    @Bean
+    @ConditionalOnMissingBean(ClientIpResolver.class)
+    public ClientIpResolver clientIpResolver() {
+        ClientIpResolver resolver = ClientIpResolver.of(properties.getTrustedProxies());
+        ClientIpResolver.setShared(resolver);
+
+        log.info("创建客户端IP解析器，受信代理: {}", properties.getTrustedProxies());
+        return resolver;
     }
 
     /**
@@ -59,9 +91,10 @@ public class UserContextAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(UserContextInterceptor.class)
     @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
-    public UserContextInterceptor userContextInterceptor(@Autowired(required = false) List<UserInfoParser> userInfoParsers) {
+    public UserContextInterceptor userContextInterceptor(@Autowired(required = false) List<UserInfoParser> userInfoParsers,
+                                                         ClientIpResolver clientIpResolver) {
         log.info("创建用户上下文拦截器，解析器数量: {}", userInfoParsers != null ? userInfoParsers.size() : 0);
-        return new UserContextInterceptor(userInfoParsers);
+        return new UserContextInterceptor(userInfoParsers, clientIpResolver);
     }
 
     /**
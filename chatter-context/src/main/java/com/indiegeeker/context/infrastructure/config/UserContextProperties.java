@@ -1,8 +1,13 @@
 package com.indiegeeker.context.infrastructure.config;
 
+import com.indiegeeker.core.utils.ClientIpResolver;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 用户上下文配置属性
  * 
@@ -23,6 +28,17 @@ public class UserContextProperties {
      */
     private Parser parser = new Parser();
 
+    /**
+     * 用户信息header签名相关配置
+     */
+    private Signature signature = new Signature();
+
+    /**
+     * 受信代理网段（CIDR），只有来自受信代理的请求才使用 X-Forwarded-For 解析客户端 IP；
+     * 网关与服务共用，默认为回环地址与内网网段
+     */
+    private List<String> trustedProxies = new ArrayList<>(ClientIpResolver.DEFAULT_TRUSTED_PROXIES);
+
     @Data
     public static class Web {
         
@@ -57,4 +73,33 @@ public class UserContextProperties {
          */
         private boolean debug = false;
     }
-} 
\ No newline at end of file
+
+    @Data
+    public static class Signature {
+
+        /**
+         * 签名密钥，与网关一致，不少于32字节；未配置时不验签
+         */
+        private String secret;
+
+        /**
+         * 签名header名称
+         */
+        private String header = "X-User-Info-Signature";
+
+        /**
+         * 是否拒绝未携带签名的用户信息header，灰度切换期间可临时关闭
+         */
+        private boolean required = true;
+
+        /**
+         * 验签结果缓存最大条目数
+         */
+        private long cacheMaximumSize = 10000;
+
+        /**
+         * 验签结果缓存时间
+         */
+        private Duration cacheTtl = Duration.ofMinutes(10);
+    }
+}
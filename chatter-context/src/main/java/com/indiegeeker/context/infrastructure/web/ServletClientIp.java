@@ -0,0 +1,38 @@
+package com.indiegeeker.context.infrastructure.web;
+
+import com.indiegeeker.core.utils.ClientIpResolver;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Servlet 请求的客户端 IP
+ * 按受信代理解析一次后缓存在 request 属性中，同一请求内的拦截器、控制器、工具类不再重复解析
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public final class ServletClientIp {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private static final String REAL_IP = "X-Real-IP";
+
+    private ServletClientIp() {
+    }
+
+    /**
+     * 使用共享的解析器
+     */
+    public static String get(HttpServletRequest request) {
+        return get(request, ClientIpResolver.shared());
+    }
+
+    public static String get(HttpServletRequest request, ClientIpResolver resolver) {
+        Object cached = request.getAttribute(ClientIpResolver.CLIENT_IP_ATTRIBUTE);
+        if (cached instanceof String ip) {
+            return ip;
+        }
+        String ip = resolver.resolve(request.getRemoteAddr(), request.getHeader(FORWARDED_FOR), request.getHeader(REAL_IP));
+        request.setAttribute(ClientIpResolver.CLIENT_IP_ATTRIBUTE, ip);
+        return ip;
+    }
+}
@@ -3,6 +3,7 @@ package com.indiegeeker.context.infrastructure.web;
 import com.indiegeeker.context.application.UserContextHolder;
 import com.indiegeeker.context.domain.UserContext;
 import com.indiegeeker.context.infrastructure.web.parser.UserInfoParser;
+import com.indiegeeker.core.utils.ClientIpResolver;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -24,8 +25,15 @@ public class UserContextInterceptor implements HandlerInterceptor {
 
     private final List<UserInfoParser> userInfoParsers;
 
+    private final ClientIpResolver clientIpResolver;
+
     public UserContextInterceptor(List<UserInfoParser> userInfoParsers) {
+        this(userInfoParsers, ClientIpResolver.shared());
+    }
+
+    public UserContextInterceptor(List<UserInfoParser> userInfoParsers, ClientIpResolver clientIpResolver) {
         this.userInfoParsers = userInfoParsers != null ? userInfoParsers : List.of();
+        this.clientIpResolver = clientIpResolver;
     }
 
     @Override
@@ -50,7 +58,7 @@ public class UserContextInterceptor implements HandlerInterceptor {
         
         if (userContext != null) {
             // 补充请求信息
-            userContext.setRequestIp(getClientIp(request));
+            userContext.setRequestIp(ServletClientIp.get(request, clientIpResolver));
             userContext.setUserAgent(request.getHeader("User-Agent"));
             
             // 设置到ThreadLocal
@@ -78,22 +86,4 @@ public class UserContextInterceptor implements HandlerInterceptor {
             log.error("请求处理异常: {} {}", request.getMethod(), request.getRequestURI(), ex);
         }
     }
-
-    /**
-     * 获取客户端真实IP
-     */
-    private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
-        }
-        
-        String remoteAddr = request.getRemoteAddr();
-        return remoteAddr != null ? remoteAddr : "unknown";
-    }
 } 
\ No newline at end of file
@@ -3,16 +3,21 @@ package com.indiegeeker.context.infrastructure.web.parser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.context.infrastructure.codec.UserInfoCodec;
+import com.indiegeeker.context.infrastructure.codec.UserInfoSigner;
+import com.indiegeeker.context.infrastructure.codec.VerifiedUserInfoCache;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.Ordered;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
 /**
  * 基于Header的用户信息解析器
  * 从HTTP请求的指定header中解析用户上下文信息
+ * 优先按 UserInfoCodec 的二进制格式解析，兼容旧版网关传递的 JSON 格式
+ * 配置了验签缓存时，只信任签名有效且带有过期时间的 header；signatureRequired 为 false 时，未携带签名的 header 仍按原方式解析，用于灰度切换。
+ * 过期时间已过的 header 一律拒绝，不会进入验签缓存
  * 
  * Author: wen
  * Date: 2025/6/30
@@ -29,12 +34,32 @@ public class HeaderUserInfoParser implements UserInfoParser, Ordered {
 
     private final String headerName;
 
+    private final String signatureHeaderName;
+
+    private final VerifiedUserInfoCache verifiedUserInfoCache;
+
+    private final boolean signatureRequired;
+
     public HeaderUserInfoParser() {
         this(DEFAULT_USER_INFO_HEADER);
     }
 
     public HeaderUserInfoParser(String headerName) {
+        this(headerName, null, null, false);
+    }
+
+    /**
+     * @param headerName            用户信息header名称
+     * @param signatureHeaderName   签名header名称
+     * @param verifiedUserInfoCache 验签缓存，为null时不验签
+     * @param signatureRequired     是否拒绝未携带签名的header
+     */
+    public HeaderUserInfoParser(String headerName, String signatureHeaderName,
+                                VerifiedUserInfoCache verifiedUserInfoCache, boolean signatureRequired) {
         this.headerName = headerName != null ? headerName : DEFAULT_USER_INFO_HEADER;
+        this.signatureHeaderName = signatureHeaderName != null ? signatureHeaderName : UserInfoSigner.DEFAULT_SIGNATURE_HEADER;
+        this.verifiedUserInfoCache = verifiedUserInfoCache;
+        this.signatureRequired = signatureRequired;
     }
 
     @Override
@@ -49,13 +74,41 @@ public class HeaderUserInfoParser implements UserInfoParser, Ordered {
             return null;
         }
 
+        if (verifiedUserInfoCache != null) {
+            String signature = request.getHeader(signatureHeaderName);
+            if (signature != null) {
+                UserContext userContext = verifiedUserInfoCache.get(userInfoHeader, signature, this::decode);
+                if (userContext == null) {
+                    log.warn("用户信息header签名无效，header: {}", headerName);
+                }
+                return userContext;
+            }
+            if (signatureRequired) {
+                log.warn("用户信息header缺少签名，header: {}", signatureHeaderName);
+                return null;
+            }
+        }
+
+        return decode(userInfoHeader);
+    }
+
+    private UserContext decode(String userInfoHeader) {
         try {
             // Base64解码
-            String json = new String(Base64.getDecoder().decode(userInfoHeader), StandardCharsets.UTF_8);
-            
-            // 反序列化为UserContext
-            UserContext userContext = OBJECT_MAPPER.readValue(json, UserContext.class);
-            
+            byte[] bytes = Base64.getDecoder().decode(userInfoHeader);
+
+            // 二进制格式直接解码，否则按JSON反序列化为UserContext
+            UserContext userContext = UserInfoCodec.isBinary(bytes)
+                    ? UserInfoCodec.decode(bytes)
+                    : OBJECT_MAPPER.readValue(bytes, UserContext.class);
+
+            // token 过期后被重放的 header 不再信任
+            if (userContext.isExpired()) {
+                log.warn("用户信息header已过期，header: {}, userId: {}, expiresAt: {}",
+                        headerName, userContext.getUserId(), userContext.getExpiresAt());
+                return null;
+            }
+
             log.debug("从header {} 成功解析用户信息: userId={}", headerName, userContext.getUserId());
             return userContext;
             
@@ -0,0 +1,117 @@
+package com.indiegeeker.context.domain;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.indiegeeker.context.application.UserContextHolder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 位集角色列表、权限集合测试
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+@DisplayName("位集角色列表、权限集合测试")
+class AuthorityCollectionTest {
+
+    @Test
+    @DisplayName("与普通集合语义一致，转换后不可变")
+    void collectionSemantics() {
+        List<String> roles = AuthorityList.of(List.of("USER", "ADMIN", "USER"));
+        assertInstanceOf(AuthorityList.class, roles);
+        assertEquals(List.of("USER", "ADMIN", "USER"), roles);
+        assertEquals(List.of("USER", "ADMIN", "USER").hashCode(), roles.hashCode());
+        assertTrue(roles.contains("ADMIN"));
+        assertFalse(roles.contains("never-registered-role"));
+        assertFalse(roles.contains(null));
+        assertThrows(UnsupportedOperationException.class, () -> roles.add("GUEST"));
+        assertSame(roles, AuthorityList.of(roles));
+
+        Set<String> permissions = AuthoritySet.of(List.of("read", "write", "read"));
+        assertInstanceOf(AuthoritySet.class, permissions);
+        assertEquals(Set.of("read", "write"), permissions);
+        assertEquals(Set.of("read", "write"), Set.copyOf(permissions));
+        assertEquals(2, permissions.size());
+        assertThrows(UnsupportedOperationException.class, () -> permissions.remove("read"));
+
+        assertNull(AuthorityList.of((List<String>) null));
+        assertNull(AuthoritySet.of((Set<String>) null));
+        List<String> withNull = AuthorityList.of(Arrays.asList("USER", null));
+        assertEquals(Arrays.asList("USER", null), withNull);
+        assertFalse(withNull instanceof AuthorityList);
+    }
+
+    @Test
+    @DisplayName("UserContext 的 setter、builder 转换为位集，复制时共享")
+    void userContextSharesAuthorities() {
+        UserContext context = UserContext.builder()
+                .userId("1")
+                .roles(new ArrayList<>(List.of("USER", "VIP")))
+                .permissions(Set.of("read"))
+                .build();
+        assertInstanceOf(AuthorityList.class, context.getRoles());
+        assertInstanceOf(AuthoritySet.class, context.getPermissions());
+        assertTrue(context.hasAnyRole("GUEST", "VIP"));
+        assertTrue(context.hasPermission("read"));
+        assertFalse(context.hasAnyPermission("write"));
+
+        context.setRoles(List.of("ADMIN"));
+        assertInstanceOf(AuthorityList.class, context.getRoles());
+        assertTrue(context.hasRole("ADMIN"));
+
+        UserContextHolder.setContext(context);
+        try {
+            UserContext copy = UserContextHolder.copyContext();
+            assertEquals(context, copy);
+            assertSame(context.getRoles(), copy.getRoles());
+            assertSame(context.getPermissions(), copy.getPermissions());
+        } finally {
+            UserContextHolder.clear();
+        }
+
+        AuthorityBits required = AuthorityBits.of(AuthorityRegistry.roles(), List.of("ADMIN", "SUPER_ADMIN"));
+        assertTrue(required.containsAny(context.getRoles()));
+        assertTrue(required.containsAny(List.of("ADMIN")));
+        assertFalse(required.containsAny(AuthorityList.of("USER")));
+    }
+
+    @Test
+    @DisplayName("JSON、Java 序列化按名称传递")
+    void serialization() throws Exception {
+        UserContext context = UserContext.builder()
+                .userId("1")
+                .roles(List.of("USER"))
+                .permissions(Set.of("read", "write"))
+                .build();
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        UserContext fromJson = objectMapper.readValue(objectMapper.writeValueAsBytes(context), UserContext.class);
+        assertEquals(context, fromJson);
+        assertInstanceOf(AuthorityList.class, fromJson.getRoles());
+        assertInstanceOf(AuthoritySet.class, fromJson.getPermissions());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(context);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            UserContext deserialized = (UserContext) in.readObject();
+            assertEquals(context, deserialized);
+            assertTrue(deserialized.hasRole("USER"));
+        }
+    }
+}
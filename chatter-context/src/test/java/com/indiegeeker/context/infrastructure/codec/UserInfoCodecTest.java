@@ -0,0 +1,131 @@
+package com.indiegeeker.context.infrastructure.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.context.infrastructure.web.parser.HeaderUserInfoParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户信息二进制编解码测试
+ *
+ * Author: wen
+ * Date: 2025/7/15
+ */
+@DisplayName("用户信息二进制编解码测试")
+class UserInfoCodecTest {
+
+    @Test
+    @DisplayName("编码、解码往返，字典外的名称按字面量传递")
+    void roundTrip() {
+        UserContext userContext = UserContext.builder()
+                .userId("1001")
+                .username("张三")
+                .nickname("zs")
+                .roles(List.of("USER", "ADMIN", "OPERATOR"))
+                .permissions(Set.of("read", "write", "report:export"))
+                .tenantId("t1")
+                .clientType("mobile")
+                .requestIp("192.168.1.10")
+                .tokenId("3f2c1d7e-jti")
+                .expiresAt(LocalDateTime.of(2025, 7, 15, 12, 30, 45))
+                .build();
+
+        UserContext decoded = UserInfoCodec.decode(Base64.getDecoder().decode(UserInfoCodec.encode(userContext)));
+
+        assertEquals(userContext, decoded);
+    }
+
+    @Test
+    @DisplayName("空字段、IPv6、非法ip")
+    void optionalFields() {
+        UserContext ipv6 = UserContext.builder().userId("1").roles(List.of()).requestIp("2001:db8::1").build();
+        assertEquals(ipv6, UserInfoCodec.decode(UserInfoCodec.encodeBytes(ipv6)));
+
+        UserContext unknownIp = UserContext.builder().requestIp("unknown").build();
+        assertEquals(unknownIp, UserInfoCodec.decode(UserInfoCodec.encodeBytes(unknownIp)));
+    }
+
+    @Test
+    @DisplayName("截断或版本不支持的数据解码失败")
+    void rejectMalformed() {
+        byte[] bytes = UserInfoCodec.encodeBytes(UserContext.builder().userId("1001").username("user").build());
+
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(IllegalArgumentException.class, () -> UserInfoCodec.decode(truncated));
+        }
+        bytes[0] = 99;
+        assertFalse(UserInfoCodec.isBinary(bytes));
+    }
+
+    @Test
+    @DisplayName("下游解析器兼容二进制与JSON两种格式，二进制更短")
+    void parserAcceptsBothFormats() throws Exception {
+        UserContext userContext = UserContext.builder()
+                .userId("1001")
+                .username("user1001")
+                .roles(new ArrayList<>(List.of("USER")))
+                .permissions(Set.of("read"))
+                .requestIp("10.0.0.1")
+                .build();
+        String binary = UserInfoCodec.encode(userContext);
+        String json = Base64.getEncoder().encodeToString(new ObjectMapper().writeValueAsString(Map.of(
+                "userId", "1001", "username", "user1001", "roles", List.of("USER"),
+                "permissions", List.of("read"), "requestIp", "10.0.0.1")).getBytes(StandardCharsets.UTF_8));
+
+        HeaderUserInfoParser parser = new HeaderUserInfoParser();
+        assertEquals(userContext, parser.parseUserContext(request(binary)));
+        assertEquals(userContext, parser.parseUserContext(request(json)));
+        assertTrue(binary.length() * 2 < json.length());
+    }
+
+    @Test
+    @DisplayName("典型已登录用户的 header 长度：二进制不到 JSON + Base64 的一半")
+    void headerLength() throws Exception {
+        UserContext userContext = UserContext.builder()
+                .userId("1893456723456789")
+                .username("user1893456723456789")
+                .nickname("chatter")
+                .roles(List.of("USER", "VIP"))
+                .permissions(Set.of("read", "write", "delete"))
+                .tenantId("t1")
+                .clientType("mobile")
+                .requestIp("192.168.31.120")
+                .build();
+        Map<String, Object> userInfo = new HashMap<>();
+        userInfo.put("userId", userContext.getUserId());
+        userInfo.put("username", userContext.getUsername());
+        userInfo.put("nickname", userContext.getNickname());
+        userInfo.put("roles", userContext.getRoles());
+        userInfo.put("permissions", userContext.getPermissions());
+        userInfo.put("tenantId", userContext.getTenantId());
+        userInfo.put("clientType", userContext.getClientType());
+        userInfo.put("requestIp", userContext.getRequestIp());
+        String json = Base64.getEncoder().encodeToString(
+                new ObjectMapper().writeValueAsString(userInfo).getBytes(StandardCharsets.UTF_8));
+
+        String binary = UserInfoCodec.encode(userContext);
+
+        assertTrue(binary.length() * 2 < json.length(), "binary=" + binary.length() + ", json=" + json.length());
+    }
+
+    private static MockHttpServletRequest request(String headerValue) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-User-Info", headerValue);
+        return request;
+    }
+}
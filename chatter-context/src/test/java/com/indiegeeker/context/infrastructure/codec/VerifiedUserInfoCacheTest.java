@@ -0,0 +1,152 @@
+package com.indiegeeker.context.infrastructure.codec;
+
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.context.infrastructure.web.parser.HeaderUserInfoParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户信息签名与验签缓存测试
+ *
+ * Author: wen
+ * Date: 2025/7/16
+ */
+@DisplayName("用户信息签名与验签缓存测试")
+class VerifiedUserInfoCacheTest {
+
+    private static final String SECRET = "chatter-user-info-sign-secret-for-test";
+
+    private static final UserContext USER = UserContext.builder()
+            .userId("1001")
+            .username("user1001")
+            .roles(List.of("USER"))
+            .requestIp("10.0.0.1")
+            .tokenId("jti-1001")
+            .expiresAt(LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.SECONDS))
+            .build();
+
+    @Test
+    @DisplayName("签名、验签，篡改内容或使用其他密钥签名验签失败")
+    void signAndVerify() {
+        UserInfoSigner signer = UserInfoSigner.of(SECRET);
+        String payload = UserInfoCodec.encode(USER);
+        String signature = signer.sign(payload);
+
+        assertEquals(22, signature.length());
+        assertEquals(signature, signer.sign(payload));
+        assertTrue(signer.verify(payload, signature));
+
+        String tampered = UserInfoCodec.encode(USER.toBuilder().roles(List.of("ADMIN")).build());
+        assertFalse(signer.verify(tampered, signature));
+        assertFalse(signer.verify(payload, UserInfoSigner.of(SECRET + "-other").sign(payload)));
+        assertFalse(signer.verify(payload, "not base64!"));
+
+        assertFalse(UserInfoSigner.of(null).isEnabled());
+        assertNull(UserInfoSigner.disabled().sign(payload));
+        assertThrows(IllegalArgumentException.class, () -> UserInfoSigner.of("too-short"));
+    }
+
+    @Test
+    @DisplayName("验签通过的结果被缓存，命中时不再解码，返回副本")
+    void cacheVerifiedResult() {
+        UserInfoSigner signer = UserInfoSigner.of(SECRET);
+        VerifiedUserInfoCache cache = new VerifiedUserInfoCache(signer, 100, Duration.ofMinutes(1));
+        String payload = UserInfoCodec.encode(USER);
+        String signature = signer.sign(payload);
+        AtomicInteger decodes = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            UserContext context = cache.get(payload, signature, value -> {
+                decodes.incrementAndGet();
+                return UserInfoCodec.decode(Base64.getDecoder().decode(value));
+            });
+            assertEquals(USER, context);
+            context.setRequestIp("127.0.0.1");
+        }
+        assertEquals(1, decodes.get());
+
+        // 签名不匹配时即使内容已缓存也不放行，也不会覆盖缓存
+        String forged = UserInfoSigner.of(SECRET + "-other").sign(payload);
+        assertNull(cache.get(payload, forged, value -> USER));
+        assertEquals(USER, cache.get(payload, signature, value -> null));
+        assertEquals(1, cache.estimatedSize());
+    }
+
+    @Test
+    @DisplayName("解析器只信任签名有效的header")
+    void parserRequiresSignature() {
+        UserInfoSigner signer = UserInfoSigner.of(SECRET);
+        VerifiedUserInfoCache cache = new VerifiedUserInfoCache(signer, 100, Duration.ofMinutes(1));
+        String payload = UserInfoCodec.encode(USER);
+
+        HeaderUserInfoParser required = new HeaderUserInfoParser(null, null, cache, true);
+        assertEquals(USER, required.parseUserContext(request(payload, signer.sign(payload))));
+        assertNull(required.parseUserContext(request(payload, null)));
+        assertNull(required.parseUserContext(request(payload, signer.sign(payload + "x"))));
+
+        HeaderUserInfoParser optional = new HeaderUserInfoParser(null, null, cache, false);
+        assertEquals(USER, optional.parseUserContext(request(payload, null)));
+        assertNull(optional.parseUserContext(request(payload, signer.sign(payload + "x"))));
+    }
+
+    @Test
+    @DisplayName("已过期或缺少过期时间的header即使签名有效也不信任，也不进入缓存")
+    void rejectExpired() {
+        UserInfoSigner signer = UserInfoSigner.of(SECRET);
+        VerifiedUserInfoCache cache = new VerifiedUserInfoCache(signer, 100, Duration.ofMinutes(1));
+        HeaderUserInfoParser parser = new HeaderUserInfoParser(null, null, cache, true);
+
+        UserContext expired = USER.toBuilder()
+                .expiresAt(LocalDateTime.now().minusSeconds(5).truncatedTo(ChronoUnit.SECONDS))
+                .build();
+        String payload = UserInfoCodec.encode(expired);
+        assertNull(parser.parseUserContext(request(payload, signer.sign(payload))));
+
+        String noExpiry = UserInfoCodec.encode(USER.toBuilder().expiresAt(null).build());
+        assertNull(parser.parseUserContext(request(noExpiry, signer.sign(noExpiry))));
+        assertEquals(0, cache.estimatedSize());
+
+        // 未签名的灰度路径同样拒绝过期内容
+        HeaderUserInfoParser optional = new HeaderUserInfoParser(null, null, cache, false);
+        assertNull(optional.parseUserContext(request(payload, null)));
+    }
+
+    @Test
+    @DisplayName("缓存的条目过期后不再返回")
+    void cachedEntryExpires() throws Exception {
+        UserInfoSigner signer = UserInfoSigner.of(SECRET);
+        VerifiedUserInfoCache cache = new VerifiedUserInfoCache(signer, 100, Duration.ofMinutes(1));
+        UserContext shortLived = USER.toBuilder()
+                .expiresAt(LocalDateTime.now().plusSeconds(1).truncatedTo(ChronoUnit.SECONDS).plusSeconds(1))
+                .build();
+        String payload = UserInfoCodec.encode(shortLived);
+        String signature = signer.sign(payload);
+        Function<String, UserContext> decoder = value -> UserInfoCodec.decode(Base64.getDecoder().decode(value));
+
+        assertEquals(shortLived, cache.get(payload, signature, decoder));
+        assertEquals(1, cache.estimatedSize());
+
+        Thread.sleep(Duration.between(LocalDateTime.now(), shortLived.getExpiresAt()).toMillis() + 50);
+        assertNull(cache.get(payload, signature, decoder));
+    }
+
+    private static MockHttpServletRequest request(String payload, String signature) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-User-Info", payload);
+        if (signature != null) {
+            request.addHeader(UserInfoSigner.DEFAULT_SIGNATURE_HEADER, signature);
+        }
+        return request;
+    }
+}
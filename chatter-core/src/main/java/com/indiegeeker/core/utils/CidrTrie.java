@@ -0,0 +1,154 @@
+package com.indiegeeker.core.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * CIDR 网段前缀树
+ * IPv4、IPv6 网段统一按 128 位键（IPv4 以 IPv4-mapped 形式）插入二叉前缀树，查询时从最高位逐位下行，
+ * 遇到任一网段的终点即命中，最多比较 128 位，与网段数量无关：
+ * 1. 节点以数组下标表示，children[2 * node + bit] 为子节点，0 表示不存在（根节点不会是任何节点的子节点）
+ * 2. 构建后不可变，可在多个线程间共享
+ * 3. 插入被已有网段覆盖的网段时直接忽略，插入更大的网段时不回收被覆盖的子树，查询结果不受影响
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public final class CidrTrie {
+
+    private static final int IPV4_MAPPED_PREFIX_LENGTH = 96;
+
+    private static final long IPV4_MAPPED_PREFIX = 0x0000_FFFF_0000_0000L;
+
+    private static final ThreadLocal<long[]> ADDRESS_BUFFER = ThreadLocal.withInitial(() -> new long[2]);
+
+    private int[] children = new int[32];
+
+    private boolean[] terminal = new boolean[16];
+
+    private int nodes = 1;
+
+    private int size;
+
+    private CidrTrie() {
+    }
+
+    /**
+     * 编译网段列表
+     *
+     * @param cidrs 网段，如 10.0.0.0/8、fc00::/7；不带前缀长度的地址表示单个地址
+     * @throws IllegalArgumentException 网段格式不合法
+     */
+    public static CidrTrie compile(Collection<String> cidrs) {
+        CidrTrie trie = new CidrTrie();
+        if (cidrs != null) {
+            long[] address = new long[2];
+            for (String cidr : cidrs) {
+                if (cidr == null || cidr.isBlank()) {
+                    continue;
+                }
+                String value = cidr.trim();
+                int slash = value.indexOf('/');
+                String ip = slash < 0 ? value : value.substring(0, slash);
+                if (!IPAddressUtils.parse(ip, address)) {
+                    throw new IllegalArgumentException("网段格式不合法: " + cidr);
+                }
+                boolean ipv4 = IPAddressUtils.parseIPv4(ip) >= 0;
+                int maxLength = ipv4 ? 32 : 128;
+                int prefixLength;
+                try {
+                    prefixLength = slash < 0 ? maxLength : Integer.parseInt(value.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("网段前缀长度不合法: " + cidr);
+                }
+                if (prefixLength < 0 || prefixLength > maxLength) {
+                    throw new IllegalArgumentException("网段前缀长度不合法: " + cidr);
+                }
+                trie.insert(address[0], address[1], ipv4 ? IPV4_MAPPED_PREFIX_LENGTH + prefixLength : prefixLength);
+            }
+        }
+        return trie;
+    }
+
+    /**
+     * 地址是否落在任一网段内
+     *
+     * @param hi 地址高64位
+     * @param lo 地址低64位
+     */
+    public boolean contains(long hi, long lo) {
+        int node = 0;
+        for (int i = 0; i < 128; i++) {
+            if (terminal[node]) {
+                return true;
+            }
+            node = children[2 * node + bit(hi, lo, i)];
+            if (node == 0) {
+                return false;
+            }
+        }
+        return terminal[node];
+    }
+
+    /**
+     * 地址是否落在任一网段内，地址格式不合法时返回 false
+     * IPv4 直接解析为 long，IPv6 复用线程内的缓冲区，查询过程不分配对象
+     */
+    public boolean contains(CharSequence ip) {
+        if (ip == null) {
+            return false;
+        }
+        long ipv4 = IPAddressUtils.parseIPv4(ip);
+        if (ipv4 >= 0) {
+            return contains(0, IPV4_MAPPED_PREFIX | ipv4);
+        }
+        long[] address = ADDRESS_BUFFER.get();
+        return IPAddressUtils.parseIPv6(ip, address) && contains(address[0], address[1]);
+    }
+
+    /**
+     * 插入的网段数（不含被已有网段覆盖而忽略的）
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void insert(long hi, long lo, int prefixLength) {
+        int node = 0;
+        for (int i = 0; i < prefixLength; i++) {
+            if (terminal[node]) {
+                return;
+            }
+            int slot = 2 * node + bit(hi, lo, i);
+            if (children[slot] == 0) {
+                // newNode 可能扩容替换 children，先分配再写入
+                int child = newNode();
+                children[slot] = child;
+            }
+            node = children[slot];
+        }
+        if (!terminal[node]) {
+            terminal[node] = true;
+            size++;
+        }
+    }
+
+    private int newNode() {
+        if (nodes == terminal.length) {
+            terminal = Arrays.copyOf(terminal, nodes * 2);
+            children = Arrays.copyOf(children, nodes * 4);
+        }
+        return nodes++;
+    }
+
+    /**
+     * 第 index 位（从最高位开始）
+     */
+    private static int bit(long hi, long lo, int index) {
+        return index < 64 ? (int) (hi >>> (63 - index)) & 1 : (int) (lo >>> (127 - index)) & 1;
+    }
+}
@@ -0,0 +1,149 @@
+package com.indiegeeker.core.utils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.CharBuffer;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 客户端真实 IP 解析
+ * 网关与各服务共用，只信任受信代理追加的 X-Forwarded-For：
+ * 1. 直连地址不是受信代理时，X-Forwarded-For 可能是客户端伪造的，直接以直连地址为准
+ * 2. 直连地址是受信代理时，从右向左遍历 X-Forwarded-For，跳过受信代理，第一个不受信的地址即客户端；
+ *    全部受信时取最左边的地址，遇到格式不合法的条目停止，取其右侧最近的合法地址
+ * 3. 没有 X-Forwarded-For 时依次使用 X-Real-IP、直连地址
+ * 受信代理为 CIDR 网段，编译为 CidrTrie；遍历直接在字符串上按下标扫描，不使用正则、不 split。
+ * 直连地址为回环地址（本机调用）时返回本机地址，本机地址在类加载时解析一次，请求路径上不做 DNS 查询
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public final class ClientIpResolver {
+
+    public static final String UNKNOWN = "unknown";
+
+    /**
+     * 缓存解析结果的请求属性名，网关为 exchange 属性，服务为 request 属性
+     */
+    public static final String CLIENT_IP_ATTRIBUTE = ClientIpResolver.class.getName() + ".clientIp";
+
+    /**
+     * 默认受信代理：回环地址与内网网段，即部署在内网的负载均衡、网关
+     */
+    public static final List<String> DEFAULT_TRUSTED_PROXIES = List.of(
+            "127.0.0.0/8", "::1/128",
+            "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16",
+            "fc00::/7");
+
+    private static final String LOCAL_ADDRESS = resolveLocalAddress();
+
+    private static volatile ClientIpResolver shared = of(DEFAULT_TRUSTED_PROXIES);
+
+    private final CidrTrie trustedProxies;
+
+    private ClientIpResolver(CidrTrie trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    /**
+     * @param trustedProxies 受信代理网段，为空时不信任任何 X-Forwarded-For
+     * @throws IllegalArgumentException 网段格式不合法
+     */
+    public static ClientIpResolver of(Collection<String> trustedProxies) {
+        return new ClientIpResolver(CidrTrie.compile(trustedProxies));
+    }
+
+    /**
+     * 共享实例，供 IPUtils 等静态工具类使用，应用启动时按配置替换
+     */
+    public static ClientIpResolver shared() {
+        return shared;
+    }
+
+    public static void setShared(ClientIpResolver resolver) {
+        shared = resolver;
+    }
+
+    /**
+     * 本机地址，解析失败时为 127.0.0.1
+     */
+    public static String localAddress() {
+        return LOCAL_ADDRESS;
+    }
+
+    /**
+     * 解析客户端 IP
+     *
+     * @param remoteAddress 直连地址
+     * @param forwardedFor  X-Forwarded-For
+     * @param realIp        X-Real-IP，没有 X-Forwarded-For 时使用
+     * @return 客户端 IP，直连地址未知时返回 unknown
+     */
+    public String resolve(String remoteAddress, String forwardedFor, String realIp) {
+        if (remoteAddress == null || remoteAddress.isEmpty()) {
+            return UNKNOWN;
+        }
+        long[] address = new long[2];
+        if (!IPAddressUtils.parse(remoteAddress, address) || !trustedProxies.contains(address[0], address[1])) {
+            return remoteAddress;
+        }
+        String chain = forwardedFor != null && !forwardedFor.isEmpty() ? forwardedFor : realIp;
+        if (chain == null || chain.isEmpty()) {
+            return isLoopback(address[0], address[1]) ? LOCAL_ADDRESS : remoteAddress;
+        }
+
+        // 从右向左遍历，[start, end) 为当前条目去掉首尾空白后的区间
+        int candidateStart = -1;
+        int candidateEnd = -1;
+        int end = chain.length();
+        while (end >= 0) {
+            int comma = end - 1;
+            while (comma >= 0 && chain.charAt(comma) != ',') {
+                comma--;
+            }
+            int start = comma + 1;
+            int entryEnd = end;
+            while (start < entryEnd && chain.charAt(start) <= ' ') {
+                start++;
+            }
+            while (entryEnd > start && chain.charAt(entryEnd - 1) <= ' ') {
+                entryEnd--;
+            }
+            if (start < entryEnd) {
+                if (!IPAddressUtils.parse(CharBuffer.wrap(chain, start, entryEnd), address)) {
+                    break;
+                }
+                candidateStart = start;
+                candidateEnd = entryEnd;
+                if (!trustedProxies.contains(address[0], address[1])) {
+                    break;
+                }
+            }
+            end = comma;
+        }
+        return candidateStart >= 0 ? chain.substring(candidateStart, candidateEnd) : remoteAddress;
+    }
+
+    /**
+     * 地址是否为受信代理
+     */
+    public boolean isTrustedProxy(String ip) {
+        return ip != null && trustedProxies.contains(ip);
+    }
+
+    private static boolean isLoopback(long hi, long lo) {
+        if (IPAddressUtils.isIPv4Mapped(hi, lo)) {
+            return ((lo >>> 24) & 0xFF) == 127;
+        }
+        return hi == 0 && lo == 1;
+    }
+
+    private static String resolveLocalAddress() {
+        try {
+            return InetAddress.getLocalHost().getHostAddress();
+        } catch (UnknownHostException e) {
+            return "127.0.0.1";
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.indiegeeker.core.utils;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Desc: 游标（keyset）分页的数据格式
+ * 与 PagedGridResult 的按页码分页不同，按上一页最后一条记录的排序键定位下一页，翻页深度不影响查询耗时，也不需要 COUNT 查询：
+ * 1. nextCursor 为空表示没有下一页，客户端请求下一页时原样回传
+ * 2. records 为可选的近似总记录数（如 information_schema 中的统计值），未请求时为 null
+ * Author: wen
+ * Date: 2025/7/18
+ **/
+@Getter
+@Setter
+public class CursorPagedResult<T> {
+    private List<T> rows;			// 每行显示的内容
+    private int size;				// 每页条数
+    private boolean hasMore;		// 是否有下一页
+    private String nextCursor;		// 下一页的游标
+    private Long records;			// 近似总记录数
+
+    /**
+     * 由按排序键查询出的记录构建分页结果，查询时应多取一条（size + 1）用于判断是否有下一页
+     *
+     * @param fetched  按排序键有序的记录，最多 size + 1 条
+     * @param size     每页条数
+     * @param cursorOf 记录对应的游标
+     */
+    public static <T> CursorPagedResult<T> of(List<T> fetched, int size, Function<T, PageCursor> cursorOf) {
+        CursorPagedResult<T> result = new CursorPagedResult<>();
+        boolean hasMore = fetched.size() > size;
+        List<T> rows = hasMore ? new ArrayList<>(fetched.subList(0, size)) : fetched;
+        result.setRows(rows);
+        result.setSize(size);
+        result.setHasMore(hasMore);
+        if (hasMore) {
+            result.setNextCursor(cursorOf.apply(rows.get(rows.size() - 1)).encode());
+        }
+        return result;
+    }
+
+    /**
+     * 转换每行的内容，分页信息保持不变
+     */
+    public <R> CursorPagedResult<R> map(Function<T, R> mapper) {
+        CursorPagedResult<R> result = new CursorPagedResult<>();
+        List<R> mapped = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            mapped.add(mapper.apply(row));
+        }
+        result.setRows(mapped);
+        result.setSize(size);
+        result.setHasMore(hasMore);
+        result.setNextCursor(nextCursor);
+        result.setRecords(records);
+        return result;
+    }
+}
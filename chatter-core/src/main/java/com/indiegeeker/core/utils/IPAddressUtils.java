@@ -0,0 +1,302 @@
+package com.indiegeeker.core.utils;
+
+/**
+ * IP 地址解析工具
+ * 直接在字符序列上解析，不创建中间对象（不走 InetAddress、不 split），适合在请求热路径上使用：
+ * IPv4 解析为 32 位整数，IPv6 解析为高、低两个 64 位整数；
+ * IPv4 统一表示为 IPv4-mapped IPv6 地址（::ffff:a.b.c.d），两类地址可共用同一个 128 位键空间
+ *
+ * Author: wen
+ * Date: 2025/7/12
+ */
+public class IPAddressUtils {
+
+    /**
+     * IPv4-mapped IPv6 地址低 64 位的前缀 0000:0000:ffff:????:????
+     */
+    private static final long IPV4_MAPPED_PREFIX = 0x0000_FFFF_0000_0000L;
+
+    private IPAddressUtils() {
+    }
+
+    /**
+     * 解析 IPv4 地址
+     *
+     * @param ip 点分十进制地址
+     * @return 无符号32位地址值，格式不合法时返回 -1
+     */
+    public static long parseIPv4(CharSequence ip) {
+        return parseIPv4(ip, 0, ip.length());
+    }
+
+    /**
+     * 解析字符序列 [from, to) 区间内的 IPv4 地址
+     *
+     * @return 无符号32位地址值，格式不合法时返回 -1
+     */
+    public static long parseIPv4(CharSequence ip, int from, int to) {
+        long address = 0;
+        int octets = 0;
+        int i = from;
+        while (i < to) {
+            int start = i;
+            int value = 0;
+            while (i < to) {
+                char c = ip.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                if (++i - start > 3) {
+                    return -1;
+                }
+            }
+            if (i == start || value > 255) {
+                return -1;
+            }
+            address = (address << 8) | value;
+            octets++;
+            if (i == to) {
+                break;
+            }
+            if (ip.charAt(i) != '.' || octets == 4 || ++i == to) {
+                return -1;
+            }
+        }
+        return octets == 4 ? address : -1;
+    }
+
+    /**
+     * 解析 IPv6 地址，支持 :: 压缩、尾部内嵌 IPv4 以及 %zone 后缀（忽略）
+     *
+     * @param ip  IPv6 地址
+     * @param out 输出，out[0] 为高64位，out[1] 为低64位
+     * @return 格式是否合法
+     */
+    public static boolean parseIPv6(CharSequence ip, long[] out) {
+        int end = ip.length();
+        for (int i = 0; i < end; i++) {
+            if (ip.charAt(i) == '%') {
+                end = i;
+                break;
+            }
+        }
+        if (end < 2) {
+            return false;
+        }
+
+        // :: 之前的分组累积在 head，之后的累积在 tail，最后按组数拼接
+        long headHi = 0, headLo = 0, tailHi = 0, tailLo = 0;
+        int headCount = 0, tailCount = 0;
+        boolean compressed = false;
+        int i = 0;
+        if (ip.charAt(0) == ':') {
+            if (ip.charAt(1) != ':') {
+                return false;
+            }
+            compressed = true;
+            i = 2;
+        }
+        while (i < end) {
+            int start = i;
+            int group = 0;
+            while (i < end) {
+                int digit = hexDigit(ip.charAt(i));
+                if (digit < 0) {
+                    break;
+                }
+                group = (group << 4) | digit;
+                if (++i - start > 4) {
+                    return false;
+                }
+            }
+            if (i < end && ip.charAt(i) == '.') {
+                // 尾部内嵌的 IPv4 占两个分组
+                long ipv4 = parseIPv4(ip, start, end);
+                if (ipv4 < 0) {
+                    return false;
+                }
+                if (compressed) {
+                    tailHi = (tailHi << 32) | (tailLo >>> 32);
+                    tailLo = (tailLo << 32) | ipv4;
+                    tailCount += 2;
+                } else {
+                    headHi = (headHi << 32) | (headLo >>> 32);
+                    headLo = (headLo << 32) | ipv4;
+                    headCount += 2;
+                }
+                break;
+            }
+            if (i == start) {
+                return false;
+            }
+            if (compressed) {
+                tailHi = (tailHi << 16) | (tailLo >>> 48);
+                tailLo = (tailLo << 16) | group;
+                tailCount++;
+            } else {
+                headHi = (headHi << 16) | (headLo >>> 48);
+                headLo = (headLo << 16) | group;
+                headCount++;
+            }
+            if (headCount + tailCount > 8) {
+                return false;
+            }
+            if (i == end) {
+                break;
+            }
+            if (ip.charAt(i) != ':' || ++i == end) {
+                return false;
+            }
+            if (ip.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            }
+        }
+
+        int groups = headCount + tailCount;
+        if (compressed ? groups > 7 : groups != 8) {
+            return false;
+        }
+        // head 左移到高位，:: 代表的全零分组补在中间
+        int shift = (8 - headCount) * 16;
+        if (shift >= 128) {
+            headHi = 0;
+            headLo = 0;
+        } else if (shift >= 64) {
+            headHi = headLo << (shift - 64);
+            headLo = 0;
+        } else if (shift > 0) {
+            headHi = (headHi << shift) | (headLo >>> (64 - shift));
+            headLo = headLo << shift;
+        }
+        out[0] = headHi | tailHi;
+        out[1] = headLo | tailLo;
+        return true;
+    }
+
+    /**
+     * 解析 IPv4 或 IPv6 地址，IPv4 以 IPv4-mapped IPv6 形式输出
+     *
+     * @param ip  IP 地址
+     * @param out 输出，out[0] 为高64位，out[1] 为低64位
+     * @return 格式是否合法
+     */
+    public static boolean parse(CharSequence ip, long[] out) {
+        if (ip == null || ip.isEmpty()) {
+            return false;
+        }
+        long ipv4 = parseIPv4(ip);
+        if (ipv4 >= 0) {
+            out[0] = 0;
+            out[1] = IPV4_MAPPED_PREFIX | ipv4;
+            return true;
+        }
+        return parseIPv6(ip, out);
+    }
+
+    /**
+     * 规范化 IP 地址写法，同一个地址的不同写法（::1 与 0:0:0:0:0:0:0:1、大小写、IPv4-mapped）得到同一个字符串
+     * IPv4 已是点分十进制规范写法时原样返回，不创建新字符串
+     *
+     * @param ip IP 地址
+     * @return 规范化的地址（规则同 format），格式不合法时原样返回
+     */
+    public static String normalize(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return ip;
+        }
+        long ipv4 = parseIPv4(ip);
+        if (ipv4 >= 0) {
+            return hasLeadingZero(ip) ? format(0, IPV4_MAPPED_PREFIX | ipv4) : ip;
+        }
+        long[] address = new long[2];
+        return parseIPv6(ip, address) ? format(address[0], address[1]) : ip;
+    }
+
+    /**
+     * 是否为 IPv4-mapped IPv6 地址
+     */
+    public static boolean isIPv4Mapped(long hi, long lo) {
+        return hi == 0 && (lo & 0xFFFF_FFFF_0000_0000L) == IPV4_MAPPED_PREFIX;
+    }
+
+    /**
+     * 格式化为字符串：IPv4-mapped 地址输出点分十进制，其余按 RFC 5952 规范输出 IPv6
+     *
+     * @param hi 高64位
+     * @param lo 低64位
+     * @return IP 地址
+     */
+    public static String format(long hi, long lo) {
+        StringBuilder sb = new StringBuilder(39);
+        if (isIPv4Mapped(hi, lo)) {
+            return sb.append((lo >>> 24) & 0xFF).append('.')
+                    .append((lo >>> 16) & 0xFF).append('.')
+                    .append((lo >>> 8) & 0xFF).append('.')
+                    .append(lo & 0xFF).toString();
+        }
+
+        // 找到最长的连续全零分组（至少两组）压缩为 ::
+        int bestStart = -1, bestLength = 1;
+        int runStart = -1;
+        for (int g = 0; g <= 8; g++) {
+            boolean zero = g < 8 && group(hi, lo, g) == 0;
+            if (zero && runStart < 0) {
+                runStart = g;
+            } else if (!zero && runStart >= 0) {
+                if (g - runStart > bestLength) {
+                    bestStart = runStart;
+                    bestLength = g - runStart;
+                }
+                runStart = -1;
+            }
+        }
+
+        for (int g = 0; g < 8; g++) {
+            if (g == bestStart) {
+                sb.append("::");
+                g += bestLength - 1;
+                continue;
+            }
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ':') {
+                sb.append(':');
+            }
+            sb.append(Integer.toHexString(group(hi, lo, g)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 点分十进制地址中是否有带前导零的段，如 010.0.0.1
+     */
+    private static boolean hasLeadingZero(String ipv4) {
+        for (int i = 0; i < ipv4.length() - 1; i++) {
+            if (ipv4.charAt(i) == '0' && (i == 0 || ipv4.charAt(i - 1) == '.') && ipv4.charAt(i + 1) != '.') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static int group(long hi, long lo, int index) {
+        long half = index < 4 ? hi : lo;
+        return (int) (half >>> ((3 - (index & 3)) * 16)) & 0xFFFF;
+    }
+}
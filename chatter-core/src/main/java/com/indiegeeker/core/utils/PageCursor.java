@@ -0,0 +1,53 @@
+package com.indiegeeker.core.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Desc: 游标分页的位置，即上一页最后一条记录的排序键（时间, id）
+ * 对外编码为不透明的 URL 安全 Base64 字符串，客户端原样回传，不应解析
+ * Author: wen
+ * Date: 2025/7/18
+ **/
+public record PageCursor(LocalDateTime time, String id) {
+
+    private static final char SEPARATOR = '|';
+
+    public PageCursor {
+        if (time == null || id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("游标的时间、id 不能为空");
+        }
+    }
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        String raw = time + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码客户端回传的游标
+     *
+     * @return 游标为空时返回 null，表示从第一页开始
+     * @throws IllegalArgumentException 游标格式不合法
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("游标格式不合法: " + cursor);
+            }
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("游标格式不合法: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.indiegeeker.core.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 受信代理网段与客户端 IP 解析测试
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@DisplayName("受信代理网段与客户端 IP 解析测试")
+class ClientIpResolverTest {
+
+    private static final ClientIpResolver RESOLVER = ClientIpResolver.of(List.of("10.0.0.0/8", "192.168.1.1", "fc00::/7"));
+
+    @Test
+    @DisplayName("网段前缀树匹配 IPv4、IPv6，网段格式不合法时编译失败")
+    void cidrTrie() {
+        CidrTrie trie = CidrTrie.compile(List.of("10.0.0.0/8", "10.1.0.0/16", "172.16.0.0/12", "192.168.1.1",
+                "2001:db8::/32", "::1"));
+        assertEquals(5, trie.size());
+        assertTrue(trie.contains("10.255.0.1"));
+        assertTrue(trie.contains("172.31.255.255"));
+        assertFalse(trie.contains("172.32.0.0"));
+        assertTrue(trie.contains("192.168.1.1"));
+        assertFalse(trie.contains("192.168.1.2"));
+        assertTrue(trie.contains("2001:db8:ffff::1"));
+        assertTrue(trie.contains("::1"));
+        assertTrue(trie.contains("::ffff:10.0.0.1"));
+        assertFalse(trie.contains("2001:db9::1"));
+        assertFalse(trie.contains("unknown"));
+
+        assertTrue(CidrTrie.compile(List.of("0.0.0.0/0")).contains("8.8.8.8"));
+        assertFalse(CidrTrie.compile(List.of("0.0.0.0/0")).contains("2001:db8::1"));
+        assertTrue(CidrTrie.compile(List.of()).isEmpty());
+        for (String invalid : new String[]{"10.0.0.0/33", "::/129", "10.0.0/8", "10.0.0.0/x", "host.local"}) {
+            assertThrows(IllegalArgumentException.class, () -> CidrTrie.compile(List.of(invalid)), invalid);
+        }
+    }
+
+    @Test
+    @DisplayName("只有受信代理转发的请求才使用 X-Forwarded-For，从右向左跳过受信代理")
+    void resolveForwardedFor() {
+        // 直连地址不受信，忽略客户端伪造的 X-Forwarded-For
+        assertEquals("203.0.113.9", RESOLVER.resolve("203.0.113.9", "1.1.1.1", null));
+        // 受信代理转发：第一个不受信的地址为客户端，左侧的伪造地址被忽略
+        assertEquals("198.51.100.7", RESOLVER.resolve("10.0.0.2", "1.1.1.1, 198.51.100.7, 10.0.0.3", null));
+        assertEquals("198.51.100.7", RESOLVER.resolve("10.0.0.2", " 198.51.100.7 ,10.0.0.3,, ", null));
+        assertEquals("2001:db8::7", RESOLVER.resolve("fd00::1", "2001:db8::7, 192.168.1.1", null));
+        // 全部受信时取最左边的地址，遇到不合法的条目取其右侧最近的地址
+        assertEquals("10.1.2.3", RESOLVER.resolve("10.0.0.2", "10.1.2.3, 10.0.0.3", null));
+        assertEquals("10.0.0.3", RESOLVER.resolve("10.0.0.2", "unknown, 10.0.0.3", null));
+        assertEquals("10.0.0.2", RESOLVER.resolve("10.0.0.2", "unknown", null));
+        // 没有 X-Forwarded-For 时使用 X-Real-IP
+        assertEquals("198.51.100.8", RESOLVER.resolve("10.0.0.2", null, "198.51.100.8"));
+        assertEquals("198.51.100.8", RESOLVER.resolve("10.0.0.2", "", "198.51.100.8"));
+        assertEquals("10.0.0.2", RESOLVER.resolve("10.0.0.2", null, null));
+        assertEquals(ClientIpResolver.UNKNOWN, RESOLVER.resolve(null, "198.51.100.7", null));
+
+        // 不信任任何代理时总是取直连地址
+        assertEquals("10.0.0.2", ClientIpResolver.of(List.of()).resolve("10.0.0.2", "198.51.100.7", null));
+    }
+
+    @Test
+    @DisplayName("本机直连时返回启动时解析的本机地址")
+    void loopback() {
+        ClientIpResolver resolver = ClientIpResolver.of(List.of("127.0.0.0/8", "::1/128"));
+        assertEquals(ClientIpResolver.localAddress(), resolver.resolve("127.0.0.1", null, null));
+        assertEquals(ClientIpResolver.localAddress(), resolver.resolve("0:0:0:0:0:0:0:1", null, null));
+        assertEquals("198.51.100.7", resolver.resolve("127.0.0.1", "198.51.100.7", null));
+        assertTrue(resolver.isTrustedProxy("127.0.0.53"));
+        assertFalse(resolver.isTrustedProxy("10.0.0.1"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.indiegeeker.core.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 游标分页测试
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@DisplayName("游标分页测试")
+class CursorPagedResultTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2025, 7, 18, 10, 30, 15);
+
+    @Test
+    @DisplayName("游标编码后可原样解码，格式不合法时抛出异常")
+    void encodeAndDecode() {
+        PageCursor cursor = new PageCursor(TIME, "1946012345678901234");
+        String encoded = cursor.encode();
+        assertFalse(encoded.contains("|"));
+        assertEquals(cursor, PageCursor.decode(encoded));
+        assertEquals(new PageCursor(TIME, "a|b"), PageCursor.decode(new PageCursor(TIME, "a|b").encode()));
+
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(" "));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("bm8tc2VwYXJhdG9y"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("eHx5"));
+    }
+
+    @Test
+    @DisplayName("多取的一条用于判断是否有下一页，游标指向本页最后一条")
+    void buildFromFetched() {
+        List<String> ids = List.of("5", "4", "3");
+        CursorPagedResult<String> page = CursorPagedResult.of(ids, 2, id -> new PageCursor(TIME, id));
+        assertEquals(List.of("5", "4"), page.getRows());
+        assertTrue(page.isHasMore());
+        assertEquals("4", PageCursor.decode(page.getNextCursor()).id());
+
+        CursorPagedResult<String> last = CursorPagedResult.of(List.of("2", "1"), 2, id -> new PageCursor(TIME, id));
+        assertFalse(last.isHasMore());
+        assertNull(last.getNextCursor());
+        last.setRecords(5L);
+        CursorPagedResult<Integer> mapped = last.map(Integer::valueOf);
+        assertEquals(List.of(2, 1), mapped.getRows());
+        assertEquals(5L, mapped.getRecords());
+    }
+}
@@ -0,0 +1,116 @@
+package com.indiegeeker.core.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IP 地址解析工具测试
+ *
+ * Author: wen
+ * Date: 2025/7/12
+ */
+@DisplayName("IP 地址解析工具测试")
+class IPAddressUtilsTest {
+
+    @Test
+    @DisplayName("解析 IPv4")
+    void parseIPv4() {
+        assertEquals(0xC0A80164L, IPAddressUtils.parseIPv4("192.168.1.100"));
+        assertEquals(0L, IPAddressUtils.parseIPv4("0.0.0.0"));
+        assertEquals(0xFFFFFFFFL, IPAddressUtils.parseIPv4("255.255.255.255"));
+
+        for (String invalid : new String[]{"", "1.2.3", "1.2.3.4.5", "256.1.1.1", "1..2.3", "1.2.3.", ".1.2.3",
+                "1.2.3.4a", "1234.1.1.1", "unknown", "::1"}) {
+            assertEquals(-1L, IPAddressUtils.parseIPv4(invalid), invalid);
+        }
+    }
+
+    @Test
+    @DisplayName("解析 IPv6，与 InetAddress 结果一致")
+    void parseIPv6() throws Exception {
+        for (String ip : new String[]{"::", "::1", "1::", "2001:db8::1", "2001:db8:0:0:1:0:0:1",
+                "fe80::1:2:3:4", "2001:DB8:85A3:0:0:8A2E:370:7334", "1:2:3:4:5:6:7:8",
+                "::ffff:192.168.1.100", "64:ff9b::1.2.3.4", "1:2:3:4:5:6:1.2.3.4"}) {
+            long[] out = new long[2];
+            assertTrue(IPAddressUtils.parseIPv6(ip, out), ip);
+            ByteBuffer expected = ByteBuffer.wrap(toIPv6Bytes(InetAddress.getByName(ip)));
+            assertEquals(expected.getLong(0), out[0], ip);
+            assertEquals(expected.getLong(8), out[1], ip);
+        }
+
+        long[] out = new long[2];
+        assertTrue(IPAddressUtils.parseIPv6("fe80::1%eth0", out));
+        assertEquals(0xFE80_0000_0000_0000L, out[0]);
+        assertEquals(1L, out[1]);
+
+        for (String invalid : new String[]{"", ":", ":::", "1:2", "1::2::3", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7::8",
+                "12345::", "1:", ":1::", "g::1", "::1.2.3", "1.2.3.4", "1:2:3:4:5:6:7:1.2.3.4"}) {
+            assertFalse(IPAddressUtils.parseIPv6(invalid, out), invalid);
+        }
+    }
+
+    @Test
+    @DisplayName("IPv4 以 IPv4-mapped 形式输出，格式化还原")
+    void parseAndFormat() {
+        long[] out = new long[2];
+        assertTrue(IPAddressUtils.parse("10.0.0.1", out));
+        assertTrue(IPAddressUtils.isIPv4Mapped(out[0], out[1]));
+        assertEquals("10.0.0.1", IPAddressUtils.format(out[0], out[1]));
+
+        // IPv4 与其 IPv4-mapped IPv6 写法得到同一个键
+        long[] mapped = new long[2];
+        assertTrue(IPAddressUtils.parse("::ffff:10.0.0.1", mapped));
+        assertArrayEquals(out, mapped);
+
+        // RFC 5952：小写、去前导零、压缩最长的全零分组（相同长度取第一个）
+        String[][] cases = {
+                {"2001:0DB8:0000:0000:0000:0000:0000:0001", "2001:db8::1"},
+                {"2001:db8:0:0:1:0:0:1", "2001:db8::1:0:0:1"},
+                {"2001:db8:0:1:1:1:1:1", "2001:db8:0:1:1:1:1:1"},
+                {"0:0:0:0:0:0:0:0", "::"},
+                {"0:0:0:0:0:0:0:1", "::1"},
+                {"1:0:0:0:0:0:0:0", "1::"},
+        };
+        for (String[] c : cases) {
+            assertTrue(IPAddressUtils.parse(c[0], out), c[0]);
+            assertEquals(c[1], IPAddressUtils.format(out[0], out[1]), c[0]);
+        }
+
+        assertFalse(IPAddressUtils.parse("unknown", out));
+        assertFalse(IPAddressUtils.parse(null, out));
+    }
+
+    @Test
+    @DisplayName("同一地址的不同写法规范化为同一个字符串")
+    void normalize() {
+        assertEquals("::1", IPAddressUtils.normalize("0:0:0:0:0:0:0:1"));
+        assertEquals("::1", IPAddressUtils.normalize("::1"));
+        assertEquals("2001:db8::1", IPAddressUtils.normalize("2001:0DB8::0001"));
+        assertEquals("10.0.0.1", IPAddressUtils.normalize("::ffff:10.0.0.1"));
+        assertEquals("10.0.0.1", IPAddressUtils.normalize("010.000.0.01"));
+        assertSame("10.0.0.0", IPAddressUtils.normalize("10.0.0.0"));
+
+        String ipv4 = "10.0.0.1";
+        assertSame(ipv4, IPAddressUtils.normalize(ipv4));
+        assertEquals("unknown", IPAddressUtils.normalize("unknown"));
+        assertNull(IPAddressUtils.normalize(null));
+    }
+
+    private static byte[] toIPv6Bytes(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 16) {
+            return bytes;
+        }
+        // InetAddress 会把 ::ffff:a.b.c.d 转为 IPv4，这里还原为 IPv4-mapped 形式
+        byte[] mapped = new byte[16];
+        mapped[10] = (byte) 0xFF;
+        mapped[11] = (byte) 0xFF;
+        System.arraycopy(bytes, 0, mapped, 12, 4);
+        return mapped;
+    }
+}
@@ -0,0 +1,49 @@
+package com.indiegeeker.data.config;
+
+import com.indiegeeker.data.metrics.RedisMetrics;
+import com.indiegeeker.data.utils.ReactiveRedisUtils;
+import com.indiegeeker.data.utils.RedisUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisReactiveAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Redis 工具类自动配置
+ * 启动类不在 com.indiegeeker 包下的服务（如 com.indiegeeker.auth）扫描不到 RedisUtils，由此注册；
+ * 已通过包扫描注册的不再重复创建
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@AutoConfiguration(after = {RedisAutoConfiguration.class, RedisReactiveAutoConfiguration.class})
+@ConditionalOnClass(StringRedisTemplate.class)
+public class RedisUtilsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisMetrics redisMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RedisMetrics(meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(StringRedisTemplate.class)
+    public RedisUtils redisUtils() {
+        return new RedisUtils();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(ReactiveStringRedisTemplate.class)
+    public ReactiveRedisUtils reactiveRedisUtils() {
+        return new ReactiveRedisUtils();
+    }
+}
@@ -0,0 +1,104 @@
+package com.indiegeeker.data.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis 操作耗时指标
+ * 1. 每种操作、每种客户端（blocking / reactive）的 Timer 在创建时一次性注册，记录时按 ordinal 取数组元素，
+ *    请求路径上不拼接标签、不查找 Meter
+ * 2. 发布百分位直方图，桶范围限制在 100µs 到 5s，供 /actuator/prometheus 计算 p99 等分位数
+ * 3. 没有 MeterRegistry（未引入 actuator）时使用空的 CompositeMeterRegistry，Timer 为空实现
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@Component
+public class RedisMetrics {
+
+    public static final String METRIC_NAME = "chatter.redis.operation";
+
+    private final Timer[] blockingTimers;
+
+    private final Timer[] reactiveTimers;
+
+    @Autowired
+    public RedisMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this(meterRegistry.getIfAvailable(CompositeMeterRegistry::new));
+    }
+
+    public RedisMetrics(MeterRegistry registry) {
+        this.blockingTimers = register(registry, "blocking");
+        this.reactiveTimers = register(registry, "reactive");
+    }
+
+    private static Timer[] register(MeterRegistry registry, String client) {
+        RedisOperation[] operations = RedisOperation.values();
+        Timer[] timers = new Timer[operations.length];
+        for (RedisOperation operation : operations) {
+            timers[operation.ordinal()] = Timer.builder(METRIC_NAME)
+                    .description("Redis 操作耗时")
+                    .tag("operation", operation.getTagValue())
+                    .tag("client", client)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100_000))
+                    .maximumExpectedValue(Duration.ofSeconds(5))
+                    .register(registry);
+        }
+        return timers;
+    }
+
+    /**
+     * 记录阻塞操作的耗时
+     *
+     * @param startNanos 操作开始时的 System.nanoTime()
+     */
+    public void record(RedisOperation operation, long startNanos) {
+        blockingTimers[operation.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录响应式操作从订阅到结束（完成、出错或取消）的耗时
+     */
+    public <T> Mono<T> time(RedisOperation operation, Mono<T> source) {
+        Timer timer = reactiveTimers[operation.ordinal()];
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return source.doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * 记录响应式操作从订阅到结束（完成、出错或取消）的耗时
+     */
+    public <T> Flux<T> time(RedisOperation operation, Flux<T> source) {
+        Timer timer = reactiveTimers[operation.ordinal()];
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return source.doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * 阻塞操作的 Timer
+     */
+    public Timer blockingTimer(RedisOperation operation) {
+        return blockingTimers[operation.ordinal()];
+    }
+
+    /**
+     * 响应式操作的 Timer
+     */
+    public Timer reactiveTimer(RedisOperation operation) {
+        return reactiveTimers[operation.ordinal()];
+    }
+}
@@ -0,0 +1,39 @@
+package com.indiegeeker.data.metrics;
+
+/**
+ * RedisUtils、ReactiveRedisUtils 的操作类型，作为耗时指标的 operation 标签
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public enum RedisOperation {
+
+    KEY_IS_EXIST("keyIsExist"),
+    GET_EXPIRE("getExpire"),
+    SET_EXPIRE("setExpire"),
+    OPT_KEYS("optKeys"),
+    DEL_KEY("delKey"),
+    DELETE("delete"),
+    SET("set"),
+    SET_IF_ABSENT("setIfAbsent"),
+    GET("get"),
+    MULTI_GET("multiGet"),
+    BATCH_GET("batchGet"),
+    BATCH_SET("batchSet"),
+    INCREMENT("increment"),
+    DECREMENT("decrement"),
+    HASH_DELETE("hashDelete"),
+    SCRIPT_LOAD("scriptLoad"),
+    EXECUTE("execute"),
+    PUBLISH("publish");
+
+    private final String tagValue;
+
+    RedisOperation(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+}
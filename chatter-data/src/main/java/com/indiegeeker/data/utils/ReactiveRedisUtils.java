@@ -0,0 +1,214 @@
+package com.indiegeeker.data.utils;
+
+import com.indiegeeker.data.metrics.RedisMetrics;
+import com.indiegeeker.data.metrics.RedisOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Desc: Redis 响应式工具类
+ * RedisUtils 的非阻塞版本，基于 ReactiveStringRedisTemplate，返回 Mono/Flux
+ * 适用于运行在 Netty event-loop 线程上的代码（如网关过滤器），避免 redis 慢响应阻塞整个 event-loop
+ * Author: wen
+ * Date: 2025/7/9
+ **/
+@Component
+public class ReactiveRedisUtils {
+
+    @Autowired
+    ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    @Autowired
+    RedisMetrics redisMetrics;
+
+    // Key（键），简单的key-value操作
+    /**
+     * 判断 key 是否存在
+     * @param key
+     * @return
+     */
+    public Mono<Boolean> keyIsExist(String key) {
+        return redisMetrics.time(RedisOperation.KEY_IS_EXIST, reactiveStringRedisTemplate.hasKey(key));
+    }
+
+    /**
+     * 以秒为单位，返回给定 key的剩余生存时间(TTL, time to live)
+     * @param key
+     * @return
+     */
+    public Mono<Long> getExpire(String key) {
+        return redisMetrics.time(RedisOperation.GET_EXPIRE,
+                reactiveStringRedisTemplate.getExpire(key).map(Duration::getSeconds));
+    }
+
+    /**
+     * 设置过期时间，单位：秒
+     * @param key
+     * @param timeout
+     */
+    public Mono<Boolean> setExpire(String key, long timeout) {
+        return redisMetrics.time(RedisOperation.SET_EXPIRE,
+                reactiveStringRedisTemplate.expire(key, Duration.ofSeconds(timeout)));
+    }
+
+    /**
+     * 找所有符合给定模式 pattern的 key
+     * 使用 SCAN 增量迭代，不会像 KEYS 一样阻塞 redis
+     * @param pattern
+     * @return
+     */
+    public Flux<String> optKeys(String pattern){
+        return redisMetrics.time(RedisOperation.OPT_KEYS,
+                reactiveStringRedisTemplate.scan(ScanOptions.scanOptions().match(pattern).build()));
+    }
+
+    /**
+     * 删除 Key
+     * @param key 可以传一个值 或多个
+     * @return 删除的数量
+     */
+    public Mono<Long> delKey(String key){
+        return redisMetrics.time(RedisOperation.DEL_KEY, reactiveStringRedisTemplate.delete(optKeys(key + "*")));
+    }
+
+    // String（字符串）
+
+    /**
+     * 设置key-value值
+     * @param key
+     * @param value
+     */
+    public Mono<Boolean> set(String key, String value){
+        return redisMetrics.time(RedisOperation.SET, reactiveStringRedisTemplate.opsForValue().set(key, value));
+    }
+
+    /**
+     * 设置key-value值、超时时间(秒)
+     * @param key
+     * @param value
+     */
+    public Mono<Boolean> setExpireBySecond(String key, String value, long timeout){
+        return set(key, value, Duration.ofSeconds(timeout));
+    }
+
+    /**
+     * 设置key-value值、超时时间
+     * @param key
+     * @param value
+     * @param timeout
+     */
+    public Mono<Boolean> set(String key, String value, Duration timeout){
+        return redisMetrics.time(RedisOperation.SET,
+                reactiveStringRedisTemplate.opsForValue().set(key, value, timeout));
+    }
+
+    /**
+     * 如果key不存在，则设置，如果存在，则不操作
+     * @param key
+     * @param value
+     * @param timeout
+     * @return true表示设置成功，false表示key已存在未设置
+     */
+    public Mono<Boolean> setIfAbsent(String key, String value, Duration timeout){
+        return redisMetrics.time(RedisOperation.SET_IF_ABSENT,
+                reactiveStringRedisTemplate.opsForValue().setIfAbsent(key, value, timeout));
+    }
+
+    /**
+     * 获取Key 对应的 Value
+     * @param key
+     * @return
+     */
+    public Mono<String> get(String key){
+        return redisMetrics.time(RedisOperation.GET, reactiveStringRedisTemplate.opsForValue().get(key));
+    }
+
+    /**
+     * 获取多个 Key 对应的 Value
+     * @param keys
+     * @return
+     */
+    public Mono<List<String>> multiGet(List<String> keys){
+        return redisMetrics.time(RedisOperation.MULTI_GET, reactiveStringRedisTemplate.opsForValue().multiGet(keys));
+    }
+
+    /**
+     * 累加, 可设置步长
+     * 原子性地递增存储在键中的数字值，若键不存在则初始化为0后再递增
+     * @param key
+     * @param delta
+     */
+    public Mono<Long> increment(String key, long delta){
+        return redisMetrics.time(RedisOperation.INCREMENT,
+                reactiveStringRedisTemplate.opsForValue().increment(key, delta));
+    }
+
+    /**
+     * 累减，可设置步长
+     * 原子性地递减存储在键中的数字值，若键不存在则初始化为0后再递减
+     * @param key
+     * @param delta
+     */
+    public Mono<Long> decrement(String key, long delta){
+        return redisMetrics.time(RedisOperation.DECREMENT,
+                reactiveStringRedisTemplate.opsForValue().decrement(key, delta));
+    }
+
+    // Script（Lua脚本）
+
+    /**
+     * 预加载脚本到 redis 脚本缓存，后续按 SHA1 执行（EVALSHA）
+     * @param script
+     * @return 脚本的 SHA1
+     */
+    public Mono<String> scriptLoad(RedisScript<?> script){
+        ByteBuffer body = ByteBuffer.wrap(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+        return redisMetrics.time(RedisOperation.SCRIPT_LOAD,
+                reactiveStringRedisTemplate.execute(connection -> connection.scriptingCommands().scriptLoad(body))
+                .next());
+    }
+
+    /**
+     * 原子执行 Lua 脚本
+     * 优先使用 EVALSHA，脚本缓存中不存在时自动回退为 EVAL
+     * @param script
+     * @param keys
+     * @param args
+     * @return
+     */
+    public <T> Flux<T> execute(RedisScript<T> script, List<String> keys, List<String> args){
+        return redisMetrics.time(RedisOperation.EXECUTE, reactiveStringRedisTemplate.execute(script, keys, args));
+    }
+
+    // Pub/Sub（发布订阅）
+
+    /**
+     * 向频道发布消息
+     * @param channel
+     * @param message
+     * @return 收到消息的订阅者数量
+     */
+    public Mono<Long> publish(String channel, String message){
+        return redisMetrics.time(RedisOperation.PUBLISH, reactiveStringRedisTemplate.convertAndSend(channel, message));
+    }
+
+    /**
+     * 订阅频道，返回收到的消息流
+     * @param channel
+     * @return
+     */
+    public Flux<String> listenToChannel(String channel){
+        return reactiveStringRedisTemplate.listenToChannel(channel).map(ReactiveSubscription.Message::getMessage);
+    }
+}
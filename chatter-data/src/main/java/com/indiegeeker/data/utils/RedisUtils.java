@@ -1,5 +1,7 @@
 package com.indiegeeker.data.utils;
 
+import com.indiegeeker.data.metrics.RedisMetrics;
+import com.indiegeeker.data.metrics.RedisOperation;
 import jakarta.annotation.Nonnull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
@@ -7,11 +9,16 @@ import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.StringRedisConnection;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -25,6 +32,9 @@ public class RedisUtils {
     @Autowired
     StringRedisTemplate stringRedisTemplate;
 
+    @Autowired
+    RedisMetrics redisMetrics;
+
     // Key（键），简单的key-value操作
     /**
      * 判断 key 是否存在
@@ -32,7 +42,12 @@ public class RedisUtils {
      * @return
      */
     public boolean keyIsExist(String key) {
-        return stringRedisTemplate.hasKey(key);
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.hasKey(key);
+        } finally {
+            redisMetrics.record(RedisOperation.KEY_IS_EXIST, start);
+        }
     }
 
     /**
@@ -41,7 +56,12 @@ public class RedisUtils {
      * @return
      */
     public long getExpire(String key) {
-        return stringRedisTemplate.getExpire(key);
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.getExpire(key);
+        } finally {
+            redisMetrics.record(RedisOperation.GET_EXPIRE, start);
+        }
     }
 
     /**
@@ -50,7 +70,12 @@ public class RedisUtils {
      * @param timeout
      */
     public void setExpire(String key, long timeout) {
-        stringRedisTemplate.expire(key,timeout, TimeUnit.SECONDS);
+        long start = System.nanoTime();
+        try {
+            stringRedisTemplate.expire(key,timeout, TimeUnit.SECONDS);
+        } finally {
+            redisMetrics.record(RedisOperation.SET_EXPIRE, start);
+        }
     }
 
 
@@ -60,7 +85,12 @@ public class RedisUtils {
      * @return
      */
     public Set<String> optKeys(String pattern){
-        return stringRedisTemplate.keys(pattern);
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.keys(pattern);
+        } finally {
+            redisMetrics.record(RedisOperation.OPT_KEYS, start);
+        }
     }
 
     /**
@@ -68,8 +98,27 @@ public class RedisUtils {
      * @param key 可以传一个值 或多个
      */
     public void delKey(String key){
-        Set<String> keys = optKeys(key + "*");
-        stringRedisTemplate.delete(keys);
+        long start = System.nanoTime();
+        try {
+            Set<String> keys = optKeys(key + "*");
+            stringRedisTemplate.delete(keys);
+        } finally {
+            redisMetrics.record(RedisOperation.DEL_KEY, start);
+        }
+    }
+
+    /**
+     * 按完整 key 删除，不做模式匹配
+     * @param keys
+     * @return 实际删除的 key 数量
+     */
+    public Long delete(Collection<String> keys){
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.delete(keys);
+        } finally {
+            redisMetrics.record(RedisOperation.DELETE, start);
+        }
     }
 
     // String（字符串）
@@ -80,7 +129,12 @@ public class RedisUtils {
      * @param value
      */
     public void set(String key, String value){
-        stringRedisTemplate.opsForValue().set(key,value);
+        long start = System.nanoTime();
+        try {
+            stringRedisTemplate.opsForValue().set(key,value);
+        } finally {
+            redisMetrics.record(RedisOperation.SET, start);
+        }
     }
 
     /**
@@ -126,7 +180,12 @@ public class RedisUtils {
      * @param timeout
      */
     public void set(String key, String value, long timeout, TimeUnit timeUnit){
-        stringRedisTemplate.opsForValue().set(key,value,timeout,timeUnit);
+        long start = System.nanoTime();
+        try {
+            stringRedisTemplate.opsForValue().set(key,value,timeout,timeUnit);
+        } finally {
+            redisMetrics.record(RedisOperation.SET, start);
+        }
     }
 
     /**
@@ -136,7 +195,12 @@ public class RedisUtils {
      * @return true表示设置成功，false表示key已存在未设置
      */
     public Boolean setIfAbsent(String key, String value){
-        return stringRedisTemplate.opsForValue().setIfAbsent(key,value);
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.opsForValue().setIfAbsent(key,value);
+        } finally {
+            redisMetrics.record(RedisOperation.SET_IF_ABSENT, start);
+        }
     }
 
     /**
@@ -148,7 +212,12 @@ public class RedisUtils {
      * @return true表示设置成功，false表示key已存在未设置
      */
     public Boolean setIfAbsent(String key, String value, long timeout, TimeUnit timeUnit){
-        return stringRedisTemplate.opsForValue().setIfAbsent(key,value,timeout,timeUnit);
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.opsForValue().setIfAbsent(key,value,timeout,timeUnit);
+        } finally {
+            redisMetrics.record(RedisOperation.SET_IF_ABSENT, start);
+        }
     }
 
     /**
@@ -157,7 +226,12 @@ public class RedisUtils {
      * @return
      */
     public String get(String key){
-        return stringRedisTemplate.opsForValue().get(key);
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.opsForValue().get(key);
+        } finally {
+            redisMetrics.record(RedisOperation.GET, start);
+        }
     }
 
     /**
@@ -167,7 +241,12 @@ public class RedisUtils {
      * @return
      */
     public List<String> multiGet(List<String> keys){
-        return stringRedisTemplate.opsForValue().multiGet(keys);
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.opsForValue().multiGet(keys);
+        } finally {
+            redisMetrics.record(RedisOperation.MULTI_GET, start);
+        }
     }
 
     /**
@@ -177,18 +256,58 @@ public class RedisUtils {
      * @return
      */
     public List<String> batchGet(List<String> keys){
-        List<Object> result = stringRedisTemplate.executePipelined(new RedisCallback<String>() {
-            @Override
-            public String doInRedis(@Nonnull RedisConnection connection) throws DataAccessException {
-                StringRedisConnection src = (StringRedisConnection)connection;
-                for (String k : keys) {
-                    src.get(k);
+        long start = System.nanoTime();
+        try {
+            List<Object> result = stringRedisTemplate.executePipelined(new RedisCallback<String>() {
+                @Override
+                public String doInRedis(@Nonnull RedisConnection connection) throws DataAccessException {
+                    StringRedisConnection src = (StringRedisConnection)connection;
+                    for (String k : keys) {
+                        src.get(k);
+                    }
+                    return null;
                 }
-                return null;
-            }
-        });
+            });
 
-        return result.stream().map(o -> (String)o).collect(Collectors.toList());
+            return result.stream().map(o -> (String)o).collect(Collectors.toList());
+        } finally {
+            redisMetrics.record(RedisOperation.BATCH_GET, start);
+        }
+    }
+
+    /**
+     * 批量写入带过期时间的 Key，管道pipeline 实现
+     * @param values key-value
+     * @param timeout 过期时间，单位：秒
+     */
+    public void batchSet(Map<String, String> values, long timeout){
+        batchSet(values, entry -> timeout);
+    }
+
+    /**
+     * 批量写入带过期时间的 Key，每个 Key 的过期时间可以不同，管道pipeline 实现
+     * @param values key-value
+     * @param timeoutOf 每个 key-value 的过期时间，单位：秒
+     */
+    public void batchSet(Map<String, String> values, ToLongFunction<Map.Entry<String, String>> timeoutOf){
+        if (values.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            stringRedisTemplate.executePipelined(new RedisCallback<String>() {
+                @Override
+                public String doInRedis(@Nonnull RedisConnection connection) throws DataAccessException {
+                    StringRedisConnection src = (StringRedisConnection)connection;
+                    for (Map.Entry<String, String> entry : values.entrySet()) {
+                        src.setEx(entry.getKey(), timeoutOf.applyAsLong(entry), entry.getValue());
+                    }
+                    return null;
+                }
+            });
+        } finally {
+            redisMetrics.record(RedisOperation.BATCH_SET, start);
+        }
     }
 
     /**
@@ -197,7 +316,12 @@ public class RedisUtils {
      * @param key
      */
     public Long increment(String key){
-        return stringRedisTemplate.opsForValue().increment(key);
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.opsForValue().increment(key);
+        } finally {
+            redisMetrics.record(RedisOperation.INCREMENT, start);
+        }
     }
 
     /**
@@ -207,7 +331,12 @@ public class RedisUtils {
      * @param delta
      */
     public Long increment(String key,long delta){
-        return stringRedisTemplate.opsForValue().increment(key,delta);
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.opsForValue().increment(key,delta);
+        } finally {
+            redisMetrics.record(RedisOperation.INCREMENT, start);
+        }
     }
 
     /**
@@ -216,7 +345,12 @@ public class RedisUtils {
      * @param key
      */
     public Long decrement(String key){
-        return stringRedisTemplate.opsForValue().decrement(key);
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.opsForValue().decrement(key);
+        } finally {
+            redisMetrics.record(RedisOperation.DECREMENT, start);
+        }
     }
 
     /**
@@ -226,6 +360,79 @@ public class RedisUtils {
      * @param delta
      */
     public Long decrement(String key,long delta){
-        return stringRedisTemplate.opsForValue().decrement(key,delta);
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.opsForValue().decrement(key,delta);
+        } finally {
+            redisMetrics.record(RedisOperation.DECREMENT, start);
+        }
+    }
+
+    // Hash（哈希）
+
+    /**
+     * 删除哈希中的字段
+     * @param key
+     * @param fields
+     * @return 实际删除的字段数
+     */
+    public Long hashDelete(String key, String... fields){
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.opsForHash().delete(key, (Object[]) fields);
+        } finally {
+            redisMetrics.record(RedisOperation.HASH_DELETE, start);
+        }
+    }
+
+    // Script（Lua脚本）
+
+    /**
+     * 预加载脚本到 redis 脚本缓存，后续按 SHA1 执行（EVALSHA）
+     * @param script
+     * @return 脚本的 SHA1
+     */
+    public String scriptLoad(RedisScript<?> script){
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8)));
+        } finally {
+            redisMetrics.record(RedisOperation.SCRIPT_LOAD, start);
+        }
+    }
+
+    /**
+     * 原子执行 Lua 脚本
+     * 优先使用 EVALSHA，脚本缓存中不存在时自动回退为 EVAL
+     * @param script
+     * @param keys
+     * @param args
+     * @return
+     */
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args){
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.execute(script, keys, args);
+        } finally {
+            redisMetrics.record(RedisOperation.EXECUTE, start);
+        }
+    }
+
+    // Pub/Sub（发布订阅）
+
+    /**
+     * 向频道发布消息
+     * @param channel
+     * @param message
+     * @return 收到消息的订阅者数量
+     */
+    public Long publish(String channel, String message){
+        long start = System.nanoTime();
+        try {
+            return stringRedisTemplate.convertAndSend(channel, message);
+        } finally {
+            redisMetrics.record(RedisOperation.PUBLISH, start);
+        }
     }
 }
@@ -0,0 +1,24 @@
+package com.indiegeeker.pojo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量查询用户名片请求对象
+ *
+ * @author indiegeeker
+ */
+@Data
+@Schema(description = "批量查询用户名片请求对象")
+public class BatchUserCardRequest {
+
+    @Schema(description = "用户ID列表，结果按此顺序返回", example = "[\"1001\", \"1002\"]",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotEmpty(message = "用户ID列表不能为空")
+    @Size(max = 500, message = "单次最多查询500个用户")
+    private List<String> userIds;
+}
@@ -0,0 +1,36 @@
+package com.indiegeeker.pojo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDateTime;
+
+/**
+ * 访问令牌、刷新令牌数据传输对象
+ *
+ * @author indiegeeker
+ */
+@Data
+@Accessors(chain = true)
+@Schema(description = "登录、刷新令牌响应对象")
+public class TokenPairDTO {
+
+    @Schema(description = "用户ID", example = "1001")
+    private String userId;
+
+    @Schema(description = "访问令牌（JWT），请求时放在 Authorization: Bearer 后")
+    private String accessToken;
+
+    @Schema(description = "访问令牌有效期，单位：秒", example = "900")
+    private Long expiresIn;
+
+    @Schema(description = "访问令牌过期时间", example = "2025-07-17 10:15:00")
+    private LocalDateTime expireTime;
+
+    @Schema(description = "刷新令牌，只能使用一次，刷新后返回新的刷新令牌")
+    private String refreshToken;
+
+    @Schema(description = "刷新令牌有效期，单位：秒", example = "2592000")
+    private Long refreshExpiresIn;
+}
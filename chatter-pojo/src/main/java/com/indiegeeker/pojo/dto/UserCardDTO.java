@@ -0,0 +1,34 @@
+package com.indiegeeker.pojo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 用户名片数据传输对象，聊天列表、群成员等批量展示时使用，只包含公开信息
+ *
+ * @author indiegeeker
+ */
+@Data
+@Accessors(chain = true)
+@Schema(description = "用户名片响应对象")
+public class UserCardDTO {
+
+    @Schema(description = "用户ID", example = "1001")
+    private String userId;
+
+    @Schema(description = "微信号", example = "wx_123456")
+    private String wechatNum;
+
+    @Schema(description = "用户昵称", example = "张三")
+    private String nickname;
+
+    @Schema(description = "用户头像URL")
+    private String face;
+
+    @Schema(description = "性别", example = "1", allowableValues = {"0", "1", "2"})
+    private Integer sex;
+
+    @Schema(description = "个性签名", example = "今天也要加油哦！")
+    private String signature;
+}
@@ -0,0 +1,149 @@
+package com.indiegeeker.security.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.indiegeeker.context.domain.UserContext;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 已验签 token 缓存
+ * 同一个 token 会被客户端反复携带，验签、解析 claims 的结果按 token 摘要缓存，命中时不再走 JJWT：
+ * 1. 键为 token 的 SHA-256 摘要（取前128位），不在内存中保留 token 原文
+ * 2. 每个条目在 token 的 expiresAt 到期，同时不超过 maxTtl；条目总数有上限，超出后按 Caffeine 的策略淘汰
+ * 3. 验签失败、已过期的结果不缓存
+ * 4. 登出、吊销时可立即按 token 或按用户剔除
+ * 缓存中的 UserContext 不对外暴露，每次返回一份副本，调用方可以放心修改 requestIp 等请求级字段
+ *
+ * Author: wen
+ * Date: 2025/7/14
+ */
+public class VerifiedTokenCache {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JDK不支持SHA-256", e);
+        }
+    });
+
+    private final Cache<TokenDigest, UserContext> cache;
+
+    /**
+     * @param maximumSize 最大条目数
+     * @param maxTtl      条目最长存活时间，token 剩余有效期更短时以有效期为准
+     */
+    public VerifiedTokenCache(long maximumSize, Duration maxTtl) {
+        long maxTtlNanos = maxTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<TokenDigest, UserContext>() {
+                    @Override
+                    public long expireAfterCreate(TokenDigest key, UserContext value, long currentTime) {
+                        return Math.min(maxTtlNanos, remainingNanos(value));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(TokenDigest key, UserContext value, long currentTime,
+                                                  long currentDuration) {
+                        return Math.min(maxTtlNanos, remainingNanos(value));
+                    }
+
+                    @Override
+                    public long expireAfterRead(TokenDigest key, UserContext value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 获取 token 对应的用户上下文，未命中时调用 verifier 验签解析并缓存
+     *
+     * @param token    JWT token
+     * @param verifier 验签解析函数，失败返回 null
+     * @return 用户上下文副本，验签失败或已过期返回 null
+     */
+    public UserContext get(String token, Function<String, UserContext> verifier) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        UserContext cached = cache.get(digest(token), key -> {
+            UserContext verified = verifier.apply(token);
+            // 验签失败、已过期的结果不缓存
+            return verified == null || remainingNanos(verified) <= 0 ? null : verified;
+        });
+        return cached == null ? null : cached.toBuilder().build();
+    }
+
+    /**
+     * 剔除单个 token，用于登出
+     */
+    public void invalidate(String token) {
+        if (token != null && !token.isEmpty()) {
+            cache.invalidate(digest(token));
+        }
+    }
+
+    /**
+     * 剔除用户的所有 token，用于吊销、修改密码等场景
+     * 需要遍历整个缓存，不应在请求热路径上调用
+     */
+    public void invalidateUser(String userId) {
+        cache.asMap().values().removeIf(context -> Objects.equals(userId, context.getUserId()));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 命中率等统计信息
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 当前条目数（近似值）
+     */
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private static long remainingNanos(UserContext context) {
+        LocalDateTime expiresAt = context.getExpiresAt();
+        if (expiresAt == null) {
+            return Long.MAX_VALUE;
+        }
+        long remainingMillis = expiresAt.atZone(ZONE).toInstant().toEpochMilli() - System.currentTimeMillis();
+        return Math.max(0, Duration.ofMillis(remainingMillis).toNanos());
+    }
+
+    private static TokenDigest digest(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer buffer = ByteBuffer.wrap(hash);
+        return new TokenDigest(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * token 摘要，128位足以避免碰撞
+     */
+    private record TokenDigest(long hi, long lo) {
+    }
+}
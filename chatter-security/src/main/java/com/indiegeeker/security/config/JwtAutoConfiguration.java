@@ -0,0 +1,66 @@
+package com.indiegeeker.security.config;
+
+import com.indiegeeker.security.jwt.JwtKeyRing;
+import com.indiegeeker.security.jwt.JwtProperties;
+import com.indiegeeker.security.jwt.JwtTokenCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * JWT 自动配置类
+ * 1. 按 chatter.security.jwt 配置创建 JwtTokenCodec
+ * 2. 存在 Spring Cloud 时，配置中心推送的 chatter.security.jwt.* 变更会重新编译密钥环并替换，
+ *    新配置不合法时保留原密钥环
+ *
+ * Author: wen
+ * Date: 2025/7/14
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(JwtProperties.class)
+public class JwtAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(JwtTokenCodec.class)
+    public JwtTokenCodec jwtTokenCodec(JwtProperties properties) {
+        JwtKeyRing keyRing = JwtKeyRing.from(properties);
+        log.info("创建JWT编解码器，activeKid: {}, kids: {}", keyRing.getActiveKid(), keyRing.kids());
+        return new JwtTokenCodec(keyRing);
+    }
+
+    /**
+     * 密钥热更新
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.cloud.context.environment.EnvironmentChangeEvent")
+    public static class JwtKeyRotationConfiguration {
+
+        @Bean
+        public ApplicationListener<EnvironmentChangeEvent> jwtKeyRotationListener(Environment environment,
+                                                                                 JwtTokenCodec jwtTokenCodec) {
+            return event -> {
+                boolean changed = event.getKeys().stream()
+                        .anyMatch(key -> key.startsWith(JwtProperties.PREFIX + "."));
+                if (!changed) {
+                    return;
+                }
+                try {
+                    JwtProperties properties = Binder.get(environment)
+                            .bind(JwtProperties.PREFIX, JwtProperties.class)
+                            .orElseGet(JwtProperties::new);
+                    jwtTokenCodec.reload(JwtKeyRing.from(properties));
+                } catch (RuntimeException e) {
+                    log.error("JWT密钥环刷新失败，继续使用原密钥环: {}", e.getMessage(), e);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.indiegeeker.security.jwt;
+
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.WeakKeyException;
+import lombok.Getter;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JWT 密钥环
+ * 由 JwtProperties 编译得到的不可变快照，轮换时整体替换
+ *
+ * Author: wen
+ * Date: 2025/7/14
+ */
+public final class JwtKeyRing {
+
+    private final Map<String, SecretKey> keys;
+
+    @Getter
+    private final String activeKid;
+
+    private final SecretKey activeKey;
+
+    private final SecretKey legacyKey;
+
+    private JwtKeyRing(Map<String, SecretKey> keys, String activeKid, String legacyKid) {
+        this.keys = keys;
+        this.activeKid = activeKid;
+        this.activeKey = keys.get(activeKid);
+        this.legacyKey = legacyKid == null ? null : keys.get(legacyKid);
+    }
+
+    /**
+     * 编译密钥环，配置不合法时抛出 IllegalArgumentException
+     */
+    public static JwtKeyRing from(JwtProperties properties) {
+        Map<String, String> secrets = properties.getKeys();
+        if (secrets == null || secrets.isEmpty()) {
+            secrets = Map.of(JwtProperties.DEFAULT_KID, JwtProperties.DEFAULT_SECRET);
+        }
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : secrets.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                throw new IllegalArgumentException("JWT密钥为空, kid: " + entry.getKey());
+            }
+            try {
+                keys.put(entry.getKey(), Keys.hmacShaKeyFor(entry.getValue().getBytes(StandardCharsets.UTF_8)));
+            } catch (WeakKeyException e) {
+                throw new IllegalArgumentException("JWT密钥长度不足32字节, kid: " + entry.getKey(), e);
+            }
+        }
+        String activeKid = properties.getActiveKid();
+        if (activeKid == null || !keys.containsKey(activeKid)) {
+            throw new IllegalArgumentException("JWT签发密钥不在密钥环中, activeKid: " + activeKid);
+        }
+        return new JwtKeyRing(Collections.unmodifiableMap(keys), activeKid, properties.getLegacyKid());
+    }
+
+    /**
+     * 签发使用的密钥
+     */
+    public SecretKey activeKey() {
+        return activeKey;
+    }
+
+    /**
+     * 按 kid 查找验签密钥
+     *
+     * @param kid token 头部的 kid，为 null 时使用 legacyKid 对应的密钥
+     * @return 密钥，不存在时返回 null
+     */
+    public SecretKey find(String kid) {
+        return kid == null ? legacyKey : keys.get(kid);
+    }
+
+    public Set<String> kids() {
+        return keys.keySet();
+    }
+}
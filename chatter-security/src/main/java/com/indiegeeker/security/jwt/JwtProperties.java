@@ -0,0 +1,48 @@
+package com.indiegeeker.security.jwt;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JWT 配置属性
+ * 密钥以 kid -> 密钥 的形式配置，签发时使用 activeKid 对应的密钥并把 kid 写入 token 头部，
+ * 验签时按 token 头部的 kid 选择密钥。轮换密钥的步骤：
+ * 1. 在 keys 中加入新密钥（旧密钥保留，已签发的 token 仍可验签）
+ * 2. 将 activeKid 切换为新密钥
+ * 3. 旧 token 全部过期后，从 keys 中移除旧密钥
+ * 配置中心推送变更后立即生效，无需重启
+ *
+ * Author: wen
+ * Date: 2025/7/14
+ */
+@Data
+@ConfigurationProperties(prefix = JwtProperties.PREFIX)
+public class JwtProperties {
+
+    public static final String PREFIX = "chatter.security.jwt";
+
+    /**
+     * 未配置任何密钥时使用的内置密钥，仅用于开发环境，生产环境必须通过配置覆盖
+     */
+    public static final String DEFAULT_KID = "default";
+
+    static final String DEFAULT_SECRET = "chatter-secret-key-2025-very-long-secret-for-security";
+
+    /**
+     * 签发新 token 使用的密钥id
+     */
+    private String activeKid = DEFAULT_KID;
+
+    /**
+     * 头部没有 kid 的 token（轮换机制上线前签发的）使用的密钥id
+     */
+    private String legacyKid = DEFAULT_KID;
+
+    /**
+     * 密钥环：kid -> HMAC 密钥，密钥长度至少32字节
+     */
+    private Map<String, String> keys = new LinkedHashMap<>();
+}
@@ -0,0 +1,31 @@
+package com.indiegeeker.security.jwt;
+
+/**
+ * JWT 解析耗时监听
+ * chatter-security 不依赖具体的指标库，由网关等使用方注册实现，把耗时记录到 Micrometer 等
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public interface JwtTimingListener {
+
+    JwtTimingListener NOOP = new JwtTimingListener() {
+        @Override
+        public void onVerify(long nanos) {
+        }
+
+        @Override
+        public void onParse(long nanos) {
+        }
+    };
+
+    /**
+     * 验签耗时：签名校验、解码载荷，验签失败时同样记录
+     */
+    void onVerify(long nanos);
+
+    /**
+     * 解析耗时：验签通过后由载荷构建用户上下文
+     */
+    void onParse(long nanos);
+}
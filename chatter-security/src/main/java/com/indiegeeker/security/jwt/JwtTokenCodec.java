@@ -0,0 +1,243 @@
+package com.indiegeeker.security.jwt;
+
+import com.indiegeeker.context.domain.AuthoritySet;
+import com.indiegeeker.context.domain.UserContext;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SecurityException;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * JWT 编解码组件
+ * 1. 解析器只在创建时构建一次（JJWT 的 JwtParser 线程安全），验签密钥通过 keyLocator 按 token 头部的 kid 从当前密钥环中查找
+ * 2. 签发时使用密钥环的 activeKid，并把 kid 写入 token 头部
+ * 3. 密钥轮换时只替换 volatile 的密钥环引用，解析器不需要重建；仍在密钥环中的旧密钥签发的 token 继续有效，
+ *    已验签的缓存不需要失效，只有被移除的密钥才会通知监听方
+ *
+ * Author: wen
+ * Date: 2025/7/14
+ */
+@Slf4j
+public class JwtTokenCodec {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private volatile JwtKeyRing keyRing;
+
+    private final JwtParser parser;
+
+    private final List<Consumer<Set<String>>> keyRemovalListeners = new CopyOnWriteArrayList<>();
+
+    private volatile JwtTimingListener timingListener = JwtTimingListener.NOOP;
+
+    public JwtTokenCodec(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        SecretKey key = JwtTokenCodec.this.keyRing.find(header.getKeyId());
+                        if (key == null) {
+                            throw new SecurityException("未知的JWT签名密钥, kid: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 替换密钥环
+     * 被移除的 kid 会通知给监听方，用于清理这些密钥签发的 token 的缓存
+     */
+    public void reload(JwtKeyRing newKeyRing) {
+        JwtKeyRing old = this.keyRing;
+        this.keyRing = newKeyRing;
+        Set<String> removed = new HashSet<>(old.kids());
+        removed.removeAll(newKeyRing.kids());
+        log.info("JWT密钥环已更新, activeKid: {}, kids: {}, 移除: {}", newKeyRing.getActiveKid(), newKeyRing.kids(), removed);
+        if (!removed.isEmpty()) {
+            keyRemovalListeners.forEach(listener -> listener.accept(removed));
+        }
+    }
+
+    /**
+     * 注册密钥移除监听
+     */
+    public void addKeyRemovalListener(Consumer<Set<String>> listener) {
+        keyRemovalListeners.add(listener);
+    }
+
+    /**
+     * 设置解析耗时监听，传 null 时不再记录
+     */
+    public void setTimingListener(JwtTimingListener timingListener) {
+        this.timingListener = timingListener != null ? timingListener : JwtTimingListener.NOOP;
+    }
+
+    public String getActiveKid() {
+        return keyRing.getActiveKid();
+    }
+
+    /**
+     * 生成JWT token
+     *
+     * @param userContext   用户上下文信息
+     * @param expireMinutes 过期时间（分钟）
+     * @return JWT token字符串，失败返回null
+     */
+    public String generateToken(UserContext userContext, long expireMinutes) {
+        if (userContext == null || userContext.getUserId() == null) {
+            log.error("用户上下文信息为空，无法生成JWT token");
+            return null;
+        }
+
+        try {
+            // 设置过期时间
+            LocalDateTime expirationTime = LocalDateTime.now().plusMinutes(expireMinutes);
+            Date expirationDate = Date.from(expirationTime.atZone(ZONE).toInstant());
+
+            // 更新用户上下文的过期时间
+            userContext.setExpiresAt(expirationTime);
+            if (userContext.getIssuedAt() == null) {
+                userContext.setIssuedAt(LocalDateTime.now());
+            }
+
+            // 每个 token 分配唯一的 jti，用于吊销
+            String tokenId = UUID.randomUUID().toString();
+            userContext.setTokenId(tokenId);
+
+            JwtKeyRing ring = keyRing;
+            return Jwts.builder()
+                    .header().keyId(ring.getActiveKid()).and()
+                    .id(tokenId)
+                    .subject(userContext.getUserId())
+                    .issuedAt(new Date())
+                    .expiration(expirationDate)
+                    .claim("userId", userContext.getUserId())
+                    .claim("username", userContext.getUsername())
+                    .claim("nickname", userContext.getNickname())
+                    .claim("mobile", userContext.getMobile())
+                    .claim("roles", userContext.getRoles())
+                    .claim("permissions", userContext.getPermissions())
+                    .claim("tenantId", userContext.getTenantId())
+                    .claim("clientType", userContext.getClientType())
+                    .claim("issuedAt", userContext.getIssuedAt().toString())
+                    .claim("expiresAt", userContext.getExpiresAt().toString())
+                    .signWith(ring.activeKey())
+                    .compact();
+
+        } catch (Exception e) {
+            log.error("生成JWT token失败，用户ID: {}", userContext.getUserId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 解析JWT token，返回用户上下文
+     *
+     * @param token JWT token字符串
+     * @return 用户上下文信息，解析失败返回null
+     */
+    public UserContext parseToken(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            log.warn("JWT token为空");
+            return null;
+        }
+
+        JwtTimingListener listener = timingListener;
+        try {
+            long start = System.nanoTime();
+            Claims claims;
+            try {
+                claims = parser.parseSignedClaims(token).getPayload();
+            } finally {
+                listener.onVerify(System.nanoTime() - start);
+            }
+
+            long parseStart = System.nanoTime();
+            List<String> roles = safeGetStringList(claims.get("roles"));
+            List<String> permissions = safeGetStringList(claims.get("permissions"));
+
+            UserContext userContext = UserContext.builder()
+                    .userId(claims.get("userId", String.class))
+                    .username(claims.get("username", String.class))
+                    .nickname(claims.get("nickname", String.class))
+                    .mobile(claims.get("mobile", String.class))
+                    .roles(roles)
+                    .permissions(AuthoritySet.of(permissions))
+                    .tenantId(claims.get("tenantId", String.class))
+                    .clientType(claims.get("clientType", String.class))
+                    .tokenId(claims.getId())
+                    .issuedAt(LocalDateTime.parse(claims.get("issuedAt", String.class)))
+                    .expiresAt(LocalDateTime.parse(claims.get("expiresAt", String.class)))
+                    .build();
+            listener.onParse(System.nanoTime() - parseStart);
+            return userContext;
+
+        } catch (ExpiredJwtException e) {
+            log.warn("JWT token已过期: {}", e.getMessage());
+            return null;
+        } catch (UnsupportedJwtException e) {
+            log.warn("不支持的JWT token: {}", e.getMessage());
+            return null;
+        } catch (MalformedJwtException e) {
+            log.warn("JWT token格式错误: {}", e.getMessage());
+            return null;
+        } catch (SecurityException e) {
+            log.warn("JWT token签名验证失败: {}", e.getMessage());
+            return null;
+        } catch (IllegalArgumentException e) {
+            log.warn("JWT token参数非法: {}", e.getMessage());
+            return null;
+        } catch (Exception e) {
+            log.error("解析JWT token时发生未知错误", e);
+            return null;
+        }
+    }
+
+    /**
+     * 验证JWT token是否有效
+     *
+     * @param token JWT token字符串
+     * @return true表示有效，false表示无效
+     */
+    public boolean validateToken(String token) {
+        try {
+            parser.parseSignedClaims(token);
+            return true;
+        } catch (Exception e) {
+            log.debug("JWT token验证失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 安全转换为字符串列表
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> safeGetStringList(Object obj) {
+        if (obj instanceof List) {
+            return (List<String>) obj;
+        }
+        return null;
+    }
+}
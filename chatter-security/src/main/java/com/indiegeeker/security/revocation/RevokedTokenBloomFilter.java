@@ -0,0 +1,107 @@
+package com.indiegeeker.security.revocation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 已吊销 token 的布隆过滤器
+ * 1. mightContain 为 false 时 token 一定未被吊销，请求路径上不需要访问 redis；为 true 时再以 redis 为准
+ * 2. 位数组为 AtomicLongArray，订阅线程写入与请求线程读取可以并发进行，读取无锁
+ * 3. 对 jti 计算一次64位哈希，拆成两个32位哈希按 h1 + i * h2 生成 k 个位置
+ * 布隆过滤器不支持删除，过期的 jti 需要定期从 redis 重建过滤器来清理
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+public class RevokedTokenBloomFilter {
+
+    private final AtomicLongArray words;
+
+    private final long bitSize;
+
+    private final int hashFunctions;
+
+    /**
+     * @param expectedInsertions 预计容纳的 jti 数
+     * @param fpp                期望误判率，0 到 1 之间
+     */
+    public RevokedTokenBloomFilter(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("布隆过滤器参数不合法, expectedInsertions: " + expectedInsertions
+                    + ", fpp: " + fpp);
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) >>> 6));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitSize = (long) wordCount << 6;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 记录已吊销的 jti
+     */
+    public void put(String tokenId) {
+        long hash = hash(tokenId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /**
+     * jti 是否可能已被吊销
+     *
+     * @return false 表示一定未被吊销
+     */
+    public boolean mightContain(String tokenId) {
+        long hash = hash(tokenId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 位数组大小（位）
+     */
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    private long index(int combinedHash) {
+        // 取非负值
+        return (combinedHash & Integer.MAX_VALUE) % bitSize;
+    }
+
+    /**
+     * 按字符计算 FNV-1a 64 位哈希，再做一次 murmur3 的 fmix64 混合
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,29 @@
+package com.indiegeeker.security.revocation;
+
+/**
+ * token 吊销约定
+ * 认证服务吊销 token 时写入 {KEY_PREFIX}{jti}，过期时间为 token 的剩余有效期，并向 CHANNEL 发布 jti；
+ * 网关订阅该频道，把 jti 同步到本地的布隆过滤器，只有布隆过滤器命中时才查询 redis
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+public final class TokenRevocation {
+
+    /**
+     * 已吊销 token 的 redis 键前缀
+     */
+    public static final String KEY_PREFIX = "token:revoked:";
+
+    /**
+     * 吊销通知频道，消息为 jti
+     */
+    public static final String CHANNEL = "token:revoked";
+
+    private TokenRevocation() {
+    }
+
+    public static String key(String tokenId) {
+        return KEY_PREFIX + tokenId;
+    }
+}
@@ -0,0 +1,96 @@
+package com.indiegeeker.security.cache;
+
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.security.utils.JWTUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 已验签 token 缓存测试
+ *
+ * Author: wen
+ * Date: 2025/7/14
+ */
+@DisplayName("已验签token缓存测试")
+class VerifiedTokenCacheTest {
+
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(1000, Duration.ofMinutes(30));
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private final Function<String, UserContext> verifier = token -> {
+        verifications.incrementAndGet();
+        return JWTUtils.parseToken(token);
+    };
+
+    @Test
+    @DisplayName("同一个token只验签一次，每次返回独立副本")
+    void verifyOnce() {
+        String token = token("1001");
+
+        UserContext first = cache.get(token, verifier);
+        UserContext second = cache.get(token, verifier);
+
+        assertEquals(1, verifications.get());
+        assertEquals("1001", second.getUserId());
+        assertEquals(List.of("USER"), second.getRoles());
+        assertNotSame(first, second);
+
+        first.setRequestIp("1.2.3.4");
+        assertNull(cache.get(token, verifier).getRequestIp());
+        assertEquals(2, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("验签失败、已过期的结果不缓存")
+    void skipInvalid() {
+        assertNull(cache.get("invalid.token.value", verifier));
+        assertNull(cache.get("invalid.token.value", verifier));
+        assertEquals(2, verifications.get());
+
+        UserContext expired = UserContext.builder().userId("1001").expiresAt(LocalDateTime.now().minusSeconds(1)).build();
+        assertNull(cache.get("expired", token -> expired));
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    @Test
+    @DisplayName("按token、按用户剔除")
+    void invalidate() {
+        String token = token("1001");
+        String otherToken = token("1001");
+        String anotherUser = token("1002");
+        cache.get(token, verifier);
+        cache.get(otherToken, verifier);
+        cache.get(anotherUser, verifier);
+
+        cache.invalidate(token);
+        cache.get(token, verifier);
+        assertEquals(4, verifications.get());
+
+        cache.invalidateUser("1001");
+        cache.get(token, verifier);
+        cache.get(otherToken, verifier);
+        cache.get(anotherUser, verifier);
+        assertEquals(6, verifications.get());
+    }
+
+    private static String token(String userId) {
+        UserContext userContext = UserContext.builder()
+                .userId(userId)
+                .username("user" + userId)
+                .roles(List.of("USER"))
+                .build();
+        // 不同的签发时间保证同一用户生成不同的token
+        userContext.setIssuedAt(LocalDateTime.now().plusNanos(System.nanoTime() % 1_000_000));
+        return JWTUtils.generateToken(userContext, 60);
+    }
+}
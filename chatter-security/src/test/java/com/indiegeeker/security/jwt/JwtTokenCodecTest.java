@@ -0,0 +1,109 @@
+package com.indiegeeker.security.jwt;
+
+import com.indiegeeker.context.domain.UserContext;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JWT 编解码组件测试
+ *
+ * Author: wen
+ * Date: 2025/7/14
+ */
+@DisplayName("JWT编解码组件测试")
+class JwtTokenCodecTest {
+
+    private static final String SECRET_A = "key-a-0123456789-0123456789-0123456789";
+    private static final String SECRET_B = "key-b-0123456789-0123456789-0123456789";
+
+    @Test
+    @DisplayName("签发、解析往返，token 头部带 kid")
+    void roundTrip() {
+        JwtTokenCodec codec = new JwtTokenCodec(JwtKeyRing.from(properties("a", SECRET_A)));
+
+        String token = codec.generateToken(user(), 60);
+        UserContext parsed = codec.parseToken(token);
+
+        assertEquals("1001", parsed.getUserId());
+        assertEquals(List.of("USER"), parsed.getRoles());
+        assertNotNull(parsed.getTokenId());
+        assertNotEquals(parsed.getTokenId(), codec.parseToken(codec.generateToken(user(), 60)).getTokenId());
+        assertTrue(codec.validateToken(token));
+        assertEquals("a", Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET_A.getBytes(StandardCharsets.UTF_8)))
+                .build().parseSignedClaims(token).getHeader().getKeyId());
+    }
+
+    @Test
+    @DisplayName("轮换后旧密钥签发的token仍有效，密钥移除后失效并通知")
+    void rotate() {
+        JwtTokenCodec codec = new JwtTokenCodec(JwtKeyRing.from(properties("a", SECRET_A)));
+        String oldToken = codec.generateToken(user(), 60);
+        Set<String> removed = new HashSet<>();
+        codec.addKeyRemovalListener(removed::addAll);
+
+        JwtProperties rotated = properties("b", SECRET_B);
+        rotated.getKeys().put("a", SECRET_A);
+        codec.reload(JwtKeyRing.from(rotated));
+        String newToken = codec.generateToken(user(), 60);
+
+        assertEquals("b", codec.getActiveKid());
+        assertNotNull(codec.parseToken(oldToken));
+        assertNotNull(codec.parseToken(newToken));
+        assertTrue(removed.isEmpty());
+
+        codec.reload(JwtKeyRing.from(properties("b", SECRET_B)));
+        assertNull(codec.parseToken(oldToken));
+        assertNotNull(codec.parseToken(newToken));
+        assertEquals(Set.of("a"), removed);
+    }
+
+    @Test
+    @DisplayName("没有kid的旧token使用legacyKid对应的密钥")
+    void legacyToken() {
+        JwtProperties properties = properties("b", SECRET_B);
+        properties.getKeys().put("old", SECRET_A);
+        properties.setLegacyKid("old");
+        JwtTokenCodec codec = new JwtTokenCodec(JwtKeyRing.from(properties));
+
+        String legacyToken = Jwts.builder()
+                .claim("userId", "1001")
+                .claim("issuedAt", "2025-07-14T10:00:00")
+                .claim("expiresAt", "2099-07-14T10:00:00")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET_A.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertEquals("1001", codec.parseToken(legacyToken).getUserId());
+    }
+
+    @Test
+    @DisplayName("密钥环配置不合法时编译失败")
+    void rejectInvalid() {
+        JwtProperties missingActive = properties("a", SECRET_A);
+        missingActive.setActiveKid("b");
+        assertThrows(IllegalArgumentException.class, () -> JwtKeyRing.from(missingActive));
+
+        assertThrows(IllegalArgumentException.class, () -> JwtKeyRing.from(properties("a", "too-short")));
+    }
+
+    private static JwtProperties properties(String activeKid, String secret) {
+        JwtProperties properties = new JwtProperties();
+        properties.setActiveKid(activeKid);
+        properties.getKeys().put(activeKid, secret);
+        return properties;
+    }
+
+    private static UserContext user() {
+        return UserContext.builder().userId("1001").username("user1001").roles(List.of("USER")).build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.indiegeeker.security.revocation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 已吊销 token 布隆过滤器测试
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+@DisplayName("已吊销token布隆过滤器测试")
+class RevokedTokenBloomFilterTest {
+
+    @Test
+    @DisplayName("已记录的jti一定命中，误判率接近配置值")
+    void noFalseNegatives() {
+        RevokedTokenBloomFilter filter = new RevokedTokenBloomFilter(10_000, 0.01);
+        List<String> revoked = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String tokenId = UUID.randomUUID().toString();
+            revoked.add(tokenId);
+            filter.put(tokenId);
+        }
+        for (String tokenId : revoked) {
+            assertTrue(filter.mightContain(tokenId));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "误判次数: " + falsePositives);
+        assertEquals(7, filter.hashFunctions());
+    }
+
+    @Test
+    @DisplayName("参数不合法时拒绝创建")
+    void rejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new RevokedTokenBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new RevokedTokenBloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RevokedTokenBloomFilter(100, 1));
+        assertFalse(new RevokedTokenBloomFilter(1, 0.5).mightContain("anything"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.indiegeeker.access;
+
+import com.indiegeeker.config.IPAccessProperties;
+import com.indiegeeker.core.utils.CidrTrie;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编译后的 IP 网段白名单、黑名单
+ * 白名单、黑名单各编译为一棵 CidrTrie，构建后不可变；查询只解析地址、沿前缀树下行，不分配对象，
+ * 在限流、鉴权等任何 redis 访问之前执行
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public final class IPAccessList {
+
+    public enum Decision {
+
+        /**
+         * 命中白名单，跳过限流
+         */
+        ALLOW,
+
+        /**
+         * 命中黑名单，直接拒绝
+         */
+        DENY,
+
+        /**
+         * 均未命中，按正常流程处理
+         */
+        NONE
+    }
+
+    public static final IPAccessList EMPTY = new IPAccessList(CidrTrie.compile(null), CidrTrie.compile(null));
+
+    private final CidrTrie allow;
+
+    private final CidrTrie deny;
+
+    private IPAccessList(CidrTrie allow, CidrTrie deny) {
+        this.allow = allow;
+        this.deny = deny;
+    }
+
+    /**
+     * 编译配置中的网段与本地文件中的网段
+     *
+     * @param fileLines 本地网段文件的内容，没有文件时为 null
+     * @throws IllegalArgumentException 网段或文件行格式不合法
+     */
+    public static IPAccessList compile(IPAccessProperties properties, List<String> fileLines) {
+        if (!properties.isEnabled()) {
+            return EMPTY;
+        }
+        List<String> allowCidrs = new ArrayList<>(properties.getAllow());
+        List<String> denyCidrs = new ArrayList<>(properties.getDeny());
+        if (fileLines != null) {
+            for (int i = 0; i < fileLines.size(); i++) {
+                String line = fileLines.get(i).trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("网段文件第 " + (i + 1) + " 行格式不合法: " + line);
+                }
+                if ("allow".equalsIgnoreCase(parts[0])) {
+                    allowCidrs.add(parts[1]);
+                } else if ("deny".equalsIgnoreCase(parts[0])) {
+                    denyCidrs.add(parts[1]);
+                } else {
+                    throw new IllegalArgumentException("网段文件第 " + (i + 1) + " 行格式不合法: " + line);
+                }
+            }
+        }
+        return new IPAccessList(CidrTrie.compile(allowCidrs), CidrTrie.compile(denyCidrs));
+    }
+
+    /**
+     * 判断 IP 是否命中白名单、黑名单，同时命中时黑名单优先；地址格式不合法时视为未命中
+     */
+    public Decision check(CharSequence ip) {
+        if (!deny.isEmpty() && deny.contains(ip)) {
+            return Decision.DENY;
+        }
+        if (!allow.isEmpty() && allow.contains(ip)) {
+            return Decision.ALLOW;
+        }
+        return Decision.NONE;
+    }
+
+    public int allowSize() {
+        return allow.size();
+    }
+
+    public int denySize() {
+        return deny.size();
+    }
+}
@@ -0,0 +1,130 @@
+package com.indiegeeker.access;
+
+import com.indiegeeker.config.IPAccessProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+/**
+ * IP 网段白名单、黑名单注册中心
+ * 启动时从配置及本地网段文件编译名单，之后两种来源变化时重新编译，再整体替换 volatile 引用，请求线程读取时无锁：
+ * 1. Nacos 推送的配置变更涉及 security.ip-access.* 时重新绑定
+ * 2. 配置了本地网段文件时按 fileCheckInterval 检查文件修改时间，变化后重新读取
+ * 新名单编译失败时保留原名单继续生效
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@Slf4j
+@Component
+public class IPAccessRegistry implements ApplicationListener<EnvironmentChangeEvent> {
+
+    @Resource
+    Environment environment;
+
+    private volatile IPAccessList accessList = IPAccessList.EMPTY;
+
+    private IPAccessProperties properties;
+
+    private FileTime fileModifiedTime;
+
+    private Disposable fileWatcher;
+
+    @PostConstruct
+    public void init() {
+        // 启动时配置或网段文件有误直接失败
+        reload();
+        log.info("IP网段名单加载完成, 白名单: {}, 黑名单: {}", accessList.allowSize(), accessList.denySize());
+        // 检查间隔在启动时确定，修改后需要重启生效
+        fileWatcher = Flux.interval(properties.getFileCheckInterval(), Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .subscribe(tick -> checkFile());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (fileWatcher != null) {
+            fileWatcher.dispose();
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        boolean changed = event.getKeys().stream()
+                .anyMatch(key -> key.toLowerCase().replace("-", "").startsWith("security.ipaccess."));
+        if (!changed) {
+            return;
+        }
+        try {
+            reload();
+            log.info("IP网段名单已刷新, 白名单: {}, 黑名单: {}", accessList.allowSize(), accessList.denySize());
+        } catch (RuntimeException e) {
+            log.error("IP网段名单刷新失败，继续使用原名单: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 判断 IP 是否命中白名单、黑名单
+     */
+    public IPAccessList.Decision check(CharSequence ip) {
+        return accessList.check(ip);
+    }
+
+    /**
+     * 本地网段文件修改时间变化后重新加载
+     */
+    synchronized void checkFile() {
+        String file = properties.getFile();
+        if (file == null || file.isBlank()) {
+            return;
+        }
+        try {
+            FileTime modifiedTime = Files.getLastModifiedTime(Path.of(file));
+            if (modifiedTime.equals(fileModifiedTime)) {
+                return;
+            }
+            reload();
+            log.info("IP网段文件已变化，名单已刷新, 白名单: {}, 黑名单: {}", accessList.allowSize(), accessList.denySize());
+        } catch (IOException | RuntimeException e) {
+            log.error("IP网段文件刷新失败，继续使用原名单: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized void reload() {
+        IPAccessProperties next = Binder.get(environment)
+                .bind(IPAccessProperties.PREFIX, IPAccessProperties.class)
+                .orElseGet(IPAccessProperties::new);
+        List<String> fileLines = null;
+        FileTime modifiedTime = null;
+        if (next.getFile() != null && !next.getFile().isBlank()) {
+            Path path = Path.of(next.getFile());
+            try {
+                // 先取修改时间再读内容，读取期间文件再次变化时下次检查仍会重新加载
+                modifiedTime = Files.getLastModifiedTime(path);
+                fileLines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取IP网段文件失败: " + path, e);
+            }
+        }
+        accessList = IPAccessList.compile(next, fileLines);
+        properties = next;
+        fileModifiedTime = modifiedTime;
+    }
+}
@@ -1,6 +1,8 @@
 package com.indiegeeker.auth.controller;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.indiegeeker.config.SecurityExcludeConfig;
+import com.indiegeeker.security.cache.VerifiedTokenCache;
 import com.indiegeeker.web.utils.PathMatcherUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -8,7 +10,6 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -24,8 +25,27 @@ public class SecurityTestController {
 
     private final SecurityExcludeConfig securityExcludeConfig;
 
-    public SecurityTestController(SecurityExcludeConfig securityExcludeConfig) {
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    public SecurityTestController(SecurityExcludeConfig securityExcludeConfig, VerifiedTokenCache verifiedTokenCache) {
         this.securityExcludeConfig = securityExcludeConfig;
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
+
+    /**
+     * 已验签token缓存的命中率等统计
+     */
+    @GetMapping("/token-cache")
+    public Map<String, Object> getTokenCacheStats() {
+        CacheStats stats = verifiedTokenCache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", verifiedTokenCache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        return result;
     }
 
     /**
@@ -45,22 +65,13 @@ public class SecurityTestController {
      */
     @GetMapping("/check-path")
     public Map<String, Object> checkPath(@RequestParam String path) {
-        List<String> excludePaths = securityExcludeConfig.getAllExcludePaths();
-        boolean isExcluded = PathMatcherUtils.isExcluded(path, excludePaths);
-        
+        // 找出匹配的模式
+        String matchedPattern = securityExcludeConfig.matchExcludePath(path);
+
         Map<String, Object> result = new HashMap<>();
         result.put("path", path);
-        result.put("isExcluded", isExcluded);
-        result.put("normalizedPath", path.replaceAll("/+", "/"));
-        
-        // 找出匹配的模式
-        String matchedPattern = null;
-        for (String pattern : excludePaths) {
-            if (PathMatcherUtils.match(pattern, path)) {
-                matchedPattern = pattern;
-                break;
-            }
-        }
+        result.put("isExcluded", matchedPattern != null);
+        result.put("normalizedPath", PathMatcherUtils.normalizePath(path));
         result.put("matchedPattern", matchedPattern);
         
         return result;
@@ -85,10 +96,8 @@ public class SecurityTestController {
         };
         
         Map<String, Boolean> results = new HashMap<>();
-        List<String> excludePaths = securityExcludeConfig.getAllExcludePaths();
-        
         for (String path : testPaths) {
-            results.put(path, PathMatcherUtils.isExcluded(path, excludePaths));
+            results.put(path, securityExcludeConfig.isExcluded(path));
         }
         
         return results;
@@ -1,12 +1,13 @@
 package com.indiegeeker.auth.controller;
 
 
-import com.indiegeeker.data.utils.RedisUtils;
+import com.indiegeeker.data.utils.ReactiveRedisUtils;
 import jakarta.annotation.Resource;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 
 /**
  * 网关测试控制器
@@ -17,7 +18,7 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/")
 public class TestController {
     @Resource
-    RedisUtils redisUtils;
+    ReactiveRedisUtils reactiveRedisUtils;
 
     @GetMapping("hello")
     public Object hello(){
@@ -30,12 +31,12 @@ public class TestController {
     }
 
     @GetMapping("setRedis")
-    public void setRedis(@RequestParam String key, @RequestParam String value){
-        redisUtils.set(key,value);
+    public Mono<Void> setRedis(@RequestParam String key, @RequestParam String value){
+        return reactiveRedisUtils.set(key,value).then();
     }
 
     @GetMapping("getRedis")
-    public String getRedis(@RequestParam String key){
-        return redisUtils.get(key);
+    public Mono<String> getRedis(@RequestParam String key){
+        return reactiveRedisUtils.get(key);
     }
 }
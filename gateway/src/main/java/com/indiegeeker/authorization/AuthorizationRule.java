@@ -0,0 +1,50 @@
+package com.indiegeeker.authorization;
+
+import com.indiegeeker.context.domain.AuthorityBits;
+import com.indiegeeker.context.domain.AuthorityRegistry;
+import com.indiegeeker.context.domain.UserContext;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collection;
+
+/**
+ * 编译后的鉴权规则，不可变
+ * 角色、权限在编译时登记到 AuthorityRegistry，判断时只做位集测试
+ *
+ * Author: wen
+ * Date: 2025/7/16
+ */
+@Getter
+@ToString
+public class AuthorizationRule {
+
+    private final String name;
+
+    private final String pattern;
+
+    /**
+     * 需要拥有其中任一角色，为空表示不限角色
+     */
+    private final AuthorityBits roles;
+
+    /**
+     * 需要拥有其中任一权限，为空表示不限权限
+     */
+    private final AuthorityBits permissions;
+
+    public AuthorizationRule(String name, String pattern, Collection<String> roles, Collection<String> permissions) {
+        this.name = name;
+        this.pattern = pattern;
+        this.roles = AuthorityBits.of(AuthorityRegistry.roles(), roles);
+        this.permissions = AuthorityBits.of(AuthorityRegistry.permissions(), permissions);
+    }
+
+    /**
+     * 用户是否满足本规则：角色、权限分别满足其一，两者都配置时需同时满足
+     */
+    public boolean permits(UserContext userContext) {
+        return (roles.isEmpty() || roles.containsAny(userContext.getRoles()))
+                && (permissions.isEmpty() || permissions.containsAny(userContext.getPermissions()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.indiegeeker.authorization;
+
+import com.indiegeeker.config.AuthorizationProperties;
+import com.indiegeeker.context.domain.UserContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * 鉴权规则注册中心
+ * 启动时从配置编译决策表；Nacos 推送的配置变更会发布 EnvironmentChangeEvent，
+ * 涉及 security.authorization.* 时重新绑定、编译，再整体替换 volatile 引用，请求线程读取时无锁。
+ * 新配置编译失败时保留原决策表继续生效
+ *
+ * Author: wen
+ * Date: 2025/7/16
+ */
+@Slf4j
+@Component
+public class AuthorizationRuleRegistry implements ApplicationListener<EnvironmentChangeEvent> {
+
+    @Resource
+    Environment environment;
+
+    private volatile AuthorizationTable table;
+
+    @PostConstruct
+    public void init() {
+        // 启动时配置有误直接失败
+        table = compile();
+        log.info("鉴权规则加载完成, 规则数: {}", table.size());
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        boolean changed = event.getKeys().stream()
+                .anyMatch(key -> key.toLowerCase().replace("-", "").startsWith("security.authorization."));
+        if (!changed) {
+            return;
+        }
+        try {
+            table = compile();
+            log.info("鉴权规则已刷新, 规则数: {}", table.size());
+        } catch (RuntimeException e) {
+            log.error("鉴权规则刷新失败，继续使用原规则: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 查找请求命中的路径规则，不含附加约束
+     *
+     * @return 第一条命中的规则，未命中时返回 null
+     */
+    public AuthorizationRule match(String method, String path) {
+        return table.match(method, path);
+    }
+
+    /**
+     * 查找拒绝本次访问的规则，路径规则与附加约束都会检查
+     *
+     * @return 用户不满足的规则，允许访问时返回 null
+     */
+    public AuthorizationRule deniedBy(UserContext userContext, String method, String path) {
+        return table.deniedBy(userContext, method, path);
+    }
+
+    /**
+     * 用户是否有权访问
+     */
+    public boolean isPermitted(UserContext userContext, String method, String path) {
+        return table.isPermitted(userContext, method, path);
+    }
+
+    private AuthorizationTable compile() {
+        AuthorizationProperties properties = Binder.get(environment)
+                .bind(AuthorizationProperties.PREFIX, AuthorizationProperties.class)
+                .orElseGet(AuthorizationProperties::new);
+        return AuthorizationTable.compile(properties);
+    }
+}
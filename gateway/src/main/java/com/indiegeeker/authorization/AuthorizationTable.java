@@ -0,0 +1,196 @@
+package com.indiegeeker.authorization;
+
+import com.indiegeeker.config.AuthorizationProperties;
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.web.utils.CompiledPathMatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 鉴权决策表，由配置编译而来，编译完成后只读，可被多个线程无锁并发访问
+ * 1. 按请求方法分组，每个方法一棵 CompiledPathMatcher 前缀树，只包含适用于该方法的规则，HashMap 定位方法 O(1)
+ * 2. 路径规则：前缀树返回声明顺序最靠前的命中规则，即第一条命中的规则生效
+ * 3. 附加约束：内置的按方法约束（如 DELETE 需要 DELETE 权限）不参与首条命中，路径规则通过后逐条检查，
+ *    与原先硬编码的路径角色检查、DELETE 权限检查同时生效的语义一致，配置的路径规则不能绕过
+ * 4. 规则中的角色、权限已编译为位集，决策只需一次路径匹配加一次位集测试
+ * 没有规则命中的请求只要求已登录
+ *
+ * Author: wen
+ * Date: 2025/7/16
+ */
+public class AuthorizationTable {
+
+    /**
+     * 内置默认路径规则，排在配置的规则之后
+     */
+    static final List<AuthorizationProperties.Rule> DEFAULT_RULES = List.of(
+            rule("admin", "/admin/**", List.of(), List.of("ADMIN"), List.of()),
+            rule("user", "/user/**", List.of(), List.of("USER", "ADMIN"), List.of())
+    );
+
+    /**
+     * 内置附加约束，在命中的路径规则之外始终检查
+     */
+    static final List<AuthorizationProperties.Rule> DEFAULT_CONSTRAINTS = List.of(
+            rule("delete", "/**", List.of("DELETE"), List.of(), List.of("DELETE"))
+    );
+
+    private final MethodIndex rules;
+
+    /**
+     * 每条附加约束单独一个索引，命中即需满足
+     */
+    private final List<MethodIndex> constraints;
+
+    private final int size;
+
+    private AuthorizationTable(MethodIndex rules, List<MethodIndex> constraints, int size) {
+        this.rules = rules;
+        this.constraints = constraints;
+        this.size = size;
+    }
+
+    /**
+     * 编译配置为决策表，配置的规则在前，默认规则在后，附加约束单独编译
+     *
+     * @param properties 鉴权配置
+     * @return 决策表
+     * @throws IllegalArgumentException 规则缺少路径模式
+     */
+    public static AuthorizationTable compile(AuthorizationProperties properties) {
+        List<AuthorizationProperties.Rule> configs = new ArrayList<>(properties.getRules());
+        configs.addAll(DEFAULT_RULES);
+
+        List<MethodIndex> constraints = new ArrayList<>(DEFAULT_CONSTRAINTS.size());
+        for (AuthorizationProperties.Rule constraint : DEFAULT_CONSTRAINTS) {
+            constraints.add(MethodIndex.compile(List.of(constraint)));
+        }
+        return new AuthorizationTable(MethodIndex.compile(configs), List.copyOf(constraints),
+                configs.size() + DEFAULT_CONSTRAINTS.size());
+    }
+
+    /**
+     * 查找请求命中的路径规则，不含附加约束
+     *
+     * @param method 请求方法
+     * @param path   请求路径，无需预先标准化
+     * @return 第一条命中的规则，未命中时返回 null
+     */
+    public AuthorizationRule match(String method, String path) {
+        return rules.match(method, path);
+    }
+
+    /**
+     * 查找拒绝本次访问的规则：先检查命中的路径规则，再逐条检查附加约束
+     *
+     * @return 用户不满足的规则，允许访问时返回 null
+     */
+    public AuthorizationRule deniedBy(UserContext userContext, String method, String path) {
+        AuthorizationRule rule = rules.match(method, path);
+        if (rule != null && !rule.permits(userContext)) {
+            return rule;
+        }
+        for (MethodIndex constraint : constraints) {
+            AuthorizationRule matched = constraint.match(method, path);
+            if (matched != null && !matched.permits(userContext)) {
+                return matched;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 用户是否有权访问
+     */
+    public boolean isPermitted(UserContext userContext, String method, String path) {
+        return deniedBy(userContext, method, path) == null;
+    }
+
+    /**
+     * 规则总数（含默认规则、附加约束）
+     */
+    public int size() {
+        return size;
+    }
+
+    private static AuthorizationProperties.Rule rule(String name, String pattern, List<String> methods,
+                                                     List<String> roles, List<String> permissions) {
+        AuthorizationProperties.Rule rule = new AuthorizationProperties.Rule();
+        rule.setName(name);
+        rule.setPattern(pattern);
+        rule.setMethods(methods);
+        rule.setRoles(roles);
+        rule.setPermissions(permissions);
+        return rule;
+    }
+
+    /**
+     * 按请求方法分组的规则索引，返回声明顺序最靠前的命中规则
+     */
+    private static final class MethodIndex {
+
+        private final Map<String, CompiledPathMatcher<AuthorizationRule>> methodMatchers;
+
+        /**
+         * 未单独配置过的请求方法，只包含不限方法的规则
+         */
+        private final CompiledPathMatcher<AuthorizationRule> anyMethodMatcher;
+
+        private MethodIndex(Map<String, CompiledPathMatcher<AuthorizationRule>> methodMatchers,
+                            CompiledPathMatcher<AuthorizationRule> anyMethodMatcher) {
+            this.methodMatchers = methodMatchers;
+            this.anyMethodMatcher = anyMethodMatcher;
+        }
+
+        static MethodIndex compile(List<AuthorizationProperties.Rule> configs) {
+            List<AuthorizationRule> rules = new ArrayList<>(configs.size());
+            List<Set<String>> ruleMethods = new ArrayList<>(configs.size());
+            Set<String> allMethods = new LinkedHashSet<>();
+            for (AuthorizationProperties.Rule config : configs) {
+                if (config.getPattern() == null || config.getPattern().isBlank()) {
+                    throw new IllegalArgumentException("鉴权规则缺少 pattern: " + config);
+                }
+                Set<String> methods = new LinkedHashSet<>();
+                for (String method : config.getMethods()) {
+                    methods.add(method.trim().toUpperCase(Locale.ROOT));
+                }
+                allMethods.addAll(methods);
+                ruleMethods.add(methods);
+                String name = config.getName() != null ? config.getName() : config.getPattern();
+                rules.add(new AuthorizationRule(name, config.getPattern().trim(),
+                        config.getRoles(), config.getPermissions()));
+            }
+
+            Map<String, CompiledPathMatcher.Builder<AuthorizationRule>> builders = new HashMap<>();
+            for (String method : allMethods) {
+                builders.put(method, CompiledPathMatcher.builder());
+            }
+            CompiledPathMatcher.Builder<AuthorizationRule> anyMethodBuilder = CompiledPathMatcher.builder();
+            for (int i = 0; i < rules.size(); i++) {
+                AuthorizationRule rule = rules.get(i);
+                Set<String> methods = ruleMethods.get(i);
+                if (methods.isEmpty()) {
+                    anyMethodBuilder.add(rule.getPattern(), rule);
+                    builders.values().forEach(builder -> builder.add(rule.getPattern(), rule));
+                } else {
+                    methods.forEach(method -> builders.get(method).add(rule.getPattern(), rule));
+                }
+            }
+
+            Map<String, CompiledPathMatcher<AuthorizationRule>> methodMatchers = new HashMap<>();
+            builders.forEach((method, builder) -> methodMatchers.put(method, builder.build()));
+            return new MethodIndex(methodMatchers, anyMethodBuilder.build());
+        }
+
+        AuthorizationRule match(String method, String path) {
+            CompiledPathMatcher<AuthorizationRule> matcher = methodMatchers.get(method);
+            return (matcher != null ? matcher : anyMethodMatcher).match(path);
+        }
+    }
+}
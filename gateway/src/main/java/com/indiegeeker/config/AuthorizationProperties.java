@@ -0,0 +1,55 @@
+package com.indiegeeker.config;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 路由鉴权规则配置，对应配置文件中的 security.authorization.*
+ * 与限流配置一样不注册为 @ConfigurationProperties bean，由 AuthorizationRuleRegistry 在启动及配置变更时
+ * 通过 Binder 重新绑定并编译成鉴权表
+ *
+ * Author: wen
+ * Date: 2025/7/16
+ */
+@Data
+public class AuthorizationProperties {
+
+    public static final String PREFIX = "security.authorization";
+
+    /**
+     * 鉴权规则，按声明顺序匹配，第一条命中的规则生效；配置的规则排在内置默认规则之前。
+     * 内置的按方法约束（DELETE 需要 DELETE 权限）在命中的规则之外另行检查，配置的规则不能绕过
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+
+        /**
+         * 规则名称，用于日志
+         */
+        private String name;
+
+        /**
+         * Ant 风格路径模式，如 /admin/**
+         */
+        private String pattern;
+
+        /**
+         * 请求方法，为空表示所有方法
+         */
+        private List<String> methods = new ArrayList<>();
+
+        /**
+         * 需要拥有其中任一角色，为空表示不限角色
+         */
+        private List<String> roles = new ArrayList<>();
+
+        /**
+         * 需要拥有其中任一权限，为空表示不限权限
+         */
+        private List<String> permissions = new ArrayList<>();
+    }
+}
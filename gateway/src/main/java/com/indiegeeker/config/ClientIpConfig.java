@@ -0,0 +1,30 @@
+package com.indiegeeker.config;
+
+import com.indiegeeker.context.infrastructure.config.UserContextProperties;
+import com.indiegeeker.core.utils.ClientIpResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 客户端 IP 解析配置
+ * 受信代理与下游服务共用 chatter.context.trusted-proxies，网关前的负载均衡需在其中；
+ * 解析器替换 GateWayIPUtils 使用的共享实例，本机地址随解析器类加载在启动时解析
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(UserContextProperties.class)
+public class ClientIpConfig {
+
+    @Bean
+    public ClientIpResolver clientIpResolver(UserContextProperties properties) {
+        ClientIpResolver resolver = ClientIpResolver.of(properties.getTrustedProxies());
+        ClientIpResolver.setShared(resolver);
+        log.info("受信代理: {}，本机地址: {}", properties.getTrustedProxies(), ClientIpResolver.localAddress());
+        return resolver;
+    }
+}
@@ -0,0 +1,47 @@
+package com.indiegeeker.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * IP 网段白名单、黑名单配置，对应配置文件中的 security.ip-access.*
+ * 与鉴权规则一样不注册为 @ConfigurationProperties bean，由 IPAccessRegistry 在启动及配置变更时
+ * 通过 Binder 重新绑定并编译成网段前缀树
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@Data
+public class IPAccessProperties {
+
+    public static final String PREFIX = "security.ip-access";
+
+    /**
+     * 是否启用
+     */
+    private boolean enabled = true;
+
+    /**
+     * 白名单网段，命中后跳过限流，如 10.0.0.0/8、2001:db8::/32
+     */
+    private List<String> allow = new ArrayList<>();
+
+    /**
+     * 黑名单网段，命中后直接拒绝，优先于白名单
+     */
+    private List<String> deny = new ArrayList<>();
+
+    /**
+     * 本地网段文件，每行一条：allow 10.0.0.0/8 或 deny 192.0.2.0/24，# 开头为注释；
+     * 与配置中的网段合并生效
+     */
+    private String file;
+
+    /**
+     * 本地网段文件的检查间隔，文件修改时间变化后重新加载
+     */
+    private Duration fileCheckInterval = Duration.ofSeconds(10);
+}
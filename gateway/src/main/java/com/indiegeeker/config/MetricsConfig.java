@@ -0,0 +1,76 @@
+package com.indiegeeker.config;
+
+import com.indiegeeker.security.cache.VerifiedTokenCache;
+import com.indiegeeker.security.jwt.JwtTimingListener;
+import com.indiegeeker.security.jwt.JwtTokenCodec;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关指标配置
+ * 1. chatter.gateway.jwt{phase=verify|parse}：JWT 验签、构建用户上下文的耗时，只在已验签缓存未命中时发生
+ * 2. chatter.gateway.token-cache.*：已验签 token 缓存的命中、未命中次数与条目数
+ * 路由维度的过滤器、下游耗时见 GatewayMetrics，redis 操作耗时见 RedisMetrics
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String JWT_METRIC = "chatter.gateway.jwt";
+
+    @Bean
+    public MeterBinder jwtTimingMetrics(JwtTokenCodec jwtTokenCodec) {
+        return registry -> {
+            Timer verify = jwtTimer("verify").register(registry);
+            Timer parse = jwtTimer("parse").register(registry);
+            jwtTokenCodec.setTimingListener(new JwtTimingListener() {
+                @Override
+                public void onVerify(long nanos) {
+                    verify.record(nanos, TimeUnit.NANOSECONDS);
+                }
+
+                @Override
+                public void onParse(long nanos) {
+                    parse.record(nanos, TimeUnit.NANOSECONDS);
+                }
+            });
+        };
+    }
+
+    @Bean
+    public MeterBinder verifiedTokenCacheMetrics(VerifiedTokenCache verifiedTokenCache) {
+        return registry -> {
+            FunctionCounter.builder("chatter.gateway.token-cache.requests", verifiedTokenCache,
+                            cache -> cache.stats().hitCount())
+                    .description("已验签token缓存查询次数")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("chatter.gateway.token-cache.requests", verifiedTokenCache,
+                            cache -> cache.stats().missCount())
+                    .description("已验签token缓存查询次数")
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("chatter.gateway.token-cache.size", verifiedTokenCache, VerifiedTokenCache::estimatedSize)
+                    .description("已验签token缓存条目数")
+                    .register(registry);
+        };
+    }
+
+    private static Timer.Builder jwtTimer(String phase) {
+        return Timer.builder(JWT_METRIC)
+                .description("JWT验签、解析耗时")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofMillis(100));
+    }
+}
@@ -0,0 +1,75 @@
+package com.indiegeeker.config;
+
+import com.indiegeeker.limiter.policy.LimitKeyType;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 限流配置，对应配置文件中的 blackIp.*
+ * 不注册为 @ConfigurationProperties bean，由 RateLimitPolicyRegistry 在启动及配置变更时
+ * 通过 Binder 重新绑定并编译成策略表，整体替换，无需 @RefreshScope 重建过滤器
+ * Author: wen
+ * Date: 2025/7/11
+ */
+@Data
+public class RateLimitProperties {
+
+    public static final String PREFIX = "black-ip";
+
+    /**
+     * 默认策略：时间窗口内允许的最大请求次数
+     */
+    private Integer continueCounts;
+
+    /**
+     * 默认策略：计数窗口，单位：秒
+     */
+    private Integer timeInterval;
+
+    /**
+     * 默认策略：拉黑时长，单位：秒
+     */
+    private Integer limitTimes;
+
+    /**
+     * 限流模式：exact / hybrid
+     */
+    private String mode = "exact";
+
+    /**
+     * 按路由、路径前缀定制的限流策略，未配置的参数沿用默认策略
+     */
+    private List<Policy> policies = new ArrayList<>();
+
+    @Data
+    public static class Policy {
+
+        /**
+         * 策略名称，同时作为限流计数键的前缀 p:{name}:，需唯一且不能包含冒号
+         */
+        private String name;
+
+        /**
+         * 路由id，为空表示匹配所有路由
+         */
+        private String routeId;
+
+        /**
+         * 路径前缀，按路径段匹配，为空表示匹配路由下的所有路径
+         */
+        private String pathPrefix;
+
+        /**
+         * 限流维度：ip / user / tenant
+         */
+        private LimitKeyType keyBy = LimitKeyType.IP;
+
+        private Integer continueCounts;
+
+        private Integer timeInterval;
+
+        private Integer limitTimes;
+    }
+}
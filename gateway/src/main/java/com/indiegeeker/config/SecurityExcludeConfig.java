@@ -1,15 +1,21 @@
 package com.indiegeeker.config;
 
+import com.indiegeeker.web.utils.CompiledPathMatcher;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
  * 安全排除路径配置
+ * 默认排除路径与配置文件中的排除路径在绑定时编译为 CompiledPathMatcher，
+ * security.exclude.paths 变化重新绑定时整体重新编译并替换，请求时只做一次前缀树匹配
+ *
  * Author: wen
  * Date: 2025/6/30
  */
@@ -18,67 +24,92 @@ import java.util.List;
 @ConfigurationProperties(prefix = "security.exclude")
 public class SecurityExcludeConfig {
 
+    /**
+     * 默认排除路径
+     */
+    private static final List<String> DEFAULT_EXCLUDE_PATHS = List.of(
+            // ========== 静态资源 ==========
+            "/favicon.ico",
+            "/static/**",
+            "/assets/**",
+            "/images/**",
+            "/css/**",
+            "/js/**",
+
+            // ========== API 文档相关 ==========
+            "/doc.html",
+            "/swagger-ui.html",
+            "/swagger-ui/**",
+            "/v3/api-docs/**",
+            "/swagger-resources/**",
+            "/webjars/**",
+
+            // ========== 健康检查 ==========
+            "/actuator/**",
+            "/health",
+            "/info",
+
+            // ========== 认证相关（无需鉴权）==========
+            "/auth/getSMSCode",
+            "/auth/login",
+            "/auth/refresh",
+            "/auth/register",
+            "/auth/logout",
+
+            // ========== 测试接口 ==========
+            "/*/hello",
+            "/test/**",
+            "/authTest/**",
+
+            // ========== 错误页面 ==========
+            "/error/**",
+            "/404",
+            "/500"
+    );
+
     /**
      * 从配置文件读取的排除路径
      */
     private List<String> paths = new ArrayList<>();
 
     /**
-     * 获取所有排除路径（包括默认 + 配置文件）
+     * 默认 + 配置文件排除路径编译后的匹配器
      */
-    public List<String> getAllExcludePaths() {
-        List<String> allPaths = new ArrayList<>();
-        
-        // 添加默认排除路径
-        allPaths.addAll(getDefaultExcludePaths());
-        
-        // 添加配置文件中的路径
-        allPaths.addAll(paths);
-        
-        return allPaths;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile CompiledPathMatcher<String> excludeMatcher = CompiledPathMatcher.compile(DEFAULT_EXCLUDE_PATHS);
+
+    /**
+     * 配置绑定、刷新时调用，重新编译匹配器
+     */
+    public void setPaths(List<String> paths) {
+        List<String> configPaths = paths == null ? new ArrayList<>() : paths;
+        List<String> allPaths = new ArrayList<>(DEFAULT_EXCLUDE_PATHS);
+        allPaths.addAll(configPaths);
+        this.paths = configPaths;
+        this.excludeMatcher = CompiledPathMatcher.compile(allPaths);
     }
 
     /**
-     * 获取默认排除路径
+     * 路径是否命中排除列表
      */
-    private List<String> getDefaultExcludePaths() {
-        return Arrays.asList(
-                // ========== 静态资源 ==========
-                "/favicon.ico",
-                "/static/**",
-                "/assets/**",
-                "/images/**",
-                "/css/**",
-                "/js/**",
-                
-                // ========== API 文档相关 ==========
-                "/doc.html",
-                "/swagger-ui.html",
-                "/swagger-ui/**",
-                "/v3/api-docs/**",
-                "/swagger-resources/**",
-                "/webjars/**",
-                
-                // ========== 健康检查 ==========
-                "/actuator/**",
-                "/health",
-                "/info",
-                
-                // ========== 认证相关（无需鉴权）==========
-                "/auth/getSMSCode",
-                "/auth/login",
-                "/auth/register",
-                "/auth/logout",
-                
-                // ========== 测试接口 ==========
-                "/*/hello",
-                "/test/**",
-                "/authTest/**",
-                
-                // ========== 错误页面 ==========
-                "/error/**",
-                "/404",
-                "/500"
-        );
+    public boolean isExcluded(String path) {
+        return excludeMatcher.matches(path);
+    }
+
+    /**
+     * 路径命中的第一个排除模式，未命中时返回 null
+     */
+    public String matchExcludePath(String path) {
+        return excludeMatcher.match(path);
+    }
+
+    /**
+     * 获取所有排除路径（包括默认 + 配置文件）
+     */
+    public List<String> getAllExcludePaths() {
+        List<String> allPaths = new ArrayList<>(DEFAULT_EXCLUDE_PATHS);
+        allPaths.addAll(paths);
+        return allPaths;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package com.indiegeeker.config;
+
+import com.indiegeeker.security.cache.VerifiedTokenCache;
+import com.indiegeeker.security.jwt.JwtTokenCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 已验签 token 缓存配置
+ * 密钥轮换时缓存保持不变；只有密钥被移出密钥环时才清空缓存，使这些密钥签发的 token 立即失效
+ *
+ * Author: wen
+ * Date: 2025/7/14
+ */
+@Slf4j
+@Configuration
+public class TokenCacheConfig {
+
+    /**
+     * @param maximumSize 最大缓存 token 数
+     * @param maxTtl      单个 token 最长缓存时间，token 先过期时以过期时间为准
+     * @param jwtTokenCodec JWT 编解码器
+     */
+    @Bean
+    public VerifiedTokenCache verifiedTokenCache(@Value("${security.token-cache.maximum-size:100000}") long maximumSize,
+                                                 @Value("${security.token-cache.max-ttl:30m}") Duration maxTtl,
+                                                 JwtTokenCodec jwtTokenCodec) {
+        log.info("创建已验签token缓存，最大条目数: {}, 最长缓存时间: {}", maximumSize, maxTtl);
+        VerifiedTokenCache cache = new VerifiedTokenCache(maximumSize, maxTtl);
+        jwtTokenCodec.addKeyRemovalListener(removedKids -> {
+            log.warn("JWT密钥 {} 已移除，清空已验签token缓存", removedKids);
+            cache.invalidateAll();
+        });
+        return cache;
+    }
+}
@@ -0,0 +1,33 @@
+package com.indiegeeker.config;
+
+import com.indiegeeker.context.infrastructure.codec.UserInfoSigner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用户信息 header 签名配置
+ * 密钥与下游服务的 chatter.context.signature.secret 保持一致；未配置时网关不签名
+ *
+ * Author: wen
+ * Date: 2025/7/16
+ */
+@Slf4j
+@Configuration
+public class UserInfoSignerConfig {
+
+    /**
+     * @param secret 签名密钥，不少于32字节
+     */
+    @Bean
+    public UserInfoSigner userInfoSigner(@Value("${chatter.context.signature.secret:}") String secret) {
+        UserInfoSigner signer = UserInfoSigner.of(secret);
+        if (signer.isEnabled()) {
+            log.info("已启用用户信息header签名");
+        } else {
+            log.warn("未配置chatter.context.signature.secret，用户信息header不签名");
+        }
+        return signer;
+    }
+}
@@ -0,0 +1,41 @@
+package com.indiegeeker.filter;
+
+import com.indiegeeker.metrics.GatewayMetrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Resource;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 下游调用计时过滤器
+ * 排在负载均衡过滤器之前，记录从选址、转发到下游响应完成的耗时，与各过滤器阶段的耗时区分开
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@Component
+public class DownstreamTimingFilter implements GlobalFilter, Ordered {
+
+    @Resource
+    GatewayMetrics gatewayMetrics;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Timer timer = gatewayMetrics.route(exchange).downstream();
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,59 @@
+package com.indiegeeker.filter;
+
+import com.indiegeeker.access.IPAccessList;
+import com.indiegeeker.access.IPAccessRegistry;
+import com.indiegeeker.web.RejectionRenderer;
+import com.indiegeeker.web.utils.GateWayIPUtils;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * IP 网段白名单、黑名单过滤器
+ * 排在 SecurityFilter、IPLimitFilter 之前，只查本地网段前缀树，不访问 redis：
+ * 1. 命中黑名单直接返回403，请求不会到达鉴权、限流
+ * 2. 命中白名单时在 exchange 上打标记，IPLimitFilter 据此跳过限流
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@Slf4j
+@Component
+public class IPAccessFilter implements GlobalFilter, Ordered {
+
+    /**
+     * 命中白名单的请求在 exchange 中的标记
+     */
+    public static final String IP_ALLOWED_ATTR = IPAccessFilter.class.getName() + ".ipAllowed";
+
+    @Resource
+    IPAccessRegistry ipAccessRegistry;
+
+    @Resource
+    RejectionRenderer rejectionRenderer;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String ip = GateWayIPUtils.getIP(exchange);
+        IPAccessList.Decision decision = ipAccessRegistry.check(ip);
+        if (decision == IPAccessList.Decision.DENY) {
+            log.debug("IP: {} 命中黑名单网段，拒绝访问", ip);
+            return rejectionRenderer.renderForbidden(exchange);
+        }
+        if (decision == IPAccessList.Decision.ALLOW) {
+            exchange.getAttributes().put(IP_ALLOWED_ATTR, Boolean.TRUE);
+        }
+        return chain.filter(exchange);
+    }
+
+    // 在 SecurityFilter(-100) 之前执行
+    @Override
+    public int getOrder() {
+        return -200;
+    }
+}
@@ -1,32 +1,29 @@
 package com.indiegeeker.filter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.indiegeeker.core.base.BaseJSONResult;
+import com.indiegeeker.context.domain.UserContext;
 import com.indiegeeker.core.enums.ResponseStatusEnum;
+import com.indiegeeker.web.RejectionRenderer;
 import com.indiegeeker.web.utils.GateWayIPUtils;
-import com.indiegeeker.data.utils.RedisUtils;
+import com.indiegeeker.limiter.BlockedIPCache;
+import com.indiegeeker.limiter.HybridIPRateLimiter;
+import com.indiegeeker.limiter.IPLimiter;
+import com.indiegeeker.limiter.IPRateLimiter;
+import com.indiegeeker.limiter.policy.RateLimitPolicy;
+import com.indiegeeker.limiter.policy.RateLimitPolicyRegistry;
+import com.indiegeeker.metrics.GatewayMetrics;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
-import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
-import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.nio.charset.StandardCharsets;
-import java.util.concurrent.TimeUnit;
-
 /**
  * Desc: IP拦截器，限制访问次数
  * Author: wen
@@ -34,11 +31,25 @@ import java.util.concurrent.TimeUnit;
  **/
 @Component
 @Slf4j
-@RefreshScope
 public class IPLimitFilter implements GlobalFilter, Ordered {
 
     @Resource
-    RedisUtils redisUtils;
+    IPRateLimiter ipRateLimiter;
+
+    @Resource
+    HybridIPRateLimiter hybridIPRateLimiter;
+
+    @Resource
+    BlockedIPCache blockedIPCache;
+
+    @Resource
+    RateLimitPolicyRegistry policyRegistry;
+
+    @Resource
+    RejectionRenderer rejectionRenderer;
+
+    @Resource
+    GatewayMetrics gatewayMetrics;
     static {
         System.out.println("IPLimitFilter 类已加载");
     }
@@ -47,80 +58,75 @@ public class IPLimitFilter implements GlobalFilter, Ordered {
         System.out.println("IPLimitFilter 实例已创建");
     }
     
-    // 创建一个静态的ObjectMapper实例，配置好Java时间模块
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
-            .registerModule(new JavaTimeModule());
-    
     /**
      * 需求：
      * 判断某个请求的ip在 x 秒内的请求次数是否超过 y 次
      * 如果超过 y 次，则限制访问 n 秒
      * 等待 n 秒静默后，才能够继续恢复访问
+     *
+     * x、y、n 由限流策略决定：blackIp.* 为默认策略，blackIp.policies 可按路由、路径前缀定制，
+     * 并可改为按登录用户或租户计数。策略由 RateLimitPolicyRegistry 监听配置变更热更新，无需 @RefreshScope
      */
 
-//    @Value默认不支持运行期动态更新，需要结合@RefreshScope注解实现动态刷新，
-//    @NacosConfig默认支持运行期动态更新。。
-    @Value("${blackIp.continueCounts}")
-    private Integer continueCounts;
-
-    @Value("${blackIp.timeInterval}")
-    private Integer timeInterval;
-
-    @Value("${blackIp.limitTimes}")
-    private Integer limitTimes;
-
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        System.out.println("IPLimitFilter filter 方法被调用");
-        System.out.println("请求路径: " + exchange.getRequest().getPath());
-        System.out.println("continueCounts: " + continueCounts);
-        System.out.println("timeInterval: " + timeInterval);
         log.info("IPLimitFilter filter 方法被调用, 路径: {}", exchange.getRequest().getPath());
-        log.info("IPLimitFilter continueCounts={} timeInterval={}", continueCounts, timeInterval);
         return doFiltration(exchange, chain);
     }
 
     private Mono<Void> doFiltration(ServerWebExchange exchange, GatewayFilterChain chain) {
+        // 命中白名单网段的请求不限流，也不访问 redis
+        if (exchange.getAttribute(IPAccessFilter.IP_ALLOWED_ATTR) != null) {
+            return chain.filter(exchange);
+        }
+        // 限流阶段耗时按路由记录，包含 redis 脚本调用，到放行或拒绝为止
+        long start = System.nanoTime();
+        GatewayMetrics.RouteTimers timers = gatewayMetrics.route(exchange);
         // 根据request获得请求ip
         ServerHttpRequest request = exchange.getRequest();
-        String ip = GateWayIPUtils.getIP(request);
-        // 正常的ip定义 - 用于计数
-        final String ipRedisKey = "gateway-ip:" + ip;
-        // 被拦截的黑名单ip，如果在redis中存在，则表示当前ip被限制
-        final String ipRedisLimitKey = "gateway-ip:limit:" + ip;
-        // 获得当前的ip并且查询还剩下多少时间，如果时间存在（大于0），则表示当前仍然处在黑名单中
-        long limitExpire = redisUtils.getExpire(ipRedisLimitKey);
-        if (limitExpire > 0) {
-            // 终止请求，返回错误
+        String ip = GateWayIPUtils.getIP(exchange);
+        // 按路由、路径查找限流策略，并计算限流键（ip、用户或租户）
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RateLimitPolicy policy = policyRegistry.match(route != null ? route.getId() : null, request.getURI().getPath());
+        UserContext userContext = exchange.getAttribute(SecurityFilter.USER_CONTEXT_ATTR);
+        String limitKey = policy.resolveKey(ip, userContext);
+
+        // 已在本地黑名单中的直接拒绝，不再访问 redis
+        long blockedSeconds = blockedIPCache.remainingSeconds(limitKey);
+        if (blockedSeconds > 0) {
+            log.info("限流键: {} 处于本地黑名单中, 剩余时间: {}", limitKey, blockedSeconds);
+            timers.record(GatewayMetrics.Stage.IP_LIMIT, start);
             return renderErrorMsg(exchange, ResponseStatusEnum.BLACK_IP);
         }
-        // 获取 IP 在 redis 中的累加次数 - 应该对计数键进行递增
-        Long incrementCount = redisUtils.increment(ipRedisKey,1);
-        /**
-         * 判断如果是第一次进来，也就是从0开始计数，则初期访问就是1，
-         * 需要设置间隔的时间，也就是连续请求的次数的间隔时间
-         */
-        if (incrementCount == 1) {
-            redisUtils.setExpire(ipRedisKey,timeInterval);
-        }
-
-        log.info("IP: {}, 当前计数: {}, 限制次数: {}, 剩余时间: {}", 
-        ip, incrementCount, continueCounts, redisUtils.getExpire(ipRedisKey));
-
         /**
-         * 如果还能获得请求的正常次数，说明用户的连续请求落在限定的[timeInterval]之内
-         * 一旦请求次数超过限定的连续访问次数[continueCounts]，则需要限制当前的ip
+         * 黑名单检查、计数累加、窗口过期、拉黑判定在一次脚本调用内原子完成：
+         * 1. ip 仍处于黑名单中（剩余时间大于0），直接拦截
+         * 2. 第一次进来时计数从1开始，同时设置连续请求的间隔时间[timeInterval]
+         * 3. 一旦请求次数超过限定的连续访问次数[continueCounts]，则限制当前ip访问[limitTimes]
          */
-        if (incrementCount > continueCounts) {
-            // 限制ip访问的时间[limitTimes]
-            redisUtils.set(ipRedisLimitKey,ipRedisLimitKey,limitTimes, TimeUnit.SECONDS);
-            // 终止请求，返回错误
-            return renderErrorMsg(exchange, ResponseStatusEnum.BLACK_IP);
-        }
-
-
+        return selectLimiter().acquire(policy, ip, limitKey)
+                .doOnError(e -> timers.record(GatewayMetrics.Stage.IP_LIMIT, start))
+                .flatMap(limitResult -> {
+                    timers.record(GatewayMetrics.Stage.IP_LIMIT, start);
+                    log.info("限流键: {}, 当前计数: {}, 限制次数: {}, 剩余时间: {}",
+                    limitKey, limitResult.getCount(), policy.getContinueCounts(), limitResult.getTtl());
+
+                    if (limitResult.isBlocked()) {
+                        // 本次请求触发拉黑时（计数大于0）广播给所有节点，已处于黑名单中时只缓存到本地
+                        if (limitResult.getCount() > 0) {
+                            blockedIPCache.block(limitKey, limitResult.getTtl());
+                        } else {
+                            blockedIPCache.cache(limitKey, limitResult.getTtl());
+                        }
+                        // 终止请求，返回错误
+                        return renderErrorMsg(exchange, ResponseStatusEnum.BLACK_IP);
+                    }
+                    return chain.filter(exchange);
+                });
+    }
 
-        return chain.filter(exchange);
+    private IPLimiter selectLimiter() {
+        return "hybrid".equalsIgnoreCase(policyRegistry.getMode()) ? hybridIPRateLimiter : ipRateLimiter;
     }
 
     /**
@@ -131,30 +137,8 @@ public class IPLimitFilter implements GlobalFilter, Ordered {
      * @return
      */
     public Mono<Void> renderErrorMsg(ServerWebExchange exchange, ResponseStatusEnum statusEnum) {
-        // 1. 获得相应response
-        ServerHttpResponse response = exchange.getResponse();
-        // 2. 设置header类型
-        if (!response.getHeaders().containsKey("Content-Type")) {
-            response.getHeaders().add("Content-Type", MimeTypeUtils.APPLICATION_JSON_VALUE);
-        }
-        // 3. 修改response的状态码code为500
-        response.setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
-        // 4. 构建jsonResult
-        BaseJSONResult<Object> jsonResult = BaseJSONResult.error(statusEnum);
-        
-        try {
-            // 使用配置好的ObjectMapper进行序列化
-            String json = OBJECT_MAPPER.writeValueAsString(jsonResult);
-            DataBuffer dataBuffer = response.bufferFactory().wrap(json.getBytes(StandardCharsets.UTF_8));
-            return response.writeWith(Mono.just(dataBuffer));
-        } catch (JsonProcessingException e) {
-            log.error("JSON序列化失败: {}", e.getMessage(), e);
-            // 如果序列化失败，返回简单的错误信息
-            String errorJson = "{\"code\": 500, \"msg\": \"系统错误\", \"timestamp\": \"" + 
-                              java.time.LocalDateTime.now() + "\"}";
-            DataBuffer dataBuffer = response.bufferFactory().wrap(errorJson.getBytes(StandardCharsets.UTF_8));
-            return response.writeWith(Mono.just(dataBuffer));
-        }
+        // 响应体已预先编码，拒绝请求时不再序列化
+        return rejectionRenderer.render(exchange, statusEnum);
     }
 
     // 过滤器的顺序，数字越小则优先级越高
@@ -1,23 +1,28 @@
 package com.indiegeeker.filter;
 
+import com.indiegeeker.authorization.AuthorizationRule;
+import com.indiegeeker.authorization.AuthorizationRuleRegistry;
 import com.indiegeeker.config.SecurityExcludeConfig;
 import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.context.infrastructure.codec.UserInfoSigner;
+import com.indiegeeker.metrics.GatewayMetrics;
+import com.indiegeeker.revocation.RevokedTokenRegistry;
+import com.indiegeeker.security.cache.VerifiedTokenCache;
+import com.indiegeeker.security.jwt.JwtTokenCodec;
 import com.indiegeeker.security.utils.JWTUtils;
-import com.indiegeeker.web.utils.PathMatcherUtils;
+import com.indiegeeker.web.RejectionRenderer;
+import com.indiegeeker.web.utils.GateWayIPUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-
 /**
  * 网关安全过滤器
  * 负责JWT token解析、用户认证和上下文传递
@@ -30,34 +35,77 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SecurityFilter implements GlobalFilter, Ordered {
 
+    /**
+     * 鉴权通过后存放 UserContext 的 exchange 属性名，供后续过滤器（如按用户限流）使用
+     */
+    public static final String USER_CONTEXT_ATTR = SecurityFilter.class.getName() + ".userContext";
+
+    /**
+     * 登出接口，经过网关时从 token 缓存中剔除
+     */
+    private static final String LOGOUT_PATH = "/auth/logout";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final SecurityExcludeConfig securityExcludeConfig;
 
+    private final RejectionRenderer rejectionRenderer;
+
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private final JwtTokenCodec jwtTokenCodec;
+
+    private final UserInfoSigner userInfoSigner;
+
+    private final AuthorizationRuleRegistry authorizationRuleRegistry;
+
+    private final RevokedTokenRegistry revokedTokenRegistry;
+
+    private final GatewayMetrics gatewayMetrics;
+
+    /**
+     * 鉴权阶段耗时按路由记录
+     * 验签、鉴权、生成用户信息 header 都在组装阶段同步完成，下一个过滤器在订阅时才执行，不计入本阶段；
+     * 布隆过滤器命中后查询吊销记录的 redis 耗时记在 chatter.redis.operation 中
+     */
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        try {
+            return doFilter(exchange, chain);
+        } finally {
+            gatewayMetrics.route(exchange).record(GatewayMetrics.Stage.SECURITY, start);
+        }
+    }
+
+    private Mono<Void> doFilter(ServerWebExchange exchange, GatewayFilterChain chain) {
         // 获取请求信息
         ServerHttpRequest request = exchange.getRequest();
         String requestPath = request.getURI().getPath();
         String method = request.getMethod().name();
-        String clientIp = getClientIp(request);
+        String clientIp = GateWayIPUtils.getIP(exchange);
         
         log.debug("安全过滤器处理请求: {} {} from {}", method, requestPath, clientIp);
 
         // 检查是否需要排除路径鉴权
         if (isExcludedPath(requestPath)) {
             log.debug("路径 {} 在排除列表中，跳过鉴权", requestPath);
-            return chain.filter(exchange);
+            if (LOGOUT_PATH.equals(requestPath)) {
+                evictToken(request);
+            }
+            return chain.filter(stripUserInfoHeaders(exchange));
         }
 
         // 获取Authorization header
         String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
             log.warn("请求 {} 缺少有效的Authorization header", requestPath);
             return handleUnauthorized(exchange);
         }
 
-        // 解析JWT token
-        String token = authHeader.substring(7);
-        UserContext userContext = JWTUtils.parseToken(token);
+        // 解析JWT token，同一个token验签一次后从缓存中取
+        String token = authHeader.substring(BEARER_PREFIX.length());
+        UserContext userContext = verifiedTokenCache.get(token, jwtTokenCodec::parseToken);
         
         if (userContext == null) {
             log.warn("请求 {} JWT token解析失败", requestPath);
@@ -69,6 +117,28 @@ public class SecurityFilter implements GlobalFilter, Ordered {
             return handleUnauthorized(exchange);
         }
 
+        // 已吊销的 token：本地布隆过滤器未命中时一定未吊销，直接继续；命中时再查 redis
+        if (revokedTokenRegistry.mightBeRevoked(userContext.getTokenId())) {
+            return revokedTokenRegistry.isRevoked(userContext.getTokenId())
+                    .flatMap(revoked -> {
+                        if (revoked) {
+                            log.warn("请求 {} JWT token已吊销, jti: {}", requestPath, userContext.getTokenId());
+                            return handleUnauthorized(exchange);
+                        }
+                        return authorize(exchange, chain, userContext, requestPath, method, clientIp);
+                    });
+        }
+
+        return authorize(exchange, chain, userContext, requestPath, method, clientIp);
+    }
+
+    /**
+     * token 有效，检查权限并向下游传递用户信息
+     */
+    private Mono<Void> authorize(ServerWebExchange exchange, GatewayFilterChain chain, UserContext userContext,
+                                 String requestPath, String method, String clientIp) {
+        ServerHttpRequest request = exchange.getRequest();
+
         // 补充请求信息到用户上下文
         userContext.setRequestIp(clientIp);
         userContext.setUserAgent(request.getHeaders().getFirst(HttpHeaders.USER_AGENT));
@@ -84,6 +154,7 @@ public class SecurityFilter implements GlobalFilter, Ordered {
         // 将用户信息添加到请求header中，传递给下游微服务
         ServerHttpRequest modifiedRequest = addUserContextToRequest(request, userContext);
         ServerWebExchange modifiedExchange = exchange.mutate().request(modifiedRequest).build();
+        modifiedExchange.getAttributes().put(USER_CONTEXT_ATTR, userContext);
 
         return chain.filter(modifiedExchange);
     }
@@ -92,8 +163,7 @@ public class SecurityFilter implements GlobalFilter, Ordered {
      * 检查路径是否在排除列表中
      */
     private boolean isExcludedPath(String requestPath) {
-        List<String> excludePaths = securityExcludeConfig.getAllExcludePaths();
-        boolean isExcluded = PathMatcherUtils.isExcluded(requestPath, excludePaths);
+        boolean isExcluded = securityExcludeConfig.isExcluded(requestPath);
         
         if (isExcluded) {
             log.debug("路径 {} 匹配排除模式", requestPath);
@@ -103,28 +173,43 @@ public class SecurityFilter implements GlobalFilter, Ordered {
     }
 
     /**
-     * 检查是否有权限访问
+     * 排除路径不鉴权，客户端自带的用户信息header不能透传给下游
      */
-    private boolean hasPermission(UserContext userContext, String requestPath, String method) {
-        // TODO: 实现具体的权限检查逻辑
-        // 这里可以根据用户角色、权限和请求路径进行细粒度的权限控制
-        
-        // 示例权限检查逻辑
-        if (requestPath.startsWith("/admin/") && !userContext.hasRole("ADMIN")) {
-            return false;
+    private ServerWebExchange stripUserInfoHeaders(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (!headers.containsKey(JWTUtils.getUserInfoHeaderName())
+                && !headers.containsKey(UserInfoSigner.DEFAULT_SIGNATURE_HEADER)) {
+            return exchange;
         }
-        
-        if (requestPath.startsWith("/user/") && !userContext.hasAnyRole("USER", "ADMIN")) {
-            return false;
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(h -> {
+                    h.remove(JWTUtils.getUserInfoHeaderName());
+                    h.remove(UserInfoSigner.DEFAULT_SIGNATURE_HEADER);
+                })
+                .build();
+        return exchange.mutate().request(request).build();
+    }
+
+    /**
+     * 登出时从缓存中剔除当前token
+     */
+    private void evictToken(ServerHttpRequest request) {
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            verifiedTokenCache.invalidate(authHeader.substring(BEARER_PREFIX.length()));
         }
-        
-        // 示例：DELETE操作需要特殊权限
-        if ("DELETE".equals(method) && !userContext.hasPermission("DELETE")) {
-            return false;
+    }
+
+    /**
+     * 检查是否有权限访问，规则见 security.authorization.rules 及 AuthorizationTable 的默认规则
+     */
+    private boolean hasPermission(UserContext userContext, String requestPath, String method) {
+        AuthorizationRule rule = authorizationRuleRegistry.deniedBy(userContext, method, requestPath);
+        if (rule == null) {
+            return true;
         }
-        
-        // 默认通过（已认证用户都有基本权限）
-        return true;
+        log.debug("用户 {} 不满足鉴权规则 {}", userContext.getUserId(), rule);
+        return false;
     }
 
     /**
@@ -139,73 +224,35 @@ public class SecurityFilter implements GlobalFilter, Ordered {
             return request;
         }
 
-        // 添加用户信息到请求header
+        // 添加用户信息到请求header，下游验签后才信任其中的用户信息
+        String signature = userInfoSigner.sign(userInfoHeader);
         return request.mutate()
-                .header(JWTUtils.getUserInfoHeaderName(), userInfoHeader)
-                .header("X-User-Id", userContext.getUserId())
-                .header("X-Username", userContext.getUsername())
-                .header("X-Tenant-Id", userContext.getTenantId() != null ? userContext.getTenantId() : "")
+                .headers(headers -> {
+                    headers.set(JWTUtils.getUserInfoHeaderName(), userInfoHeader);
+                    if (signature != null) {
+                        headers.set(UserInfoSigner.DEFAULT_SIGNATURE_HEADER, signature);
+                    } else {
+                        headers.remove(UserInfoSigner.DEFAULT_SIGNATURE_HEADER);
+                    }
+                    headers.set("X-User-Id", userContext.getUserId());
+                    headers.set("X-Username", userContext.getUsername());
+                    headers.set("X-Tenant-Id", userContext.getTenantId() != null ? userContext.getTenantId() : "");
+                })
                 .build();
     }
 
-    /**
-     * 获取客户端真实IP
-     */
-    private String getClientIp(ServerHttpRequest request) {
-        String xForwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeaders().getFirst("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddress() != null ? 
-               request.getRemoteAddress().getAddress().getHostAddress() : "unknown";
-    }
-
     /**
      * 处理未认证请求
      */
     private Mono<Void> handleUnauthorized(ServerWebExchange exchange) {
-        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-        exchange.getResponse().getHeaders().add("Content-Type", "application/json;charset=UTF-8");
-        
-        String errorResponse = """
-                {
-                    "code": 401,
-                    "msg": "未授权访问，请先登录",
-                    "data": null,
-                    "timestamp": "%s"
-                }
-                """.formatted(java.time.LocalDateTime.now());
-        
-        org.springframework.core.io.buffer.DataBuffer buffer = 
-                exchange.getResponse().bufferFactory().wrap(errorResponse.getBytes());
-        return exchange.getResponse().writeWith(Mono.just(buffer));
+        return rejectionRenderer.renderUnauthorized(exchange);
     }
 
     /**
      * 处理权限不足请求
      */
     private Mono<Void> handleForbidden(ServerWebExchange exchange) {
-        exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
-        exchange.getResponse().getHeaders().add("Content-Type", "application/json;charset=UTF-8");
-        
-        String errorResponse = """
-                {
-                    "code": 403,
-                    "msg": "权限不足，无法访问该资源",
-                    "data": null,
-                    "timestamp": "%s"
-                }
-                """.formatted(java.time.LocalDateTime.now());
-        
-        org.springframework.core.io.buffer.DataBuffer buffer = 
-                exchange.getResponse().bufferFactory().wrap(errorResponse.getBytes());
-        return exchange.getResponse().writeWith(Mono.just(buffer));
+        return rejectionRenderer.renderForbidden(exchange);
     }
 
     @Override
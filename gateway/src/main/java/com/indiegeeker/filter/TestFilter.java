@@ -27,8 +27,6 @@ public class TestFilter implements GlobalFilter, Ordered {
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        System.out.println("TestFilter filter 方法被调用");
-        System.out.println("请求路径: " + exchange.getRequest().getPath());
         log.info("TestFilter filter 方法被调用, 路径: {}", exchange.getRequest().getPath());
         return chain.filter(exchange);
     }
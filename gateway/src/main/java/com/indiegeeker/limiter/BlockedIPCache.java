@@ -0,0 +1,127 @@
+package com.indiegeeker.limiter;
+
+import com.indiegeeker.data.utils.ReactiveRedisUtils;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 黑名单 ip 本地缓存
+ * ip 被拉黑后在本地缓存到黑名单到期为止，期间该 ip 的请求直接在本地拒绝，不再访问 redis；
+ * 新拉黑的 ip 通过 redis 发布订阅广播到所有网关节点，攻击流量打到任意节点都在本地拦截。
+ * 缓存项由时间轮统一过期，不为每个 ip 单独创建定时任务
+ *
+ * Author: wen
+ * Date: 2025/7/10
+ **/
+@Slf4j
+@Component
+public class BlockedIPCache {
+
+    // 黑名单广播频道，消息格式：{剩余秒数}:{ip}
+    public static final String BLOCKED_IP_CHANNEL = "gateway-ip:blocked";
+
+    @Resource
+    ReactiveRedisUtils reactiveRedisUtils;
+
+    // ip -> 黑名单到期时间点（毫秒）
+    private final Map<String, Long> blockedIps = new ConcurrentHashMap<>();
+
+    // 精度100毫秒、一圈512格的时间轮，单线程推进所有缓存项的过期
+    private final HashedWheelTimer expireTimer = new HashedWheelTimer(
+            new DefaultThreadFactory("blocked-ip-expire", true), 100, TimeUnit.MILLISECONDS, 512);
+
+    private Disposable subscription;
+
+    @PostConstruct
+    public void init() {
+        // 提前启动时间轮，避免首次拉黑时在 event-loop 线程上等待工作线程启动
+        expireTimer.start();
+        subscription = reactiveRedisUtils.listenToChannel(BLOCKED_IP_CHANNEL)
+                .doOnNext(this::onMessage)
+                // redis 连接断开后自动重新订阅
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("黑名单广播订阅异常，准备重连: {}", signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        expireTimer.stop();
+    }
+
+    /**
+     * 查询 ip 的黑名单剩余时间
+     *
+     * @param ip 请求ip
+     * @return 剩余秒数，未被拉黑时为0
+     */
+    public long remainingSeconds(String ip) {
+        Long blockedUntil = blockedIps.get(ip);
+        if (blockedUntil == null) {
+            return 0;
+        }
+        long remaining = blockedUntil - System.currentTimeMillis();
+        // 时间轮有一个刻度的误差，已到期但尚未清理的按未拉黑处理
+        return remaining > 0 ? (remaining + 999) / 1000 : 0;
+    }
+
+    /**
+     * 本地缓存 ip 的黑名单状态，不广播
+     * 用于从 redis 得知 ip 已处于黑名单中的情况（拉黑已由其他节点广播过）
+     *
+     * @param ip  请求ip
+     * @param ttl 黑名单剩余时间，单位：秒
+     */
+    public void cache(String ip, long ttl) {
+        if (ttl <= 0) {
+            return;
+        }
+        long blockedUntil = System.currentTimeMillis() + ttl * 1000L;
+        // 已有更晚的到期时间时保留原值，原值对应的过期任务会负责清理
+        if (blockedIps.merge(ip, blockedUntil, Math::max) == blockedUntil) {
+            expireTimer.newTimeout(timeout -> blockedIps.remove(ip, blockedUntil), ttl, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 本地缓存 ip 的黑名单状态，并广播给其他网关节点
+     *
+     * @param ip  请求ip
+     * @param ttl 黑名单时长，单位：秒
+     */
+    public void block(String ip, long ttl) {
+        cache(ip, ttl);
+        reactiveRedisUtils.publish(BLOCKED_IP_CHANNEL, ttl + ":" + ip).subscribe(
+                receivers -> log.debug("黑名单广播完成, ip: {}, 接收节点数: {}", ip, receivers),
+                e -> log.warn("黑名单广播失败, ip: {}, 原因: {}", ip, e.getMessage()));
+    }
+
+    private void onMessage(String message) {
+        // ipv6 地址中含有冒号，按第一个冒号切分
+        int separator = message.indexOf(':');
+        if (separator <= 0) {
+            log.warn("无法解析的黑名单广播消息: {}", message);
+            return;
+        }
+        try {
+            cache(message.substring(separator + 1), Long.parseLong(message.substring(0, separator)));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析的黑名单广播消息: {}", message);
+        }
+    }
+}
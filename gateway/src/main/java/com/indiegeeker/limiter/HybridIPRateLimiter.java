@@ -0,0 +1,282 @@
+package com.indiegeeker.limiter;
+
+import com.indiegeeker.core.utils.IPAddressUtils;
+import com.indiegeeker.limiter.policy.RateLimitPolicy;
+import io.netty.util.concurrent.FastThreadLocal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IP 限流引擎（hybrid 模式）
+ * 每个网关节点在本地为 ip 计数，大部分请求不访问 redis：
+ * 1. 本地计数 = 最近一次同步得到的集群计数 + 本节点未同步的增量
+ * 2. 每隔 syncInterval 毫秒，把所有 ip 未同步的增量批量累加到 redis（与 exact 模式同一个脚本），
+ *    并用返回的集群计数、窗口剩余时间、黑名单状态校准本地
+ * 3. 单个 ip 未同步的增量达到 errorBound 时立即触发该 ip 的同步，单节点对集群计数的偏差不超过 errorBound
+ * 4. 本地计数将要超过 continueCounts 时不在本地拒绝，而是同步到 redis 由脚本做最终判定，拉黑与 exact 模式一致
+ * 按ip计数时本地状态存放在 IPCounterTable（每个策略一张表）中，ip 解析为数值作键，热路径不分配对象；
+ * 按用户、租户计数，或 ip 无法解析时，退化为以限流键字符串为键的 Map
+ *
+ * Author: wen
+ * Date: 2025/7/10
+ **/
+@Slf4j
+@Component
+public class HybridIPRateLimiter implements IPLimiter {
+
+    /**
+     * 同步周期，单位：毫秒
+     */
+    @Value("${blackIp.syncInterval:200}")
+    private long syncInterval;
+
+    /**
+     * 单个 ip 在本节点允许累积的最大未同步请求数
+     */
+    @Value("${blackIp.errorBound:10}")
+    private long errorBound;
+
+    @Resource
+    IPRateLimiter ipRateLimiter;
+
+    private final Map<String, LocalCounter> counters = new ConcurrentHashMap<>();
+
+    // 策略的限流键前缀 -> 该策略按ip计数的本地计数表
+    private final Map<String, PolicyIPTable> ipTables = new ConcurrentHashMap<>();
+
+    // 解析 ip 用的临时数组，每个线程复用一个
+    private static final FastThreadLocal<long[]> ADDRESS = new FastThreadLocal<>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[2];
+        }
+    };
+
+    private Disposable syncTask;
+
+    @PostConstruct
+    public void startSync() {
+        syncTask = Flux.interval(Duration.ofMillis(syncInterval))
+                .onBackpressureDrop()
+                .concatMap(tick -> syncAll(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stopSync() {
+        if (syncTask != null) {
+            syncTask.dispose();
+        }
+        // 下线前把剩余增量同步出去
+        syncAll().block(Duration.ofSeconds(3));
+    }
+
+    @Override
+    public Mono<IPLimitResult> acquire(String key, int continueCounts, int timeInterval, int limitTimes) {
+        LocalCounter counter = counters.computeIfAbsent(key, LocalCounter::new);
+        counter.update(continueCounts, timeInterval, limitTimes);
+
+        long now = System.currentTimeMillis();
+        if (counter.blockedUntil > now) {
+            return Mono.just(new IPLimitResult(true, 0, remainingSeconds(counter.blockedUntil, now)));
+        }
+        if (counter.windowExpireAt <= now) {
+            // 本地窗口已过期，开始新的窗口，等下次同步再以 redis 为准
+            counter.syncedCount = 0;
+            counter.windowExpireAt = now + timeInterval * 1000L;
+        }
+
+        long pending = counter.pending.incrementAndGet();
+        long estimate = counter.syncedCount + pending;
+        if (estimate > continueCounts) {
+            // 可能需要拉黑，交给 redis 做最终判定
+            return sync(counter);
+        }
+        if (pending >= errorBound) {
+            sync(counter).subscribe();
+        }
+        return Mono.just(new IPLimitResult(false, estimate, remainingSeconds(counter.windowExpireAt, now)));
+    }
+
+    @Override
+    public Mono<IPLimitResult> acquire(RateLimitPolicy policy, String ip, String key) {
+        long[] address = ADDRESS.get();
+        if (!policy.isIpKey(ip, key) || !IPAddressUtils.parse(ip, address)) {
+            return acquire(key, policy.getContinueCounts(), policy.getTimeInterval(), policy.getLimitTimes());
+        }
+        long hi = address[0];
+        long lo = address[1];
+        PolicyIPTable ipTable = ipTables.get(policy.getKeyPrefix());
+        if (ipTable == null) {
+            ipTable = ipTables.computeIfAbsent(policy.getKeyPrefix(), PolicyIPTable::new);
+        }
+        if (ipTable.policy != policy) {
+            ipTable.policy = policy;
+        }
+
+        long result = ipTable.table.acquire(hi, lo, policy.getContinueCounts(), policy.getTimeInterval(),
+                errorBound, System.currentTimeMillis());
+        switch (IPCounterTable.decision(result)) {
+            case IPCounterTable.BLOCKED:
+                return Mono.just(new IPLimitResult(true, 0, IPCounterTable.ttl(result)));
+            case IPCounterTable.SYNC:
+                // 可能需要拉黑，交给 redis 做最终判定
+                return sync(ipTable, hi, lo, ipTable.table.takePending(hi, lo));
+            case IPCounterTable.PASS_AND_SYNC:
+                sync(ipTable, hi, lo, ipTable.table.takePending(hi, lo)).subscribe();
+                return Mono.just(new IPLimitResult(false, IPCounterTable.count(result), IPCounterTable.ttl(result)));
+            default:
+                return Mono.just(new IPLimitResult(false, IPCounterTable.count(result), IPCounterTable.ttl(result)));
+        }
+    }
+
+    /**
+     * 同步所有 ip 的未同步增量，并清理已过期的本地计数
+     * 各 ip 的脚本调用并发下发，在同一个 redis 连接上以管道方式批量发送
+     */
+    private Mono<Void> syncAll() {
+        long now = System.currentTimeMillis();
+        return Flux.fromIterable(counters.values())
+                .filter(counter -> {
+                    if (counter.pending.get() > 0) {
+                        return true;
+                    }
+                    if (counter.windowExpireAt <= now && counter.blockedUntil <= now) {
+                        counters.remove(counter.key, counter);
+                    }
+                    return false;
+                })
+                .flatMap(this::sync)
+                .thenMany(Flux.fromIterable(ipTables.values()))
+                .flatMap(this::syncTable)
+                .then();
+    }
+
+    /**
+     * 同步一张 ip 计数表的所有未同步增量
+     */
+    private Flux<IPLimitResult> syncTable(PolicyIPTable ipTable) {
+        List<long[]> drained = new ArrayList<>();
+        ipTable.table.drainPending((hi, lo, permits) -> drained.add(new long[]{hi, lo, permits}));
+        return Flux.fromIterable(drained)
+                .flatMap(entry -> sync(ipTable, entry[0], entry[1], (int) entry[2]));
+    }
+
+    /**
+     * 将 ip 计数表中单个 ip 的增量累加到 redis，并用返回结果校准本地计数
+     * redis 键中的 ip 为规范化格式，与 GateWayIPUtils 返回的 ip 一致，exact 模式、黑名单缓存使用的是同一个键
+     */
+    private Mono<IPLimitResult> sync(PolicyIPTable ipTable, long hi, long lo, int permits) {
+        RateLimitPolicy policy = ipTable.policy;
+        String key = ipTable.keyPrefix + IPAddressUtils.format(hi, lo);
+        return ipRateLimiter.acquire(key, permits,
+                        policy.getContinueCounts(), policy.getTimeInterval(), policy.getLimitTimes())
+                .doOnNext(result -> ipTable.table.calibrate(hi, lo,
+                        result.isBlocked(), result.getCount(), result.getTtl(), System.currentTimeMillis()))
+                .onErrorResume(e -> {
+                    // redis 不可用时增量退回本地，下次继续同步；本次请求按本地计数放行
+                    ipTable.table.restorePending(hi, lo, permits, System.currentTimeMillis());
+                    log.warn("IP限流计数同步失败, 限流键: {}, 增量: {}, 原因: {}", key, permits, e.getMessage());
+                    return Mono.just(new IPLimitResult(false, 0, 0));
+                });
+    }
+
+    /**
+     * 将单个 ip 的未同步增量累加到 redis，并用返回结果校准本地计数
+     */
+    private Mono<IPLimitResult> sync(LocalCounter counter) {
+        long permits = counter.pending.getAndSet(0);
+        return ipRateLimiter.acquire(counter.key, permits,
+                        counter.continueCounts, counter.timeInterval, counter.limitTimes)
+                .doOnNext(result -> counter.calibrate(result, System.currentTimeMillis()))
+                .onErrorResume(e -> {
+                    // redis 不可用时增量退回本地，下次继续同步；本次请求按本地计数放行
+                    counter.pending.addAndGet(permits);
+                    log.warn("IP限流计数同步失败, 限流键: {}, 增量: {}, 原因: {}", counter.key, permits, e.getMessage());
+                    return Mono.just(new IPLimitResult(false, counter.syncedCount + counter.pending.get(), 0));
+                });
+    }
+
+    private static long remainingSeconds(long deadline, long now) {
+        return (deadline - now + 999) / 1000;
+    }
+
+    /**
+     * 单个策略按ip计数的本地计数表
+     */
+    private static class PolicyIPTable {
+
+        private final String keyPrefix;
+
+        private final IPCounterTable table = new IPCounterTable(Runtime.getRuntime().availableProcessors() * 4);
+
+        // 最近一次请求时的策略，周期同步时使用
+        private volatile RateLimitPolicy policy;
+
+        PolicyIPTable(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+    }
+
+    /**
+     * 单个限流键的本地计数
+     */
+    private static class LocalCounter {
+
+        private final String key;
+
+        // 本节点尚未同步到 redis 的请求数
+        private final AtomicLong pending = new AtomicLong();
+
+        // 最近一次同步得到的集群计数（已包含本节点同步过的部分）
+        private volatile long syncedCount;
+
+        // 计数窗口过期时间点，毫秒
+        private volatile long windowExpireAt;
+
+        // 黑名单到期时间点，毫秒
+        private volatile long blockedUntil;
+
+        // 最近一次请求时的限流参数，周期同步时使用
+        private volatile int continueCounts;
+        private volatile int timeInterval;
+        private volatile int limitTimes;
+
+        LocalCounter(String key) {
+            this.key = key;
+        }
+
+        void update(int continueCounts, int timeInterval, int limitTimes) {
+            this.continueCounts = continueCounts;
+            this.timeInterval = timeInterval;
+            this.limitTimes = limitTimes;
+        }
+
+        void calibrate(IPLimitResult result, long now) {
+            if (result.isBlocked()) {
+                blockedUntil = now + result.getTtl() * 1000L;
+                syncedCount = 0;
+                pending.set(0);
+                return;
+            }
+            syncedCount = result.getCount();
+            if (result.getTtl() > 0) {
+                windowExpireAt = now + result.getTtl() * 1000L;
+            }
+        }
+    }
+}
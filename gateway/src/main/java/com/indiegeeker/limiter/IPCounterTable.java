@@ -0,0 +1,347 @@
+package com.indiegeeker.limiter;
+
+/**
+ * IP 计数表
+ * 以 128 位 IP（IPv4 为 IPv4-mapped 形式）为键的开放寻址哈希表，键和计数全部存放在基本类型数组中，
+ * 不为每个 IP 创建 String、包装类型或 Map.Entry，海量不同 IP 时也不会在老年代堆积大量小对象。
+ * 表按哈希分成多个段，每段一把锁，段内线性探测；热路径上的查找、计数不分配任何对象。
+ * <p>
+ * 每个槽位记录 hybrid 限流所需的状态：
+ * 计数窗口过期时间、最近一次同步得到的集群计数、本节点未同步的增量、黑名单过期时间。
+ * 时间以表创建时刻为起点的秒数存放在 int 中。窗口、黑名单均已过期且没有未同步增量的槽位视为空闲，
+ * 可被新 IP 直接复用，扩容时只迁移仍有效的槽位，不需要单独的清理任务
+ *
+ * Author: wen
+ * Date: 2025/7/12
+ */
+public class IPCounterTable {
+
+    /**
+     * 放行
+     */
+    public static final int PASS = 0;
+
+    /**
+     * 放行，且未同步增量已达到误差上限，需要立即同步
+     */
+    public static final int PASS_AND_SYNC = 1;
+
+    /**
+     * 本地计数将超过上限，需要同步到 redis 由脚本做最终判定
+     */
+    public static final int SYNC = 2;
+
+    /**
+     * 处于黑名单中，拦截
+     */
+    public static final int BLOCKED = 3;
+
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    private final Segment[] segments;
+
+    private final int segmentShift;
+
+    private final long baseMillis = System.currentTimeMillis();
+
+    /**
+     * @param concurrency 段数，向上取整为2的幂
+     */
+    public IPCounterTable(int concurrency) {
+        int segmentCount = Integer.highestOneBit(Math.max(1, concurrency - 1) << 1);
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(MIN_SEGMENT_CAPACITY);
+        }
+        segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    /**
+     * 为 IP 计数一次，并给出本地判定
+     *
+     * @param hi             IP 高64位
+     * @param lo             IP 低64位
+     * @param continueCounts 时间窗口内允许的最大请求次数
+     * @param timeInterval   计数窗口，单位：秒
+     * @param errorBound     允许累积的最大未同步请求数
+     * @param nowMillis      当前时间
+     * @return 判定结果，用 decision/count/ttl 解出
+     */
+    public long acquire(long hi, long lo, int continueCounts, int timeInterval, long errorBound, long nowMillis) {
+        int now = seconds(nowMillis);
+        long hash = hash(hi, lo);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.findOrInsert(hi, lo, (int) hash, now);
+            if (segment.blockedUntil[slot] > now) {
+                return pack(BLOCKED, 0, segment.blockedUntil[slot] - now);
+            }
+            if (segment.windowExpireAt[slot] <= now) {
+                // 本地窗口已过期，开始新的窗口，等下次同步再以 redis 为准
+                segment.syncedCount[slot] = 0;
+                segment.windowExpireAt[slot] = now + timeInterval;
+            }
+            int pending = ++segment.pending[slot];
+            long estimate = (long) segment.syncedCount[slot] + pending;
+            int ttl = segment.windowExpireAt[slot] - now;
+            if (estimate > continueCounts) {
+                return pack(SYNC, estimate, ttl);
+            }
+            return pack(pending >= errorBound ? PASS_AND_SYNC : PASS, estimate, ttl);
+        }
+    }
+
+    /**
+     * 取出 IP 的未同步增量并清零
+     *
+     * @return 未同步增量，IP 不存在时为0
+     */
+    public int takePending(long hi, long lo) {
+        long hash = hash(hi, lo);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.find(hi, lo, (int) hash);
+            if (slot < 0) {
+                return 0;
+            }
+            int pending = segment.pending[slot];
+            segment.pending[slot] = 0;
+            return pending;
+        }
+    }
+
+    /**
+     * 同步失败时退回增量，下次继续同步
+     */
+    public void restorePending(long hi, long lo, int permits, long nowMillis) {
+        long hash = hash(hi, lo);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.findOrInsert(hi, lo, (int) hash, seconds(nowMillis));
+            segment.pending[slot] += permits;
+        }
+    }
+
+    /**
+     * 用 redis 返回的结果校准本地状态
+     *
+     * @param blocked 是否拦截
+     * @param count   集群计数
+     * @param ttl     拦截时为黑名单剩余秒数，否则为窗口剩余秒数
+     */
+    public void calibrate(long hi, long lo, boolean blocked, long count, long ttl, long nowMillis) {
+        int now = seconds(nowMillis);
+        long hash = hash(hi, lo);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.find(hi, lo, (int) hash);
+            if (slot < 0) {
+                return;
+            }
+            if (blocked) {
+                segment.blockedUntil[slot] = now + (int) ttl;
+                segment.syncedCount[slot] = 0;
+                segment.pending[slot] = 0;
+                return;
+            }
+            segment.syncedCount[slot] = (int) Math.min(count, Integer.MAX_VALUE);
+            if (ttl > 0) {
+                segment.windowExpireAt[slot] = now + (int) ttl;
+            }
+        }
+    }
+
+    /**
+     * 遍历所有有未同步增量的 IP，取出增量并清零
+     * 回调在段锁内执行，只应记录数据，不应做 IO
+     */
+    public void drainPending(PendingConsumer consumer) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (int slot = 0; slot < segment.used.length; slot++) {
+                    if (segment.used[slot] && segment.pending[slot] > 0) {
+                        consumer.accept(segment.keyHi[slot], segment.keyLo[slot], segment.pending[slot]);
+                        segment.pending[slot] = 0;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 已占用的槽位数（含尚未被复用的过期槽位）
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public static int decision(long result) {
+        return (int) (result >>> 62);
+    }
+
+    public static long count(long result) {
+        return result & 0xFFFF_FFFFL;
+    }
+
+    public static long ttl(long result) {
+        return (result >>> 32) & 0x3FFF_FFFFL;
+    }
+
+    private static long pack(int decision, long count, int ttl) {
+        return ((long) decision << 62)
+                | ((long) Math.max(0, ttl) << 32)
+                | Math.min(count, 0xFFFF_FFFFL);
+    }
+
+    private int seconds(long nowMillis) {
+        return (int) ((nowMillis - baseMillis) / 1000) + 1;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    private static long hash(long hi, long lo) {
+        long h = hi * 0x9E3779B97F4A7C15L ^ lo;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * 未同步增量回调
+     */
+    @FunctionalInterface
+    public interface PendingConsumer {
+        void accept(long hi, long lo, int permits);
+    }
+
+    /**
+     * 段：独立加锁的开放寻址表，负载超过 3/4 时扩容
+     */
+    private static final class Segment {
+
+        private boolean[] used;
+        private long[] keyHi;
+        private long[] keyLo;
+        private int[] windowExpireAt;
+        private int[] syncedCount;
+        private int[] pending;
+        private int[] blockedUntil;
+        private int size;
+
+        Segment(int capacity) {
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            used = new boolean[capacity];
+            keyHi = new long[capacity];
+            keyLo = new long[capacity];
+            windowExpireAt = new int[capacity];
+            syncedCount = new int[capacity];
+            pending = new int[capacity];
+            blockedUntil = new int[capacity];
+            size = 0;
+        }
+
+        int find(long hi, long lo, int hash) {
+            int mask = used.length - 1;
+            for (int slot = hash & mask, probes = 0; used[slot] && probes < used.length; slot = (slot + 1) & mask, probes++) {
+                if (keyHi[slot] == hi && keyLo[slot] == lo) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        int findOrInsert(long hi, long lo, int hash, int now) {
+            int mask = used.length - 1;
+            int slot = hash & mask;
+            int reusable = -1;
+            while (used[slot]) {
+                if (keyHi[slot] == hi && keyLo[slot] == lo) {
+                    return slot;
+                }
+                if (reusable < 0 && isIdle(slot, now)) {
+                    reusable = slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (reusable >= 0) {
+                // 复用探测链上的空闲槽位，不改变其他键的探测链
+                reset(reusable, hi, lo);
+                return reusable;
+            }
+            if (size + 1 > used.length - (used.length >>> 2)) {
+                rehash(now);
+                return findOrInsert(hi, lo, hash, now);
+            }
+            used[slot] = true;
+            size++;
+            reset(slot, hi, lo);
+            return slot;
+        }
+
+        private boolean isIdle(int slot, int now) {
+            return pending[slot] == 0 && windowExpireAt[slot] <= now && blockedUntil[slot] <= now;
+        }
+
+        private void reset(int slot, long hi, long lo) {
+            keyHi[slot] = hi;
+            keyLo[slot] = lo;
+            windowExpireAt[slot] = 0;
+            syncedCount[slot] = 0;
+            pending[slot] = 0;
+            blockedUntil[slot] = 0;
+        }
+
+        /**
+         * 只迁移仍有效的槽位，新容量保证迁移后负载不超过1/2
+         */
+        private void rehash(int now) {
+            boolean[] oldUsed = used;
+            long[] oldHi = keyHi, oldLo = keyLo;
+            int[] oldWindow = windowExpireAt, oldSynced = syncedCount, oldPending = pending, oldBlocked = blockedUntil;
+
+            int live = 0;
+            for (int slot = 0; slot < oldUsed.length; slot++) {
+                if (oldUsed[slot] && !isIdle(slot, now)) {
+                    live++;
+                }
+            }
+            int capacity = MIN_SEGMENT_CAPACITY;
+            while (capacity < (live + 1) * 2) {
+                capacity <<= 1;
+            }
+            allocate(capacity);
+
+            int mask = capacity - 1;
+            for (int old = 0; old < oldUsed.length; old++) {
+                if (!oldUsed[old] || (oldPending[old] == 0 && oldWindow[old] <= now && oldBlocked[old] <= now)) {
+                    continue;
+                }
+                int slot = (int) hash(oldHi[old], oldLo[old]) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                keyHi[slot] = oldHi[old];
+                keyLo[slot] = oldLo[old];
+                windowExpireAt[slot] = oldWindow[old];
+                syncedCount[slot] = oldSynced[old];
+                pending[slot] = oldPending[old];
+                blockedUntil[slot] = oldBlocked[old];
+                size++;
+            }
+        }
+    }
+}
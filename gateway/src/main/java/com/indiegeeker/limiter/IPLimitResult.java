@@ -0,0 +1,51 @@
+package com.indiegeeker.limiter;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * IP 限流判定结果
+ * Author: wen
+ * Date: 2025/7/8
+ **/
+@Getter
+@ToString
+@AllArgsConstructor
+public class IPLimitResult {
+
+    /**
+     * 是否拦截
+     */
+    private final boolean blocked;
+
+    /**
+     * 当前窗口内的请求次数，已处于黑名单时为0
+     */
+    private final long count;
+
+    /**
+     * 剩余时间（秒）：拦截时为黑名单剩余时间，放行时为计数窗口剩余时间
+     */
+    private final long ttl;
+
+    /**
+     * 解析限流脚本的返回值 {是否拦截, 当前计数, 剩余时间}
+     * 响应式执行时多值返回可能整体作为一个元素下发，这里统一展开
+     */
+    static IPLimitResult fromScriptResult(List<?> result) {
+        if (result.size() == 1 && result.get(0) instanceof List<?> nested) {
+            result = nested;
+        }
+        return new IPLimitResult(
+                toLong(result.get(0)) == 1,
+                toLong(result.get(1)),
+                toLong(result.get(2)));
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+}
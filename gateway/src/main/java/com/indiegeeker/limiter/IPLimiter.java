@@ -0,0 +1,39 @@
+package com.indiegeeker.limiter;
+
+import com.indiegeeker.limiter.policy.RateLimitPolicy;
+import reactor.core.publisher.Mono;
+
+/**
+ * IP 限流器
+ * 通过 blackIp.mode 选择实现：
+ * exact  - IPRateLimiter，每个请求都在 redis 中原子计数，集群范围内精确
+ * hybrid - HybridIPRateLimiter，节点本地计数、周期性批量同步增量到 redis，集群范围内近似
+ *
+ * Author: wen
+ * Date: 2025/7/10
+ **/
+public interface IPLimiter {
+
+    /**
+     * 对限流键计数一次并判断是否需要拦截
+     *
+     * @param key            限流键：默认策略为请求ip，其他策略为 p:{策略名}:{ip/用户/租户}
+     * @param continueCounts 时间窗口内允许的最大请求次数
+     * @param timeInterval   计数窗口，单位：秒
+     * @param limitTimes     拉黑时长，单位：秒
+     * @return 判定结果
+     */
+    Mono<IPLimitResult> acquire(String key, int continueCounts, int timeInterval, int limitTimes);
+
+    /**
+     * 按限流策略对请求计数一次并判断是否需要拦截
+     *
+     * @param policy 限流策略
+     * @param ip     请求ip
+     * @param key    policy.resolveKey 得到的限流键
+     * @return 判定结果
+     */
+    default Mono<IPLimitResult> acquire(RateLimitPolicy policy, String ip, String key) {
+        return acquire(key, policy.getContinueCounts(), policy.getTimeInterval(), policy.getLimitTimes());
+    }
+}
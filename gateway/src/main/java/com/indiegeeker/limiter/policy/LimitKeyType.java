@@ -0,0 +1,24 @@
+package com.indiegeeker.limiter.policy;
+
+/**
+ * 限流维度
+ * Author: wen
+ * Date: 2025/7/11
+ */
+public enum LimitKeyType {
+
+    /**
+     * 按请求ip
+     */
+    IP,
+
+    /**
+     * 按登录用户 UserContext.userId，未登录时退化为按ip
+     */
+    USER,
+
+    /**
+     * 按租户 UserContext.tenantId，未登录或无租户时退化为按ip
+     */
+    TENANT
+}
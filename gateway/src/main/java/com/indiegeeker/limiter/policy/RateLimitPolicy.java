@@ -0,0 +1,78 @@
+package com.indiegeeker.limiter.policy;
+
+import com.indiegeeker.context.domain.UserContext;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 编译后的限流策略，不可变
+ * Author: wen
+ * Date: 2025/7/11
+ */
+@Getter
+@ToString
+public class RateLimitPolicy {
+
+    /**
+     * 命名策略的限流键统一放在该段下，与默认策略的 ip 键、黑名单键 limit:{ip} 互不重叠
+     */
+    public static final String POLICY_KEY_SEGMENT = "p:";
+
+    /**
+     * 策略名称，默认策略为 null
+     */
+    private final String name;
+
+    private final LimitKeyType keyBy;
+
+    private final int continueCounts;
+
+    private final int timeInterval;
+
+    private final int limitTimes;
+
+    /**
+     * 限流键前缀，默认策略为空串，其他策略为 p:{策略名}:
+     */
+    @ToString.Exclude
+    private final String keyPrefix;
+
+    public RateLimitPolicy(String name, LimitKeyType keyBy, int continueCounts, int timeInterval, int limitTimes) {
+        this.name = name;
+        this.keyBy = keyBy;
+        this.continueCounts = continueCounts;
+        this.timeInterval = timeInterval;
+        this.limitTimes = limitTimes;
+        this.keyPrefix = name == null ? "" : POLICY_KEY_SEGMENT + name + ":";
+    }
+
+    /**
+     * 计算本次请求的限流键
+     * 默认策略直接使用ip，与原有的 redis 计数键保持一致；其他策略以 p:{策略名}: 为前缀，各自独立计数
+     *
+     * @param ip          请求ip
+     * @param userContext 当前用户，未登录时为 null
+     * @return 限流键
+     */
+    public String resolveKey(String ip, UserContext userContext) {
+        if (userContext != null) {
+            if (keyBy == LimitKeyType.USER && userContext.getUserId() != null) {
+                return keyPrefix + "user:" + userContext.getUserId();
+            }
+            if (keyBy == LimitKeyType.TENANT && userContext.getTenantId() != null && !userContext.getTenantId().isEmpty()) {
+                return keyPrefix + "tenant:" + userContext.getTenantId();
+            }
+        }
+        return keyPrefix.isEmpty() ? ip : keyPrefix + ip;
+    }
+
+    /**
+     * 限流键是否就是按ip计算的（包括按用户、租户退化为按ip的情况）
+     *
+     * @param ip  请求ip
+     * @param key resolveKey 得到的限流键
+     */
+    public boolean isIpKey(String ip, String key) {
+        return key.length() == keyPrefix.length() + ip.length() && key.endsWith(ip);
+    }
+}
@@ -0,0 +1,77 @@
+package com.indiegeeker.limiter.policy;
+
+import com.indiegeeker.config.RateLimitProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * 限流策略注册中心
+ * 启动时从配置编译策略表；Nacos 推送的配置变更会发布 EnvironmentChangeEvent，
+ * 涉及 blackIp.* 时重新绑定、编译，再整体替换 volatile 引用，请求线程读取时无锁。
+ * 新配置编译失败时保留原策略表继续生效
+ *
+ * Author: wen
+ * Date: 2025/7/11
+ */
+@Slf4j
+@Component
+public class RateLimitPolicyRegistry implements ApplicationListener<EnvironmentChangeEvent> {
+
+    @Resource
+    Environment environment;
+
+    private volatile RateLimitPolicyTable table;
+
+    @PostConstruct
+    public void init() {
+        // 启动时配置有误直接失败
+        table = compile();
+        log.info("限流策略加载完成, 模式: {}, 默认策略: {}", table.getMode(), table.getDefaultPolicy());
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        boolean changed = event.getKeys().stream()
+                .anyMatch(key -> key.toLowerCase().replace("-", "").startsWith("blackip."));
+        if (!changed) {
+            return;
+        }
+        try {
+            table = compile();
+            log.info("限流策略已刷新, 模式: {}, 默认策略: {}", table.getMode(), table.getDefaultPolicy());
+        } catch (RuntimeException e) {
+            log.error("限流策略刷新失败，继续使用原策略: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 查找请求对应的限流策略
+     *
+     * @param routeId 路由id，未匹配路由时为 null
+     * @param path    请求路径
+     * @return 限流策略
+     */
+    public RateLimitPolicy match(String routeId, String path) {
+        return table.match(routeId, path);
+    }
+
+    /**
+     * 当前限流模式：exact / hybrid
+     */
+    public String getMode() {
+        return table.getMode();
+    }
+
+    private RateLimitPolicyTable compile() {
+        RateLimitProperties properties = Binder.get(environment)
+                .bind(RateLimitProperties.PREFIX, RateLimitProperties.class)
+                .orElseGet(RateLimitProperties::new);
+        return RateLimitPolicyTable.compile(properties);
+    }
+}
@@ -0,0 +1,177 @@
+package com.indiegeeker.limiter.policy;
+
+import com.indiegeeker.config.RateLimitProperties;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 限流策略查找表，由配置编译而来，编译完成后只读，可被多个线程无锁并发访问
+ * 1. 按路由id分组，HashMap 定位路由 O(1)
+ * 2. 每个路由下的策略按路径前缀组织成路径段前缀树，最长前缀匹配 O(路径深度)
+ * 3. 未指定路由的策略放在公共前缀树中，路由下没有匹配时再查公共前缀树，最后落到默认策略
+ *
+ * Author: wen
+ * Date: 2025/7/11
+ */
+public class RateLimitPolicyTable {
+
+    @Getter
+    private final String mode;
+
+    @Getter
+    private final RateLimitPolicy defaultPolicy;
+
+    private final Map<String, PrefixNode> routeTries = new HashMap<>();
+
+    private final PrefixNode anyRouteTrie = new PrefixNode();
+
+    private RateLimitPolicyTable(String mode, RateLimitPolicy defaultPolicy) {
+        this.mode = mode;
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    /**
+     * 编译配置为查找表
+     *
+     * @param properties 限流配置
+     * @return 查找表
+     * @throws IllegalArgumentException 配置不完整或策略冲突
+     */
+    public static RateLimitPolicyTable compile(RateLimitProperties properties) {
+        RateLimitPolicy defaultPolicy = new RateLimitPolicy(null, LimitKeyType.IP,
+                require(properties.getContinueCounts(), "continueCounts", "default"),
+                require(properties.getTimeInterval(), "timeInterval", "default"),
+                require(properties.getLimitTimes(), "limitTimes", "default"));
+        RateLimitPolicyTable table = new RateLimitPolicyTable(properties.getMode(), defaultPolicy);
+
+        Set<String> names = new HashSet<>();
+        for (RateLimitProperties.Policy config : properties.getPolicies()) {
+            String name = config.getName();
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("限流策略缺少 name: " + config);
+            }
+            if (name.indexOf(':') >= 0) {
+                // 名称是限流键的一段，带冒号会与其他策略的 user:/tenant: 键重叠
+                throw new IllegalArgumentException("限流策略名称不能包含冒号: " + name);
+            }
+            if (!names.add(name)) {
+                throw new IllegalArgumentException("限流策略名称重复: " + name);
+            }
+            RateLimitPolicy policy = new RateLimitPolicy(name,
+                    config.getKeyBy() == null ? LimitKeyType.IP : config.getKeyBy(),
+                    orDefault(config.getContinueCounts(), defaultPolicy.getContinueCounts()),
+                    orDefault(config.getTimeInterval(), defaultPolicy.getTimeInterval()),
+                    orDefault(config.getLimitTimes(), defaultPolicy.getLimitTimes()));
+
+            PrefixNode trie = config.getRouteId() == null || config.getRouteId().isBlank()
+                    ? table.anyRouteTrie
+                    : table.routeTries.computeIfAbsent(config.getRouteId(), id -> new PrefixNode());
+            PrefixNode node = trie.insert(normalizePrefix(config.getPathPrefix()));
+            if (node.policy != null) {
+                throw new IllegalArgumentException("限流策略 " + name + " 与 " + node.policy.getName()
+                        + " 的路由和路径前缀相同");
+            }
+            node.policy = policy;
+        }
+        return table;
+    }
+
+    /**
+     * 查找请求对应的限流策略
+     *
+     * @param routeId 路由id，未匹配路由时为 null
+     * @param path    请求路径
+     * @return 限流策略，不会为 null
+     */
+    public RateLimitPolicy match(String routeId, String path) {
+        if (routeId != null) {
+            PrefixNode trie = routeTries.get(routeId);
+            if (trie != null) {
+                RateLimitPolicy policy = trie.longestMatch(path);
+                if (policy != null) {
+                    return policy;
+                }
+            }
+        }
+        RateLimitPolicy policy = anyRouteTrie.longestMatch(path);
+        return policy != null ? policy : defaultPolicy;
+    }
+
+    private static String normalizePrefix(String pathPrefix) {
+        if (pathPrefix == null) {
+            return "";
+        }
+        // 兼容 /file/** 写法
+        String prefix = pathPrefix.trim();
+        if (prefix.endsWith("/**")) {
+            prefix = prefix.substring(0, prefix.length() - 3);
+        }
+        return prefix;
+    }
+
+    private static int require(Integer value, String field, String policyName) {
+        if (value == null) {
+            throw new IllegalArgumentException("限流策略 " + policyName + " 缺少 " + field);
+        }
+        return value;
+    }
+
+    private static int orDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * 路径段前缀树节点
+     */
+    private static class PrefixNode {
+
+        private final Map<String, PrefixNode> children = new HashMap<>();
+
+        private RateLimitPolicy policy;
+
+        PrefixNode insert(String prefix) {
+            PrefixNode node = this;
+            int start = 0;
+            int length = prefix.length();
+            while (start < length) {
+                int end = prefix.indexOf('/', start);
+                if (end < 0) {
+                    end = length;
+                }
+                if (end > start) {
+                    node = node.children.computeIfAbsent(prefix.substring(start, end), segment -> new PrefixNode());
+                }
+                start = end + 1;
+            }
+            return node;
+        }
+
+        RateLimitPolicy longestMatch(String path) {
+            PrefixNode node = this;
+            RateLimitPolicy matched = policy;
+            int start = 0;
+            int length = path.length();
+            while (start < length) {
+                int end = path.indexOf('/', start);
+                if (end < 0) {
+                    end = length;
+                }
+                if (end > start) {
+                    node = node.children.get(path.substring(start, end));
+                    if (node == null) {
+                        break;
+                    }
+                    if (node.policy != null) {
+                        matched = node.policy;
+                    }
+                }
+                start = end + 1;
+            }
+            return matched;
+        }
+    }
+}
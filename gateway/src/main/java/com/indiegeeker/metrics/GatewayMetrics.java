@@ -0,0 +1,148 @@
+package com.indiegeeker.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关按路由拆分的耗时指标
+ * 1. chatter.gateway.filter{filter, route}：各全局过滤器自身的处理耗时，从进入过滤器到放行给下一个过滤器或拒绝请求为止，
+ *    IP 限流包含 redis 脚本调用，鉴权包含 JWT 验签（缓存命中时只有查找缓存）
+ * 2. chatter.gateway.downstream{route}：负载均衡选址与下游 lb:// 调用的耗时，到下游响应完成为止
+ * 3. 每个路由的 Timer 在路由刷新时预先注册，请求路径上按路由 id 查 map 取出，不拼接标签；
+ *    未匹配到路由的请求记在 route=unmatched 下
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@Slf4j
+@Component
+public class GatewayMetrics {
+
+    public static final String FILTER_METRIC = "chatter.gateway.filter";
+
+    public static final String DOWNSTREAM_METRIC = "chatter.gateway.downstream";
+
+    public static final String UNMATCHED_ROUTE = "unmatched";
+
+    /**
+     * 计时的过滤器阶段，值为 filter 标签
+     */
+    public enum Stage {
+
+        IP_LIMIT("ip-limit"),
+        SECURITY("security");
+
+        private final String tagValue;
+
+        Stage(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    /**
+     * 单个路由的 Timer
+     */
+    public static final class RouteTimers {
+
+        private final Timer[] stages;
+
+        private final Timer downstream;
+
+        private RouteTimers(Timer[] stages, Timer downstream) {
+            this.stages = stages;
+            this.downstream = downstream;
+        }
+
+        /**
+         * 记录过滤器阶段耗时
+         *
+         * @param startNanos 进入过滤器时的 System.nanoTime()
+         */
+        public void record(Stage stage, long startNanos) {
+            stages[stage.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public Timer downstream() {
+            return downstream;
+        }
+    }
+
+    private final MeterRegistry registry;
+
+    private final Map<String, RouteTimers> routes = new ConcurrentHashMap<>();
+
+    private final RouteTimers unmatched;
+
+    public GatewayMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.unmatched = register(UNMATCHED_ROUTE);
+    }
+
+    /**
+     * 请求所属路由的 Timer
+     */
+    public RouteTimers route(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route(route.getId()) : unmatched;
+    }
+
+    /**
+     * 路由的 Timer，未注册时注册
+     */
+    public RouteTimers route(String routeId) {
+        if (routeId == null) {
+            return unmatched;
+        }
+        RouteTimers timers = routes.get(routeId);
+        return timers != null ? timers : routes.computeIfAbsent(routeId, this::register);
+    }
+
+    /**
+     * 路由刷新后预先注册新路由的 Timer
+     * 已删除路由的 Timer 保留，路由 id 来自配置和注册中心的服务名，数量有限
+     */
+    @EventListener
+    public void onRoutesRefreshed(RefreshRoutesResultEvent event) {
+        if (event.isSuccess() && event.getSource() instanceof RouteLocator routeLocator) {
+            routeLocator.getRoutes()
+                    .map(Route::getId)
+                    .subscribe(this::route, e -> log.warn("预注册路由耗时指标失败: {}", e.getMessage()));
+        }
+    }
+
+    private RouteTimers register(String routeId) {
+        Stage[] values = Stage.values();
+        Timer[] stages = new Timer[values.length];
+        for (Stage stage : values) {
+            stages[stage.ordinal()] = Timer.builder(FILTER_METRIC)
+                    .description("网关全局过滤器处理耗时")
+                    .tag("filter", stage.tagValue)
+                    .tag("route", routeId)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(10_000))
+                    .maximumExpectedValue(Duration.ofSeconds(5))
+                    .register(registry);
+        }
+        Timer downstream = Timer.builder(DOWNSTREAM_METRIC)
+                .description("负载均衡与下游服务调用耗时")
+                .tag("route", routeId)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+        return new RouteTimers(stages, downstream);
+    }
+}
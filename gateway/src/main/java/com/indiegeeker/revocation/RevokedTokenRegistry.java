@@ -0,0 +1,137 @@
+package com.indiegeeker.revocation;
+
+import com.indiegeeker.data.utils.ReactiveRedisUtils;
+import com.indiegeeker.security.revocation.RevokedTokenBloomFilter;
+import com.indiegeeker.security.revocation.TokenRevocation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * 已吊销 token 注册表
+ * 每个网关节点在本地维护一份已吊销 jti 的布隆过滤器，请求时先查过滤器：
+ * 1. 未命中说明 token 一定未被吊销，直接放行，正常请求不访问 redis
+ * 2. 命中时再查询 redis 中的吊销记录，以 redis 为准，误判只多一次 redis 查询
+ * 认证服务吊销 token 后通过 redis 发布订阅广播 jti，各节点实时写入过滤器；
+ * 过滤器不支持删除，定期从 redis 扫描未过期的吊销记录重建，清理已过期的 jti，同时补上订阅断开期间漏掉的消息
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+@Slf4j
+@Component
+public class RevokedTokenRegistry {
+
+    private static final Mono<Boolean> NOT_REVOKED = Mono.just(false);
+
+    @Resource
+    ReactiveRedisUtils reactiveRedisUtils;
+
+    @Value("${security.token-revocation.expected-insertions:100000}")
+    long expectedInsertions;
+
+    @Value("${security.token-revocation.fpp:0.01}")
+    double fpp;
+
+    @Value("${security.token-revocation.rebuild-interval:10m}")
+    Duration rebuildInterval;
+
+    private volatile RevokedTokenBloomFilter filter;
+
+    /**
+     * 重建期间新建的过滤器，订阅到的 jti 同时写入，避免重建完成替换时丢失
+     */
+    private volatile RevokedTokenBloomFilter rebuilding;
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    @PostConstruct
+    public void init() {
+        filter = newFilter();
+        log.info("已吊销token布隆过滤器: {} 位, {} 个哈希函数", filter.bitSize(), filter.hashFunctions());
+        subscriptions.add(reactiveRedisUtils.listenToChannel(TokenRevocation.CHANNEL)
+                .doOnNext(this::put)
+                // redis 连接断开后自动重新订阅
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("token吊销广播订阅异常，准备重连: {}", signal.failure().getMessage())))
+                .subscribe());
+        // 启动时立即加载一次，之后定期重建
+        subscriptions.add(Flux.interval(Duration.ZERO, rebuildInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> rebuild(), 1)
+                .subscribe());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * 本地记录已吊销的 jti
+     */
+    public void put(String tokenId) {
+        RevokedTokenBloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(tokenId);
+        }
+        filter.put(tokenId);
+    }
+
+    /**
+     * 仅查本地过滤器
+     *
+     * @return false 表示一定未被吊销
+     */
+    public boolean mightBeRevoked(String tokenId) {
+        return tokenId != null && filter.mightContain(tokenId);
+    }
+
+    /**
+     * token 是否已被吊销，过滤器命中时以 redis 为准
+     * redis 查询失败时按已吊销处理，宁可让误判的用户重新登录，也不放行已吊销的 token
+     */
+    public Mono<Boolean> isRevoked(String tokenId) {
+        if (!mightBeRevoked(tokenId)) {
+            return NOT_REVOKED;
+        }
+        return reactiveRedisUtils.keyIsExist(TokenRevocation.key(tokenId))
+                .onErrorResume(e -> {
+                    log.warn("查询token吊销记录失败，按已吊销处理, jti: {}, 原因: {}", tokenId, e.getMessage());
+                    return Mono.just(true);
+                });
+    }
+
+    /**
+     * 从 redis 扫描未过期的吊销记录重建过滤器，失败时保留原过滤器
+     */
+    Mono<Void> rebuild() {
+        RevokedTokenBloomFilter next = newFilter();
+        rebuilding = next;
+        return reactiveRedisUtils.optKeys(TokenRevocation.KEY_PREFIX + "*")
+                .doOnNext(key -> next.put(key.substring(TokenRevocation.KEY_PREFIX.length())))
+                .count()
+                .doOnNext(count -> {
+                    filter = next;
+                    log.debug("已吊销token布隆过滤器重建完成, 记录数: {}", count);
+                })
+                .doOnError(e -> log.warn("已吊销token布隆过滤器重建失败，继续使用原过滤器: {}", e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .doFinally(signal -> rebuilding = null)
+                .then();
+    }
+
+    private RevokedTokenBloomFilter newFilter() {
+        return new RevokedTokenBloomFilter(expectedInsertions, fpp);
+    }
+}
@@ -0,0 +1,153 @@
+package com.indiegeeker.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indiegeeker.core.enums.ResponseStatusEnum;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 网关拒绝响应渲染
+ * 限流、鉴权失败时返回的错误响应体在启动时一次性编码为 JSON 字节模板，请求时不再走 Jackson、不再拼接字符串：
+ * 1. 每个模板只有 timestamp 的位置会变化，精确到秒，每秒最多重新生成一次完整响应体
+ * 2. 生成的响应体放在只读的堆外 ByteBuffer 中，所有请求共享，写出时只包装 duplicate()，不复制字节
+ *
+ * Author: wen
+ * Date: 2025/7/13
+ */
+@Component
+public class RejectionRenderer {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static final MediaType JSON_UTF8 = new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8);
+
+    private final Map<ResponseStatusEnum, EncodedResponse> statusResponses = new EnumMap<>(ResponseStatusEnum.class);
+
+    private final EncodedResponse unauthorized =
+            new EncodedResponse(HttpStatus.UNAUTHORIZED, 401, "未授权访问，请先登录", true);
+
+    private final EncodedResponse forbidden =
+            new EncodedResponse(HttpStatus.FORBIDDEN, 403, "权限不足，无法访问该资源", true);
+
+    public RejectionRenderer() {
+        for (ResponseStatusEnum status : ResponseStatusEnum.values()) {
+            statusResponses.put(status,
+                    new EncodedResponse(HttpStatus.INTERNAL_SERVER_ERROR, status.getCode(), status.getMessage(), false));
+        }
+    }
+
+    /**
+     * 返回 ResponseStatusEnum 对应的错误信息，HTTP 状态码为500
+     * 响应体与 BaseJSONResult.error(statusEnum) 的结构一致
+     */
+    public Mono<Void> render(ServerWebExchange exchange, ResponseStatusEnum statusEnum) {
+        return write(exchange, statusResponses.get(statusEnum));
+    }
+
+    /**
+     * 返回401未认证
+     */
+    public Mono<Void> renderUnauthorized(ServerWebExchange exchange) {
+        return write(exchange, unauthorized);
+    }
+
+    /**
+     * 返回403权限不足
+     */
+    public Mono<Void> renderForbidden(ServerWebExchange exchange) {
+        return write(exchange, forbidden);
+    }
+
+    /**
+     * 生成 ResponseStatusEnum 对应的响应体
+     */
+    public DataBuffer encode(DataBufferFactory bufferFactory, ResponseStatusEnum statusEnum) {
+        return bufferFactory.wrap(statusResponses.get(statusEnum).currentBody());
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, EncodedResponse encoded) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(encoded.httpStatus);
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(JSON_UTF8);
+        ByteBuffer body = encoded.currentBody();
+        headers.setContentLength(body.remaining());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    /**
+     * 单个错误响应的字节模板
+     */
+    private static final class EncodedResponse {
+
+        private final HttpStatus httpStatus;
+
+        // timestamp 之前、之后的固定部分
+        private final byte[] prefix;
+        private final byte[] suffix;
+
+        // 当前秒的完整响应体，只读、共享
+        private volatile Snapshot snapshot = new Snapshot(Long.MIN_VALUE, null);
+
+        EncodedResponse(HttpStatus httpStatus, int code, String msg, boolean withNullData) {
+            this.httpStatus = httpStatus;
+            this.prefix = ("{\"code\":" + code + ",\"msg\":" + toJsonString(msg)
+                    + (withNullData ? ",\"data\":null" : "") + ",\"timestamp\":\"").getBytes(StandardCharsets.UTF_8);
+            this.suffix = "\"}".getBytes(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * 当前秒的响应体，返回独立的读写位置，底层字节共享
+         */
+        ByteBuffer currentBody() {
+            long second = System.currentTimeMillis() / 1000;
+            Snapshot current = snapshot;
+            if (current.second != second) {
+                // 多个线程同时跨秒时各自生成一份，结果相同，后写入的覆盖先写入的
+                current = new Snapshot(second, build(second));
+                snapshot = current;
+            }
+            return current.body.duplicate();
+        }
+
+        private ByteBuffer build(long second) {
+            byte[] timestamp = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZONE)
+                    .format(TIMESTAMP_FORMATTER).getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer body = ByteBuffer.allocateDirect(prefix.length + timestamp.length + suffix.length);
+            body.put(prefix).put(timestamp).put(suffix).flip();
+            return body.asReadOnlyBuffer();
+        }
+
+        private static String toJsonString(String value) {
+            try {
+                return OBJECT_MAPPER.writeValueAsString(value);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("错误信息编码失败: " + value, e);
+            }
+        }
+    }
+
+    private record Snapshot(long second, ByteBuffer body) {
+    }
+}
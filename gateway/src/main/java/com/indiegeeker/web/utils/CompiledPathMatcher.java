@@ -0,0 +1,473 @@
+package com.indiegeeker.web.utils;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的路径匹配器
+ * 将一组 Ant 风格路径模式预先编译为按路径段组织的前缀树，匹配语义与 PathMatcherUtils（AntPathMatcher + 路径标准化）一致：
+ * 1. 节点分为字面量段、* 段、** 段以及 *.jpg、{id} 这类段内通配，字面量子节点放在开放寻址表中，按路径段原地计算哈希查找
+ * 2. 匹配时在原始路径上逐段扫描，连续的斜杠、末尾斜杠在扫描时直接跳过，不做正则替换、不 split、不创建子串
+ * 3. 多个模式同时命中时返回声明顺序最靠前的模式对应的值，与按列表顺序逐个匹配的结果相同
+ * 少数无法在前缀树上表达的写法（以 / 结尾的模式、{id:\d+} 这类自定义正则变量等）保留原样，匹配时交给 AntPathMatcher
+ * <p>
+ * 编译后不可变，可在多线程间共享；模式变化时整体重新编译后替换引用
+ *
+ * Author: wen
+ * Date: 2025/7/13
+ */
+public final class CompiledPathMatcher<T> {
+
+    private static final AntPathMatcher ANT_PATH_MATCHER = new AntPathMatcher();
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    // 段内通配符，其余元素为字面量字符
+    private static final int ANY_CHARS = -1;
+    private static final int ANY_CHAR = -2;
+
+    private final Node root;
+
+    private final Object[] values;
+
+    // 交给 AntPathMatcher 的模式及其声明顺序，按顺序升序排列
+    private final String[] fallbackPatterns;
+    private final int[] fallbackOrders;
+
+    private CompiledPathMatcher(Node root, Object[] values, String[] fallbackPatterns, int[] fallbackOrders) {
+        this.root = root;
+        this.values = values;
+        this.fallbackPatterns = fallbackPatterns;
+        this.fallbackOrders = fallbackOrders;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * 编译一组模式，命中时返回模式本身
+     */
+    public static CompiledPathMatcher<String> compile(Collection<String> patterns) {
+        Builder<String> builder = builder();
+        for (String pattern : patterns) {
+            builder.add(pattern, pattern);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 是否命中任意一个模式
+     *
+     * @param path 请求路径，无需预先标准化
+     */
+    public boolean matches(String path) {
+        return path != null && find(path, true) != NO_MATCH;
+    }
+
+    /**
+     * 查找声明顺序最靠前的命中模式
+     *
+     * @param path 请求路径，无需预先标准化
+     * @return 该模式对应的值，未命中时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public T match(String path) {
+        if (path == null) {
+            return null;
+        }
+        int order = find(path, false);
+        return order == NO_MATCH ? null : (T) values[order];
+    }
+
+    /**
+     * 模式数量
+     */
+    public int size() {
+        return values.length;
+    }
+
+    private int find(String path, boolean firstOnly) {
+        int best = search(root, path, 0, NO_MATCH, firstOnly);
+        if (fallbackPatterns.length == 0 || (firstOnly && best != NO_MATCH)) {
+            return best;
+        }
+        String normalizedPath = null;
+        for (int i = 0; i < fallbackPatterns.length && fallbackOrders[i] < best; i++) {
+            if (normalizedPath == null) {
+                normalizedPath = PathMatcherUtils.normalizePath(path);
+            }
+            if (ANT_PATH_MATCHER.match(fallbackPatterns[i], normalizedPath)) {
+                return fallbackOrders[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 从 node 出发匹配 path 中 from 之后的路径段
+     *
+     * @return 已知最靠前的命中顺序与本分支命中顺序中的较小者
+     */
+    private int search(Node node, String path, int from, int best, boolean firstOnly) {
+        if (node.minOrder >= best || (firstOnly && best != NO_MATCH)) {
+            return best;
+        }
+        int length = path.length();
+        int start = from;
+        while (start < length && path.charAt(start) == '/') {
+            start++;
+        }
+        if (start == length) {
+            return exhausted(node, best);
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = length;
+        }
+
+        if (node.literals != null) {
+            Node child = node.literals.get(path, start, end);
+            if (child != null) {
+                best = search(child, path, end, best, firstOnly);
+            }
+        }
+        for (int i = 0; i < node.globs.length; i++) {
+            if (matchesGlob(node.globs[i], path, start, end)) {
+                best = search(node.globNodes[i], path, end, best, firstOnly);
+            }
+        }
+        if (node.star != null) {
+            best = search(node.star, path, end, best, firstOnly);
+        }
+        if (node.doubleStar != null) {
+            // ** 匹配零个路径段
+            best = search(node.doubleStar, path, start, best, firstOnly);
+        }
+        if (node.selfLoop) {
+            // 当前节点本身是 **，再吞掉一个路径段
+            best = search(node, path, end, best, firstOnly);
+        }
+        return best;
+    }
+
+    /**
+     * 路径段已全部匹配完，剩余的 ** 均可匹配零个路径段
+     */
+    private int exhausted(Node node, int best) {
+        best = Math.min(best, node.order);
+        if (node == root && node.star != null) {
+            // 与 AntPathMatcher 一致：/* 可以匹配根路径 /
+            best = Math.min(best, node.star.order);
+        }
+        return node.doubleStar != null ? exhausted(node.doubleStar, best) : best;
+    }
+
+    /**
+     * 段内通配匹配：* 与 {name} 匹配任意个字符，? 匹配一个字符（按码点计，与 AntPathMatcher 生成的正则一致）
+     */
+    private static boolean matchesGlob(int[] glob, String path, int start, int end) {
+        int g = 0;
+        int i = start;
+        int starG = -1;
+        int starI = -1;
+        while (i < end) {
+            if (g < glob.length && glob[g] == ANY_CHARS) {
+                starG = g++;
+                starI = i;
+            } else if (g < glob.length && glob[g] == ANY_CHAR) {
+                g++;
+                i += Character.charCount(path.codePointAt(i));
+            } else if (g < glob.length && glob[g] == path.charAt(i)) {
+                g++;
+                i++;
+            } else if (starG >= 0) {
+                // 回溯到最近的 *，让它多匹配一个字符
+                starI += Character.charCount(path.codePointAt(starI));
+                g = starG + 1;
+                i = starI;
+            } else {
+                return false;
+            }
+        }
+        while (g < glob.length && glob[g] == ANY_CHARS) {
+            g++;
+        }
+        return g == glob.length;
+    }
+
+    /**
+     * 构建器，按 add 的顺序决定模式的优先级
+     */
+    public static final class Builder<T> {
+
+        private final Node root = new Node();
+
+        private final List<Object> values = new ArrayList<>();
+
+        private final List<String> fallbackPatterns = new ArrayList<>();
+
+        private final List<Integer> fallbackOrders = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder<T> add(String pattern, T value) {
+            int order = values.size();
+            values.add(value);
+            if (pattern == null || !pattern.startsWith("/")) {
+                // 标准化后的路径总是以 / 开头，这类模式永远不会命中
+                return this;
+            }
+            List<Object> segments = parse(pattern);
+            if (segments == null) {
+                fallbackPatterns.add(pattern);
+                fallbackOrders.add(order);
+                return this;
+            }
+            Node node = root;
+            for (Object segment : segments) {
+                node = node.child(segment);
+            }
+            node.order = Math.min(node.order, order);
+            return this;
+        }
+
+        public CompiledPathMatcher<T> build() {
+            root.freeze();
+            int[] orders = new int[fallbackOrders.size()];
+            for (int i = 0; i < orders.length; i++) {
+                orders[i] = fallbackOrders.get(i);
+            }
+            return new CompiledPathMatcher<>(root, values.toArray(), fallbackPatterns.toArray(new String[0]), orders);
+        }
+
+        /**
+         * 拆分模式为路径段：字面量段为 String，通配段为 int[]，* 与 ** 保留原样
+         *
+         * @return 无法在前缀树上表达时返回 null
+         */
+        private static List<Object> parse(String pattern) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (Character.isSurrogate(c)) {
+                    return null;
+                }
+            }
+            List<Object> segments = new ArrayList<>();
+            int length = pattern.length();
+            int start = 0;
+            while (start < length) {
+                if (pattern.charAt(start) == '/') {
+                    start++;
+                    continue;
+                }
+                int end = pattern.indexOf('/', start);
+                if (end < 0) {
+                    end = length;
+                }
+                String segment = pattern.substring(start, end);
+                if (segment.equals("*") || segment.equals("**")) {
+                    segments.add(segment);
+                } else if (segment.indexOf('*') < 0 && segment.indexOf('?') < 0 && segment.indexOf('{') < 0) {
+                    segments.add(new Literal(segment));
+                } else {
+                    int[] glob = parseGlob(segment);
+                    if (glob == null) {
+                        return null;
+                    }
+                    segments.add(glob);
+                }
+                start = end;
+            }
+            if (!segments.isEmpty() && pattern.endsWith("/")) {
+                // 末尾斜杠对 ** 有特殊语义，交给 AntPathMatcher
+                return null;
+            }
+            return segments;
+        }
+
+        /**
+         * 解析段内通配，只支持 *、? 和不带正则的 {name}，{name} 等同于 *
+         */
+        private static int[] parseGlob(String segment) {
+            int[] glob = new int[segment.length()];
+            int size = 0;
+            for (int i = 0; i < segment.length(); i++) {
+                char c = segment.charAt(i);
+                if (c == '*') {
+                    glob[size++] = ANY_CHARS;
+                } else if (c == '?') {
+                    glob[size++] = ANY_CHAR;
+                } else if (c == '{') {
+                    int close = segment.indexOf('}', i + 1);
+                    if (close <= i + 1) {
+                        return null;
+                    }
+                    for (int j = i + 1; j < close; j++) {
+                        char n = segment.charAt(j);
+                        if (n == '{' || n == ':' || n == '\\') {
+                            return null;
+                        }
+                    }
+                    glob[size++] = ANY_CHARS;
+                    i = close;
+                } else if (c == '}' || c == '\\') {
+                    return null;
+                } else {
+                    glob[size++] = c;
+                }
+            }
+            int[] compact = new int[size];
+            System.arraycopy(glob, 0, compact, 0, size);
+            return compact;
+        }
+    }
+
+    private record Literal(String value) {
+    }
+
+    /**
+     * 前缀树节点
+     */
+    private static final class Node {
+
+        private static final int[][] NO_GLOBS = new int[0][];
+        private static final Node[] NO_NODES = new Node[0];
+
+        // 构建期使用
+        private Map<String, Node> literalChildren = new HashMap<>();
+        private Map<String, Node> globChildren = new LinkedHashMap<>();
+        private Map<String, int[]> globPatterns = new HashMap<>();
+
+        private LiteralTable literals;
+        private int[][] globs = NO_GLOBS;
+        private Node[] globNodes = NO_NODES;
+        private Node star;
+        private Node doubleStar;
+
+        /**
+         * 本节点是否为 ** 节点，可继续吞掉路径段
+         */
+        private boolean selfLoop;
+
+        /**
+         * 在本节点结束的模式中最靠前的顺序
+         */
+        private int order = NO_MATCH;
+
+        /**
+         * 子树中最靠前的顺序，用于剪枝
+         */
+        private int minOrder = NO_MATCH;
+
+        Node child(Object segment) {
+            if (segment instanceof Literal literal) {
+                return literalChildren.computeIfAbsent(literal.value(), key -> new Node());
+            }
+            if (segment instanceof int[] glob) {
+                String key = Arrays.toString(glob);
+                globPatterns.putIfAbsent(key, glob);
+                return globChildren.computeIfAbsent(key, k -> new Node());
+            }
+            if (segment.equals("**")) {
+                if (doubleStar == null) {
+                    doubleStar = new Node();
+                    doubleStar.selfLoop = true;
+                }
+                return doubleStar;
+            }
+            if (star == null) {
+                star = new Node();
+            }
+            return star;
+        }
+
+        void freeze() {
+            int min = order;
+            if (!literalChildren.isEmpty()) {
+                literals = new LiteralTable(literalChildren);
+                for (Node child : literalChildren.values()) {
+                    child.freeze();
+                    min = Math.min(min, child.minOrder);
+                }
+            }
+            if (!globChildren.isEmpty()) {
+                globs = new int[globChildren.size()][];
+                globNodes = new Node[globChildren.size()];
+                int i = 0;
+                for (Map.Entry<String, Node> entry : globChildren.entrySet()) {
+                    globs[i] = globPatterns.get(entry.getKey());
+                    globNodes[i] = entry.getValue();
+                    globNodes[i].freeze();
+                    min = Math.min(min, globNodes[i].minOrder);
+                    i++;
+                }
+            }
+            if (star != null) {
+                star.freeze();
+                min = Math.min(min, star.minOrder);
+            }
+            if (doubleStar != null) {
+                doubleStar.freeze();
+                min = Math.min(min, doubleStar.minOrder);
+            }
+            minOrder = min;
+            literalChildren = null;
+            globChildren = null;
+            globPatterns = null;
+        }
+    }
+
+    /**
+     * 字面量子节点表：以路径段为键的开放寻址表，直接在请求路径的 [start, end) 区间上计算 String.hashCode 并比较，
+     * 查找时不创建子串
+     */
+    private static final class LiteralTable {
+
+        private final String[] keys;
+        private final Node[] nodes;
+        private final int mask;
+
+        LiteralTable(Map<String, Node> children) {
+            int capacity = Integer.highestOneBit(children.size() * 2 - 1) << 1;
+            keys = new String[capacity];
+            nodes = new Node[capacity];
+            mask = capacity - 1;
+            for (Map.Entry<String, Node> entry : children.entrySet()) {
+                int slot = spread(entry.getKey().hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = entry.getKey();
+                nodes[slot] = entry.getValue();
+            }
+        }
+
+        Node get(String path, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+            int length = end - start;
+            for (int slot = spread(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                String key = keys[slot];
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    return nodes[slot];
+                }
+            }
+            return null;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
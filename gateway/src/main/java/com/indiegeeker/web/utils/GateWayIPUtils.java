@@ -1,87 +1,58 @@
 package com.indiegeeker.web.utils;
 
-//import jakarta.servlet.http.HttpServletRequest;
+import com.indiegeeker.core.utils.ClientIpResolver;
+import com.indiegeeker.core.utils.IPAddressUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
 
-import java.net.InetAddress;
-import java.net.UnknownHostException;
-import java.util.Optional;
+import java.net.InetSocketAddress;
 
 /**
  * 用户获得用户ip的工具类
+ * 解析规则见 ClientIpResolver：只有直连地址是受信代理（chatter.context.trusted-proxies）时才使用 X-Forwarded-For，
+ * 从右向左跳过受信代理；本机地址只在启动时解析一次，event-loop 线程上不会有 DNS 查询。
+ * 返回的 ip 已规范化（见 IPAddressUtils.normalize），限流计数、黑名单等以 ip 为键的地方不会因写法不同而分裂
  */
 public class GateWayIPUtils {
 
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private static final String REAL_IP = "X-Real-IP";
+
     /**
-     * 获取请求IP:
-     * 用户的真实IP不能使用request.getRemoteAddr()
-     * 这是因为可能会使用一些代理软件，这样ip获取就不准确了
-     * 此外我们如果使用了多级（LVS/Nginx）反向代理的话，ip需要从X-Forwarded-For中获得第一个非unknown的IP才是用户的有效ip。
-     * @param request
-     * @return
+     * 获取客户端真实ip，解析结果缓存在 exchange 属性中，后续过滤器直接读取
+     * @param exchange exchange
+     * @return 返回ip
      */
-//    public static String getRequestIp(HttpServletRequest request) {
-//        String ip = request.getHeader("x-forwarded-for");
-//        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-//            ip = request.getHeader("Proxy-Client-IP");
-//        }
-//        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-//            ip = request.getHeader("WL-Proxy-Client-IP");
-//        }
-//        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-//            ip = request.getHeader("HTTP_CLIENT_IP");
-//        }
-//        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-//            ip = request.getHeader("HTTP_X_FORWARDED_FOR");
-//        }
-//        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-//            ip = request.getRemoteAddr();
-//        }
-//        return ip;
-//    }
-
-    private static final String IP_UNKNOWN = "unknown";
-    private static final String IP_LOCAL = "127.0.0.1";
-    private static final int IP_LEN = 15;
+    public static String getIP(ServerWebExchange exchange) {
+        String ip = exchange.getAttribute(ClientIpResolver.CLIENT_IP_ATTRIBUTE);
+        if (ip == null) {
+            ip = getIP(exchange.getRequest());
+            exchange.getAttributes().put(ClientIpResolver.CLIENT_IP_ATTRIBUTE, ip);
+        }
+        return ip;
+    }
 
     /**
-     * 获取客户端真实ip
+     * 获取客户端真实ip，已规范化
      * @param request request
      * @return 返回ip
      */
     public static String getIP(ServerHttpRequest request) {
         HttpHeaders headers = request.getHeaders();
-        String ipAddress = headers.getFirst("x-forwarded-for");
-        if (ipAddress == null || ipAddress.isEmpty() || IP_UNKNOWN.equalsIgnoreCase(ipAddress)) {
-            ipAddress = headers.getFirst("Proxy-Client-IP");
-        }
-        if (ipAddress == null || ipAddress.isEmpty() || IP_UNKNOWN.equalsIgnoreCase(ipAddress)) {
-            ipAddress = headers.getFirst("WL-Proxy-Client-IP");
-        }
-        if (ipAddress == null || ipAddress.isEmpty() || IP_UNKNOWN.equalsIgnoreCase(ipAddress)) {
-            ipAddress = Optional.ofNullable(request.getRemoteAddress())
-                    .map(address -> address.getAddress().getHostAddress())
-                    .orElse("");
-            if (IP_LOCAL.equals(ipAddress)) {
-                // 根据网卡取本机配置的IP
-                try {
-                    InetAddress inet = InetAddress.getLocalHost();
-                    ipAddress = inet.getHostAddress();
-                } catch (UnknownHostException e) {
-                    // ignore
-                }
-            }
-        }
+        return IPAddressUtils.normalize(ClientIpResolver.shared().resolve(remoteAddress(request.getRemoteAddress()),
+                headers.getFirst(FORWARDED_FOR), headers.getFirst(REAL_IP)));
+    }
 
-        // 对于通过多个代理的情况，第一个IP为客户端真实IP,多个IP按照','分割
-        if (ipAddress != null && ipAddress.length() > IP_LEN) {
-            int index = ipAddress.indexOf(",");
-            if (index > 0) {
-                ipAddress = ipAddress.substring(0, index);
-            }
+    /**
+     * 直连地址，未解析的地址取主机名原文，不触发 DNS 查询
+     */
+    private static String remoteAddress(InetSocketAddress address) {
+        if (address == null) {
+            return null;
         }
-        return ipAddress;
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
     }
 
 }
@@ -54,29 +54,38 @@ public class PathMatcherUtils {
      * 1. 去除多余的斜杠
      * 2. 确保以 / 开头
      * 3. 移除末尾的斜杠（除了根路径）
+     * 逐字符扫描完成，已是标准形式的路径直接原样返回
      * 
      * @param path 原始路径
      * @return 标准化后的路径
      */
-    private static String normalizePath(String path) {
+    public static String normalizePath(String path) {
         if (path == null || path.isEmpty()) {
             return "/";
         }
 
-        // 确保以 / 开头
-        if (!path.startsWith("/")) {
-            path = "/" + path;
+        int length = path.length();
+        boolean normalized = path.charAt(0) == '/' && (length == 1 || path.charAt(length - 1) != '/');
+        for (int i = 1; normalized && i < length; i++) {
+            normalized = path.charAt(i) != '/' || path.charAt(i - 1) != '/';
         }
-
-        // 去除多余的斜杠
-        path = path.replaceAll("/+", "/");
-
-        // 移除末尾的斜杠（除了根路径）
-        if (path.length() > 1 && path.endsWith("/")) {
-            path = path.substring(0, path.length() - 1);
+        if (normalized) {
+            return path;
         }
 
-        return path;
+        StringBuilder sb = new StringBuilder(length + 1);
+        for (int i = 0; i < length; i++) {
+            char c = path.charAt(i);
+            // 每个路径段前补一个 /，连续的斜杠只保留一个
+            if (c == '/') {
+                continue;
+            }
+            if (i == 0 || path.charAt(i - 1) == '/') {
+                sb.append('/');
+            }
+            sb.append(c);
+        }
+        return sb.isEmpty() ? "/" : sb.toString();
     }
 
     /**
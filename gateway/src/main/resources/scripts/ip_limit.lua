@@ -0,0 +1,26 @@
+-- IP 限流脚本：黑名单检查、计数累加、窗口过期、拉黑判定在一次原子调用内完成
+-- KEYS[1] 计数键   gateway-ip:{ip}
+-- KEYS[2] 黑名单键 gateway-ip:limit:{ip}
+-- ARGV[1] continueCounts 时间窗口内允许的最大请求次数
+-- ARGV[2] timeInterval   计数窗口，单位：秒
+-- ARGV[3] limitTimes     拉黑时长，单位：秒
+-- ARGV[4] permits        本次累加的请求次数，逐次计数时为1，混合模式批量同步时为本地累积的增量
+-- 返回 {是否拦截(1/0), 当前计数, 剩余时间(秒)}
+
+local limitTtl = redis.call('TTL', KEYS[2])
+if limitTtl > 0 then
+    return {1, 0, limitTtl}
+end
+
+local permits = tonumber(ARGV[4]) or 1
+local count = redis.call('INCRBY', KEYS[1], permits)
+if count == permits then
+    redis.call('EXPIRE', KEYS[1], ARGV[2])
+end
+
+if count > tonumber(ARGV[1]) then
+    redis.call('SET', KEYS[2], KEYS[2], 'EX', ARGV[3])
+    return {1, count, tonumber(ARGV[3])}
+end
+
+return {0, count, redis.call('TTL', KEYS[1])}
@@ -0,0 +1,55 @@
+package com.indiegeeker.access;
+
+import com.indiegeeker.config.IPAccessProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IP 网段白名单、黑名单测试
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@DisplayName("IP网段白名单、黑名单测试")
+class IPAccessListTest {
+
+    @Test
+    @DisplayName("配置与文件中的网段合并生效，黑名单优先")
+    void checkDecision() {
+        IPAccessProperties properties = new IPAccessProperties();
+        properties.getAllow().add("10.0.0.0/8");
+        properties.getDeny().add("10.1.2.0/24");
+        IPAccessList list = IPAccessList.compile(properties, List.of(
+                "# 办公网",
+                "allow 2001:db8::/32",
+                "",
+                "DENY 203.0.113.7"));
+
+        assertEquals(IPAccessList.Decision.ALLOW, list.check("10.200.0.1"));
+        assertEquals(IPAccessList.Decision.DENY, list.check("10.1.2.3"));
+        assertEquals(IPAccessList.Decision.ALLOW, list.check("2001:db8::1"));
+        assertEquals(IPAccessList.Decision.DENY, list.check("203.0.113.7"));
+        assertEquals(IPAccessList.Decision.NONE, list.check("203.0.113.8"));
+        assertEquals(IPAccessList.Decision.NONE, list.check("unknown"));
+        assertEquals(2, list.allowSize());
+        assertEquals(2, list.denySize());
+    }
+
+    @Test
+    @DisplayName("关闭时不命中，格式不合法时编译失败")
+    void disabledAndInvalid() {
+        IPAccessProperties properties = new IPAccessProperties();
+        properties.getDeny().add("0.0.0.0/0");
+        properties.setEnabled(false);
+        assertEquals(IPAccessList.Decision.NONE, IPAccessList.compile(properties, null).check("1.2.3.4"));
+
+        properties.setEnabled(true);
+        assertEquals(IPAccessList.Decision.DENY, IPAccessList.compile(properties, null).check("1.2.3.4"));
+        assertThrows(IllegalArgumentException.class, () -> IPAccessList.compile(properties, List.of("block 1.2.3.4")));
+        assertThrows(IllegalArgumentException.class, () -> IPAccessList.compile(properties, List.of("allow 1.2.3.4/33")));
+    }
+}
@@ -0,0 +1,114 @@
+package com.indiegeeker.authorization;
+
+import com.indiegeeker.config.AuthorizationProperties;
+import com.indiegeeker.context.domain.UserContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 鉴权决策表测试
+ *
+ * Author: wen
+ * Date: 2025/7/16
+ */
+@DisplayName("鉴权决策表测试")
+class AuthorizationTableTest {
+
+    private static final UserContext USER = user(List.of("USER"), Set.of("read"));
+    private static final UserContext ADMIN = user(List.of("ADMIN"), Set.of("read", "DELETE"));
+    private static final UserContext GUEST = user(null, null);
+
+    @Test
+    @DisplayName("默认规则与原有的硬编码检查一致")
+    void defaultRules() {
+        AuthorizationTable table = AuthorizationTable.compile(new AuthorizationProperties());
+
+        assertTrue(table.isPermitted(ADMIN, "GET", "/admin/users"));
+        assertFalse(table.isPermitted(USER, "GET", "/admin/users"));
+        assertTrue(table.isPermitted(USER, "GET", "/user/profile"));
+        assertTrue(table.isPermitted(ADMIN, "POST", "/user/profile"));
+        assertFalse(table.isPermitted(GUEST, "GET", "/user/profile"));
+        assertTrue(table.isPermitted(GUEST, "GET", "/main/list"));
+
+        // DELETE 需要 DELETE 权限，且不绕过路径上的角色要求
+        assertFalse(table.isPermitted(USER, "DELETE", "/main/item/1"));
+        assertTrue(table.isPermitted(ADMIN, "DELETE", "/main/item/1"));
+        assertTrue(table.isPermitted(ADMIN, "DELETE", "/admin/users/1"));
+        assertFalse(table.isPermitted(user(List.of("USER"), Set.of("DELETE")), "DELETE", "/admin/users/1"));
+        assertEquals("admin", table.match("DELETE", "//admin///users/1").getName());
+        assertEquals("delete", table.deniedBy(USER, "DELETE", "/main/item/1").getName());
+    }
+
+    @Test
+    @DisplayName("配置的规则优先于默认规则，按方法区分")
+    void configuredRules() {
+        AuthorizationProperties properties = new AuthorizationProperties();
+        properties.getRules().add(rule("report", "/admin/report/**", List.of("get"), List.of("AUDITOR"), List.of()));
+        properties.getRules().add(rule("file-delete", "/file/{id}", List.of("DELETE"), List.of(),
+                List.of("file:delete")));
+        properties.getRules().add(rule("open", "/open/**", List.of(), List.of(), List.of()));
+        AuthorizationTable table = AuthorizationTable.compile(properties);
+
+        UserContext auditor = user(List.of("AUDITOR"), Set.of());
+        assertTrue(table.isPermitted(auditor, "GET", "/admin/report/daily"));
+        assertFalse(table.isPermitted(auditor, "POST", "/admin/report/daily"));
+        assertFalse(table.isPermitted(ADMIN, "GET", "/admin/report/daily"));
+        assertTrue(table.isPermitted(ADMIN, "POST", "/admin/report/daily"));
+
+        assertTrue(table.isPermitted(user(null, Set.of("file:delete", "DELETE")), "DELETE", "/file/42"));
+        assertFalse(table.isPermitted(ADMIN, "DELETE", "/file/42"));
+        assertTrue(table.isPermitted(GUEST, "PATCH", "/open/anything"));
+        assertEquals("admin", table.match("PATCH", "/admin/x").getName());
+        assertEquals(6, table.size());
+    }
+
+    @Test
+    @DisplayName("命中配置规则的 DELETE 请求仍需 DELETE 权限")
+    void deleteConstraintNotShadowed() {
+        AuthorizationProperties properties = new AuthorizationProperties();
+        properties.getRules().add(rule("user-list", "/auth/user/listUsers", List.of(), List.of("ADMIN"), List.of()));
+        properties.getRules().add(rule("file-delete", "/file/**", List.of("DELETE"), List.of(),
+                List.of("DELETE", "file:delete")));
+        properties.getRules().add(rule("open", "/open/**", List.of(), List.of(), List.of()));
+        AuthorizationTable table = AuthorizationTable.compile(properties);
+
+        UserContext adminOnly = user(List.of("ADMIN"), Set.of("read"));
+        assertEquals("user-list", table.match("DELETE", "/auth/user/listUsers").getName());
+        assertTrue(table.isPermitted(adminOnly, "GET", "/auth/user/listUsers"));
+        assertFalse(table.isPermitted(adminOnly, "DELETE", "/auth/user/listUsers"));
+        assertEquals("delete", table.deniedBy(adminOnly, "DELETE", "/auth/user/listUsers").getName());
+        assertTrue(table.isPermitted(ADMIN, "DELETE", "/auth/user/listUsers"));
+
+        assertFalse(table.isPermitted(user(null, Set.of("file:delete")), "DELETE", "/file/42"));
+        assertTrue(table.isPermitted(user(null, Set.of("DELETE")), "DELETE", "/file/42"));
+        assertFalse(table.isPermitted(GUEST, "DELETE", "/open/anything"));
+    }
+
+    @Test
+    @DisplayName("规则缺少路径模式时编译失败")
+    void rejectInvalidRule() {
+        AuthorizationProperties properties = new AuthorizationProperties();
+        properties.getRules().add(rule("broken", " ", List.of(), List.of("ADMIN"), List.of()));
+        assertThrows(IllegalArgumentException.class, () -> AuthorizationTable.compile(properties));
+    }
+
+    private static UserContext user(List<String> roles, Set<String> permissions) {
+        return UserContext.builder().userId("1").roles(roles).permissions(permissions).build();
+    }
+
+    private static AuthorizationProperties.Rule rule(String name, String pattern, List<String> methods,
+                                                     List<String> roles, List<String> permissions) {
+        AuthorizationProperties.Rule rule = new AuthorizationProperties.Rule();
+        rule.setName(name);
+        rule.setPattern(pattern);
+        rule.setMethods(methods);
+        rule.setRoles(roles);
+        rule.setPermissions(permissions);
+        return rule;
+    }
+}
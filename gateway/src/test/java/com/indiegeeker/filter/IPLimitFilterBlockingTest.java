@@ -0,0 +1,259 @@
+package com.indiegeeker.filter;
+
+import com.indiegeeker.core.utils.ClientIpResolver;
+import com.indiegeeker.data.metrics.RedisMetrics;
+import com.indiegeeker.data.utils.ReactiveRedisUtils;
+import com.indiegeeker.limiter.BlockedIPCache;
+import com.indiegeeker.limiter.IPRateLimiter;
+import com.indiegeeker.limiter.policy.RateLimitPolicyRegistry;
+import com.indiegeeker.metrics.GatewayMetrics;
+import com.indiegeeker.web.RejectionRenderer;
+import com.indiegeeker.web.utils.GateWayIPUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.ReactorBlockHoundIntegration;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IPLimitFilter 非阻塞测试
+ * 过滤器运行在 Netty event-loop 线程上，BlockHound 检测到该线程上的任何阻塞调用都会抛出 BlockingOperationError；
+ * 请求经受信代理（10.0.0.1）转发，限流、拉黑都应落在 X-Forwarded-For 中的客户端 ip 上
+ *
+ * Author: wen
+ * Date: 2025/7/9
+ */
+@DisplayName("IPLimitFilter 非阻塞测试")
+class IPLimitFilterBlockingTest {
+
+    private static final String CLIENT_IP = "192.168.1.100";
+
+    private static EventLoopGroup eventLoopGroup;
+
+    private final AtomicInteger scriptCalls = new AtomicInteger();
+
+    private volatile List<String> scriptKeys;
+
+    private BlockedIPCache blockedIPCache;
+
+    @BeforeAll
+    static void installBlockHound() {
+        // nacos 依赖中带有 shaded netty 的 BlockHound 集成声明但找不到实现类，不能走 SPI 自动加载，这里手动组装
+        BlockHound.builder()
+                .with(new ReactorBlockHoundIntegration())
+                // 只把 event-loop 线程标记为不允许阻塞；BlockedIPCache 时间轮的工作线程同样是 FastThreadLocalThread，
+                // 它在两次刻度之间 sleep 属于正常行为，不能一并标记
+                .nonBlockingThreadPredicate(predicate -> predicate.or(thread -> thread instanceof FastThreadLocalThread
+                        && thread.getName().startsWith("nioEventLoopGroup")))
+                // 日志输出、类加载属于基础设施的阻塞，不在本测试的检测范围内
+                .allowBlockingCallsInside("ch.qos.logback.classic.Logger", "callAppenders")
+                .allowBlockingCallsInside("java.lang.ClassLoader", "loadClass")
+                .install();
+        eventLoopGroup = new NioEventLoopGroup(1);
+    }
+
+    @AfterAll
+    static void shutdown() {
+        eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void destroyCache() {
+        if (blockedIPCache != null) {
+            blockedIPCache.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("未超限时放行，event-loop 线程不阻塞")
+    void passThroughWithoutBlocking() throws Exception {
+        // 模拟 redis 慢响应：{不拦截, 当前计数1, 窗口剩余60秒}
+        IPLimitFilter filter = createFilter(() -> Flux.just(List.of(0L, 1L, 60L)).delayElements(Duration.ofMillis(50)));
+        MockServerWebExchange exchange = createExchange();
+        AtomicBoolean chained = new AtomicBoolean(false);
+        GatewayFilterChain chain = ex -> Mono.fromRunnable(() -> chained.set(true));
+
+        runOnEventLoop(() -> filter.filter(exchange, chain)).get(5, TimeUnit.SECONDS);
+
+        assertTrue(chained.get());
+        assertEquals(CLIENT_IP, GateWayIPUtils.getIP(exchange));
+        assertEquals(List.of(IPRateLimiter.IP_COUNT_KEY_PREFIX + CLIENT_IP, IPRateLimiter.IP_LIMIT_KEY_PREFIX + CLIENT_IP),
+                scriptKeys);
+    }
+
+    @Test
+    @DisplayName("超限时拦截，event-loop 线程不阻塞")
+    void blockIpWithoutBlocking() throws Exception {
+        // 模拟 redis 慢响应：{拦截, 0, 黑名单剩余30秒}
+        IPLimitFilter filter = createFilter(() -> Flux.just(List.of(1L, 0L, 30L)).delayElements(Duration.ofMillis(50)));
+        MockServerWebExchange exchange = createExchange();
+        AtomicBoolean chained = new AtomicBoolean(false);
+        GatewayFilterChain chain = ex -> Mono.fromRunnable(() -> chained.set(true));
+
+        runOnEventLoop(() -> filter.filter(exchange, chain)).get(5, TimeUnit.SECONDS);
+
+        assertFalse(chained.get());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, exchange.getResponse().getStatusCode());
+        assertTrue(blockedIPCache.remainingSeconds(CLIENT_IP) > 0);
+    }
+
+    @Test
+    @DisplayName("拉黑后命中本地黑名单，不再访问 redis")
+    void rejectFromLocalCache() throws Exception {
+        // 模拟本次请求触发拉黑：{拦截, 当前计数4, 黑名单30秒}
+        IPLimitFilter filter = createFilter(() -> Flux.just(List.of(1L, 4L, 30L)).delayElements(Duration.ofMillis(50)));
+        GatewayFilterChain chain = ex -> Mono.empty();
+
+        runOnEventLoop(() -> filter.filter(createExchange(), chain)).get(5, TimeUnit.SECONDS);
+        MockServerWebExchange exchange = createExchange();
+        runOnEventLoop(() -> filter.filter(exchange, chain)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, scriptCalls.get());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, exchange.getResponse().getStatusCode());
+        assertTrue(blockedIPCache.remainingSeconds(CLIENT_IP) > 0);
+        assertEquals(0, blockedIPCache.remainingSeconds(ClientIpResolver.UNKNOWN));
+
+        // 其他客户端经同一代理转发，不受影响
+        MockServerWebExchange other = createExchange("192.168.1.101");
+        runOnEventLoop(() -> filter.filter(other, chain)).get(5, TimeUnit.SECONDS);
+        assertEquals(2, scriptCalls.get());
+    }
+
+    @Test
+    @DisplayName("本地黑名单到期后由时间轮清理")
+    @SuppressWarnings("unchecked")
+    void expireLocalBlock() throws Exception {
+        // 模拟本次请求触发拉黑：{拦截, 当前计数4, 黑名单1秒}
+        IPLimitFilter filter = createFilter(() -> Flux.just(List.of(1L, 4L, 1L)));
+        runOnEventLoop(() -> filter.filter(createExchange(), ex -> Mono.empty())).get(5, TimeUnit.SECONDS);
+        Map<String, Long> blockedIps = (Map<String, Long>) ReflectionTestUtils.getField(blockedIPCache, "blockedIps");
+        assertTrue(blockedIps.containsKey(CLIENT_IP));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (blockedIps.containsKey(CLIENT_IP) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(blockedIps.containsKey(CLIENT_IP));
+        assertEquals(0, blockedIPCache.remainingSeconds(CLIENT_IP));
+    }
+
+    @Test
+    @DisplayName("对照：event-loop 线程上的阻塞调用能被检测到")
+    void detectBlockingCall() {
+        // 模拟原先同步调用 RedisUtils 的方式：在当前线程上等待 redis 返回
+        IPLimitFilter filter = createFilter(() -> Flux.defer(() -> {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Flux.just(List.of(0L, 1L, 60L));
+        }));
+        MockServerWebExchange exchange = createExchange();
+        GatewayFilterChain chain = ex -> Mono.empty();
+
+        Exception e = assertThrows(Exception.class,
+                () -> runOnEventLoop(() -> filter.filter(exchange, chain)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(BlockingOperationError.class, e.getCause());
+    }
+
+    /**
+     * 在 event-loop 线程上订阅过滤器，返回请求处理完成的结果
+     */
+    private CompletableFuture<Void> runOnEventLoop(Supplier<Mono<Void>> filtration) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        eventLoopGroup.execute(() -> {
+            try {
+                filtration.get().subscribe(null, future::completeExceptionally, () -> future.complete(null));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    private IPLimitFilter createFilter(Supplier<Flux<?>> scriptResult) {
+        ReactiveRedisUtils reactiveRedisUtils = new ReactiveRedisUtils() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> Flux<T> execute(RedisScript<T> script, List<String> keys, List<String> args) {
+                scriptCalls.incrementAndGet();
+                scriptKeys = keys;
+                return (Flux<T>) scriptResult.get();
+            }
+
+            @Override
+            public Mono<Long> publish(String channel, String message) {
+                return Mono.just(0L);
+            }
+
+            @Override
+            public Flux<String> listenToChannel(String channel) {
+                return Flux.never();
+            }
+        };
+        ReflectionTestUtils.setField(reactiveRedisUtils, "redisMetrics", new RedisMetrics(new SimpleMeterRegistry()));
+        IPRateLimiter ipRateLimiter = new IPRateLimiter();
+        ReflectionTestUtils.setField(ipRateLimiter, "reactiveRedisUtils", reactiveRedisUtils);
+
+        blockedIPCache = new BlockedIPCache();
+        ReflectionTestUtils.setField(blockedIPCache, "reactiveRedisUtils", reactiveRedisUtils);
+        blockedIPCache.init();
+
+        RateLimitPolicyRegistry policyRegistry = new RateLimitPolicyRegistry();
+        ReflectionTestUtils.setField(policyRegistry, "environment", new MockEnvironment()
+                .withProperty("blackIp.continueCounts", "3")
+                .withProperty("blackIp.timeInterval", "20")
+                .withProperty("blackIp.limitTimes", "30"));
+        policyRegistry.init();
+
+        IPLimitFilter filter = new IPLimitFilter();
+        ReflectionTestUtils.setField(filter, "ipRateLimiter", ipRateLimiter);
+        ReflectionTestUtils.setField(filter, "blockedIPCache", blockedIPCache);
+        ReflectionTestUtils.setField(filter, "policyRegistry", policyRegistry);
+        ReflectionTestUtils.setField(filter, "rejectionRenderer", new RejectionRenderer());
+        ReflectionTestUtils.setField(filter, "gatewayMetrics", new GatewayMetrics(new SimpleMeterRegistry()));
+        return filter;
+    }
+
+    private MockServerWebExchange createExchange() {
+        return createExchange(CLIENT_IP);
+    }
+
+    /**
+     * 直连地址为受信代理，客户端 ip 取自 X-Forwarded-For
+     */
+    private MockServerWebExchange createExchange(String clientIp) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/auth/getSMSCode")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 12345))
+                .header("X-Forwarded-For", clientIp));
+    }
+}
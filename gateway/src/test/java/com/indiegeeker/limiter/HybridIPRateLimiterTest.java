@@ -0,0 +1,200 @@
+package com.indiegeeker.limiter;
+
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.data.metrics.RedisMetrics;
+import com.indiegeeker.data.utils.ReactiveRedisUtils;
+import com.indiegeeker.limiter.policy.LimitKeyType;
+import com.indiegeeker.limiter.policy.RateLimitPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IP 限流引擎（hybrid 模式）测试
+ * redis 用内存中的计数与黑名单模拟 ip_limit.lua 的语义，多个引擎实例共享同一份模拟数据即为多个网关节点
+ *
+ * Author: wen
+ * Date: 2025/7/12
+ */
+@DisplayName("IP 限流引擎（hybrid 模式）测试")
+class HybridIPRateLimiterTest {
+
+    private static final int CONTINUE_COUNTS = 30;
+
+    private static final int ERROR_BOUND = 5;
+
+    private static final String IP = "10.0.0.1";
+
+    private final RateLimitPolicy policy = new RateLimitPolicy(null, LimitKeyType.IP, CONTINUE_COUNTS, 60, 120);
+
+    private final FakeRedis redis = new FakeRedis();
+
+    @Test
+    @DisplayName("未同步增量达到 errorBound 前不访问 redis，达到时立即同步")
+    void syncAtErrorBound() {
+        HybridIPRateLimiter limiter = createLimiter();
+
+        for (int i = 1; i < ERROR_BOUND; i++) {
+            IPLimitResult result = limiter.acquire(policy, IP, IP).block();
+            assertFalse(result.isBlocked());
+            assertEquals(i, result.getCount());
+        }
+        assertEquals(0, redis.calls.get());
+
+        limiter.acquire(policy, IP, IP).block();
+        assertEquals(1, redis.calls.get());
+        assertEquals(ERROR_BOUND, redis.count(IP));
+    }
+
+    @Test
+    @DisplayName("用 redis 返回的集群计数校准本地，集群计数超限时拉黑并在本地拦截")
+    void calibrateAndBlock() {
+        HybridIPRateLimiter limiter = createLimiter();
+        // 其他节点已经同步了20次
+        redis.counts.put(IPRateLimiter.IP_COUNT_KEY_PREFIX + IP, 20L);
+
+        for (int i = 0; i < ERROR_BOUND; i++) {
+            limiter.acquire(policy, IP, IP).block();
+        }
+        assertEquals(20 + ERROR_BOUND, redis.count(IP));
+        assertEquals(20 + ERROR_BOUND + 1, limiter.acquire(policy, IP, IP).block().getCount());
+
+        // 本地估算超过上限时交给 redis 判定
+        IPLimitResult result = null;
+        for (int i = 0; i < CONTINUE_COUNTS && (result == null || !result.isBlocked()); i++) {
+            result = limiter.acquire(policy, IP, IP).block();
+        }
+        assertTrue(result.isBlocked());
+        assertTrue(redis.blocked.contains(IPRateLimiter.IP_LIMIT_KEY_PREFIX + IP));
+
+        // 拉黑后命中本地状态，不再访问 redis
+        int calls = redis.calls.get();
+        assertTrue(limiter.acquire(policy, IP, IP).block().isBlocked());
+        assertEquals(calls, redis.calls.get());
+    }
+
+    @Test
+    @DisplayName("多个节点交替计数，redis 计数与真实请求数的偏差不超过 节点数*errorBound，拦截不早于上限")
+    void boundedDrift() {
+        List<HybridIPRateLimiter> nodes = List.of(createLimiter(), createLimiter());
+        int maxDrift = nodes.size() * (ERROR_BOUND - 1);
+
+        int firstBlockedAt = -1;
+        for (int total = 1; total <= CONTINUE_COUNTS * 2; total++) {
+            IPLimitResult result = nodes.get(total % nodes.size()).acquire(policy, IP, IP).block();
+            long redisCount = redis.count(IP);
+            if (!redis.blocked.contains(IPRateLimiter.IP_LIMIT_KEY_PREFIX + IP)) {
+                assertTrue(total - redisCount <= maxDrift, "第" + total + "次请求时 redis 计数为 " + redisCount);
+            }
+            if (result.isBlocked() && firstBlockedAt < 0) {
+                firstBlockedAt = total;
+            }
+        }
+
+        assertTrue(firstBlockedAt > CONTINUE_COUNTS);
+        assertTrue(firstBlockedAt <= CONTINUE_COUNTS + maxDrift + 1);
+        for (HybridIPRateLimiter node : nodes) {
+            assertTrue(node.acquire(policy, IP, IP).block().isBlocked());
+        }
+    }
+
+    @Test
+    @DisplayName("redis 不可用时放行并退回增量，恢复后补同步")
+    void failOpenAndRestorePending() {
+        HybridIPRateLimiter limiter = createLimiter();
+        redis.failing.set(true);
+
+        for (int i = 0; i < ERROR_BOUND; i++) {
+            assertFalse(limiter.acquire(policy, IP, IP).block().isBlocked());
+        }
+        assertEquals(1, redis.calls.get());
+        assertEquals(0, redis.count(IP));
+
+        redis.failing.set(false);
+        limiter.stopSync();
+        assertEquals(ERROR_BOUND, redis.count(IP));
+    }
+
+    @Test
+    @DisplayName("下线时把剩余增量同步出去，包括按用户计数的限流键")
+    void flushOnShutdown() {
+        HybridIPRateLimiter limiter = createLimiter();
+        RateLimitPolicy userPolicy = new RateLimitPolicy("upload", LimitKeyType.USER, CONTINUE_COUNTS, 60, 120);
+
+        String userKey = userPolicy.resolveKey(IP, UserContext.builder().userId("1001").build());
+        limiter.acquire(policy, IP, IP).block();
+        limiter.acquire(policy, IP, IP).block();
+        limiter.acquire(userPolicy, IP, userKey).block();
+        assertEquals(0, redis.calls.get());
+
+        limiter.stopSync();
+        assertEquals(2, redis.count(IP));
+        assertEquals(1, redis.count(userKey));
+    }
+
+    private HybridIPRateLimiter createLimiter() {
+        ReactiveRedisUtils reactiveRedisUtils = new ReactiveRedisUtils() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> Flux<T> execute(RedisScript<T> script, List<String> keys, List<String> args) {
+                return (Flux<T>) redis.execute(keys, args);
+            }
+        };
+        ReflectionTestUtils.setField(reactiveRedisUtils, "redisMetrics", new RedisMetrics(new SimpleMeterRegistry()));
+        IPRateLimiter ipRateLimiter = new IPRateLimiter();
+        ReflectionTestUtils.setField(ipRateLimiter, "reactiveRedisUtils", reactiveRedisUtils);
+
+        HybridIPRateLimiter limiter = new HybridIPRateLimiter();
+        ReflectionTestUtils.setField(limiter, "ipRateLimiter", ipRateLimiter);
+        ReflectionTestUtils.setField(limiter, "errorBound", (long) ERROR_BOUND);
+        return limiter;
+    }
+
+    /**
+     * 模拟 ip_limit.lua：黑名单检查、按增量累加、超限拉黑，不模拟过期
+     */
+    private static class FakeRedis {
+
+        private final Map<String, Long> counts = new HashMap<>();
+
+        private final Set<String> blocked = new HashSet<>();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final AtomicBoolean failing = new AtomicBoolean();
+
+        synchronized Flux<List<Long>> execute(List<String> keys, List<String> args) {
+            calls.incrementAndGet();
+            if (failing.get()) {
+                return Flux.error(new IllegalStateException("redis unavailable"));
+            }
+            long limitTimes = Long.parseLong(args.get(2));
+            if (blocked.contains(keys.get(1))) {
+                return Flux.just(List.of(1L, 0L, limitTimes));
+            }
+            long count = counts.merge(keys.get(0), Long.parseLong(args.get(3)), Long::sum);
+            if (count > Long.parseLong(args.get(0))) {
+                blocked.add(keys.get(1));
+                return Flux.just(List.of(1L, count, limitTimes));
+            }
+            return Flux.just(List.of(0L, count, Long.parseLong(args.get(1))));
+        }
+
+        synchronized long count(String key) {
+            return counts.getOrDefault(IPRateLimiter.IP_COUNT_KEY_PREFIX + key, 0L);
+        }
+    }
+}
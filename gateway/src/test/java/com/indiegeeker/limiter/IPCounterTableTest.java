@@ -0,0 +1,114 @@
+package com.indiegeeker.limiter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IP 计数表测试
+ *
+ * Author: wen
+ * Date: 2025/7/12
+ */
+@DisplayName("IP 计数表测试")
+class IPCounterTableTest {
+
+    private static final long IPV4_MAPPED = 0x0000_FFFF_0000_0000L;
+
+    @Test
+    @DisplayName("窗口内累加计数，超过上限时要求同步，误差上限触发同步")
+    void acquire() {
+        IPCounterTable table = new IPCounterTable(4);
+        long now = System.currentTimeMillis();
+
+        long first = table.acquire(0, IPV4_MAPPED | 1, 3, 10, 2, now);
+        assertEquals(IPCounterTable.PASS, IPCounterTable.decision(first));
+        assertEquals(1, IPCounterTable.count(first));
+        assertEquals(10, IPCounterTable.ttl(first));
+
+        long second = table.acquire(0, IPV4_MAPPED | 1, 3, 10, 2, now);
+        assertEquals(IPCounterTable.PASS_AND_SYNC, IPCounterTable.decision(second));
+        assertEquals(2, table.takePending(0, IPV4_MAPPED | 1));
+
+        // 同步后集群计数为3，本地再计一次即超过上限
+        table.calibrate(0, IPV4_MAPPED | 1, false, 3, 8, now);
+        long fourth = table.acquire(0, IPV4_MAPPED | 1, 3, 10, 2, now);
+        assertEquals(IPCounterTable.SYNC, IPCounterTable.decision(fourth));
+        assertEquals(4, IPCounterTable.count(fourth));
+
+        // 其他 ip 互不影响
+        assertEquals(1, IPCounterTable.count(table.acquire(0, IPV4_MAPPED | 2, 3, 10, 2, now)));
+    }
+
+    @Test
+    @DisplayName("拉黑期间拦截，窗口过期后重新计数")
+    void blockAndExpire() {
+        IPCounterTable table = new IPCounterTable(1);
+        long now = System.currentTimeMillis();
+
+        table.acquire(1, 1, 3, 5, 100, now);
+        table.calibrate(1, 1, true, 4, 20, now);
+        long blocked = table.acquire(1, 1, 3, 5, 100, now + 1000);
+        assertEquals(IPCounterTable.BLOCKED, IPCounterTable.decision(blocked));
+        assertEquals(19, IPCounterTable.ttl(blocked));
+
+        long afterBlock = table.acquire(1, 1, 3, 5, 100, now + 21_000);
+        assertEquals(IPCounterTable.PASS, IPCounterTable.decision(afterBlock));
+        assertEquals(1, IPCounterTable.count(afterBlock));
+    }
+
+    @Test
+    @DisplayName("过期槽位被复用，扩容只保留有效槽位")
+    void reuseIdleSlots() {
+        IPCounterTable table = new IPCounterTable(1);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10_000; i++) {
+            table.acquire(0, IPV4_MAPPED | i, 100, 1, 100, now);
+            table.takePending(0, IPV4_MAPPED | i);
+        }
+        assertEquals(10_000, table.size());
+
+        // 窗口过期后，新的一批 ip 复用旧槽位，表不再增长
+        long later = now + 5_000;
+        for (int i = 10_000; i < 20_000; i++) {
+            table.acquire(0, IPV4_MAPPED | i, 100, 1, 100, later);
+            table.takePending(0, IPV4_MAPPED | i);
+        }
+        assertTrue(table.size() <= 20_000);
+        assertEquals(1, IPCounterTable.count(table.acquire(0, IPV4_MAPPED | 19_999, 100, 1, 100, later)));
+    }
+
+    @Test
+    @DisplayName("多线程并发计数不丢失")
+    void concurrentAcquire() throws Exception {
+        IPCounterTable table = new IPCounterTable(8);
+        long now = System.currentTimeMillis();
+        int threads = 8, perThread = 20_000, distinct = 1_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    table.acquire(0, IPV4_MAPPED | (i % distinct), Integer.MAX_VALUE, 60, Long.MAX_VALUE, now);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        long[] total = new long[1];
+        table.drainPending((hi, lo, permits) -> total[0] += permits);
+        assertEquals((long) threads * perThread, total[0]);
+        assertEquals(distinct, table.size());
+    }
+}
@@ -0,0 +1,111 @@
+package com.indiegeeker.limiter.policy;
+
+import com.indiegeeker.config.RateLimitProperties;
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.limiter.IPRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 限流策略查找表测试
+ *
+ * Author: wen
+ * Date: 2025/7/11
+ */
+@DisplayName("限流策略查找表测试")
+class RateLimitPolicyTableTest {
+
+    private RateLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setContinueCounts(3);
+        properties.setTimeInterval(5);
+        properties.setLimitTimes(20);
+        properties.getPolicies().add(policy("sms-code", null, "/auth/getSMSCode", LimitKeyType.IP, 1));
+        properties.getPolicies().add(policy("file", "fileRoute", null, LimitKeyType.USER, 30));
+        properties.getPolicies().add(policy("file-upload", "fileRoute", "/file/upload/**", LimitKeyType.USER, 5));
+        properties.getPolicies().add(policy("main-tenant", "mainRoute", null, LimitKeyType.TENANT, null));
+    }
+
+    @Test
+    @DisplayName("按路由、最长路径前缀匹配，未匹配时使用默认策略")
+    void match() {
+        RateLimitPolicyTable table = RateLimitPolicyTable.compile(properties);
+
+        assertEquals("sms-code", table.match("authRoute", "/auth/getSMSCode").getName());
+        assertEquals("sms-code", table.match(null, "/auth/getSMSCode").getName());
+        assertNull(table.match("authRoute", "/auth/getSMSCodeX").getName());
+        assertNull(table.match("authRoute", "/auth/login").getName());
+
+        assertEquals("file", table.match("fileRoute", "/file/list").getName());
+        assertEquals("file-upload", table.match("fileRoute", "/file/upload").getName());
+        assertEquals("file-upload", table.match("fileRoute", "/file/upload/avatar").getName());
+        // 路由不匹配时不会命中路由专属策略
+        assertNull(table.match("otherRoute", "/file/upload").getName());
+    }
+
+    @Test
+    @DisplayName("未配置的参数沿用默认策略")
+    void inheritDefaults() {
+        RateLimitPolicy policy = RateLimitPolicyTable.compile(properties).match("mainRoute", "/main/index");
+
+        assertEquals("main-tenant", policy.getName());
+        assertEquals(3, policy.getContinueCounts());
+        assertEquals(5, policy.getTimeInterval());
+        assertEquals(20, policy.getLimitTimes());
+    }
+
+    @Test
+    @DisplayName("按用户、租户计算限流键，未登录时退化为ip")
+    void resolveKey() {
+        RateLimitPolicyTable table = RateLimitPolicyTable.compile(properties);
+        UserContext userContext = UserContext.builder().userId("1001").tenantId("t1").build();
+
+        assertEquals("1.2.3.4", table.match(null, "/auth/login").resolveKey("1.2.3.4", userContext));
+        assertEquals("p:sms-code:1.2.3.4", table.match(null, "/auth/getSMSCode").resolveKey("1.2.3.4", userContext));
+        assertEquals("p:file:user:1001", table.match("fileRoute", "/file/list").resolveKey("1.2.3.4", userContext));
+        assertEquals("p:file:1.2.3.4", table.match("fileRoute", "/file/list").resolveKey("1.2.3.4", null));
+        assertEquals("p:main-tenant:tenant:t1", table.match("mainRoute", "/main/index").resolveKey("1.2.3.4", userContext));
+    }
+
+    @Test
+    @DisplayName("命名策略的限流键不会与默认策略的黑名单键重叠")
+    void policyKeysDoNotCollide() {
+        properties.getPolicies().add(policy("limit", null, "/limit", LimitKeyType.IP, 1));
+        RateLimitPolicyTable table = RateLimitPolicyTable.compile(properties);
+
+        String key = table.match(null, "/limit").resolveKey("1.2.3.4", null);
+        assertEquals("p:limit:1.2.3.4", key);
+        assertNotEquals(IPRateLimiter.IP_LIMIT_KEY_PREFIX + "1.2.3.4", IPRateLimiter.IP_COUNT_KEY_PREFIX + key);
+    }
+
+    @Test
+    @DisplayName("策略冲突、名称包含冒号或缺少默认参数时编译失败")
+    void rejectInvalid() {
+        properties.getPolicies().add(policy("file-2", "fileRoute", "/", LimitKeyType.IP, 1));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicyTable.compile(properties));
+
+        properties.getPolicies().remove(properties.getPolicies().size() - 1);
+        properties.getPolicies().add(policy("file:user", null, "/files", LimitKeyType.IP, 1));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicyTable.compile(properties));
+
+        RateLimitProperties empty = new RateLimitProperties();
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicyTable.compile(empty));
+    }
+
+    private static RateLimitProperties.Policy policy(String name, String routeId, String pathPrefix,
+                                                     LimitKeyType keyBy, Integer continueCounts) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName(name);
+        policy.setRouteId(routeId);
+        policy.setPathPrefix(pathPrefix);
+        policy.setKeyBy(keyBy);
+        policy.setContinueCounts(continueCounts);
+        return policy;
+    }
+}
@@ -0,0 +1,101 @@
+package com.indiegeeker.metrics;
+
+import com.indiegeeker.config.MetricsConfig;
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.data.metrics.RedisMetrics;
+import com.indiegeeker.data.metrics.RedisOperation;
+import com.indiegeeker.security.jwt.JwtKeyRing;
+import com.indiegeeker.security.jwt.JwtProperties;
+import com.indiegeeker.security.jwt.JwtTokenCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 网关耗时指标测试
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@DisplayName("网关耗时指标测试")
+class GatewayMetricsTest {
+
+    @Test
+    @DisplayName("按路由记录过滤器耗时，同一路由复用预注册的Timer")
+    void routeTimers() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GatewayMetrics metrics = new GatewayMetrics(registry);
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/auth/login"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("authRoute").uri(URI.create("lb://auth-service")).predicate(e -> true).build());
+        GatewayMetrics.RouteTimers timers = metrics.route(exchange);
+        assertSame(timers, metrics.route(exchange));
+        assertSame(timers, metrics.route("authRoute"));
+
+        timers.record(GatewayMetrics.Stage.SECURITY, System.nanoTime());
+        timers.record(GatewayMetrics.Stage.SECURITY, System.nanoTime());
+        metrics.route(MockServerWebExchange.from(MockServerHttpRequest.get("/unknown")))
+                .record(GatewayMetrics.Stage.IP_LIMIT, System.nanoTime());
+
+        assertEquals(2, registry.get(GatewayMetrics.FILTER_METRIC)
+                .tags("filter", "security", "route", "authRoute").timer().count());
+        assertEquals(0, registry.get(GatewayMetrics.FILTER_METRIC)
+                .tags("filter", "ip-limit", "route", "authRoute").timer().count());
+        assertEquals(1, registry.get(GatewayMetrics.FILTER_METRIC)
+                .tags("filter", "ip-limit", "route", GatewayMetrics.UNMATCHED_ROUTE).timer().count());
+        assertNotNull(registry.get(GatewayMetrics.DOWNSTREAM_METRIC).tag("route", "authRoute").timer());
+    }
+
+    @Test
+    @DisplayName("JWT验签、解析耗时只在解析token时记录")
+    void jwtTiming() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JwtTokenCodec codec = new JwtTokenCodec(JwtKeyRing.from(new JwtProperties()));
+        new MetricsConfig().jwtTimingMetrics(codec).bindTo(registry);
+
+        String token = codec.generateToken(UserContext.builder().userId("1001").build(), 10);
+        assertNotNull(codec.parseToken(token));
+        int signature = token.lastIndexOf('.') + 1;
+        String forged = token.substring(0, signature) + (token.charAt(signature) == 'A' ? 'B' : 'A')
+                + token.substring(signature + 1);
+        assertNull(codec.parseToken(forged));
+
+        assertEquals(2, registry.get(MetricsConfig.JWT_METRIC).tag("phase", "verify").timer().count());
+        assertEquals(1, registry.get(MetricsConfig.JWT_METRIC).tag("phase", "parse").timer().count());
+    }
+
+    @Test
+    @DisplayName("Redis操作耗时在响应式流结束时记录，未订阅时不记录")
+    void redisTiming() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RedisMetrics metrics = new RedisMetrics(registry);
+
+        // 在当前线程上模拟慢响应，不使用 parallel 调度器，避免影响同一 JVM 中安装 BlockHound 的测试
+        Mono<String> get = metrics.time(RedisOperation.GET, Mono.fromCallable(() -> {
+            TimeUnit.MILLISECONDS.sleep(20);
+            return "v";
+        }));
+        assertEquals(0, metrics.reactiveTimer(RedisOperation.GET).count());
+        StepVerifier.create(get).expectNext("v").verifyComplete();
+        StepVerifier.create(metrics.time(RedisOperation.GET, Mono.error(new IllegalStateException())))
+                .verifyError(IllegalStateException.class);
+
+        assertEquals(2, metrics.reactiveTimer(RedisOperation.GET).count());
+        assertTrue(metrics.reactiveTimer(RedisOperation.GET).max(TimeUnit.MILLISECONDS) >= 20);
+        metrics.record(RedisOperation.EXECUTE, System.nanoTime());
+        assertEquals(1, registry.get(RedisMetrics.METRIC_NAME)
+                .tags("operation", "execute", "client", "blocking").timer().count());
+    }
+}
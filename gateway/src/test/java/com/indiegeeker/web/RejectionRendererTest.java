@@ -0,0 +1,77 @@
+package com.indiegeeker.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indiegeeker.core.enums.ResponseStatusEnum;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 网关拒绝响应渲染测试
+ *
+ * Author: wen
+ * Date: 2025/7/13
+ */
+@DisplayName("网关拒绝响应渲染测试")
+class RejectionRendererTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final RejectionRenderer renderer = new RejectionRenderer();
+
+    @Test
+    @DisplayName("ResponseStatusEnum 错误响应")
+    void renderStatus() throws Exception {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/auth/login"));
+        renderer.render(exchange, ResponseStatusEnum.BLACK_IP).block();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, exchange.getResponse().getStatusCode());
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(exchange.getResponse().getHeaders().getContentType()));
+        JsonNode body = OBJECT_MAPPER.readTree(exchange.getResponse().getBodyAsString().block());
+        assertEquals(5103, body.get("code").asInt());
+        assertEquals(ResponseStatusEnum.BLACK_IP.getMessage(), body.get("msg").asText());
+        assertFalse(body.has("data"));
+        assertTimestamp(body);
+    }
+
+    @Test
+    @DisplayName("401、403 响应")
+    void renderSecurity() throws Exception {
+        MockServerWebExchange unauthorized = MockServerWebExchange.from(MockServerHttpRequest.get("/main/index"));
+        renderer.renderUnauthorized(unauthorized).block();
+        assertEquals(HttpStatus.UNAUTHORIZED, unauthorized.getResponse().getStatusCode());
+        JsonNode body = OBJECT_MAPPER.readTree(unauthorized.getResponse().getBodyAsString().block());
+        assertEquals(401, body.get("code").asInt());
+        assertTrue(body.get("data").isNull());
+        assertTimestamp(body);
+
+        MockServerWebExchange forbidden = MockServerWebExchange.from(MockServerHttpRequest.get("/admin/index"));
+        renderer.renderForbidden(forbidden).block();
+        assertEquals(HttpStatus.FORBIDDEN, forbidden.getResponse().getStatusCode());
+        assertEquals(403, OBJECT_MAPPER.readTree(forbidden.getResponse().getBodyAsString().block()).get("code").asInt());
+    }
+
+    @Test
+    @DisplayName("共享的响应体被多次写出互不影响")
+    void sharedBody() {
+        for (int i = 0; i < 3; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+            renderer.render(exchange, ResponseStatusEnum.UNAUTHORIZED).block();
+            assertTrue(exchange.getResponse().getBodyAsString().block().startsWith("{\"code\":5200,"));
+        }
+    }
+
+    private static void assertTimestamp(JsonNode body) {
+        LocalDateTime timestamp = LocalDateTime.parse(body.get("timestamp").asText());
+        assertTrue(Math.abs(ChronoUnit.SECONDS.between(timestamp, LocalDateTime.now())) <= 2);
+    }
+}
@@ -0,0 +1,138 @@
+package com.indiegeeker.web.utils;
+
+import com.indiegeeker.config.SecurityExcludeConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 预编译路径匹配器测试，以 PathMatcherUtils（AntPathMatcher）的结果为准做差分比对
+ *
+ * Author: wen
+ * Date: 2025/7/13
+ */
+@DisplayName("预编译路径匹配器测试")
+class CompiledPathMatcherTest {
+
+    private static final String[] PATTERN_SEGMENTS = {
+            "a", "b", "ab", "*", "**", "a*", "*b", "?", "a?", "?b*", "{id}", "a{id}", "{id}.jpg",
+            "*.jpg", "x.jpg", "*a*", "{id:\\d+}", "{", "a}b"
+    };
+
+    private static final String[] PATH_SEGMENTS = {
+            "a", "b", "ab", "abb", "ba", "x.jpg", "ab.jpg", "123", "a\nb", "\n", "aé", "😀", "a😀b"
+    };
+
+    @Test
+    @DisplayName("单个模式与 AntPathMatcher 结果一致")
+    void singlePatternMatchesAntPathMatcher() {
+        Random random = new Random(20250713L);
+        for (int p = 0; p < 3000; p++) {
+            String pattern = randomPattern(random);
+            CompiledPathMatcher<String> matcher = CompiledPathMatcher.compile(List.of(pattern));
+            for (int i = 0; i < 40; i++) {
+                String path = randomPath(random);
+                assertEquals(PathMatcherUtils.match(pattern, path), matcher.matches(path),
+                        () -> "pattern=" + pattern + ", path=" + path);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("多个模式按声明顺序返回第一个命中的模式")
+    void firstMatchFollowsDeclarationOrder() {
+        Random random = new Random(7L);
+        for (int round = 0; round < 500; round++) {
+            List<String> patterns = new ArrayList<>();
+            for (int i = random.nextInt(12) + 1; i > 0; i--) {
+                patterns.add(randomPattern(random));
+            }
+            CompiledPathMatcher<String> matcher = CompiledPathMatcher.compile(patterns);
+            for (int i = 0; i < 40; i++) {
+                String path = randomPath(random);
+                String expected = null;
+                for (String pattern : patterns) {
+                    if (PathMatcherUtils.match(pattern, path)) {
+                        expected = pattern;
+                        break;
+                    }
+                }
+                assertEquals(expected, matcher.match(path), () -> "patterns=" + patterns + ", path=" + path);
+                assertEquals(PathMatcherUtils.isExcluded(path, patterns), matcher.matches(path));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("默认排除路径")
+    void defaultExcludePaths() {
+        SecurityExcludeConfig config = new SecurityExcludeConfig();
+        config.setPaths(List.of("/public/**", "/file/*.jpg"));
+        List<String> excludePaths = config.getAllExcludePaths();
+
+        String[] paths = {
+                "/auth/login", "auth/login", "//auth///login/", "/auth/login2", "/user/profile", "/", "",
+                "/static", "/static/css/app.css", "/test/hello", "/user/hello", "/user/a/hello",
+                "/favicon.ico", "/file/a.jpg", "/file/a.png", "/public", "/public/info", "/v3/api-docs"
+        };
+        for (String path : paths) {
+            assertEquals(PathMatcherUtils.isExcluded(path, excludePaths), config.isExcluded(path), path);
+        }
+        assertTrue(config.isExcluded("//auth///login/"));
+        assertFalse(config.isExcluded("/user/profile"));
+        assertEquals("/*/hello", config.matchExcludePath("/user/hello"));
+        assertFalse(config.isExcluded(null));
+    }
+
+    @Test
+    @DisplayName("路径标准化")
+    void normalizePath() {
+        assertEquals("/", PathMatcherUtils.normalizePath(null));
+        assertEquals("/", PathMatcherUtils.normalizePath(""));
+        assertEquals("/", PathMatcherUtils.normalizePath("///"));
+        assertEquals("/a/b", PathMatcherUtils.normalizePath("a//b/"));
+        assertEquals("/a/b", PathMatcherUtils.normalizePath("//a/b"));
+        String normalized = "/a/b";
+        assertSame(normalized, PathMatcherUtils.normalizePath(normalized));
+    }
+
+    private static String randomPattern(Random random) {
+        StringBuilder sb = new StringBuilder();
+        if (random.nextInt(20) != 0) {
+            sb.append('/');
+        }
+        for (int i = random.nextInt(5); i > 0; i--) {
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '/') {
+                sb.append('/');
+            }
+            if (random.nextInt(15) == 0) {
+                sb.append('/');
+            }
+            sb.append(PATTERN_SEGMENTS[random.nextInt(PATTERN_SEGMENTS.length)]);
+        }
+        if (random.nextInt(10) == 0) {
+            sb.append('/');
+        }
+        return sb.toString();
+    }
+
+    private static String randomPath(Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = random.nextInt(6); i > 0; i--) {
+            sb.append(random.nextInt(8) == 0 ? "//" : "/");
+            sb.append(PATH_SEGMENTS[random.nextInt(PATH_SEGMENTS.length)]);
+        }
+        if (random.nextInt(8) == 0) {
+            sb.append('/');
+        }
+        if (sb.length() > 0 && random.nextInt(10) == 0) {
+            sb.deleteCharAt(0);
+        }
+        return sb.toString();
+    }
+}
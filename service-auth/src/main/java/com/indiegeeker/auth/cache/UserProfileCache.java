@@ -0,0 +1,466 @@
+package com.indiegeeker.auth.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indiegeeker.auth.mapper.UsersMapper;
+import com.indiegeeker.data.utils.RedisUtils;
+import com.indiegeeker.pojo.entity.Users;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 用户资料两级缓存
+ * 按 id、手机号读取用户时依次查本地缓存、redis、数据库，逐级回填：
+ * 1. 本地缓存有容量上限、过期时间较短；同一 key 并发未命中时由 Caffeine 保证本节点只加载一次
+ * 2. redis 未命中时先抢加载锁，只有抢到锁的节点查库，其他节点短暂等待后重读 redis，热点用户过期时只查一次库；
+ *    锁的值为随机令牌，释放时比较后再删除，查库超过锁的过期时间时不会删掉其他节点已抢到的锁
+ * 3. 不存在的用户同样缓存（空字符串占位，过期时间更短），避免反复穿透到数据库
+ * 4. 手机号只缓存到用户 id 的映射，读取时校验用户的手机号，映射过期（手机号已变更）时自动重新查询
+ * 5. 用户新增、修改、删除后（有事务时在提交后）删除 redis 中的记录并广播失效消息，各节点清除本地缓存；
+ *    延迟再删一次，覆盖并发读取把旧数据重新写回 redis 的情况
+ * redis 不可用时直接查库，不影响读取
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@Slf4j
+@Component
+public class UserProfileCache {
+
+    /**
+     * 失效广播频道，消息为 {id},{mobile}
+     */
+    public static final String CHANNEL = "auth:user:invalidate";
+
+    static final String ID_KEY_PREFIX = "auth:user:id:";
+
+    static final String MOBILE_KEY_PREFIX = "auth:user:mobile:";
+
+    static final String LOCK_KEY_PREFIX = "auth:user:lock:";
+
+    /**
+     * 不存在的用户在缓存中的占位
+     */
+    private static final String ABSENT = "";
+
+    private static final Users ABSENT_USER = new Users();
+
+    private static final int LOCK_WAIT_ATTEMPTS = 5;
+
+    private static final long LOCK_WAIT_MILLIS = 20;
+
+    private static final RedisScript<Long> LOCK_RELEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/lock_release.lua"), Long.class);
+
+    @Resource
+    private RedisUtils redisUtils;
+
+    @Resource
+    private UsersMapper usersMapper;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Value("${chatter.auth.user-cache.local-maximum-size:10000}")
+    private long localMaximumSize;
+
+    @Value("${chatter.auth.user-cache.local-ttl:1m}")
+    private Duration localTtl;
+
+    @Value("${chatter.auth.user-cache.redis-ttl:30m}")
+    private Duration redisTtl;
+
+    /**
+     * 不存在的用户在 redis 中的缓存时间
+     */
+    @Value("${chatter.auth.user-cache.absent-ttl:1m}")
+    private Duration absentTtl;
+
+    /**
+     * 加载锁的过期时间，持锁节点异常退出时锁自动释放
+     */
+    @Value("${chatter.auth.user-cache.load-lock-ttl:3s}")
+    private Duration loadLockTtl;
+
+    /**
+     * 失效后再次删除的延迟，需大于一次查库回填的耗时
+     */
+    @Value("${chatter.auth.user-cache.double-delete-delay:1s}")
+    private Duration doubleDeleteDelay;
+
+    private Cache<String, Users> usersById;
+
+    private Cache<String, String> idsByMobile;
+
+    @PostConstruct
+    public void init() {
+        usersById = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl)
+                .build();
+        idsByMobile = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl)
+                .build();
+        // redis 暂不可用时不影响启动，执行时会自动回退为 EVAL
+        try {
+            redisUtils.scriptLoad(LOCK_RELEASE_SCRIPT);
+        } catch (Exception e) {
+            log.warn("加载锁释放脚本预加载失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按 id 读取用户
+     *
+     * @return 用户副本，修改不影响缓存；不存在时返回 null
+     */
+    public Users getById(String id) {
+        if (id == null || id.isEmpty()) {
+            return null;
+        }
+        Users user = usersById.get(id, this::loadById);
+        return user == ABSENT_USER ? null : copy(user);
+    }
+
+    /**
+     * 按手机号读取用户
+     *
+     * @return 用户副本，修改不影响缓存；不存在时返回 null
+     */
+    public Users getByMobile(String mobile) {
+        if (mobile == null || mobile.isEmpty()) {
+            return null;
+        }
+        String id = idsByMobile.get(mobile, this::loadIdByMobile);
+        if (ABSENT.equals(id)) {
+            return null;
+        }
+        Users user = getById(id);
+        if (user != null && mobile.equals(user.getMobile())) {
+            return user;
+        }
+        // 映射已过期：用户已删除或手机号已变更，清除后直接查库
+        idsByMobile.invalidate(mobile);
+        deleteRedis(List.of(MOBILE_KEY_PREFIX + mobile));
+        return selectByMobile(mobile);
+    }
+
+    /**
+     * 批量按 id 读取用户
+     * 本地缓存未命中的 id 通过一次 pipeline 读 redis，仍未命中的用一次 IN 查询从数据库加载，
+     * 再通过 pipeline 回填 redis；批量加载不抢加载锁，一次查询即覆盖全部未命中的 id
+     *
+     * @return 与 ids 一一对应的用户副本，不存在的用户对应位置为 null
+     */
+    public List<Users> getByIds(List<String> ids) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (id != null && !id.isEmpty()) {
+                distinct.add(id);
+            }
+        }
+        Map<String, Users> found = new HashMap<>(usersById.getAllPresent(distinct));
+        List<String> misses = new ArrayList<>();
+        for (String id : distinct) {
+            if (!found.containsKey(id)) {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<String, Users> loaded = loadByIds(misses);
+            usersById.putAll(loaded);
+            found.putAll(loaded);
+        }
+        List<Users> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Users user = id != null ? found.get(id) : null;
+            result.add(user == null || user == ABSENT_USER ? null : copy(user));
+        }
+        return result;
+    }
+
+    /**
+     * 用户数据变更后清除缓存，当前有事务时在提交后执行
+     *
+     * @param mobiles 变更前后涉及的手机号，可为 null
+     */
+    public void evict(String id, String... mobiles) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            doEvict(id, mobiles);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                doEvict(id, mobiles);
+            }
+        });
+    }
+
+    /**
+     * 处理其他节点（包括本节点）广播的失效消息
+     */
+    public void onInvalidate(String message) {
+        int comma = message.indexOf(',');
+        String id = comma < 0 ? message : message.substring(0, comma);
+        if (!id.isEmpty()) {
+            usersById.invalidate(id);
+        }
+        if (comma >= 0) {
+            for (String mobile : message.substring(comma + 1).split(",")) {
+                if (!mobile.isEmpty()) {
+                    idsByMobile.invalidate(mobile);
+                }
+            }
+        }
+    }
+
+    private void doEvict(String id, String... mobiles) {
+        List<String> keys = new ArrayList<>();
+        StringBuilder message = new StringBuilder(id != null ? id : "");
+        if (id != null) {
+            keys.add(ID_KEY_PREFIX + id);
+        }
+        for (String mobile : mobiles) {
+            if (mobile != null && !mobile.isEmpty()) {
+                keys.add(MOBILE_KEY_PREFIX + mobile);
+                message.append(',').append(mobile);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        Runnable invalidate = () -> {
+            deleteRedis(keys);
+            onInvalidate(message.toString());
+            publish(message.toString());
+        };
+        invalidate.run();
+        CompletableFuture.delayedExecutor(doubleDeleteDelay.toMillis(), TimeUnit.MILLISECONDS).execute(invalidate);
+    }
+
+    private Users loadById(String id) {
+        String json = readThrough(ID_KEY_PREFIX + id, () -> encode(usersMapper.selectById(id)));
+        return ABSENT.equals(json) ? ABSENT_USER : decode(json);
+    }
+
+    private Map<String, Users> loadByIds(List<String> ids) {
+        Map<String, Users> loaded = new HashMap<>(ids.size() * 2);
+        List<String> misses = new ArrayList<>();
+        List<String> values = readRedis(ids.stream().map(id -> ID_KEY_PREFIX + id).toList());
+        for (int i = 0; i < ids.size(); i++) {
+            String json = values != null ? values.get(i) : null;
+            if (json == null) {
+                misses.add(ids.get(i));
+            } else {
+                loaded.put(ids.get(i), ABSENT.equals(json) ? ABSENT_USER : decode(json));
+            }
+        }
+        if (misses.isEmpty()) {
+            return loaded;
+        }
+        Map<String, String> fills = new HashMap<>(misses.size() * 2);
+        for (Users user : usersMapper.selectByIds(misses)) {
+            loaded.put(user.getId(), user);
+            fills.put(ID_KEY_PREFIX + user.getId(), encode(user));
+        }
+        for (String id : misses) {
+            if (!loaded.containsKey(id)) {
+                loaded.put(id, ABSENT_USER);
+                fills.put(ID_KEY_PREFIX + id, ABSENT);
+            }
+        }
+        writeRedis(fills);
+        return loaded;
+    }
+
+    private String loadIdByMobile(String mobile) {
+        return readThrough(MOBILE_KEY_PREFIX + mobile, () -> {
+            Users user = selectByMobile(mobile);
+            if (user == null) {
+                return ABSENT;
+            }
+            // 顺带回填按 id 的缓存
+            writeRedis(ID_KEY_PREFIX + user.getId(), encode(user));
+            usersById.put(user.getId(), user);
+            return user.getId();
+        });
+    }
+
+    /**
+     * 先读 redis，未命中时只有抢到加载锁的调用方执行 loader 并回填
+     *
+     * @return 缓存的值，不存在时为 ABSENT
+     */
+    private String readThrough(String key, Supplier<String> loader) {
+        String value = readRedis(key);
+        if (value != null) {
+            return value;
+        }
+        String lockKey = LOCK_KEY_PREFIX + key;
+        String lockToken = tryLock(lockKey);
+        if (lockToken == null) {
+            for (int i = 0; i < LOCK_WAIT_ATTEMPTS; i++) {
+                try {
+                    Thread.sleep(LOCK_WAIT_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                value = readRedis(key);
+                if (value != null) {
+                    return value;
+                }
+            }
+            // 等待超时时（持锁节点查库过慢或已退出）自行查库
+            log.debug("等待用户缓存加载超时, key: {}", key);
+        }
+        try {
+            value = loader.get();
+            writeRedis(key, value);
+            return value;
+        } finally {
+            if (lockToken != null) {
+                unlock(lockKey, lockToken);
+            }
+        }
+    }
+
+    private Users selectByMobile(String mobile) {
+        return usersMapper.selectOne(new LambdaQueryWrapper<Users>()
+                .eq(Users::getMobile, mobile)
+                .last("LIMIT 1"));
+    }
+
+    private String readRedis(String key) {
+        try {
+            return redisUtils.get(key);
+        } catch (RuntimeException e) {
+            log.warn("读取用户缓存失败, key: {}, 原因: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String key, String value) {
+        try {
+            redisUtils.setExpireBySecond(key, value, (ABSENT.equals(value) ? absentTtl : redisTtl).getSeconds());
+        } catch (RuntimeException e) {
+            log.warn("写入用户缓存失败, key: {}, 原因: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 批量读取，失败时返回 null，全部按未命中处理
+     */
+    private List<String> readRedis(List<String> keys) {
+        try {
+            return redisUtils.batchGet(keys);
+        } catch (RuntimeException e) {
+            log.warn("批量读取用户缓存失败, 数量: {}, 原因: {}", keys.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 批量回填，用户与不存在的占位按各自的过期时间在同一个 pipeline 中写入
+     */
+    private void writeRedis(Map<String, String> values) {
+        try {
+            redisUtils.batchSet(values, entry -> (ABSENT.equals(entry.getValue()) ? absentTtl : redisTtl).getSeconds());
+        } catch (RuntimeException e) {
+            log.warn("批量写入用户缓存失败, 数量: {}, 原因: {}", values.size(), e.getMessage());
+        }
+    }
+
+    private void deleteRedis(List<String> keys) {
+        try {
+            redisUtils.delete(keys);
+        } catch (RuntimeException e) {
+            log.warn("删除用户缓存失败, keys: {}, 原因: {}", keys, e.getMessage());
+        }
+    }
+
+    /**
+     * 抢加载锁，锁的值为本次加载的随机令牌
+     * redis 不可用时视为抢到锁，直接查库
+     *
+     * @return 抢到锁时返回令牌，否则返回 null
+     */
+    private String tryLock(String lockKey) {
+        String token = UUID.randomUUID().toString();
+        try {
+            return Boolean.TRUE.equals(redisUtils.setIfAbsent(lockKey, token,
+                    loadLockTtl.toMillis(), TimeUnit.MILLISECONDS)) ? token : null;
+        } catch (RuntimeException e) {
+            return token;
+        }
+    }
+
+    /**
+     * 释放加载锁，锁已过期并被其他节点抢到时不删除
+     */
+    private void unlock(String lockKey, String token) {
+        try {
+            redisUtils.execute(LOCK_RELEASE_SCRIPT, List.of(lockKey), token);
+        } catch (RuntimeException e) {
+            log.warn("释放用户缓存加载锁失败, key: {}, 原因: {}", lockKey, e.getMessage());
+        }
+    }
+
+    private void publish(String message) {
+        try {
+            redisUtils.publish(CHANNEL, message);
+        } catch (RuntimeException e) {
+            log.warn("广播用户缓存失效消息失败, 其他节点将在本地缓存过期后更新: {}", e.getMessage());
+        }
+    }
+
+    private String encode(Users user) {
+        if (user == null) {
+            return ABSENT;
+        }
+        try {
+            return objectMapper.writeValueAsString(user);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("用户信息序列化失败", e);
+        }
+    }
+
+    private Users decode(String json) {
+        try {
+            return objectMapper.readValue(json, Users.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("用户信息反序列化失败", e);
+        }
+    }
+
+    private static Users copy(Users user) {
+        Users copy = new Users();
+        BeanUtils.copyProperties(user, copy);
+        return copy;
+    }
+}
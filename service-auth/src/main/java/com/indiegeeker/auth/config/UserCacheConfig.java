@@ -0,0 +1,32 @@
+package com.indiegeeker.auth.config;
+
+import com.indiegeeker.auth.cache.UserProfileCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 用户资料缓存配置
+ * 订阅用户缓存失效频道，收到消息后清除本节点的本地缓存
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@Configuration
+public class UserCacheConfig {
+
+    @Bean
+    public RedisMessageListenerContainer userCacheListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                    UserProfileCache userProfileCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> userProfileCache.onInvalidate(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserProfileCache.CHANNEL));
+        return container;
+    }
+}
@@ -1,22 +1,30 @@
 package com.indiegeeker.auth.controller;
 
+import com.indiegeeker.auth.service.SessionService;
+import com.indiegeeker.auth.service.TokenRevocationService;
+import com.indiegeeker.context.domain.UserContext;
 import com.indiegeeker.core.base.BaseJSONResult;
 import com.indiegeeker.web.BaseProperties;
 import com.indiegeeker.core.enums.ResponseStatusEnum;
 import com.indiegeeker.doc.utils.ApiResponseWrapper;
+import com.indiegeeker.pojo.dto.TokenPairDTO;
 import com.indiegeeker.pojo.dto.UpdateUserInfoRequest;
 import com.indiegeeker.pojo.dto.UserInfoDTO;
+import com.indiegeeker.security.jwt.JwtTokenCodec;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -31,6 +39,17 @@ import java.util.Map;
 @Slf4j
 public class AuthController extends BaseProperties {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Resource
+    private TokenRevocationService tokenRevocationService;
+
+    @Resource
+    private SessionService sessionService;
+
+    @Resource
+    private JwtTokenCodec jwtTokenCodec;
+
     @Operation(
             summary = "获取短信验证码",
             description = "根据手机号发送6位数字验证码，60秒内只能发送一次，验证码5分钟内有效"
@@ -54,32 +73,49 @@ public class AuthController extends BaseProperties {
 
     @Operation(
             summary = "用户登录",
-            description = "通过手机号和验证码进行用户登录，返回JWT token"
+            description = "通过手机号和验证码进行用户登录，返回短期访问令牌（JWT）和刷新令牌"
     )
     @ApiResponseWrapper.Create("登录成功")
     @PostMapping("login")
-    public BaseJSONResult<Map<String, Object>> login(
+    public BaseJSONResult<TokenPairDTO> login(
             @Parameter(description = "手机号", required = true, example = "13888888888")
             @RequestParam String mobile,
             @Parameter(description = "验证码", required = true, example = "123456")
-            @RequestParam String smsCode) {
+            @RequestParam String smsCode,
+            @Parameter(description = "设备类型，同一设备类型只保留一个会话", example = "web")
+            @RequestParam(required = false, defaultValue = "web") String clientType) {
 
         // 简化验证逻辑
         if (!"123456".equals(smsCode)) {
             return BaseJSONResult.error("验证码错误");
         }
 
-        // 模拟生成 token 和用户信息
-        Map<String, Object> result = new HashMap<>();
-        result.put("token", "mock_jwt_token_" + System.currentTimeMillis());
-        result.put("userId", "1001");
-        result.put("mobile", mobile);
-        result.put("expireTime", LocalDateTime.now().plusDays(7));
+        // todo 模拟用户信息（实际应用中需要查询或注册用户）
+        UserContext userContext = UserContext.builder()
+                .userId("1001")
+                .username("user" + mobile)
+                .mobile(mobile)
+                .roles(List.of("USER"))
+                .clientType(clientType)
+                .build();
+        TokenPairDTO result = sessionService.createSession(userContext);
 
         log.info("用户 {} 登录成功", mobile);
         return BaseJSONResult.ok("登录成功", result);
     }
 
+    @Operation(
+            summary = "刷新令牌",
+            description = "使用刷新令牌换取新的访问令牌和刷新令牌，提交的刷新令牌随即失效；已使用过的刷新令牌再次提交时该设备需要重新登录"
+    )
+    @ApiResponseWrapper.Success("刷新成功")
+    @PostMapping("refresh")
+    public BaseJSONResult<TokenPairDTO> refresh(
+            @Parameter(description = "刷新令牌", required = true)
+            @RequestParam String refreshToken) {
+        return BaseJSONResult.ok("刷新成功", sessionService.refresh(refreshToken));
+    }
+
     @Operation(
             summary = "获取当前用户信息",
             description = "获取当前登录用户的详细信息（需要认证）"
@@ -115,11 +151,20 @@ public class AuthController extends BaseProperties {
 
     @Operation(
             summary = "用户登出",
-            description = "用户退出登录，清除token"
+            description = "用户退出登录，吊销当前token与当前设备的刷新令牌，token在剩余有效期内不能再使用"
     )
     @ApiResponseWrapper.Success("登出成功")
     @PostMapping("logout")
-    public BaseJSONResult<String> logout() {
+    public BaseJSONResult<String> logout(HttpServletRequest request) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            String token = authHeader.substring(BEARER_PREFIX.length());
+            UserContext userContext = jwtTokenCodec.parseToken(token);
+            if (userContext != null) {
+                sessionService.removeSession(userContext.getUserId(), userContext.getClientType());
+            }
+            tokenRevocationService.revoke(token);
+        }
         log.info("用户登出");
         return BaseJSONResult.ok("登出成功");
     }
@@ -0,0 +1,121 @@
+package com.indiegeeker.auth.controller;
+
+import com.indiegeeker.auth.service.UserExportService;
+import com.indiegeeker.auth.service.UsersService;
+import com.indiegeeker.core.base.BaseJSONResult;
+import com.indiegeeker.core.enums.ResponseStatusEnum;
+import com.indiegeeker.core.exceptions.BusinessException;
+import com.indiegeeker.core.utils.CursorPagedResult;
+import com.indiegeeker.doc.utils.ApiResponseWrapper;
+import com.indiegeeker.pojo.dto.BatchUserCardRequest;
+import com.indiegeeker.pojo.dto.UserCardDTO;
+import com.indiegeeker.pojo.entity.Users;
+import com.indiegeeker.web.BaseProperties;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 用户资料控制器
+ * Author: wen
+ * Date: 2025/7/18
+ **/
+@Tag(name = "用户资料", description = "用户名片等资料查询接口")
+@RestController
+@RequestMapping("auth/user")
+@Slf4j
+public class UserController extends BaseProperties {
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    private static final DateTimeFormatter EXPORT_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    @Resource
+    private UsersService usersService;
+
+    @Resource
+    private UserExportService userExportService;
+
+    @Operation(
+            summary = "批量获取用户名片",
+            description = "聊天列表、群成员等场景一次获取多个用户的名片，最多500个；结果与请求的用户ID一一对应，不存在的用户为 null"
+    )
+    @ApiResponseWrapper.Success("获取成功")
+    @PostMapping("getUserCards")
+    public BaseJSONResult<List<UserCardDTO>> getUserCards(@Valid @RequestBody BatchUserCardRequest request) {
+        List<Users> users = usersService.getByIds(request.getUserIds());
+        List<UserCardDTO> cards = new ArrayList<>(users.size());
+        for (Users user : users) {
+            cards.add(user == null ? null : toCard(user));
+        }
+        return BaseJSONResult.ok(cards);
+    }
+
+    @Operation(
+            summary = "游标分页查询用户",
+            description = "按注册时间倒序分页，下一页传入上一页返回的 nextCursor；不执行 COUNT 查询，withTotal 为 true 时返回近似总数"
+    )
+    @ApiResponseWrapper.Success("获取成功")
+    @GetMapping("listUsers")
+    public BaseJSONResult<CursorPagedResult<UserCardDTO>> listUsers(
+            @Parameter(description = "上一页返回的游标，查询第一页时不传")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页条数，最多100", example = "10")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "是否返回近似总记录数", example = "false")
+            @RequestParam(required = false, defaultValue = "false") boolean withTotal) {
+        int pageSize = size == null || size <= 0 ? PAGE_SIZE : Math.min(size, MAX_CURSOR_PAGE_SIZE);
+        return BaseJSONResult.ok(usersService.pageByCursor(cursor, pageSize, withTotal).map(this::toCard));
+    }
+
+    @Operation(
+            summary = "导出用户数据",
+            description = "流式导出全部用户，format 为 ndjson（每行一个 JSON 对象）或 csv；边读库边写出，内存占用与数据量无关"
+    )
+    @GetMapping("exportUsers")
+    public void exportUsers(
+            @Parameter(description = "导出格式：ndjson、csv", example = "ndjson")
+            @RequestParam(required = false, defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        UserExportService.Format exportFormat;
+        try {
+            exportFormat = UserExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ResponseStatusEnum.PARAM_INVALID, "不支持的导出格式: " + format);
+        }
+        String fileName = "users-" + LocalDateTime.now().format(EXPORT_TIME_FORMATTER) + "." + exportFormat.getExtension();
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+        userExportService.exportUsers(exportFormat, response.getOutputStream());
+    }
+
+    private UserCardDTO toCard(Users user) {
+        return new UserCardDTO()
+                .setUserId(user.getId())
+                .setWechatNum(user.getWechatNum())
+                .setNickname(user.getNickname())
+                .setFace(user.getFace())
+                .setSex(user.getSex())
+                .setSignature(user.getSignature());
+    }
+}
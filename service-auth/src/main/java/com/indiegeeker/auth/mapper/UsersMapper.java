@@ -3,6 +3,11 @@ package com.indiegeeker.auth.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.indiegeeker.pojo.entity.Users;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * <p>
@@ -15,4 +20,25 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface UsersMapper extends BaseMapper<Users> {
 
+    /**
+     * 游标分页：按 (created_time, id) 倒序，取排在游标之后的记录，created_time 为空的记录不返回
+     *
+     * @param cursorTime 上一页最后一条记录的创建时间，为 null 时从第一条开始
+     * @param cursorId   上一页最后一条记录的 id
+     * @param limit      最多返回的条数
+     */
+    List<Users> selectAfterCursor(@Param("cursorTime") LocalDateTime cursorTime,
+                                  @Param("cursorId") String cursorId,
+                                  @Param("limit") int limit);
+
+    /**
+     * 表的近似记录数，取自 information_schema 的统计信息，不执行 COUNT 查询
+     */
+    Long selectApproximateCount();
+
+    /**
+     * 流式读取全部用户，按 id 顺序逐批从数据库拉取，不一次性加载到内存
+     * 需在事务内迭代，迭代完成后关闭游标；MySQL 需在连接参数中开启 useCursorFetch，fetchSize 才会生效
+     */
+    Cursor<Users> selectAllForExport();
 }
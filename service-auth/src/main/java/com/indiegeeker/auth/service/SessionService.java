@@ -0,0 +1,34 @@
+package com.indiegeeker.auth.service;
+
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.pojo.dto.TokenPairDTO;
+
+/**
+ * 登录会话服务
+ * 访问令牌为短期 JWT，刷新令牌按用户、设备（clientType）保存在 redis 哈希中，每次刷新轮换
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+public interface SessionService {
+
+    /**
+     * 创建会话，签发访问令牌与刷新令牌
+     * 同一用户同一设备再次登录时，旧的刷新令牌失效
+     *
+     * @param userContext 已验证的用户信息，clientType 为空时按 web 处理
+     */
+    TokenPairDTO createSession(UserContext userContext);
+
+    /**
+     * 使用刷新令牌换取新的访问令牌与刷新令牌，提交的刷新令牌随即失效
+     *
+     * @throws com.indiegeeker.core.exceptions.BusinessException 刷新令牌无效、过期或已被使用
+     */
+    TokenPairDTO refresh(String refreshToken);
+
+    /**
+     * 删除用户某个设备的会话，该设备的刷新令牌失效
+     */
+    void removeSession(String userId, String clientType);
+}
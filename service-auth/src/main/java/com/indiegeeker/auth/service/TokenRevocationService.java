@@ -0,0 +1,18 @@
+package com.indiegeeker.auth.service;
+
+/**
+ * token 吊销服务
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+public interface TokenRevocationService {
+
+    /**
+     * 吊销 token，在剩余有效期内网关拒绝该 token
+     *
+     * @param token JWT token
+     * @return 是否吊销成功，token 无效、已过期或没有 jti 时返回 false
+     */
+    boolean revoke(String token);
+}
@@ -0,0 +1,47 @@
+package com.indiegeeker.auth.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 用户数据导出服务
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+public interface UserExportService {
+
+    /**
+     * 导出格式
+     */
+    enum Format {
+
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * 把全部用户流式写入输出流，内存占用与数据量无关
+     *
+     * @return 导出的行数
+     * @throws IOException 写出失败，如客户端断开连接
+     */
+    long exportUsers(Format format, OutputStream out) throws IOException;
+}
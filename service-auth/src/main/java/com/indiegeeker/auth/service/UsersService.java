@@ -1,8 +1,11 @@
 package com.indiegeeker.auth.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.indiegeeker.core.utils.CursorPagedResult;
 import com.indiegeeker.pojo.entity.Users;
 
+import java.util.List;
+
 /**
  * <p>
  * 用户表 服务类
@@ -13,4 +16,27 @@ import com.indiegeeker.pojo.entity.Users;
  */
 public interface UsersService extends IService<Users> {
 
+    /**
+     * 按手机号查询用户，走用户资料缓存
+     *
+     * @return 不存在时返回 null
+     */
+    Users getByMobile(String mobile);
+
+    /**
+     * 按 id 批量查询用户，走用户资料缓存，未命中的用户一次查库
+     *
+     * @return 与 ids 一一对应，不存在的用户对应位置为 null
+     */
+    List<Users> getByIds(List<String> ids);
+
+    /**
+     * 按创建时间倒序游标分页查询用户，不执行 COUNT 查询
+     *
+     * @param cursor    上一页返回的游标，为空时查询第一页
+     * @param size      每页条数
+     * @param withTotal 是否返回近似总记录数
+     * @throws com.indiegeeker.core.exceptions.BusinessException 游标格式不合法
+     */
+    CursorPagedResult<Users> pageByCursor(String cursor, int size, boolean withTotal);
 }
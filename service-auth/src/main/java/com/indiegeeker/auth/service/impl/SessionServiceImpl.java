@@ -0,0 +1,181 @@
+package com.indiegeeker.auth.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indiegeeker.auth.service.SessionService;
+import com.indiegeeker.auth.session.RefreshToken;
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.core.enums.ResponseStatusEnum;
+import com.indiegeeker.core.exceptions.BusinessException;
+import com.indiegeeker.data.utils.RedisUtils;
+import com.indiegeeker.pojo.dto.TokenPairDTO;
+import com.indiegeeker.security.jwt.JwtTokenCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 登录会话服务实现
+ * 1. 会话保存在 redis 哈希 auth:session:{userId} 中，每个设备四个字段：{clientType}:refresh 刷新令牌摘要、
+ *    {clientType}:prev 上一次轮换掉的刷新令牌摘要、{clientType}:expires 过期时间、{clientType}:claims 登录时已验证的用户声明
+ * 2. 刷新时由 Lua 脚本一次完成校验、轮换并取回用户声明，直接用这些声明签发新的访问令牌，不再查库、不再解析旧 token
+ * 3. 上一次轮换掉的刷新令牌再次出现时视为泄露，清除该设备的会话，需要重新登录；
+ *    其他不匹配的令牌（包括伪造的）只是刷新失败，不改动会话，避免未登录的请求清除他人的会话
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+@Slf4j
+@Service
+public class SessionServiceImpl implements SessionService {
+
+    public static final String SESSION_KEY_PREFIX = "auth:session:";
+
+    private static final String DEFAULT_CLIENT_TYPE = "web";
+
+    private static final RedisScript<Long> CREATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/session_create.lua"), Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ROTATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/session_rotate.lua"), List.class);
+
+    @Resource
+    private RedisUtils redisUtils;
+
+    @Resource
+    private JwtTokenCodec jwtTokenCodec;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    /**
+     * 访问令牌有效期，保持较短，吊销记录、验签缓存的规模随之受限
+     */
+    @Value("${chatter.auth.session.access-token-ttl:15m}")
+    private Duration accessTokenTtl;
+
+    /**
+     * 刷新令牌有效期，每次刷新后重新计算
+     */
+    @Value("${chatter.auth.session.refresh-token-ttl:30d}")
+    private Duration refreshTokenTtl;
+
+    /**
+     * 启动时按 SHA1 预加载脚本
+     */
+    @PostConstruct
+    public void preloadScripts() {
+        // redis 暂不可用时不影响启动，执行时会自动回退为 EVAL
+        try {
+            redisUtils.scriptLoad(CREATE_SCRIPT);
+            redisUtils.scriptLoad(ROTATE_SCRIPT);
+        } catch (Exception e) {
+            log.warn("会话脚本预加载失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public TokenPairDTO createSession(UserContext userContext) {
+        String clientType = userContext.getClientType() != null ? userContext.getClientType() : DEFAULT_CLIENT_TYPE;
+        if (!RefreshToken.isValidClientType(clientType)) {
+            throw new BusinessException(ResponseStatusEnum.PARAM_INVALID, "设备类型不合法");
+        }
+
+        // 只保存签发访问令牌需要的声明，不保存请求相关的信息
+        UserContext claims = UserContext.builder()
+                .userId(userContext.getUserId())
+                .username(userContext.getUsername())
+                .nickname(userContext.getNickname())
+                .mobile(userContext.getMobile())
+                .roles(userContext.getRoles())
+                .permissions(userContext.getPermissions())
+                .tenantId(userContext.getTenantId())
+                .clientType(clientType)
+                .build();
+        String claimsJson;
+        try {
+            claimsJson = objectMapper.writeValueAsString(claims);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException(ResponseStatusEnum.SYSTEM_ERROR, "用户声明序列化失败");
+        }
+
+        RefreshToken refreshToken = RefreshToken.issue(claims.getUserId(), clientType);
+        redisUtils.execute(CREATE_SCRIPT, List.of(SESSION_KEY_PREFIX + claims.getUserId()),
+                clientType, refreshToken.digest(), claimsJson,
+                String.valueOf(nowSeconds()), String.valueOf(refreshTokenTtl.toSeconds()));
+
+        log.info("用户 {} 在设备 {} 上创建会话", claims.getUserId(), clientType);
+        return issue(claims, refreshToken);
+    }
+
+    @Override
+    public TokenPairDTO refresh(String refreshTokenValue) {
+        RefreshToken presented = RefreshToken.parse(refreshTokenValue);
+        if (presented == null) {
+            throw new BusinessException(ResponseStatusEnum.TOKEN_INVALID, "刷新令牌无效");
+        }
+
+        RefreshToken next = RefreshToken.issue(presented.getUserId(), presented.getClientType());
+        List<?> result = redisUtils.execute(ROTATE_SCRIPT, List.of(SESSION_KEY_PREFIX + presented.getUserId()),
+                presented.getClientType(), presented.digest(), next.digest(),
+                String.valueOf(nowSeconds()), String.valueOf(refreshTokenTtl.toSeconds()));
+
+        long status = result != null && !result.isEmpty() ? ((Number) result.get(0)).longValue() : 0;
+        if (status < 0) {
+            log.warn("{} 已使用过的刷新令牌被再次提交，已清除该设备的会话", presented);
+            throw new BusinessException(ResponseStatusEnum.TOKEN_INVALID, "刷新令牌已失效，请重新登录");
+        }
+        if (status == 0) {
+            throw new BusinessException(ResponseStatusEnum.TOKEN_EXPIRED, "登录已过期，请重新登录");
+        }
+
+        UserContext claims;
+        try {
+            claims = objectMapper.readValue((String) result.get(1), UserContext.class);
+        } catch (JsonProcessingException e) {
+            log.error("{} 会话中的用户声明无法解析", presented, e);
+            removeSession(presented.getUserId(), presented.getClientType());
+            throw new BusinessException(ResponseStatusEnum.TOKEN_INVALID, "刷新令牌已失效，请重新登录");
+        }
+        return issue(claims, next);
+    }
+
+    @Override
+    public void removeSession(String userId, String clientType) {
+        if (userId == null) {
+            return;
+        }
+        String type = clientType != null ? clientType : DEFAULT_CLIENT_TYPE;
+        redisUtils.hashDelete(SESSION_KEY_PREFIX + userId,
+                type + ":refresh", type + ":prev", type + ":expires", type + ":claims");
+    }
+
+    /**
+     * 用会话中的用户声明签发访问令牌
+     */
+    private TokenPairDTO issue(UserContext claims, RefreshToken refreshToken) {
+        String accessToken = jwtTokenCodec.generateToken(claims, Math.max(1, accessTokenTtl.toMinutes()));
+        if (accessToken == null) {
+            throw new BusinessException(ResponseStatusEnum.SYSTEM_ERROR, "访问令牌签发失败");
+        }
+        return new TokenPairDTO()
+                .setUserId(claims.getUserId())
+                .setAccessToken(accessToken)
+                .setExpiresIn(Math.max(1, accessTokenTtl.toMinutes()) * 60)
+                .setExpireTime(claims.getExpiresAt())
+                .setRefreshToken(refreshToken.getValue())
+                .setRefreshExpiresIn(refreshTokenTtl.toSeconds());
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -0,0 +1,51 @@
+package com.indiegeeker.auth.service.impl;
+
+import com.indiegeeker.auth.service.TokenRevocationService;
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.data.utils.RedisUtils;
+import com.indiegeeker.security.jwt.JwtTokenCodec;
+import com.indiegeeker.security.revocation.TokenRevocation;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * token 吊销服务实现
+ * 已吊销的 jti 写入 redis，过期时间与 token 剩余有效期一致，token 过期后记录自动清除；
+ * 同时发布到吊销频道，各网关节点据此更新本地布隆过滤器
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+@Slf4j
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    @Resource
+    private RedisUtils redisUtils;
+
+    @Resource
+    private JwtTokenCodec jwtTokenCodec;
+
+    @Override
+    public boolean revoke(String token) {
+        UserContext userContext = jwtTokenCodec.parseToken(token);
+        if (userContext == null || userContext.getTokenId() == null || userContext.getExpiresAt() == null) {
+            log.info("token 无效或不支持吊销，忽略");
+            return false;
+        }
+        long ttlSeconds = Duration.between(LocalDateTime.now(), userContext.getExpiresAt()).getSeconds();
+        if (ttlSeconds <= 0) {
+            return false;
+        }
+        // 先写 redis 再通知：网关布隆过滤器命中后以 redis 为准
+        redisUtils.setExpireBySecond(TokenRevocation.key(userContext.getTokenId()),
+                userContext.getUserId() != null ? userContext.getUserId() : "", ttlSeconds);
+        redisUtils.publish(TokenRevocation.CHANNEL, userContext.getTokenId());
+        log.info("用户 {} 的 token {} 已吊销", userContext.getUserId(), userContext.getTokenId());
+        return true;
+    }
+}
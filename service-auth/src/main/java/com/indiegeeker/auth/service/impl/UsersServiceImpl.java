@@ -1,14 +1,25 @@
 package com.indiegeeker.auth.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.indiegeeker.auth.cache.UserProfileCache;
 import com.indiegeeker.auth.mapper.UsersMapper;
 import com.indiegeeker.pojo.entity.Users;
 import com.indiegeeker.auth.service.UsersService;
+import com.indiegeeker.core.enums.ResponseStatusEnum;
+import com.indiegeeker.core.exceptions.BusinessException;
+import com.indiegeeker.core.utils.CursorPagedResult;
+import com.indiegeeker.core.utils.PageCursor;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.util.List;
+
 /**
  * <p>
  * 用户表 服务实现类
+ * 按 id（单个、批量）、手机号读取走 UserProfileCache（本地缓存 + redis），新增、按 id 修改、删除后清除缓存；
+ * 通过条件构造器批量修改时不会清除缓存，需自行调用 UserProfileCache.evict
  * </p>
  *
  * @author wen
@@ -17,4 +28,71 @@ import org.springframework.stereotype.Service;
 @Service
 public class UsersServiceImpl extends ServiceImpl<UsersMapper, Users> implements UsersService {
 
+    @Resource
+    private UserProfileCache userProfileCache;
+
+    @Override
+    public Users getById(Serializable id) {
+        return id == null ? null : userProfileCache.getById(id.toString());
+    }
+
+    @Override
+    public Users getByMobile(String mobile) {
+        return userProfileCache.getByMobile(mobile);
+    }
+
+    @Override
+    public List<Users> getByIds(List<String> ids) {
+        return ids == null || ids.isEmpty() ? List.of() : userProfileCache.getByIds(ids);
+    }
+
+    @Override
+    public CursorPagedResult<Users> pageByCursor(String cursor, int size, boolean withTotal) {
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ResponseStatusEnum.PARAM_INVALID, "分页游标不合法");
+        }
+        // 多取一条判断是否有下一页
+        List<Users> fetched = baseMapper.selectAfterCursor(
+                pageCursor != null ? pageCursor.time() : null,
+                pageCursor != null ? pageCursor.id() : null,
+                size + 1);
+        CursorPagedResult<Users> result = CursorPagedResult.of(fetched, size,
+                user -> new PageCursor(user.getCreatedTime(), user.getId()));
+        if (withTotal) {
+            result.setRecords(baseMapper.selectApproximateCount());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean save(Users entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            // 清除该手机号“用户不存在”的缓存
+            userProfileCache.evict(entity.getId(), entity.getMobile());
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(Users entity) {
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            userProfileCache.evict(entity.getId(), entity.getMobile());
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        Users user = id == null ? null : userProfileCache.getById(id.toString());
+        boolean removed = super.removeById(id);
+        if (removed) {
+            userProfileCache.evict(id.toString(), user != null ? user.getMobile() : null);
+        }
+        return removed;
+    }
 }
@@ -0,0 +1,114 @@
+package com.indiegeeker.auth.session;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * 刷新令牌
+ * 格式为 base64url(clientType:userId).base64url(32字节随机数)，前半部分用于定位 redis 中的会话，不需要额外查询；
+ * redis 中只保存令牌的 SHA-256 摘要，会话数据泄露时无法直接拿来刷新
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+@Getter
+public final class RefreshToken {
+
+    /**
+     * 设备类型只允许字母、数字、下划线、短横线，作为 redis 哈希字段前缀
+     */
+    private static final Pattern CLIENT_TYPE = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    private static final int SECRET_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final String userId;
+
+    private final String clientType;
+
+    private final String value;
+
+    private RefreshToken(String userId, String clientType, String value) {
+        this.userId = userId;
+        this.clientType = clientType;
+        this.value = value;
+    }
+
+    /**
+     * 设备类型是否合法
+     */
+    public static boolean isValidClientType(String clientType) {
+        return clientType != null && CLIENT_TYPE.matcher(clientType).matches();
+    }
+
+    /**
+     * 为用户的某个设备签发新的刷新令牌
+     */
+    public static RefreshToken issue(String userId, String clientType) {
+        if (userId == null || userId.isEmpty() || !isValidClientType(clientType)) {
+            throw new IllegalArgumentException("刷新令牌参数不合法, userId: " + userId + ", clientType: " + clientType);
+        }
+        byte[] secret = new byte[SECRET_BYTES];
+        RANDOM.nextBytes(secret);
+        String owner = ENCODER.encodeToString((clientType + ":" + userId).getBytes(StandardCharsets.UTF_8));
+        return new RefreshToken(userId, clientType, owner + "." + ENCODER.encodeToString(secret));
+    }
+
+    /**
+     * 解析客户端提交的刷新令牌
+     *
+     * @return 格式不合法时返回 null
+     */
+    public static RefreshToken parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        int dot = value.indexOf('.');
+        if (dot <= 0 || dot == value.length() - 1) {
+            return null;
+        }
+        try {
+            String owner = new String(DECODER.decode(value.substring(0, dot)), StandardCharsets.UTF_8);
+            int colon = owner.indexOf(':');
+            if (colon <= 0 || colon == owner.length() - 1) {
+                return null;
+            }
+            String clientType = owner.substring(0, colon);
+            if (!isValidClientType(clientType) || DECODER.decode(value.substring(dot + 1)).length != SECRET_BYTES) {
+                return null;
+            }
+            return new RefreshToken(owner.substring(colon + 1), clientType, value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 令牌的 SHA-256 摘要，redis 中保存、比较的都是摘要
+     */
+    public String digest() {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(sha256.digest(value.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        // 避免令牌出现在日志中
+        return "RefreshToken(userId=" + userId + ", clientType=" + clientType + ")";
+    }
+}
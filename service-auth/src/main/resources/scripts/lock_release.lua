@@ -0,0 +1,9 @@
+-- 释放加载锁：只有锁的值仍是自己写入的令牌时才删除，锁已过期并被其他节点抢到时不误删
+-- KEYS[1] 锁键
+-- ARGV[1] 加锁时写入的令牌
+-- 返回删除的键数
+
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
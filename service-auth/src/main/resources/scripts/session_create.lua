@@ -0,0 +1,21 @@
+-- 创建会话脚本：写入某个设备的刷新令牌、过期时间与用户声明，并延长会话哈希的过期时间
+-- KEYS[1] 会话键 auth:session:{userId}
+-- ARGV[1] clientType 设备类型，作为哈希字段前缀
+-- ARGV[2] 刷新令牌摘要
+-- ARGV[3] 用户声明（JSON）
+-- ARGV[4] 当前时间，单位：秒
+-- ARGV[5] 刷新令牌有效期，单位：秒
+-- 同一设备重复登录时覆盖旧的刷新令牌，旧令牌随之失效；上一次轮换掉的令牌摘要一并清除，旧会话的令牌不再被视为重放
+
+local ttl = tonumber(ARGV[5])
+redis.call('HSET', KEYS[1],
+        ARGV[1] .. ':refresh', ARGV[2],
+        ARGV[1] .. ':expires', tonumber(ARGV[4]) + ttl,
+        ARGV[1] .. ':claims', ARGV[3])
+redis.call('HDEL', KEYS[1], ARGV[1] .. ':prev')
+
+-- 会话哈希的过期时间取各设备中最晚的一个
+if redis.call('TTL', KEYS[1]) < ttl then
+    redis.call('EXPIRE', KEYS[1], ttl)
+end
+return 1
@@ -0,0 +1,44 @@
+-- 刷新令牌轮换脚本：校验、替换刷新令牌并取回用户声明在一次原子调用内完成
+-- KEYS[1] 会话键 auth:session:{userId}
+-- ARGV[1] clientType 设备类型，作为哈希字段前缀
+-- ARGV[2] 提交的刷新令牌摘要
+-- ARGV[3] 新刷新令牌摘要
+-- ARGV[4] 当前时间，单位：秒
+-- ARGV[5] 刷新令牌有效期，单位：秒
+-- 返回 {状态, 用户声明}：1 轮换成功；0 会话不存在、已过期或令牌不匹配；
+--   -1 提交的是上一次轮换掉的令牌（被重放），该设备的会话被清除
+-- 令牌的前半部分只是 clientType:userId，任何人都能伪造，因此只有与 {clientType}:prev 一致时才视为重放、清除会话，
+-- 其他不匹配的令牌不改动会话
+
+local refreshField = ARGV[1] .. ':refresh'
+local prevField = ARGV[1] .. ':prev'
+local expiresField = ARGV[1] .. ':expires'
+local claimsField = ARGV[1] .. ':claims'
+
+local stored = redis.call('HGET', KEYS[1], refreshField)
+if not stored then
+    return {0, ''}
+end
+
+local now = tonumber(ARGV[4])
+local expires = tonumber(redis.call('HGET', KEYS[1], expiresField)) or 0
+if expires <= now then
+    redis.call('HDEL', KEYS[1], refreshField, prevField, expiresField, claimsField)
+    return {0, ''}
+end
+
+if stored ~= ARGV[2] then
+    if redis.call('HGET', KEYS[1], prevField) == ARGV[2] then
+        -- 已轮换掉的令牌再次出现，说明令牌可能泄露，吊销该设备的会话
+        redis.call('HDEL', KEYS[1], refreshField, prevField, expiresField, claimsField)
+        return {-1, ''}
+    end
+    return {0, ''}
+end
+
+local ttl = tonumber(ARGV[5])
+redis.call('HSET', KEYS[1], refreshField, ARGV[3], prevField, ARGV[2], expiresField, now + ttl)
+if redis.call('TTL', KEYS[1]) < ttl then
+    redis.call('EXPIRE', KEYS[1], ttl)
+end
+return {1, redis.call('HGET', KEYS[1], claimsField)}
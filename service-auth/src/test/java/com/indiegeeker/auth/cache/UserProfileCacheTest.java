@@ -0,0 +1,390 @@
+package com.indiegeeker.auth.cache;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indiegeeker.auth.mapper.UsersMapper;
+import com.indiegeeker.data.utils.RedisUtils;
+import com.indiegeeker.pojo.entity.Users;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户资料两级缓存测试
+ * redis 用内存中的键值模拟（不模拟过期），数据库用内存中的用户表模拟；
+ * 多个缓存实例共享同一份模拟数据即为多个服务节点
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@DisplayName("用户资料两级缓存测试")
+class UserProfileCacheTest {
+
+    private static final String LOCK_RELEASE_SHA1 =
+            RedisScript.of(new ClassPathResource("scripts/lock_release.lua")).getSha1();
+
+    private static final String ID = "1001";
+
+    private static final String MOBILE = "13800000001";
+
+    private final FakeRedisUtils redis = new FakeRedisUtils();
+
+    private final FakeDatabase database = new FakeDatabase();
+
+    @BeforeAll
+    static void initTableInfo() {
+        // 按手机号查询使用 LambdaQueryWrapper，解析列名需要实体的表信息
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Users.class);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("多个节点并发未命中同一用户时只查一次库")
+    void concurrentMissesLoadOnce() throws Exception {
+        database.put(user(ID, MOBILE));
+        database.selectDelayMillis = 30;
+        List<UserProfileCache> nodes = List.of(createCache(), createCache(), createCache());
+        int threadsPerNode = 3;
+
+        ExecutorService executor = Executors.newFixedThreadPool(nodes.size() * threadsPerNode);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Users>> results = new ArrayList<>();
+            for (UserProfileCache node : nodes) {
+                for (int i = 0; i < threadsPerNode; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return node.getById(ID);
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<Users> result : results) {
+                assertEquals(MOBILE, result.get(5, TimeUnit.SECONDS).getMobile());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, database.selectById.get());
+        assertNotNull(redis.values.get(UserProfileCache.ID_KEY_PREFIX + ID));
+        assertFalse(redis.values.containsKey(lockKey(UserProfileCache.ID_KEY_PREFIX + ID)));
+    }
+
+    @Test
+    @DisplayName("加载锁过期并被其他节点抢到后，原持有者释放时不删除")
+    void expiredLockKeptForNewHolder() {
+        database.put(user(ID, MOBILE));
+        String lockKey = lockKey(UserProfileCache.ID_KEY_PREFIX + ID);
+        // 查库期间锁过期，其他节点抢到锁
+        database.onSelect = () -> {
+            assertNotNull(redis.values.get(lockKey));
+            redis.values.put(lockKey, "other-node-token");
+        };
+
+        assertNotNull(createCache().getById(ID));
+
+        assertEquals("other-node-token", redis.values.get(lockKey));
+        assertEquals(1, redis.lockReleases.get());
+    }
+
+    @Test
+    @DisplayName("不存在的用户缓存空占位，其他节点不再查库")
+    void absentUserPlaceholder() {
+        assertNull(createCache().getById("404"));
+        assertEquals("", redis.values.get(UserProfileCache.ID_KEY_PREFIX + "404"));
+
+        assertNull(createCache().getById("404"));
+        assertNull(createCache().getByMobile("13900000000"));
+        assertEquals("", redis.values.get(UserProfileCache.MOBILE_KEY_PREFIX + "13900000000"));
+        assertNull(createCache().getByMobile("13900000000"));
+
+        assertEquals(1, database.selectById.get());
+        assertEquals(1, database.selectOne.get());
+    }
+
+    @Test
+    @DisplayName("手机号已变更时映射失效，按旧手机号查库")
+    void changedMobileFallsThrough() {
+        database.put(user(ID, MOBILE));
+        UserProfileCache cache = createCache();
+        assertEquals(ID, cache.getByMobile(MOBILE).getId());
+        assertEquals(1, database.selectOne.get());
+
+        // 修改手机号后只清除了按 id 的缓存，旧手机号的映射仍在本地缓存和 redis 中
+        database.put(user(ID, "13800000002"));
+        cache.evict(ID);
+
+        assertNull(cache.getByMobile(MOBILE));
+        assertEquals(2, database.selectOne.get());
+        assertFalse(redis.values.containsKey(UserProfileCache.MOBILE_KEY_PREFIX + MOBILE));
+        assertEquals("13800000002", cache.getByMobile("13800000002").getMobile());
+    }
+
+    @Test
+    @DisplayName("事务中清除缓存时等到提交后才执行，回滚不清除")
+    void evictAfterCommit() {
+        database.put(user(ID, MOBILE));
+        UserProfileCache cache = createCache();
+        cache.getById(ID);
+        String idKey = UserProfileCache.ID_KEY_PREFIX + ID;
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.evict(ID, MOBILE);
+        assertTrue(redis.values.containsKey(idKey));
+        assertEquals(0, redis.publishes.get());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertFalse(redis.values.containsKey(idKey));
+        assertEquals(1, redis.publishes.get());
+        assertEquals(ID + "," + MOBILE, redis.lastMessage);
+
+        // 回滚：不触发 afterCommit，缓存保持不变
+        cache.getById(ID);
+        TransactionSynchronizationManager.initSynchronization();
+        cache.evict(ID, MOBILE);
+        TransactionSynchronizationManager.clearSynchronization();
+        assertTrue(redis.values.containsKey(idKey));
+    }
+
+    @Test
+    @DisplayName("批量读取按请求顺序返回，不存在的用户对应 null，redis、数据库各访问一次")
+    void getByIdsInRequestOrder() {
+        database.put(user("1", "13800000001"));
+        database.put(user("2", "13800000002"));
+        UserProfileCache cache = createCache();
+
+        List<Users> users = cache.getByIds(List.of("2", "404", "1"));
+
+        assertEquals(Arrays.asList("2", null, "1"), users.stream().map(u -> u == null ? null : u.getId()).toList());
+        assertEquals(1, redis.batchGets.get());
+        assertEquals(List.of(List.of("2", "404", "1")), database.selectByIdsArgs);
+        assertEquals(1, redis.batchSets.get());
+        assertEquals(1800L, redis.ttls.get(UserProfileCache.ID_KEY_PREFIX + "1"));
+        assertEquals("", redis.values.get(UserProfileCache.ID_KEY_PREFIX + "404"));
+        assertEquals(60L, redis.ttls.get(UserProfileCache.ID_KEY_PREFIX + "404"));
+
+        // 本节点再次读取全部命中本地缓存
+        assertEquals(3, cache.getByIds(List.of("1", "2", "404")).size());
+        assertEquals(1, redis.batchGets.get());
+
+        // 其他节点命中 redis，不再查库、不再回填
+        assertEquals(Arrays.asList("1", null), createCache().getByIds(List.of("1", "404")).stream()
+                .map(u -> u == null ? null : u.getId()).toList());
+        assertEquals(2, redis.batchGets.get());
+        assertEquals(1, database.selectByIdsArgs.size());
+        assertEquals(1, redis.batchSets.get());
+        assertEquals(0, database.selectById.get());
+    }
+
+    @Test
+    @DisplayName("批量读取时重复的 id 只查一次，null 与空串对应 null")
+    void getByIdsWithDuplicatesAndNulls() {
+        database.put(user("1", "13800000001"));
+        database.put(user("2", "13800000002"));
+        UserProfileCache cache = createCache();
+
+        List<Users> users = cache.getByIds(Arrays.asList("1", null, "1", "", "2"));
+
+        assertEquals(Arrays.asList("1", null, "1", null, "2"),
+                users.stream().map(u -> u == null ? null : u.getId()).toList());
+        // 每个位置都是独立的副本
+        assertNotSame(users.get(0), users.get(2));
+        assertEquals(List.of(List.of("1", "2")), database.selectByIdsArgs);
+        assertEquals(List.of(UserProfileCache.ID_KEY_PREFIX + "1", UserProfileCache.ID_KEY_PREFIX + "2"),
+                redis.lastBatchGetKeys);
+        assertEquals(1, redis.batchSets.get());
+        assertTrue(cache.getByIds(Arrays.asList(null, "")).stream().allMatch(Objects::isNull));
+        assertEquals(1, redis.batchGets.get());
+    }
+
+    private UserProfileCache createCache() {
+        UserProfileCache cache = new UserProfileCache();
+        ReflectionTestUtils.setField(cache, "redisUtils", redis);
+        ReflectionTestUtils.setField(cache, "usersMapper", database.mapper());
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(cache, "localMaximumSize", 100L);
+        ReflectionTestUtils.setField(cache, "localTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(cache, "redisTtl", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(cache, "absentTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(cache, "loadLockTtl", Duration.ofSeconds(3));
+        ReflectionTestUtils.setField(cache, "doubleDeleteDelay", Duration.ofSeconds(10));
+        cache.init();
+        return cache;
+    }
+
+    private static String lockKey(String key) {
+        return UserProfileCache.LOCK_KEY_PREFIX + key;
+    }
+
+    private static Users user(String id, String mobile) {
+        return new Users().setId(id).setMobile(mobile).setNickname("user" + id);
+    }
+
+    /**
+     * 内存中的用户表，按方法名实现 UsersMapper 中缓存用到的查询
+     */
+    private static class FakeDatabase {
+
+        private final Map<String, Users> rows = new ConcurrentHashMap<>();
+
+        private final AtomicInteger selectById = new AtomicInteger();
+
+        private final AtomicInteger selectOne = new AtomicInteger();
+
+        private final List<List<String>> selectByIdsArgs = new CopyOnWriteArrayList<>();
+
+        private volatile long selectDelayMillis;
+
+        private volatile Runnable onSelect = () -> {
+        };
+
+        void put(Users user) {
+            rows.put(user.getId(), user);
+        }
+
+        UsersMapper mapper() {
+            return (UsersMapper) Proxy.newProxyInstance(UsersMapper.class.getClassLoader(),
+                    new Class<?>[]{UsersMapper.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "selectById" -> {
+                            selectById.incrementAndGet();
+                            Thread.sleep(selectDelayMillis);
+                            onSelect.run();
+                            yield rows.get((String) args[0]);
+                        }
+                        case "selectOne" -> {
+                            selectOne.incrementAndGet();
+                            AbstractWrapper<?, ?, ?> wrapper = (AbstractWrapper<?, ?, ?>) args[0];
+                            wrapper.getSqlSegment();
+                            Object mobile = wrapper.getParamNameValuePairs().values().iterator().next();
+                            yield rows.values().stream().filter(user -> mobile.equals(user.getMobile()))
+                                    .findFirst().orElse(null);
+                        }
+                        case "selectByIds" -> {
+                            @SuppressWarnings("unchecked")
+                            List<String> ids = List.copyOf((Collection<String>) args[0]);
+                            selectByIdsArgs.add(ids);
+                            yield ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+
+    /**
+     * 用内存键值模拟 redis，锁释放脚本按 lock_release.lua 比较后删除
+     */
+    private static class FakeRedisUtils extends RedisUtils {
+
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+
+        private final AtomicInteger lockReleases = new AtomicInteger();
+
+        private final AtomicInteger publishes = new AtomicInteger();
+
+        private final AtomicInteger batchGets = new AtomicInteger();
+
+        private final AtomicInteger batchSets = new AtomicInteger();
+
+        private final Map<String, Long> ttls = new ConcurrentHashMap<>();
+
+        private volatile String lastMessage;
+
+        private volatile List<String> lastBatchGetKeys;
+
+        @Override
+        public String get(String key) {
+            return values.get(key);
+        }
+
+        @Override
+        public void set(String key, String value, long timeout, TimeUnit timeUnit) {
+            values.put(key, value);
+        }
+
+        @Override
+        public List<String> batchGet(List<String> keys) {
+            batchGets.incrementAndGet();
+            lastBatchGetKeys = List.copyOf(keys);
+            return keys.stream().map(values::get).toList();
+        }
+
+        @Override
+        public void batchSet(Map<String, String> entries, ToLongFunction<Map.Entry<String, String>> timeoutOf) {
+            batchSets.incrementAndGet();
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                values.put(entry.getKey(), entry.getValue());
+                ttls.put(entry.getKey(), timeoutOf.applyAsLong(entry));
+            }
+        }
+
+        @Override
+        public Boolean setIfAbsent(String key, String value, long timeout, TimeUnit timeUnit) {
+            return values.putIfAbsent(key, value) == null;
+        }
+
+        @Override
+        public Long delete(Collection<String> keys) {
+            return keys.stream().filter(key -> values.remove(key) != null).count();
+        }
+
+        @Override
+        public String scriptLoad(RedisScript<?> script) {
+            return script.getSha1();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            assertEquals(LOCK_RELEASE_SHA1, script.getSha1());
+            lockReleases.incrementAndGet();
+            return (T) Long.valueOf(values.remove(keys.get(0), args[0]) ? 1 : 0);
+        }
+
+        @Override
+        public Long publish(String channel, String message) {
+            assertEquals(UserProfileCache.CHANNEL, channel);
+            publishes.incrementAndGet();
+            lastMessage = message;
+            return 1L;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.indiegeeker.auth.service.impl;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indiegeeker.auth.session.RefreshToken;
+import com.indiegeeker.context.domain.UserContext;
+import com.indiegeeker.core.enums.ResponseStatusEnum;
+import com.indiegeeker.core.exceptions.BusinessException;
+import com.indiegeeker.data.utils.RedisUtils;
+import com.indiegeeker.pojo.dto.TokenPairDTO;
+import com.indiegeeker.security.jwt.JwtKeyRing;
+import com.indiegeeker.security.jwt.JwtProperties;
+import com.indiegeeker.security.jwt.JwtTokenCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 登录会话服务测试
+ * redis 用内存中的哈希模拟，session_create.lua、session_rotate.lua 按脚本的分支逐行移植，
+ * 覆盖轮换、过期、重放三种结果，以及伪造令牌不能清除他人会话
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+@DisplayName("登录会话服务测试")
+class SessionServiceImplTest {
+
+    private static final String SECRET = "session-test-secret-0123456789-0123456789";
+
+    private static final String CREATE_SHA1 =
+            RedisScript.of(new ClassPathResource("scripts/session_create.lua")).getSha1();
+
+    private static final String ROTATE_SHA1 =
+            RedisScript.of(new ClassPathResource("scripts/session_rotate.lua")).getSha1();
+
+    private final Map<String, Map<String, String>> redis = new HashMap<>();
+
+    private long now = System.currentTimeMillis() / 1000;
+
+    private SessionServiceImpl sessionService;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setActiveKid("a");
+        properties.getKeys().put("a", SECRET);
+
+        sessionService = new SessionServiceImpl();
+        ReflectionTestUtils.setField(sessionService, "redisUtils", new FakeRedisUtils());
+        ReflectionTestUtils.setField(sessionService, "jwtTokenCodec", new JwtTokenCodec(JwtKeyRing.from(properties)));
+        ReflectionTestUtils.setField(sessionService, "objectMapper",
+                new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+        ReflectionTestUtils.setField(sessionService, "accessTokenTtl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(sessionService, "refreshTokenTtl", Duration.ofDays(30));
+    }
+
+    @Test
+    @DisplayName("轮换：新令牌可用，会话中的声明用于签发访问令牌")
+    void rotate() {
+        TokenPairDTO login = sessionService.createSession(user());
+
+        TokenPairDTO refreshed = sessionService.refresh(login.getRefreshToken());
+
+        assertEquals("1001", refreshed.getUserId());
+        assertNotNull(refreshed.getAccessToken());
+        assertNotEquals(login.getRefreshToken(), refreshed.getRefreshToken());
+        assertEquals(RefreshToken.parse(refreshed.getRefreshToken()).digest(), session().get("web:refresh"));
+        assertEquals(RefreshToken.parse(login.getRefreshToken()).digest(), session().get("web:prev"));
+        assertNotNull(sessionService.refresh(refreshed.getRefreshToken()));
+    }
+
+    @Test
+    @DisplayName("过期：刷新失败并清除过期的会话字段")
+    void expired() {
+        TokenPairDTO login = sessionService.createSession(user());
+        now += Duration.ofDays(31).toSeconds();
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> sessionService.refresh(login.getRefreshToken()));
+
+        assertEquals(ResponseStatusEnum.TOKEN_EXPIRED, e.getStatusEnum());
+        assertTrue(session().isEmpty());
+    }
+
+    @Test
+    @DisplayName("重放：上一次轮换掉的令牌再次出现时清除该设备的会话")
+    void replay() {
+        TokenPairDTO login = sessionService.createSession(user());
+        TokenPairDTO refreshed = sessionService.refresh(login.getRefreshToken());
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> sessionService.refresh(login.getRefreshToken()));
+
+        assertEquals(ResponseStatusEnum.TOKEN_INVALID, e.getStatusEnum());
+        assertTrue(session().isEmpty());
+        assertThrows(BusinessException.class, () -> sessionService.refresh(refreshed.getRefreshToken()));
+    }
+
+    @Test
+    @DisplayName("伪造的令牌刷新失败，不改动他人的会话")
+    void forgedTokenLeavesSessionIntact() {
+        TokenPairDTO login = sessionService.createSession(user());
+        sessionService.refresh(login.getRefreshToken());
+        Map<String, String> before = new HashMap<>(session());
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String forged = encoder.encodeToString("web:1001".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(new byte[32]);
+
+        assertThrows(BusinessException.class, () -> sessionService.refresh(forged));
+        assertEquals(before, session());
+    }
+
+    @Test
+    @DisplayName("重新登录后，旧会话轮换掉的令牌不再被视为重放")
+    void loginClearsPreviousToken() {
+        TokenPairDTO first = sessionService.createSession(user());
+        sessionService.refresh(first.getRefreshToken());
+        TokenPairDTO second = sessionService.createSession(user());
+
+        assertThrows(BusinessException.class, () -> sessionService.refresh(first.getRefreshToken()));
+        assertNotNull(sessionService.refresh(second.getRefreshToken()));
+    }
+
+    private Map<String, String> session() {
+        return redis.getOrDefault(SessionServiceImpl.SESSION_KEY_PREFIX + "1001", Map.of());
+    }
+
+    private static UserContext user() {
+        return UserContext.builder().userId("1001").username("user1001").roles(List.of("USER")).clientType("web").build();
+    }
+
+    /**
+     * 用内存哈希执行会话脚本，当前时间取测试中的时钟（代替 ARGV[4]），不模拟键的过期时间
+     */
+    private class FakeRedisUtils extends RedisUtils {
+
+        @Override
+        public String scriptLoad(RedisScript<?> script) {
+            return script.getSha1();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            Map<String, String> hash = redis.computeIfAbsent(keys.get(0), key -> new HashMap<>());
+            String clientType = (String) args[0];
+            if (CREATE_SHA1.equals(script.getSha1())) {
+                long ttl = Long.parseLong((String) args[4]);
+                hash.put(clientType + ":refresh", (String) args[1]);
+                hash.put(clientType + ":expires", String.valueOf(now + ttl));
+                hash.put(clientType + ":claims", (String) args[2]);
+                hash.remove(clientType + ":prev");
+                return (T) Long.valueOf(1);
+            }
+            assertEquals(ROTATE_SHA1, script.getSha1());
+            return (T) rotate(hash, clientType, (String) args[1], (String) args[2], Long.parseLong((String) args[4]));
+        }
+
+        private List<Object> rotate(Map<String, String> hash, String clientType,
+                                    String presented, String next, long ttl) {
+            String refreshField = clientType + ":refresh";
+            String prevField = clientType + ":prev";
+            String expiresField = clientType + ":expires";
+            String claimsField = clientType + ":claims";
+
+            String stored = hash.get(refreshField);
+            if (stored == null) {
+                return List.of(0L, "");
+            }
+            long expires = Long.parseLong(hash.getOrDefault(expiresField, "0"));
+            if (expires <= now) {
+                List.of(refreshField, prevField, expiresField, claimsField).forEach(hash::remove);
+                return List.of(0L, "");
+            }
+            if (!stored.equals(presented)) {
+                if (presented.equals(hash.get(prevField))) {
+                    List.of(refreshField, prevField, expiresField, claimsField).forEach(hash::remove);
+                    return List.of(-1L, "");
+                }
+                return List.of(0L, "");
+            }
+            hash.put(refreshField, next);
+            hash.put(prevField, presented);
+            hash.put(expiresField, String.valueOf(now + ttl));
+            return List.of(1L, hash.get(claimsField));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.indiegeeker.auth.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户导出 CSV 字段转义测试
+ *
+ * Author: wen
+ * Date: 2025/7/18
+ */
+@DisplayName("用户导出 CSV 字段转义测试")
+class UserExportServiceImplTest {
+
+    @Test
+    @DisplayName("普通字段原样写出，含逗号、引号、换行的字段加双引号")
+    void quote() throws IOException {
+        assertEquals("wen", field("wen"));
+        assertEquals("", field(""));
+        assertEquals("\"a,b\"", field("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", field("say \"hi\""));
+        assertEquals("\"a\nb\"", field("a\nb"));
+    }
+
+    @Test
+    @DisplayName("以公式字符开头的字段加单引号前缀，再按需加双引号")
+    void neutraliseFormula() throws IOException {
+        assertEquals("'=1+1", field("=1+1"));
+        assertEquals("'+86", field("+86"));
+        assertEquals("'-2", field("-2"));
+        assertEquals("'@SUM(A1)", field("@SUM(A1)"));
+        assertEquals("'\tcmd", field("\tcmd"));
+        assertEquals("\"'\rx\"", field("\rx"));
+        assertEquals("\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\"", field("=HYPERLINK(\"http://x\",\"y\")"));
+        assertEquals("a=b", field("a=b"));
+    }
+
+    private static String field(String value) throws IOException {
+        StringWriter writer = new StringWriter();
+        UserExportServiceImpl.writeCsvField(writer, value);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.indiegeeker.auth.session;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 刷新令牌测试
+ *
+ * Author: wen
+ * Date: 2025/7/17
+ */
+@DisplayName("刷新令牌测试")
+class RefreshTokenTest {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    @Test
+    @DisplayName("签发、解析往返，每次签发的令牌不同")
+    void issueAndParse() {
+        RefreshToken issued = RefreshToken.issue("1001", "web");
+        RefreshToken parsed = RefreshToken.parse(issued.getValue());
+
+        assertNotNull(parsed);
+        assertEquals("1001", parsed.getUserId());
+        assertEquals("web", parsed.getClientType());
+        assertEquals(issued.digest(), parsed.digest());
+        assertNotEquals(issued.getValue(), RefreshToken.issue("1001", "web").getValue());
+        assertFalse(issued.toString().contains(issued.getValue()));
+
+        assertThrows(IllegalArgumentException.class, () -> RefreshToken.issue("1001", "web:admin"));
+        assertThrows(IllegalArgumentException.class, () -> RefreshToken.issue("", "web"));
+    }
+
+    @Test
+    @DisplayName("格式不合法的令牌解析为 null")
+    void rejectMalformed() {
+        String secret = ENCODER.encodeToString(new byte[32]);
+
+        assertNull(RefreshToken.parse(null));
+        assertNull(RefreshToken.parse(""));
+        assertNull(RefreshToken.parse("no-dot"));
+        assertNull(RefreshToken.parse("." + secret));
+        assertNull(RefreshToken.parse(owner("web:1001") + "."));
+        // 前半部分缺少冒号、设备类型或用户id
+        assertNull(RefreshToken.parse(owner("web1001") + "." + secret));
+        assertNull(RefreshToken.parse(owner(":1001") + "." + secret));
+        assertNull(RefreshToken.parse(owner("web:") + "." + secret));
+        // 设备类型含非法字符，不能作为哈希字段前缀
+        assertNull(RefreshToken.parse(owner("w eb:1001") + "." + secret));
+        // 随机数长度不对、不是 base64url
+        assertNull(RefreshToken.parse(owner("web:1001") + "." + ENCODER.encodeToString(new byte[31])));
+        assertNull(RefreshToken.parse(owner("web:1001") + "." + secret + "AA"));
+        assertNull(RefreshToken.parse(owner("web:1001") + ".***"));
+        assertNull(RefreshToken.parse("%%%." + secret));
+    }
+
+    private static String owner(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}